@@ -0,0 +1,77 @@
+package com.bancobr.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuração dos caches das leituras frequentes ({@code @Cacheable} em UsuarioService e
+ * ContaService).
+ *
+ * Entidades Conta não vão para o cache: o saldo muda em cada transação e uma leitura
+ * concorrente poderia devolver ao cache, no seu commit, um saldo já removido por uma
+ * transferência. Das contas ficam só as contagens, que mudam apenas na criação.
+ *
+ * Cada cache tem tamanho e validade próprios, lidos de {@code bancobr.cache.<nome>} no
+ * formato de especificação do Caffeine. O gerenciador é transacional: {@code @CachePut} e
+ * {@code @CacheEvict} dentro de uma transação só valem após o commit, então um rollback
+ * não deixa valor no cache. As estatísticas são gravadas e exportadas pelo actuator em
+ * {@code cache.gets}, {@code cache.puts}, {@code cache.evictions} e {@code cache.size}.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Usuário por ID */
+    public static final String USUARIOS = "usuarios";
+
+    /** Usuário ativo por email */
+    public static final String USUARIOS_EMAIL = "usuarios.email";
+
+    /** Quantidade de usuários por tipo e ativos */
+    public static final String USUARIOS_CONTAGEM = "usuarios.contagem";
+
+    /** Quantidade de contas por usuário e por tipo */
+    public static final String CONTAS_CONTAGEM = "contas.contagem";
+
+    private static final Map<String, String> ESPECIFICACOES_PADRAO = new LinkedHashMap<>();
+
+    static {
+        ESPECIFICACOES_PADRAO.put(USUARIOS, "maximumSize=10000,expireAfterWrite=600s");
+        ESPECIFICACOES_PADRAO.put(USUARIOS_EMAIL, "maximumSize=10000,expireAfterWrite=600s");
+        ESPECIFICACOES_PADRAO.put(USUARIOS_CONTAGEM, "maximumSize=10,expireAfterWrite=300s");
+        ESPECIFICACOES_PADRAO.put(CONTAS_CONTAGEM, "maximumSize=10000,expireAfterWrite=300s");
+    }
+
+    /**
+     * Gerenciador com os caches nomeados
+     */
+    @Bean
+    public CacheManager cacheManager(Environment environment) {
+        List<Cache> caches = new ArrayList<>();
+        ESPECIFICACOES_PADRAO.forEach((nome, padrao) -> {
+            String especificacao = environment.getProperty("bancobr.cache." + nome, padrao);
+            CaffeineCache cache = new CaffeineCache(nome, Caffeine.from(especificacao).recordStats().build(), false);
+            caches.add(new TransactionAwareCacheDecorator(cache));
+        });
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+}
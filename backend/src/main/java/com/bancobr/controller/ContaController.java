@@ -1,22 +1,33 @@
 package com.bancobr.controller;
 
 import com.bancobr.model.Conta;
-import com.bancobr.model.Transacao;
+import com.bancobr.model.Dinheiro;
 import com.bancobr.model.Usuario;
 import com.bancobr.service.ContaService;
+import com.bancobr.service.DashboardService;
+import com.bancobr.service.ExtratoMensalService;
 import com.bancobr.service.JwtService;
-import com.bancobr.service.TransacaoService;
+import com.bancobr.service.SaldoDiarioService;
+import com.bancobr.service.SaldoFracionadoService;
 import com.bancobr.repository.UsuarioRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Controlador para gerenciamento de contas bancárias
@@ -33,10 +44,19 @@ public class ContaController {
     private ContaService contaService;
     
     @Autowired
-    private TransacaoService transacaoService;
+    private DashboardService dashboardService;
     
     @Autowired
     private JwtService jwtService;
+
+    @Autowired
+    private SaldoFracionadoService saldoFracionadoService;
+
+    @Autowired
+    private SaldoDiarioService saldoDiarioService;
+
+    @Autowired
+    private ExtratoMensalService extratoMensalService;
     
     @Autowired
     private UsuarioRepository usuarioRepository;
@@ -194,7 +214,7 @@ public class ContaController {
             String agencia = (String) request.get("agencia");
             String numeroConta = (String) request.get("numeroConta");
             String tipo = (String) request.get("tipo");
-            BigDecimal limiteCredito = new BigDecimal(request.get("limiteCredito").toString());
+            Dinheiro limiteCredito = Dinheiro.de(request.get("limiteCredito"));
 
             Conta.TipoConta tipoConta = Conta.TipoConta.valueOf(tipo.toUpperCase());
             Conta conta = contaService.criarConta(usuarioId, agencia, numeroConta, tipoConta, limiteCredito);
@@ -211,7 +231,7 @@ public class ContaController {
     @PutMapping("/{id}/limite")
     public ResponseEntity<?> atualizarLimite(@PathVariable UUID id, @RequestBody Map<String, Object> request) {
         try {
-            BigDecimal novoLimite = new BigDecimal(request.get("limiteCredito").toString());
+            Dinheiro novoLimite = Dinheiro.de(request.get("limiteCredito"));
             Conta conta = contaService.atualizarLimiteCredito(id, novoLimite);
             return ResponseEntity.ok(conta);
         } catch (Exception e) {
@@ -220,13 +240,29 @@ public class ContaController {
         }
     }
 
+    /**
+     * Marca ou desmarca a conta como quente, com saldo fracionado em slots (apenas ADMIN)
+     */
+    @PutMapping("/{id}/quente")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> definirQuente(@PathVariable UUID id, @RequestBody Map<String, Object> request) {
+        try {
+            boolean quente = Boolean.parseBoolean(request.get("quente").toString());
+            Conta conta = saldoFracionadoService.definirQuente(id, quente);
+            return ResponseEntity.ok(conta);
+        } catch (Exception e) {
+            Map<String, Object> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     /**
      * Credita valor na conta
      */
     @PutMapping("/{id}/creditar")
     public ResponseEntity<?> creditar(@PathVariable UUID id, @RequestBody Map<String, Object> request) {
         try {
-            BigDecimal valor = new BigDecimal(request.get("valor").toString());
+            Dinheiro valor = Dinheiro.de(request.get("valor"));
             Conta conta = contaService.creditar(id, valor);
             return ResponseEntity.ok(conta);
         } catch (Exception e) {
@@ -241,7 +277,7 @@ public class ContaController {
     @PutMapping("/{id}/debitar")
     public ResponseEntity<?> debitar(@PathVariable UUID id, @RequestBody Map<String, Object> request) {
         try {
-            BigDecimal valor = new BigDecimal(request.get("valor").toString());
+            Dinheiro valor = Dinheiro.de(request.get("valor"));
             Conta conta = contaService.debitar(id, valor);
             return ResponseEntity.ok(conta);
         } catch (Exception e) {
@@ -250,6 +286,74 @@ public class ContaController {
         }
     }
 
+    /**
+     * Saldo da conta ao fim do dia informado (em=AAAA-MM-DD); sem data, o saldo atual
+     */
+    @GetMapping("/{id}/saldo")
+    public ResponseEntity<?> obterSaldo(@PathVariable UUID id, @RequestParam(required = false) String em) {
+        try {
+            LocalDate data = em != null ? LocalDate.parse(em) : LocalDate.now();
+            BigDecimal saldo = saldoDiarioService.saldoEm(id, data);
+            Map<String, Object> response = Map.of("contaId", id, "data", data.toString(), "saldo", saldo);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Extrato mensal da conta (mes=AAAA-MM) em CSV compactado, enviado direto do arquivo gerado
+     * (apenas o dono da conta ou ADMIN)
+     */
+    @GetMapping("/{id}/extratos/{mes}")
+    @PreAuthorize("hasRole('CLIENTE') or hasRole('ADMIN')")
+    public ResponseEntity<?> baixarExtratoMensal(@PathVariable UUID id, @PathVariable String mes,
+                                                 Authentication authentication,
+                                                 HttpServletRequest request, HttpServletResponse response) {
+        try {
+            boolean admin = authentication.getAuthorities().stream()
+                    .anyMatch(autoridade -> "ROLE_ADMIN".equals(autoridade.getAuthority()));
+            if (!admin && !contaService.pertenceAoUsuario(id, authentication.getName())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Acesso negado ao extrato da conta"));
+            }
+            YearMonth competencia = YearMonth.parse(mes);
+            Optional<Path> arquivo = extratoMensalService.arquivo(id, competencia);
+            if (arquivo.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            response.setContentType("application/gzip");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"extrato-" + id + "-" + competencia + ".csv.gz\"");
+            extratoMensalService.enviar(arquivo.get(), request, response);
+            // Resposta já escrita (ou entregue ao sendfile do Tomcat)
+            return null;
+        } catch (Exception e) {
+            Map<String, Object> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Gera de novo os extratos mensais de um mês encerrado (apenas ADMIN)
+     */
+    @PostMapping("/extratos-mensais/{mes}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> gerarExtratosMensais(@PathVariable String mes) {
+        try {
+            YearMonth competencia = YearMonth.parse(mes);
+            if (!extratoMensalService.iniciar(competencia)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("error", "Geração de extratos mensais já está em andamento"));
+            }
+            return ResponseEntity.accepted().body(Map.of("mes", competencia.toString()));
+        } catch (Exception e) {
+            Map<String, Object> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     /**
      * Verifica se conta tem saldo suficiente
      */
@@ -371,6 +475,22 @@ public class ContaController {
         }
     }
 
+    /**
+     * Soma saldo das contas da agência (apenas ADMIN)
+     */
+    @GetMapping("/saldo/agencia/{agencia}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> saldoPorAgencia(@PathVariable String agencia) {
+        try {
+            BigDecimal saldo = contaService.somarSaldoPorAgencia(agencia);
+            Map<String, Object> response = Map.of("saldo", saldo != null ? saldo : BigDecimal.ZERO);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     /**
      * Busca conta com usuário
      */
@@ -410,51 +530,12 @@ public class ContaController {
             // Extrair userId do token
             String token = authHeader.substring(7);
             String userId = jwtService.extractUserId(token);
-            
-            // Buscar contas do usuário
-            List<Conta> contas = contaService.listarPorUsuario(UUID.fromString(userId));
-            
-            // Calcular saldo total
-            BigDecimal saldoTotal = contas.stream()
-                .map(Conta::getSaldo)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            // Contar contas (todas são consideradas ativas por padrão)
-            long contasAtivas = contas.size();
-            
-            // Buscar transações do usuário
-            List<Transacao> transacoes = transacaoService.listarPorUsuario(UUID.fromString(userId));
-            
-            // Filtrar transações de hoje
-            long transacoesHoje = transacoes.stream()
-                .filter(t -> t.getRealizadaEm().toLocalDate().equals(java.time.LocalDate.now()))
-                .count();
-            
-            // Pegar últimas 5 transações
-            List<Transacao> ultimasTransacoes = transacoes.stream()
-                .sorted((t1, t2) -> t2.getRealizadaEm().compareTo(t1.getRealizadaEm()))
-                .limit(5)
-                .collect(Collectors.toList());
-            
-            Map<String, Object> dashboard = Map.of(
-                "saldoTotal", saldoTotal,
-                "contasAtivas", contasAtivas,
-                "transacoesHoje", transacoesHoje,
-                "ultimasTransacoes", ultimasTransacoes.stream()
-                    .map(t -> Map.of(
-                        "id", t.getId().toString(),
-                        "dataTransacao", t.getRealizadaEm().toString(),
-                        "tipo", t.getTipo().toString(),
-                        "valor", t.getValor(),
-                        "status", "CONCLUIDA",
-                        "descricao", t.getDescricao()
-                    ))
-                    .collect(Collectors.toList())
-            );
+
+            Map<String, Object> dashboard = dashboardService.dashboardContas(UUID.fromString(userId));
             return ResponseEntity.ok(dashboard);
         } catch (Exception e) {
             Map<String, Object> error = Map.of("error", e.getMessage());
             return ResponseEntity.badRequest().body(error);
         }
     }
-} 
\ No newline at end of file
+}
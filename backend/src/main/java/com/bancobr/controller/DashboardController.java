@@ -2,10 +2,13 @@ package com.bancobr.controller;
 
 import com.bancobr.model.Usuario;
 import com.bancobr.service.ContaService;
+import com.bancobr.service.DashboardStreamService;
 import com.bancobr.service.TransacaoService;
 import com.bancobr.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -34,6 +37,9 @@ public class DashboardController {
     @Autowired
     private TransacaoService transacaoService;
 
+    @Autowired
+    private DashboardStreamService dashboardStreamService;
+
     /**
      * Dashboard geral (apenas ADMIN)
      */
@@ -57,6 +63,19 @@ public class DashboardController {
         }
     }
 
+    /**
+     * Dashboard geral em tempo real, por Server-Sent Events (apenas ADMIN)
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> dashboardStream() {
+        return dashboardStreamService.assinar()
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(Map.of("error", "Muitos dashboards abertos, tente novamente")));
+    }
+
     /**
      * Dashboard por usuário (ADMIN ou próprio usuário)
      */
@@ -2,6 +2,7 @@ package com.bancobr.controller;
 
 import com.bancobr.model.Usuario;
 import com.bancobr.repository.UsuarioRepository;
+import com.bancobr.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -28,6 +29,9 @@ public class TesteController {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private UsuarioService usuarioService;
+
     @PostConstruct
     public void init() {
         System.out.println("✅ TesteController carregado com sucesso!");
@@ -164,8 +168,7 @@ public class TesteController {
                 String novoHash = encoder.encode("admin123");
                 
                 // Atualiza a senha no banco
-                usuario.setSenhaHash(novoHash);
-                usuarioRepository.save(usuario);
+                usuarioService.definirSenhaHash(usuario, novoHash);
                 
                 // Testa se funcionou
                 boolean senhaValida = encoder.matches("admin123", novoHash);
@@ -1,18 +1,34 @@
 package com.bancobr.controller;
 
+import com.bancobr.dto.ExtratoPagina;
+import com.bancobr.dto.TransacaoRequest;
+import com.bancobr.dto.TransferenciaLoteResultado;
+import com.bancobr.model.Dinheiro;
 import com.bancobr.model.Transacao;
+import com.bancobr.service.CommitAgrupadoService;
+import com.bancobr.service.ExportacaoExtratoService;
+import com.bancobr.service.PreenchimentoSaldoAposService;
+import com.bancobr.service.IdempotenciaService;
 import com.bancobr.service.TransacaoService;
 import com.bancobr.service.JwtService;
+import com.bancobr.service.TransferenciaAssincronaService;
+import com.bancobr.service.TransferenciaLoteService;
+import com.bancobr.service.VolumeTransacoesService;
+import com.bancobr.util.EventoLog;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Controlador para gerenciamento de transações bancárias
@@ -25,21 +41,63 @@ import java.util.UUID;
 @CrossOrigin(origins = "*")
 public class TransacaoController {
 
+    private static final EventoLog TRANSFERENCIA_RECEBIDA =
+            EventoLog.debug("transacao", "transferencia.recebida").amostrado(100);
+
     @Autowired
     private TransacaoService transacaoService;
     
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private TransferenciaLoteService transferenciaLoteService;
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private TransferenciaAssincronaService transferenciaAssincronaService;
+
+    @Autowired(required = false)
+    private CommitAgrupadoService commitAgrupadoService;
+
+    @Autowired
+    private ExportacaoExtratoService exportacaoExtratoService;
+
+    @Autowired
+    private PreenchimentoSaldoAposService preenchimentoSaldoAposService;
+
+    @Autowired(required = false)
+    private VolumeTransacoesService volumeTransacoesService;
+
     /**
-     * Realiza transferência entre contas
+     * Realiza transferência entre contas. Com async=true a transferência é enfileirada
+     * e a resposta 202 traz o ID para consulta em /transacoes/status/{id}.
      */
     @PostMapping("/transferencia")
     @PreAuthorize("hasRole('CLIENTE') or hasRole('ADMIN')")
-    public ResponseEntity<?> realizarTransferencia(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<?> realizarTransferencia(@RequestBody Map<String, Object> request,
+                                                   @RequestParam(defaultValue = "false") boolean async,
+                                                   @RequestHeader(value = IdempotenciaService.HEADER_CHAVE, required = false) String chaveIdempotencia,
+                                                   Principal principal) {
+        return executarIdempotente(chaveIdempotencia, principal, async ? "TRANSFERENCIA_ASSINCRONA" : "TRANSFERENCIA",
+                async, request, () -> processarTransferencia(request, async, principal));
+    }
+
+    /**
+     * Consulta a situação de uma transferência assíncrona do usuário atual
+     */
+    @GetMapping("/status/{id}")
+    @PreAuthorize("hasRole('CLIENTE') or hasRole('ADMIN')")
+    public ResponseEntity<?> buscarStatusTransferencia(@PathVariable UUID id, Principal principal) {
+        return transferenciaAssincronaService.buscarStatus(id, principal.getName())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<?> processarTransferencia(Map<String, Object> request, boolean async, Principal principal) {
         try {
-            System.out.println("🔍 [DEBUG] Request recebido: " + request);
-            
             // Validação dos campos obrigatórios
             if (!request.containsKey("contaOrigem") || request.get("contaOrigem") == null) {
                 return ResponseEntity.badRequest().body(Map.of("error", "contaOrigem é obrigatório"));
@@ -54,16 +112,7 @@ public class TransacaoController {
             String numeroContaOrigem = (String) request.get("contaOrigem");
             String numeroContaDestino = (String) request.get("contaDestino");
             
-            // Tratar valor como string primeiro para evitar problemas de conversão
-            Object valorObj = request.get("valor");
-            BigDecimal valor;
-            if (valorObj instanceof String) {
-                valor = new BigDecimal((String) valorObj);
-            } else if (valorObj instanceof Number) {
-                valor = new BigDecimal(valorObj.toString());
-            } else {
-                throw new RuntimeException("Valor inválido");
-            }
+            Dinheiro valor = Dinheiro.de(request.get("valor"));
             
             String descricao = (String) request.get("descricao");
             
@@ -72,17 +121,67 @@ public class TransacaoController {
                 descricao = "Transferência entre contas";
             }
 
-            System.out.println("🔍 [DEBUG] Dados processados:");
-            System.out.println("   - Conta Origem: " + numeroContaOrigem);
-            System.out.println("   - Conta Destino: " + numeroContaDestino);
-            System.out.println("   - Valor: " + valor);
-            System.out.println("   - Descrição: " + descricao);
+            TRANSFERENCIA_RECEBIDA.registrar()
+                    .addKeyValue("origem", numeroContaOrigem)
+                    .addKeyValue("destino", numeroContaDestino)
+                    .addKeyValue("valor", valor)
+                    .addKeyValue("async", async)
+                    .log();
+
+            if (async) {
+                return transferenciaAssincronaService.submeter(principal.getName(), numeroContaOrigem, numeroContaDestino, valor.paraBigDecimal(), descricao)
+                        .<ResponseEntity<?>>map(status -> ResponseEntity.accepted().body(status))
+                        .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body(Map.of("error", "Fila de transferências cheia, tente novamente")));
+            }
 
-            Transacao transacao = transacaoService.realizarTransferenciaPorNumero(numeroContaOrigem, numeroContaDestino, valor, descricao);
+            Transacao transacao = commitAgrupadoService != null
+                    ? commitAgrupadoService.transferir(principal.getName(), numeroContaOrigem, numeroContaDestino, valor.paraBigDecimal(), descricao)
+                    : transacaoService.realizarTransferenciaPorNumero(numeroContaOrigem, numeroContaDestino, valor, descricao);
             return ResponseEntity.ok(transacao);
+        } catch (CommitAgrupadoService.CommitPendenteException e) {
+            return ResponseEntity.accepted().body(Map.of("id", e.getId(), "status", "PENDENTE", "error", e.getMessage()));
+        } catch (Exception e) {
+            Map<String, Object> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Consulta o resultado de uma transferência do commit agrupado cujo tempo de espera
+     * esgotou durante a aplicação (resposta 202 de /transacoes/transferencia)
+     */
+    @GetMapping("/commit-agrupado/{id}")
+    @PreAuthorize("hasRole('CLIENTE') or hasRole('ADMIN')")
+    public ResponseEntity<?> buscarResultadoCommitAgrupado(@PathVariable UUID id, Principal principal) {
+        if (commitAgrupadoService == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return commitAgrupadoService.buscarResultado(id, principal.getName())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Realiza transferências em lote (apenas ADMIN)
+     */
+    @PostMapping("/lote")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> realizarTransferenciasEmLote(@RequestBody List<TransacaoRequest> itens) {
+        try {
+            List<TransferenciaLoteResultado> resultados = transferenciaLoteService.realizarTransferencias(itens);
+            long sucessos = resultados.stream()
+                    .filter(r -> r.getStatus() == TransferenciaLoteResultado.Status.SUCESSO)
+                    .count();
+
+            Map<String, Object> response = Map.of(
+                "total", resultados.size(),
+                "sucessos", sucessos,
+                "falhas", resultados.size() - sucessos,
+                "resultados", resultados
+            );
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.out.println("❌ [DEBUG] Erro na transferência: " + e.getMessage());
-            e.printStackTrace();
             Map<String, Object> error = Map.of("error", e.getMessage());
             return ResponseEntity.badRequest().body(error);
         }
@@ -93,10 +192,17 @@ public class TransacaoController {
      */
     @PostMapping("/deposito")
     @PreAuthorize("hasRole('CLIENTE') or hasRole('ADMIN')")
-    public ResponseEntity<?> realizarDeposito(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<?> realizarDeposito(@RequestBody Map<String, Object> request,
+                                              @RequestHeader(value = IdempotenciaService.HEADER_CHAVE, required = false) String chaveIdempotencia,
+                                              Principal principal) {
+        return executarIdempotente(chaveIdempotencia, principal, "DEPOSITO", false, request,
+                () -> processarDeposito(request));
+    }
+
+    private ResponseEntity<?> processarDeposito(Map<String, Object> request) {
         try {
             UUID contaDestinoId = UUID.fromString((String) request.get("contaDestinoId"));
-            BigDecimal valor = new BigDecimal(request.get("valor").toString());
+            Dinheiro valor = Dinheiro.de(request.get("valor"));
             String descricao = (String) request.get("descricao");
 
             Transacao transacao = transacaoService.realizarDeposito(contaDestinoId, valor, descricao);
@@ -112,10 +218,17 @@ public class TransacaoController {
      */
     @PostMapping("/saque")
     @PreAuthorize("hasRole('CLIENTE') or hasRole('ADMIN')")
-    public ResponseEntity<?> realizarSaque(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<?> realizarSaque(@RequestBody Map<String, Object> request,
+                                           @RequestHeader(value = IdempotenciaService.HEADER_CHAVE, required = false) String chaveIdempotencia,
+                                           Principal principal) {
+        return executarIdempotente(chaveIdempotencia, principal, "SAQUE", false, request,
+                () -> processarSaque(request));
+    }
+
+    private ResponseEntity<?> processarSaque(Map<String, Object> request) {
         try {
             UUID contaOrigemId = UUID.fromString((String) request.get("contaOrigemId"));
-            BigDecimal valor = new BigDecimal(request.get("valor").toString());
+            Dinheiro valor = Dinheiro.de(request.get("valor"));
             String descricao = (String) request.get("descricao");
 
             Transacao transacao = transacaoService.realizarSaque(contaOrigemId, valor, descricao);
@@ -126,6 +239,79 @@ public class TransacaoController {
         }
     }
 
+    /**
+     * Sem header Idempotency-Key executa a operação diretamente; com ele, a operação é
+     * executada uma única vez por chave do usuário autenticado (recusado onde isso não é
+     * garantido, ver {@link IdempotenciaService#aceitaChave})
+     */
+    private ResponseEntity<?> executarIdempotente(String chaveIdempotencia, Principal principal, String operacao,
+                                                  boolean assincrona, Map<String, Object> request,
+                                                  Supplier<ResponseEntity<?>> acao) {
+        if (chaveIdempotencia == null) {
+            return acao.get();
+        }
+        if (!idempotenciaService.aceitaChave(assincrona)) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "Idempotency-Key não é suportada no modo LEDGER; use a transferência com async=true"));
+        }
+        try {
+            return idempotenciaService.executar(principal.getName(), chaveIdempotencia, operacao, request, acao);
+        } catch (Exception e) {
+            Map<String, Object> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Inicia o preenchimento do saldo após das transações que não o têm (apenas ADMIN)
+     */
+    @PostMapping("/saldo-apos/preenchimento")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> iniciarPreenchimentoSaldoApos() {
+        try {
+            if (!preenchimentoSaldoAposService.iniciar()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("error", "Preenchimento já está em andamento"));
+            }
+            return ResponseEntity.accepted().body(preenchimentoSaldoAposService.status());
+        } catch (Exception e) {
+            Map<String, Object> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Andamento do preenchimento do saldo após (apenas ADMIN)
+     */
+    @GetMapping("/saldo-apos/preenchimento")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> statusPreenchimentoSaldoApos() {
+        return ResponseEntity.ok(preenchimentoSaldoAposService.status());
+    }
+
+    /**
+     * Busca transações pelo texto da descrição, com conta e período opcionais,
+     * paginada por cursor (apenas ADMIN)
+     */
+    @GetMapping("/busca")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> buscarPorTexto(@RequestParam String q,
+                                            @RequestParam(required = false) UUID contaId,
+                                            @RequestParam(required = false) String dataInicio,
+                                            @RequestParam(required = false) String dataFim,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer tamanho) {
+        try {
+            LocalDateTime inicio = dataInicio != null ? LocalDateTime.parse(dataInicio) : null;
+            LocalDateTime fim = dataFim != null ? LocalDateTime.parse(dataFim) : null;
+            ExtratoPagina resultado = transacaoService.buscarPorTexto(q, contaId, inicio, fim, cursor, tamanho);
+            return ResponseEntity.ok(resultado);
+        } catch (Exception e) {
+            Map<String, Object> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     /**
      * Lista todas as transações (apenas ADMIN)
      */
@@ -260,12 +446,14 @@ public class TransacaoController {
     }
 
     /**
-     * Obtém extrato da conta
+     * Obtém extrato da conta, paginado: a resposta traz nextCursor para buscar a página seguinte
      */
     @GetMapping("/extrato/conta/{contaId}")
-    public ResponseEntity<?> obterExtratoConta(@PathVariable UUID contaId) {
+    public ResponseEntity<?> obterExtratoConta(@PathVariable UUID contaId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer tamanho) {
         try {
-            List<Transacao> extrato = transacaoService.obterExtrato(contaId);
+            ExtratoPagina extrato = transacaoService.obterExtratoPaginado(contaId, cursor, tamanho);
             return ResponseEntity.ok(extrato);
         } catch (Exception e) {
             Map<String, Object> error = Map.of("error", e.getMessage());
@@ -273,6 +461,29 @@ public class TransacaoController {
         }
     }
 
+    /**
+     * Exporta o extrato completo da conta em CSV ou NDJSON, escrito na resposta à medida
+     * que as linhas são lidas do banco
+     */
+    @GetMapping("/extrato/conta/{contaId}/export")
+    public ResponseEntity<?> exportarExtratoConta(@PathVariable UUID contaId,
+                                                  @RequestParam(defaultValue = "ndjson") String format) {
+        try {
+            ExportacaoExtratoService.Formato formato = ExportacaoExtratoService.Formato.de(format);
+            return exportacaoExtratoService.preparar(contaId, formato)
+                    .<ResponseEntity<?>>map(corpo -> ResponseEntity.ok()
+                            .contentType(formato.getTipoConteudo())
+                            .header(HttpHeaders.CONTENT_DISPOSITION,
+                                    "attachment; filename=\"extrato-" + contaId + "." + formato.getExtensao() + "\"")
+                            .body(corpo))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .body(Map.of("error", "Muitas exportações em andamento, tente novamente")));
+        } catch (Exception e) {
+            Map<String, Object> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     /**
      * Obtém extrato do usuário
      */
@@ -365,6 +576,33 @@ public class TransacaoController {
         }
     }
 
+    /**
+     * Quantidade e valor das transações por minuto ou por hora nas últimas 24 horas,
+     * por tipo (apenas ADMIN)
+     */
+    @GetMapping("/volume")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> volume(@RequestParam(defaultValue = "hora") String granularidade) {
+        try {
+            if (volumeTransacoesService == null) {
+                throw new RuntimeException("Volume de transações desabilitado");
+            }
+            List<Map<String, Object>> intervalos;
+            if ("minuto".equalsIgnoreCase(granularidade)) {
+                intervalos = volumeTransacoesService.porMinuto();
+            } else if ("hora".equalsIgnoreCase(granularidade)) {
+                intervalos = volumeTransacoesService.porHora();
+            } else {
+                throw new RuntimeException("Granularidade inválida: use minuto ou hora");
+            }
+            Map<String, Object> response = Map.of("granularidade", granularidade.toLowerCase(), "intervalos", intervalos);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     /**
      * Soma valor por tipo
      */
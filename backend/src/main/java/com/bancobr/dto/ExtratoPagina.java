@@ -0,0 +1,40 @@
+package com.bancobr.dto;
+
+import com.bancobr.model.Transacao;
+
+import java.util.List;
+
+/**
+ * DTO com uma página do extrato da conta.
+ * {@code nextCursor} é o token para buscar a página seguinte, ou null na última página.
+ */
+public class ExtratoPagina {
+
+    private List<Transacao> transacoes;
+    private String nextCursor;
+
+    // Construtores
+    public ExtratoPagina() {}
+
+    public ExtratoPagina(List<Transacao> transacoes, String nextCursor) {
+        this.transacoes = transacoes;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters e Setters
+    public List<Transacao> getTransacoes() {
+        return transacoes;
+    }
+
+    public void setTransacoes(List<Transacao> transacoes) {
+        this.transacoes = transacoes;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
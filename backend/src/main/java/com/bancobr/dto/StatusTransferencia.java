@@ -0,0 +1,72 @@
+package com.bancobr.dto;
+
+import com.bancobr.model.TransferenciaPendente;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO com a situação de uma transferência assíncrona, lida de transferencias_pendentes.
+ */
+public class StatusTransferencia {
+
+    private final UUID id;
+    private final String contaOrigem;
+    private final String contaDestino;
+    private final BigDecimal valor;
+    private final LocalDateTime criadaEm;
+    private final TransferenciaPendente.Estado estado;
+    private final UUID transacaoId;
+    private final String erro;
+    private final LocalDateTime atualizadaEm;
+
+    public StatusTransferencia(TransferenciaPendente transferencia) {
+        this.id = transferencia.getId();
+        this.contaOrigem = transferencia.getContaOrigem();
+        this.contaDestino = transferencia.getContaDestino();
+        this.valor = transferencia.getValor();
+        this.criadaEm = transferencia.getCriadaEm();
+        this.estado = transferencia.getEstado();
+        this.transacaoId = transferencia.getTransacaoId();
+        this.erro = transferencia.getErro();
+        this.atualizadaEm = transferencia.getAtualizadaEm();
+    }
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+
+    public String getContaOrigem() {
+        return contaOrigem;
+    }
+
+    public String getContaDestino() {
+        return contaDestino;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public LocalDateTime getCriadaEm() {
+        return criadaEm;
+    }
+
+    public TransferenciaPendente.Estado getEstado() {
+        return estado;
+    }
+
+    public UUID getTransacaoId() {
+        return transacaoId;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    public LocalDateTime getAtualizadaEm() {
+        return atualizadaEm;
+    }
+}
@@ -0,0 +1,130 @@
+package com.bancobr.dto;
+
+import com.bancobr.model.Transacao;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * DTO com o resultado de um item de transferência em lote
+ */
+public class TransferenciaLoteResultado {
+
+    private int indice;
+    private String contaOrigem;
+    private String contaDestino;
+    private BigDecimal valor;
+    private Status status;
+    private UUID transacaoId;
+    private String erro;
+
+    @JsonIgnore
+    private Transacao transacao;
+
+    // Construtores
+    public TransferenciaLoteResultado() {}
+
+    public TransferenciaLoteResultado(int indice, TransacaoRequest request) {
+        this.indice = indice;
+        this.contaOrigem = request.getContaOrigem();
+        this.contaDestino = request.getContaDestino();
+        this.valor = request.getValor();
+    }
+
+    /**
+     * Marca o item como concluído
+     */
+    public void sucesso(UUID transacaoId) {
+        this.status = Status.SUCESSO;
+        this.transacaoId = transacaoId;
+        this.erro = null;
+    }
+
+    /**
+     * Marca o item como concluído, mantendo a transação gravada
+     */
+    public void sucesso(Transacao transacao) {
+        sucesso(transacao.getId());
+        this.transacao = transacao;
+    }
+
+    /**
+     * Marca o item como recusado
+     */
+    public void erro(String erro) {
+        this.status = Status.ERRO;
+        this.transacaoId = null;
+        this.transacao = null;
+        this.erro = erro;
+    }
+
+    // Getters e Setters
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public String getContaOrigem() {
+        return contaOrigem;
+    }
+
+    public void setContaOrigem(String contaOrigem) {
+        this.contaOrigem = contaOrigem;
+    }
+
+    public String getContaDestino() {
+        return contaDestino;
+    }
+
+    public void setContaDestino(String contaDestino) {
+        this.contaDestino = contaDestino;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public UUID getTransacaoId() {
+        return transacaoId;
+    }
+
+    public void setTransacaoId(UUID transacaoId) {
+        this.transacaoId = transacaoId;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    public Transacao getTransacao() {
+        return transacao;
+    }
+
+    public void setErro(String erro) {
+        this.erro = erro;
+    }
+
+    /**
+     * Enum para status do item
+     */
+    public enum Status {
+        SUCESSO,
+        ERRO
+    }
+}
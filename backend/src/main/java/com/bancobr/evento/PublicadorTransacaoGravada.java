@@ -0,0 +1,27 @@
+package com.bancobr.evento;
+
+import com.bancobr.model.Transacao;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de {@link Transacao}: publica um {@link TransacaoGravadaEvento} para cada
+ * transação inserida. Quem precisa das transações gravadas assina o evento com
+ * {@code @TransactionalEventListener}; este listener não conhece os assinantes.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Component
+public class PublicadorTransacaoGravada {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    void aposInserir(Transacao transacao) {
+        eventPublisher.publishEvent(TransacaoGravadaEvento.de(transacao));
+    }
+}
@@ -0,0 +1,97 @@
+package com.bancobr.evento;
+
+import com.bancobr.model.Conta;
+import com.bancobr.model.Transacao;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Evento de aplicação de uma transação inserida, por qualquer caminho de gravação
+ * (serviço, lote, ledger, commit agrupado).
+ *
+ * Publicado na inserção por {@link PublicadorTransacaoGravada} e entregue aos serviços
+ * com {@code @TransactionalEventListener}, ou seja, somente após o commit. Guarda uma
+ * cópia dos valores da transação, sem vínculo com o contexto de persistência; das contas
+ * guarda só o ID.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+public final class TransacaoGravadaEvento {
+
+    private final UUID transacaoId;
+    private final Transacao.TipoTransacao tipo;
+    private final UUID contaOrigemId;
+    private final UUID contaDestinoId;
+    private final BigDecimal valor;
+    private final String descricao;
+    private final LocalDateTime realizadaEm;
+    private final BigDecimal saldoOrigemApos;
+    private final BigDecimal saldoDestinoApos;
+
+    public TransacaoGravadaEvento(UUID transacaoId, Transacao.TipoTransacao tipo, UUID contaOrigemId,
+                                  UUID contaDestinoId, BigDecimal valor, String descricao,
+                                  LocalDateTime realizadaEm, BigDecimal saldoOrigemApos,
+                                  BigDecimal saldoDestinoApos) {
+        this.transacaoId = transacaoId;
+        this.tipo = tipo;
+        this.contaOrigemId = contaOrigemId;
+        this.contaDestinoId = contaDestinoId;
+        this.valor = valor;
+        this.descricao = descricao;
+        this.realizadaEm = realizadaEm;
+        this.saldoOrigemApos = saldoOrigemApos;
+        this.saldoDestinoApos = saldoDestinoApos;
+    }
+
+    /**
+     * Evento com os valores atuais da transação
+     */
+    public static TransacaoGravadaEvento de(Transacao transacao) {
+        return new TransacaoGravadaEvento(transacao.getId(), transacao.getTipo(), id(transacao.getContaOrigem()),
+                id(transacao.getContaDestino()), transacao.getValor(), transacao.getDescricao(),
+                transacao.getRealizadaEm(), transacao.getSaldoOrigemApos(), transacao.getSaldoDestinoApos());
+    }
+
+    private static UUID id(Conta conta) {
+        return conta != null ? conta.getId() : null;
+    }
+
+    public UUID getTransacaoId() {
+        return transacaoId;
+    }
+
+    public Transacao.TipoTransacao getTipo() {
+        return tipo;
+    }
+
+    public UUID getContaOrigemId() {
+        return contaOrigemId;
+    }
+
+    public UUID getContaDestinoId() {
+        return contaDestinoId;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public LocalDateTime getRealizadaEm() {
+        return realizadaEm;
+    }
+
+    public BigDecimal getSaldoOrigemApos() {
+        return saldoOrigemApos;
+    }
+
+    public BigDecimal getSaldoDestinoApos() {
+        return saldoDestinoApos;
+    }
+}
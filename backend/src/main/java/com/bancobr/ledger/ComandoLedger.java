@@ -0,0 +1,74 @@
+package com.bancobr.ledger;
+
+import com.bancobr.model.Transacao;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Comando enviado a um shard do ledger. Valores em centavos.
+ *
+ * Operações de uma única conta (AJUSTE, DEFINIR_SALDO, DEFINIR_LIMITE, ESTORNO)
+ * usam {@code contaOrigem} como a conta alvo.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+final class ComandoLedger {
+
+    /**
+     * Tipos de comando
+     */
+    enum Tipo {
+        /** Transferência recebida pelo shard da conta origem */
+        TRANSFERENCIA,
+        /** Crédito de uma transferência já debitada em outro shard */
+        CREDITO_TRANSFERENCIA,
+        DEPOSITO,
+        SAQUE,
+        /** Soma {@code centavos} ao saldo, sem registro de transação */
+        AJUSTE,
+        /** Define o saldo em {@code centavos}, sem registro de transação */
+        DEFINIR_SALDO,
+        /** Atualiza o limite em memória; o banco já foi atualizado por quem enviou */
+        DEFINIR_LIMITE,
+        /** Devolve em memória um débito cuja transferência falhou em outro shard */
+        ESTORNO
+    }
+
+    Tipo tipo;
+    final UUID contaOrigem;
+    final UUID contaDestino;
+    final long centavos;
+    final String descricao;
+    final boolean validarSaldo;
+    final CompletableFuture<Transacao> futuro;
+
+    /** Variação efetiva de saldo de AJUSTE/DEFINIR_SALDO, calculada pelo shard */
+    long delta;
+
+    /** Momento em que o shard aplicou o comando em memória (realizada_em da transação) */
+    LocalDateTime realizadaEm;
+
+    /** Saldos em memória logo após o comando, preenchidos pelo shard de cada conta */
+    Long saldoOrigemApos;
+    Long saldoDestinoApos;
+
+    /** Transação persistida, preenchida pela persistência do lote */
+    Transacao transacao;
+
+    ComandoLedger(Tipo tipo, UUID contaOrigem, UUID contaDestino, long centavos, String descricao, boolean validarSaldo) {
+        this.tipo = tipo;
+        this.contaOrigem = contaOrigem;
+        this.contaDestino = contaDestino;
+        this.centavos = centavos;
+        this.descricao = descricao;
+        this.validarSaldo = validarSaldo;
+        this.futuro = new CompletableFuture<>();
+    }
+
+    static ComandoLedger estorno(UUID contaId, long centavos) {
+        return new ComandoLedger(Tipo.ESTORNO, contaId, null, centavos, null, false);
+    }
+}
@@ -0,0 +1,86 @@
+package com.bancobr.ledger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring buffer limitado, sem locks, com vários produtores e um único consumidor.
+ *
+ * Cada posição tem um número de sequência: o produtor reserva a posição com CAS na
+ * cauda e a publica gravando a sequência; o consumidor (a thread escritora do shard)
+ * lê a sequência antes do elemento, o que garante a visibilidade do comando.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+final class FilaMpsc<E> {
+
+    private final int mascara;
+    private final Object[] elementos;
+    private final AtomicLongArray sequencias;
+    private final AtomicLong cauda = new AtomicLong();
+
+    /** Usado apenas pela thread consumidora */
+    private long cabeca;
+
+    FilaMpsc(int capacidade) {
+        if (capacidade < 2 || Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("Capacidade da fila deve ser potência de 2: " + capacidade);
+        }
+        this.mascara = capacidade - 1;
+        this.elementos = new Object[capacidade];
+        this.sequencias = new AtomicLongArray(capacidade);
+        for (int i = 0; i < capacidade; i++) {
+            sequencias.set(i, i);
+        }
+    }
+
+    /**
+     * Insere o elemento; retorna false se a fila estiver cheia
+     */
+    boolean oferecer(E elemento) {
+        long posicao = cauda.get();
+        int indice;
+        while (true) {
+            indice = (int) (posicao & mascara);
+            long diferenca = sequencias.get(indice) - posicao;
+            if (diferenca == 0) {
+                if (cauda.compareAndSet(posicao, posicao + 1)) {
+                    break;
+                }
+                posicao = cauda.get();
+            } else if (diferenca < 0) {
+                return false;
+            } else {
+                posicao = cauda.get();
+            }
+        }
+        elementos[indice] = elemento;
+        sequencias.lazySet(indice, posicao + 1);
+        return true;
+    }
+
+    /**
+     * Remove o próximo elemento; retorna null se não houver elemento publicado.
+     * Deve ser chamado apenas pela thread consumidora.
+     */
+    @SuppressWarnings("unchecked")
+    E consumir() {
+        int indice = (int) (cabeca & mascara);
+        if (sequencias.get(indice) != cabeca + 1) {
+            return null;
+        }
+        E elemento = (E) elementos[indice];
+        elementos[indice] = null;
+        sequencias.lazySet(indice, cabeca + mascara + 1);
+        cabeca++;
+        return elemento;
+    }
+
+    /**
+     * Indica se não há elementos reservados. Deve ser chamado apenas pela thread consumidora.
+     */
+    boolean vazia() {
+        return cauda.get() == cabeca;
+    }
+}
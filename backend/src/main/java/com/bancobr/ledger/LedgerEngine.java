@@ -0,0 +1,219 @@
+package com.bancobr.ledger;
+
+import com.bancobr.model.Dinheiro;
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.ContaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ledger em memória, particionado em shards por ID de conta, usado quando
+ * {@code bancobr.transacao.concorrencia.modo=LEDGER}.
+ *
+ * Cada shard tem uma única thread escritora que aplica os comandos em memória e grava
+ * em lote (transações e saldos) no PostgreSQL; os futuros só são concluídos após o
+ * commit do lote. Nenhum lock de linha fica no caminho crítico das transações.
+ * Na inicialização os saldos são recarregados da tabela {@code contas}.
+ *
+ * Com o ledger ativo, toda alteração de saldo deve passar por ele.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "bancobr.transacao.concorrencia.modo", havingValue = "LEDGER")
+public class LedgerEngine implements SmartLifecycle {
+
+    private static final long ESPERA_FILA_CHEIA_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    @Autowired
+    private LedgerPersistencia persistencia;
+
+    @Value("${bancobr.ledger.shards:4}")
+    private int quantidadeShards = 4;
+
+    @Value("${bancobr.ledger.capacidade-fila:16384}")
+    private int capacidadeFila = 16384;
+
+    @Value("${bancobr.ledger.tamanho-lote:256}")
+    private int tamanhoLote = 256;
+
+    @Value("${bancobr.ledger.timeout-ms:5000}")
+    private long timeoutMs = 5000;
+
+    private LedgerShard[] shards;
+
+    private volatile boolean executando;
+
+    /**
+     * Transferência entre contas; o futuro é concluído com a transação gravada
+     */
+    public CompletableFuture<Transacao> transferir(UUID contaOrigemId, UUID contaDestinoId, BigDecimal valor, String descricao) {
+        return transferir(contaOrigemId, contaDestinoId, Dinheiro.de(valor), descricao);
+    }
+
+    public CompletableFuture<Transacao> transferir(UUID contaOrigemId, UUID contaDestinoId, Dinheiro valor, String descricao) {
+        return submeter(contaOrigemId, new ComandoLedger(ComandoLedger.Tipo.TRANSFERENCIA,
+                contaOrigemId, contaDestinoId, valor.getCentavos(), descricao, true));
+    }
+
+    /**
+     * Depósito; o futuro é concluído com a transação gravada
+     */
+    public CompletableFuture<Transacao> depositar(UUID contaDestinoId, BigDecimal valor, String descricao) {
+        return depositar(contaDestinoId, Dinheiro.de(valor), descricao);
+    }
+
+    public CompletableFuture<Transacao> depositar(UUID contaDestinoId, Dinheiro valor, String descricao) {
+        return submeter(contaDestinoId, new ComandoLedger(ComandoLedger.Tipo.DEPOSITO,
+                null, contaDestinoId, valor.getCentavos(), descricao, false));
+    }
+
+    /**
+     * Saque; o futuro é concluído com a transação gravada
+     */
+    public CompletableFuture<Transacao> sacar(UUID contaOrigemId, BigDecimal valor, String descricao) {
+        return sacar(contaOrigemId, Dinheiro.de(valor), descricao);
+    }
+
+    public CompletableFuture<Transacao> sacar(UUID contaOrigemId, Dinheiro valor, String descricao) {
+        return submeter(contaOrigemId, new ComandoLedger(ComandoLedger.Tipo.SAQUE,
+                contaOrigemId, null, valor.getCentavos(), descricao, true));
+    }
+
+    /**
+     * Soma {@code delta} ao saldo sem registrar transação; com {@code validarSaldo}
+     * recusa o ajuste se o saldo disponível ficar negativo
+     */
+    public CompletableFuture<Transacao> ajustarSaldo(UUID contaId, BigDecimal delta, boolean validarSaldo) {
+        return ajustarSaldo(contaId, Dinheiro.de(delta), validarSaldo);
+    }
+
+    public CompletableFuture<Transacao> ajustarSaldo(UUID contaId, Dinheiro delta, boolean validarSaldo) {
+        return submeter(contaId, new ComandoLedger(ComandoLedger.Tipo.AJUSTE,
+                contaId, null, delta.getCentavos(), null, validarSaldo));
+    }
+
+    /**
+     * Define o saldo da conta sem registrar transação
+     */
+    public CompletableFuture<Transacao> definirSaldo(UUID contaId, BigDecimal novoSaldo) {
+        return submeter(contaId, new ComandoLedger(ComandoLedger.Tipo.DEFINIR_SALDO,
+                contaId, null, paraCentavos(novoSaldo), null, false));
+    }
+
+    /**
+     * Atualiza o limite de crédito em memória; o limite no banco é gravado por quem chama
+     */
+    public CompletableFuture<Transacao> definirLimite(UUID contaId, BigDecimal novoLimite) {
+        return submeter(contaId, new ComandoLedger(ComandoLedger.Tipo.DEFINIR_LIMITE,
+                contaId, null, paraCentavos(novoLimite), null, false));
+    }
+
+    /**
+     * Aguarda o futuro de um comando pelo tempo configurado, repassando a exceção original
+     */
+    public <T> T aguardar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Tempo esgotado aguardando o ledger");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Operação interrompida aguardando o ledger");
+        }
+    }
+
+    /**
+     * Converte um valor monetário para centavos
+     */
+    static long paraCentavos(BigDecimal valor) {
+        return Dinheiro.de(valor).getCentavos();
+    }
+
+    LedgerShard shardDe(UUID contaId) {
+        return shards[Math.floorMod(contaId.hashCode(), shards.length)];
+    }
+
+    /**
+     * Enfileira o comando no shard da conta. Com a fila cheia aguarda até o timeout
+     * configurado e então recusa o comando.
+     */
+    private CompletableFuture<Transacao> submeter(UUID contaId, ComandoLedger comando) {
+        if (!executando) {
+            throw new RuntimeException("Ledger não está em execução");
+        }
+
+        LedgerShard shard = shardDe(contaId);
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (!shard.oferecer(comando)) {
+            if (System.nanoTime() > limite) {
+                throw new RuntimeException("Ledger sobrecarregado, tente novamente");
+            }
+            LockSupport.parkNanos(ESPERA_FILA_CHEIA_NANOS);
+        }
+        return comando.futuro;
+    }
+
+    /**
+     * Recupera os saldos do banco e inicia as threads escritoras
+     */
+    @Override
+    public void start() {
+        shards = new LedgerShard[quantidadeShards];
+        for (int i = 0; i < quantidadeShards; i++) {
+            shards[i] = new LedgerShard(i, this, persistencia, capacidadeFila, tamanhoLote);
+        }
+
+        for (ContaRepository.SaldoConta saldoConta : persistencia.carregarSaldos()) {
+            shardDe(saldoConta.getId()).carregar(saldoConta.getId(),
+                    paraCentavos(saldoConta.getSaldo()), paraCentavos(saldoConta.getLimiteCredito()));
+        }
+
+        executando = true;
+        for (LedgerShard shard : shards) {
+            shard.iniciar();
+        }
+    }
+
+    /**
+     * Para de aceitar comandos, grava o que já está nas filas e encerra as threads
+     */
+    @Override
+    public void stop() {
+        executando = false;
+        try {
+            for (LedgerShard shard : shards) {
+                shard.aguardarTermino();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        RuntimeException encerrado = new RuntimeException("Ledger encerrado");
+        for (LedgerShard shard : shards) {
+            shard.descartarPendentes(encerrado);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executando;
+    }
+}
@@ -0,0 +1,182 @@
+package com.bancobr.ledger;
+
+import com.bancobr.model.Conta;
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.TransacaoRepository;
+import com.bancobr.service.SaldoFracionadoService;
+import com.bancobr.util.OrdemUuid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Persistência do ledger em memória: leitura dos saldos na recuperação e gravação
+ * dos lotes de comandos aplicados pelos shards.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "bancobr.transacao.concorrencia.modo", havingValue = "LEDGER")
+public class LedgerPersistencia {
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SaldoFracionadoService saldoFracionadoService;
+
+    /**
+     * Carrega saldo e limite de todas as contas
+     */
+    public List<ContaRepository.SaldoConta> carregarSaldos() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> contaRepository.findAllSaldos());
+    }
+
+    /**
+     * Carrega saldo e limite de uma conta criada depois da recuperação
+     */
+    public Optional<ContaRepository.SaldoConta> buscarSaldo(UUID contaId) {
+        return contaRepository.findSaldoById(contaId);
+    }
+
+    /**
+     * Grava um lote em uma única transação: as transações em batch e um UPDATE de saldo
+     * por conta com a variação acumulada do lote. Os UPDATEs seguem a ordem de ID para
+     * não gerar deadlock com os lotes gravados por outros shards.
+     */
+    void persistir(List<ComandoLedger> lote) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            LocalDateTime agora = LocalDateTime.now();
+            Map<UUID, Long> deltas = new TreeMap<>(OrdemUuid.POSTGRES);
+            Map<UUID, LocalDateTime> ajustes = new TreeMap<>(OrdemUuid.POSTGRES);
+            List<Transacao> transacoes = new ArrayList<>();
+            Map<UUID, UUID> donos = buscarDonos(lote);
+
+            // realizada_em é o momento em que o shard aplicou o comando (na transferência entre
+            // shards, o débito na origem): o extrato, ordenado por ela, segue a ordem em que os
+            // saldos após gravados foram calculados
+            for (ComandoLedger comando : lote) {
+                LocalDateTime realizadaEm = comando.realizadaEm;
+                switch (comando.tipo) {
+                    case TRANSFERENCIA, CREDITO_TRANSFERENCIA -> {
+                        deltas.merge(comando.contaOrigem, -comando.centavos, Long::sum);
+                        deltas.merge(comando.contaDestino, comando.centavos, Long::sum);
+                        comando.transacao = novaTransacao(comando, comando.contaOrigem, comando.contaDestino,
+                                Transacao.TipoTransacao.TRANSFERENCIA, realizadaEm, donos);
+                        transacoes.add(comando.transacao);
+                    }
+                    case DEPOSITO -> {
+                        deltas.merge(comando.contaDestino, comando.centavos, Long::sum);
+                        comando.transacao = novaTransacao(comando, null, comando.contaDestino,
+                                Transacao.TipoTransacao.DEPOSITO, realizadaEm, donos);
+                        transacoes.add(comando.transacao);
+                    }
+                    case SAQUE -> {
+                        deltas.merge(comando.contaOrigem, -comando.centavos, Long::sum);
+                        comando.transacao = novaTransacao(comando, comando.contaOrigem, null,
+                                Transacao.TipoTransacao.SAQUE, realizadaEm, donos);
+                        transacoes.add(comando.transacao);
+                    }
+                    case AJUSTE, DEFINIR_SALDO -> {
+                        deltas.merge(comando.contaOrigem, comando.delta, Long::sum);
+                        if (comando.delta != 0) {
+                            ajustes.put(comando.contaOrigem, realizadaEm);
+                        }
+                    }
+                    default -> {
+                        // DEFINIR_LIMITE e ESTORNO não são persistidos pelo ledger
+                    }
+                }
+            }
+
+            transacaoRepository.saveAll(transacoes);
+            deltas.forEach((contaId, delta) -> ajustarSaldo(contaId, delta, agora));
+            ajustes.forEach(contaRepository::marcarSaldoAjustado);
+        });
+    }
+
+    /**
+     * Aplica a variação de um lote. Conta quente recebe créditos em slot e consolida
+     * os slots antes de um débito, pois o saldo em memória inclui os slots.
+     */
+    private void ajustarSaldo(UUID contaId, long delta, LocalDateTime agora) {
+        if (delta == 0) {
+            return;
+        }
+        BigDecimal valor = BigDecimal.valueOf(delta, 2);
+        boolean quente = saldoFracionadoService.isQuente(contaId);
+        if (quente && delta > 0) {
+            saldoFracionadoService.creditar(contaId, valor, "Conta não encontrada: " + contaId);
+            return;
+        }
+        if (quente) {
+            saldoFracionadoService.consolidar(contaId);
+        }
+        if (contaRepository.ajustarSaldo(contaId, valor, agora) == 0) {
+            throw new RuntimeException("Conta não encontrada: " + contaId);
+        }
+    }
+
+    /**
+     * Donos das contas movimentadas no lote, em uma única consulta
+     */
+    private Map<UUID, UUID> buscarDonos(List<ComandoLedger> lote) {
+        Set<UUID> contas = new HashSet<>();
+        for (ComandoLedger comando : lote) {
+            if (comando.contaOrigem != null) {
+                contas.add(comando.contaOrigem);
+            }
+            if (comando.contaDestino != null) {
+                contas.add(comando.contaDestino);
+            }
+        }
+        Map<UUID, UUID> donos = new HashMap<>();
+        if (!contas.isEmpty()) {
+            contaRepository.findDonosByIdIn(contas)
+                    .forEach(dono -> donos.put(dono.getId(), dono.getUsuarioId()));
+        }
+        return donos;
+    }
+
+    private Transacao novaTransacao(ComandoLedger comando, UUID contaOrigemId, UUID contaDestinoId,
+                                    Transacao.TipoTransacao tipo, LocalDateTime realizadaEm, Map<UUID, UUID> donos) {
+        Conta contaOrigem = contaOrigemId != null ? contaRepository.getReferenceById(contaOrigemId) : null;
+        Conta contaDestino = contaDestinoId != null ? contaRepository.getReferenceById(contaDestinoId) : null;
+        Transacao transacao = new Transacao(contaOrigem, contaDestino, tipo,
+                BigDecimal.valueOf(comando.centavos, 2), comando.descricao);
+        transacao.setRealizadaEm(realizadaEm);
+        transacao.setUsuarioOrigem(contaOrigemId != null ? donos.get(contaOrigemId) : null);
+        transacao.setUsuarioDestino(contaDestinoId != null ? donos.get(contaDestinoId) : null);
+        if (comando.saldoOrigemApos != null) {
+            transacao.setSaldoOrigemApos(BigDecimal.valueOf(comando.saldoOrigemApos, 2));
+        }
+        if (comando.saldoDestinoApos != null) {
+            transacao.setSaldoDestinoApos(BigDecimal.valueOf(comando.saldoDestinoApos, 2));
+        }
+        return transacao;
+    }
+}
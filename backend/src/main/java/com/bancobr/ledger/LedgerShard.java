@@ -0,0 +1,364 @@
+package com.bancobr.ledger;
+
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.util.RelogioTransacoes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Partição do ledger. Os saldos das contas do shard pertencem à sua thread escritora,
+ * que consome a fila de comandos, aplica em memória e grava em lote; nenhum outro
+ * código lê ou altera {@link #saldos}.
+ *
+ * Transferência entre shards: o shard da origem debita, registra o momento do débito
+ * (realizada_em) e encaminha o crédito ao shard do destino, que grava a transação completa.
+ * Se o crédito ou a gravação falhar, o débito volta à origem por um ESTORNO em memória.
+ *
+ * realizada_em segue, em cada conta, a ordem em que o shard calculou os saldos após. No
+ * destino de uma transferência entre shards isso vale se nenhum comando da conta foi
+ * registrado entre o débito e o crédito; senão o saldo após do destino não é gravado e
+ * fica para o preenchimento (POST /transacoes/saldo-apos/preenchimento).
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+final class LedgerShard implements Runnable {
+
+    private static final long ESPERA_OCIOSA_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int indice;
+    private final LedgerEngine engine;
+    private final LedgerPersistencia persistencia;
+    private final FilaMpsc<ComandoLedger> fila;
+    private final int tamanhoLote;
+
+    private final Map<UUID, SaldoMemoria> saldos = new HashMap<>();
+    private final List<ComandoLedger> lote = new ArrayList<>();
+    private final ArrayDeque<Encaminhamento> encaminhamentosPendentes = new ArrayDeque<>();
+
+    private volatile Thread escritor;
+    private volatile boolean dormindo;
+
+    LedgerShard(int indice, LedgerEngine engine, LedgerPersistencia persistencia, int capacidadeFila, int tamanhoLote) {
+        this.indice = indice;
+        this.engine = engine;
+        this.persistencia = persistencia;
+        this.fila = new FilaMpsc<>(capacidadeFila);
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Carrega o saldo de uma conta na recuperação, antes de a thread escritora iniciar
+     */
+    void carregar(UUID contaId, long saldo, long limite) {
+        saldos.put(contaId, new SaldoMemoria(saldo, limite));
+    }
+
+    void iniciar() {
+        Thread thread = new Thread(this, "ledger-shard-" + indice);
+        thread.setDaemon(true);
+        escritor = thread;
+        thread.start();
+    }
+
+    void aguardarTermino() throws InterruptedException {
+        Thread thread = escritor;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join();
+        }
+    }
+
+    /**
+     * Tenta enfileirar o comando; retorna false se a fila estiver cheia
+     */
+    boolean oferecer(ComandoLedger comando) {
+        if (!fila.oferecer(comando)) {
+            return false;
+        }
+        if (dormindo) {
+            LockSupport.unpark(escritor);
+        }
+        return true;
+    }
+
+    /**
+     * Falha os comandos que ficaram na fila após o término da thread escritora
+     */
+    void descartarPendentes(RuntimeException motivo) {
+        ComandoLedger comando;
+        while ((comando = fila.consumir()) != null) {
+            comando.futuro.completeExceptionally(motivo);
+        }
+    }
+
+    @Override
+    public void run() {
+        while (engine.isRunning() || !fila.vazia() || !encaminhamentosPendentes.isEmpty()) {
+            int processados = 0;
+            ComandoLedger comando;
+            while (processados < tamanhoLote && (comando = fila.consumir()) != null) {
+                processar(comando);
+                processados++;
+            }
+
+            reenviarEncaminhamentos();
+
+            if (!lote.isEmpty()) {
+                persistirLote();
+            } else if (processados == 0) {
+                aguardarComandos();
+            }
+        }
+    }
+
+    private void processar(ComandoLedger comando) {
+        try {
+            switch (comando.tipo) {
+                case TRANSFERENCIA -> debitarTransferencia(comando);
+                case CREDITO_TRANSFERENCIA -> creditarTransferencia(comando);
+                case DEPOSITO -> {
+                    SaldoMemoria destino = exigirConta(comando.contaDestino, "Conta destino não encontrada");
+                    destino.saldo += comando.centavos;
+                    comando.saldoDestinoApos = destino.saldo;
+                    adicionarAoLote(comando, destino);
+                }
+                case SAQUE -> {
+                    SaldoMemoria origem = exigirConta(comando.contaOrigem, "Conta origem não encontrada");
+                    exigirSaldo(origem, comando.centavos, "Saldo insuficiente");
+                    origem.saldo -= comando.centavos;
+                    comando.saldoOrigemApos = origem.saldo;
+                    adicionarAoLote(comando, origem);
+                }
+                case AJUSTE -> {
+                    SaldoMemoria conta = exigirConta(comando.contaOrigem, "Conta não encontrada");
+                    if (comando.validarSaldo) {
+                        exigirSaldo(conta, -comando.centavos, "Saldo insuficiente");
+                    }
+                    comando.delta = comando.centavos;
+                    conta.saldo += comando.delta;
+                    adicionarAoLote(comando, conta);
+                }
+                case DEFINIR_SALDO -> {
+                    SaldoMemoria conta = exigirConta(comando.contaOrigem, "Conta não encontrada");
+                    comando.delta = comando.centavos - conta.saldo;
+                    conta.saldo = comando.centavos;
+                    adicionarAoLote(comando, conta);
+                }
+                case DEFINIR_LIMITE -> {
+                    // Conta ainda não carregada lerá o limite novo do banco
+                    SaldoMemoria conta = saldos.get(comando.contaOrigem);
+                    if (conta != null) {
+                        conta.limite = comando.centavos;
+                    }
+                    comando.futuro.complete(null);
+                }
+                case ESTORNO -> {
+                    SaldoMemoria conta = saldos.get(comando.contaOrigem);
+                    if (conta != null) {
+                        conta.saldo += comando.centavos;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            comando.futuro.completeExceptionally(e);
+        }
+    }
+
+    private void debitarTransferencia(ComandoLedger comando) {
+        SaldoMemoria origem = exigirConta(comando.contaOrigem, "Conta origem não encontrada");
+        exigirSaldo(origem, comando.centavos, "Saldo insuficiente na conta origem");
+
+        LedgerShard shardDestino = engine.shardDe(comando.contaDestino);
+        if (shardDestino == this) {
+            SaldoMemoria destino = exigirConta(comando.contaDestino, "Conta destino não encontrada");
+            origem.saldo -= comando.centavos;
+            destino.saldo += comando.centavos;
+            comando.saldoOrigemApos = origem.saldo;
+            comando.saldoDestinoApos = destino.saldo;
+            adicionarAoLote(comando, origem, destino);
+            return;
+        }
+
+        origem.saldo -= comando.centavos;
+        comando.saldoOrigemApos = origem.saldo;
+        comando.realizadaEm = marcarRegistro(origem);
+        comando.tipo = ComandoLedger.Tipo.CREDITO_TRANSFERENCIA;
+        encaminhar(shardDestino, comando);
+    }
+
+    private void creditarTransferencia(ComandoLedger comando) {
+        SaldoMemoria destino;
+        try {
+            destino = exigirConta(comando.contaDestino, "Conta destino não encontrada");
+        } catch (RuntimeException e) {
+            // O débito já foi aplicado no shard da origem
+            encaminhar(engine.shardDe(comando.contaOrigem), ComandoLedger.estorno(comando.contaOrigem, comando.centavos));
+            throw e;
+        }
+        destino.saldo += comando.centavos;
+        // realizada_em é o momento do débito na origem: o saldo após do destino só segue
+        // essa ordem se nenhum comando da conta foi registrado depois dele
+        if (destino.ultimoRegistro == null || destino.ultimoRegistro.isBefore(comando.realizadaEm)) {
+            destino.ultimoRegistro = comando.realizadaEm;
+            comando.saldoDestinoApos = destino.saldo;
+        }
+        lote.add(comando);
+    }
+
+    /**
+     * Comando aplicado em memória: registra o momento da aplicação, que segue a ordem dos
+     * saldos após das contas alteradas, e o inclui no próximo lote gravado
+     */
+    private void adicionarAoLote(ComandoLedger comando, SaldoMemoria... contas) {
+        comando.realizadaEm = marcarRegistro(contas);
+        lote.add(comando);
+    }
+
+    private static LocalDateTime marcarRegistro(SaldoMemoria... contas) {
+        LocalDateTime agora = RelogioTransacoes.agora();
+        for (SaldoMemoria conta : contas) {
+            conta.ultimoRegistro = agora;
+        }
+        return agora;
+    }
+
+    /**
+     * Grava o lote e conclui os futuros; em caso de falha desfaz em memória tudo o que o lote aplicou
+     */
+    private void persistirLote() {
+        try {
+            persistencia.persistir(lote);
+            for (ComandoLedger comando : lote) {
+                comando.futuro.complete(comando.transacao);
+            }
+        } catch (RuntimeException e) {
+            RuntimeException falha = new RuntimeException("Falha ao gravar operação no ledger: " + e.getMessage(), e);
+            for (int i = lote.size() - 1; i >= 0; i--) {
+                ComandoLedger comando = lote.get(i);
+                desfazer(comando);
+                comando.transacao = null;
+                comando.futuro.completeExceptionally(falha);
+            }
+        } finally {
+            lote.clear();
+        }
+    }
+
+    private void desfazer(ComandoLedger comando) {
+        switch (comando.tipo) {
+            case TRANSFERENCIA -> {
+                saldos.get(comando.contaOrigem).saldo += comando.centavos;
+                saldos.get(comando.contaDestino).saldo -= comando.centavos;
+            }
+            case CREDITO_TRANSFERENCIA -> {
+                saldos.get(comando.contaDestino).saldo -= comando.centavos;
+                encaminhar(engine.shardDe(comando.contaOrigem), ComandoLedger.estorno(comando.contaOrigem, comando.centavos));
+            }
+            case DEPOSITO -> saldos.get(comando.contaDestino).saldo -= comando.centavos;
+            case SAQUE -> saldos.get(comando.contaOrigem).saldo += comando.centavos;
+            case AJUSTE, DEFINIR_SALDO -> saldos.get(comando.contaOrigem).saldo -= comando.delta;
+            default -> {
+                // Demais comandos não entram no lote
+            }
+        }
+    }
+
+    /**
+     * Encaminha um comando a outro shard sem bloquear; se a fila dele estiver cheia o comando
+     * fica pendente aqui, para que dois shards cheios não esperem um pelo outro
+     */
+    private void encaminhar(LedgerShard destino, ComandoLedger comando) {
+        if (!encaminhamentosPendentes.isEmpty() || !destino.oferecer(comando)) {
+            encaminhamentosPendentes.addLast(new Encaminhamento(destino, comando));
+        }
+    }
+
+    private void reenviarEncaminhamentos() {
+        while (!encaminhamentosPendentes.isEmpty()) {
+            Encaminhamento pendente = encaminhamentosPendentes.peekFirst();
+            if (!pendente.destino.oferecer(pendente.comando)) {
+                return;
+            }
+            encaminhamentosPendentes.removeFirst();
+        }
+    }
+
+    private void aguardarComandos() {
+        dormindo = true;
+        if (fila.vazia() && engine.isRunning()) {
+            LockSupport.parkNanos(this, ESPERA_OCIOSA_NANOS);
+        }
+        dormindo = false;
+    }
+
+    private SaldoMemoria exigirConta(UUID contaId, String mensagem) {
+        SaldoMemoria conta = saldos.get(contaId);
+        if (conta == null) {
+            conta = carregarDoBanco(contaId);
+        }
+        if (conta == null) {
+            throw new RuntimeException(mensagem);
+        }
+        return conta;
+    }
+
+    private static void exigirSaldo(SaldoMemoria conta, long centavos, String mensagem) {
+        if (conta.saldo + conta.limite < centavos) {
+            throw new RuntimeException(mensagem);
+        }
+    }
+
+    /**
+     * Carrega uma conta criada depois da recuperação. Todas as alterações de saldo de uma
+     * conta passam pelo seu shard, então a leitura do banco não perde alterações em memória.
+     */
+    private SaldoMemoria carregarDoBanco(UUID contaId) {
+        return persistencia.buscarSaldo(contaId)
+                .map(this::registrar)
+                .orElse(null);
+    }
+
+    private SaldoMemoria registrar(ContaRepository.SaldoConta saldoConta) {
+        SaldoMemoria conta = new SaldoMemoria(LedgerEngine.paraCentavos(saldoConta.getSaldo()),
+                LedgerEngine.paraCentavos(saldoConta.getLimiteCredito()));
+        saldos.put(saldoConta.getId(), conta);
+        return conta;
+    }
+
+    /**
+     * Saldo e limite em centavos, confinados à thread escritora, e o realizada_em mais
+     * recente registrado na conta
+     */
+    private static final class SaldoMemoria {
+        private long saldo;
+        private long limite;
+        private LocalDateTime ultimoRegistro;
+
+        private SaldoMemoria(long saldo, long limite) {
+            this.saldo = saldo;
+            this.limite = limite;
+        }
+    }
+
+    /**
+     * Comando aguardando espaço na fila de outro shard
+     */
+    private static final class Encaminhamento {
+        private final LedgerShard destino;
+        private final ComandoLedger comando;
+
+        private Encaminhamento(LedgerShard destino, ComandoLedger comando) {
+            this.destino = destino;
+            this.comando = comando;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.bancobr.model;
+
+import org.hibernate.property.access.spi.Getter;
+import org.hibernate.property.access.spi.GetterMethodImpl;
+import org.hibernate.property.access.spi.PropertyAccess;
+import org.hibernate.property.access.spi.PropertyAccessStrategy;
+import org.hibernate.property.access.spi.Setter;
+import org.hibernate.property.access.spi.SetterMethodImpl;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+
+/**
+ * Acesso do Hibernate a uma coluna NUMERIC cujo valor a entidade mantém em centavos.
+ *
+ * O atributo {@code x} é lido e gravado pelos métodos {@code getXColuna()} e
+ * {@code setXColuna(BigDecimal)} da própria entidade, e não pelo campo: a conversão entre
+ * centavos e BigDecimal acontece só na carga e no flush, não a cada alteração do valor.
+ * O nome do atributo nas consultas JPQL continua o do campo.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+public class AcessoColunaCentavos implements PropertyAccessStrategy {
+
+    @Override
+    public PropertyAccess buildPropertyAccess(Class<?> classe, String atributo, boolean setterRequired) {
+        String sufixo = Character.toUpperCase(atributo.charAt(0)) + atributo.substring(1) + "Coluna";
+        Method leitura;
+        Method escrita;
+        try {
+            leitura = classe.getDeclaredMethod("get" + sufixo);
+            escrita = classe.getDeclaredMethod("set" + sufixo, BigDecimal.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Acesso à coluna não encontrado: " + classe.getName() + "." + atributo, e);
+        }
+        leitura.setAccessible(true);
+        escrita.setAccessible(true);
+
+        Getter getter = new GetterMethodImpl(classe, atributo, leitura);
+        Setter setter = new SetterMethodImpl(classe, atributo, escrita);
+        return new PropertyAccess() {
+            @Override
+            public PropertyAccessStrategy getPropertyAccessStrategy() {
+                return AcessoColunaCentavos.this;
+            }
+
+            @Override
+            public Getter getGetter() {
+                return getter;
+            }
+
+            @Override
+            public Setter getSetter() {
+                return setter;
+            }
+        };
+    }
+}
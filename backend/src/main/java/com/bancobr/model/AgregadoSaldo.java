@@ -0,0 +1,89 @@
+package com.bancobr.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidade AgregadoSaldo do Sistema Bancário: saldo somado e quantidade de contas de uma
+ * agência e tipo de conta, gravados periodicamente por
+ * {@link com.bancobr.service.AgregadoSaldoService} para a retomada após reinício
+ */
+@Entity
+@Table(name = "agregados_saldo")
+public class AgregadoSaldo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "agencia", nullable = false, length = 10)
+    private String agencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 20)
+    private Conta.TipoConta tipo;
+
+    @Column(name = "saldo", nullable = false, precision = 18, scale = 2)
+    private BigDecimal saldo;
+
+    @Column(name = "contas", nullable = false)
+    private long contas;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    // Construtores
+    public AgregadoSaldo() {}
+
+    // Getters e Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getAgencia() {
+        return agencia;
+    }
+
+    public void setAgencia(String agencia) {
+        this.agencia = agencia;
+    }
+
+    public Conta.TipoConta getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(Conta.TipoConta tipo) {
+        this.tipo = tipo;
+    }
+
+    public BigDecimal getSaldo() {
+        return saldo;
+    }
+
+    public void setSaldo(BigDecimal saldo) {
+        this.saldo = saldo;
+    }
+
+    public long getContas() {
+        return contas;
+    }
+
+    public void setContas(long contas) {
+        this.contas = contas;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(LocalDateTime atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.AttributeAccessor;
+import org.hibernate.annotations.Formula;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -16,6 +18,11 @@ import java.util.UUID;
 
 /**
  * Entidade Conta do Sistema Bancário
+ *
+ * Saldo, limite e slots são mantidos em centavos: validação de saldo e débito/crédito
+ * são feitos em {@code long}. O Hibernate lê e grava as colunas NUMERIC por
+ * {@link AcessoColunaCentavos}; o BigDecimal do saldo só é criado quando lido (flush,
+ * resposta da API), não a cada débito ou crédito.
  * 
  * @author Sistema Bancário
  * @version 1.0.0
@@ -47,14 +54,40 @@ public class Conta {
     @Column(name = "tipo", nullable = false)
     private TipoConta tipo;
 
-    @DecimalMin(value = "0.0", message = "Saldo não pode ser negativo")
+    /**
+     * Saldo da linha como BigDecimal; nulo depois de uma alteração, até ser lido
+     */
     @Column(name = "saldo", nullable = false, precision = 15, scale = 2)
+    @AttributeAccessor(strategy = AcessoColunaCentavos.class)
     private BigDecimal saldo = BigDecimal.ZERO;
 
-    @DecimalMin(value = "0.0", message = "Limite de crédito não pode ser negativo")
     @Column(name = "limite_credito", nullable = false, precision = 15, scale = 2)
+    @AttributeAccessor(strategy = AcessoColunaCentavos.class)
     private BigDecimal limiteCredito = BigDecimal.ZERO;
 
+    /**
+     * Conta quente: créditos vão para os slots de conta_saldo_slots em vez desta linha
+     */
+    @Column(name = "quente", nullable = false)
+    private boolean quente = false;
+
+    /**
+     * Soma dos slots de saldo (somente leitura; zero para contas que não são quentes)
+     */
+    @Formula("(CASE WHEN quente THEN (SELECT COALESCE(SUM(s.saldo), 0) FROM conta_saldo_slots s WHERE s.conta_id = id) ELSE 0 END)")
+    @AttributeAccessor(strategy = AcessoColunaCentavos.class)
+    @JsonIgnore
+    private BigDecimal saldoSlots = BigDecimal.ZERO;
+
+    @Transient
+    private long saldoCentavos;
+
+    @Transient
+    private long limiteCreditoCentavos;
+
+    @Transient
+    private long saldoSlotsCentavos;
+
     @CreatedDate
     @Column(name = "criado_em", nullable = false, updatable = false)
     private LocalDateTime criadoEm;
@@ -122,12 +155,34 @@ public class Conta {
         this.tipo = tipo;
     }
 
+    /**
+     * Saldo total: saldo da linha da conta mais os slots de conta quente
+     */
     public BigDecimal getSaldo() {
-        return saldo;
+        return saldoSlotsCentavos == 0 ? getSaldoColuna() : Dinheiro.deCentavos(saldoCentavos + saldoSlotsCentavos).paraBigDecimal();
     }
 
+    /**
+     * Define o saldo da linha da conta; os slots não são alterados
+     */
     public void setSaldo(BigDecimal saldo) {
-        this.saldo = saldo;
+        setSaldoColuna(saldo);
+    }
+
+    /**
+     * Saldo da linha da conta, sem os slots
+     */
+    @JsonIgnore
+    public BigDecimal getSaldoLinha() {
+        return getSaldoColuna();
+    }
+
+    public boolean isQuente() {
+        return quente;
+    }
+
+    public void setQuente(boolean quente) {
+        this.quente = quente;
     }
 
     public BigDecimal getLimiteCredito() {
@@ -135,7 +190,12 @@ public class Conta {
     }
 
     public void setLimiteCredito(BigDecimal limiteCredito) {
-        this.limiteCredito = limiteCredito;
+        setLimiteCreditoColuna(limiteCredito);
+    }
+
+    public void setLimiteCredito(Dinheiro limiteCredito) {
+        this.limiteCredito = limiteCredito.paraBigDecimal();
+        this.limiteCreditoCentavos = limiteCredito.getCentavos();
     }
 
     public LocalDateTime getCriadoEm() {
@@ -154,6 +214,39 @@ public class Conta {
         this.atualizadoEm = atualizadoEm;
     }
 
+    // Acesso do Hibernate às colunas (AcessoColunaCentavos)
+    @DecimalMin(value = "0.0", message = "Saldo não pode ser negativo")
+    BigDecimal getSaldoColuna() {
+        if (saldo == null) {
+            saldo = BigDecimal.valueOf(saldoCentavos, 2);
+        }
+        return saldo;
+    }
+
+    void setSaldoColuna(BigDecimal saldo) {
+        this.saldo = saldo;
+        this.saldoCentavos = centavos(saldo);
+    }
+
+    @DecimalMin(value = "0.0", message = "Limite de crédito não pode ser negativo")
+    BigDecimal getLimiteCreditoColuna() {
+        return limiteCredito;
+    }
+
+    void setLimiteCreditoColuna(BigDecimal limiteCredito) {
+        this.limiteCredito = limiteCredito;
+        this.limiteCreditoCentavos = centavos(limiteCredito);
+    }
+
+    BigDecimal getSaldoSlotsColuna() {
+        return saldoSlots;
+    }
+
+    void setSaldoSlotsColuna(BigDecimal saldoSlots) {
+        this.saldoSlots = saldoSlots;
+        this.saldoSlotsCentavos = centavos(saldoSlots);
+    }
+
     public List<Transacao> getTransacoesOrigem() {
         return transacoesOrigem;
     }
@@ -172,22 +265,69 @@ public class Conta {
 
     // Métodos de negócio
     public BigDecimal getSaldoDisponivel() {
-        return saldo.add(limiteCredito);
+        return Dinheiro.deCentavos(saldoCentavos + saldoSlotsCentavos + limiteCreditoCentavos).paraBigDecimal();
     }
 
     public boolean temSaldoSuficiente(BigDecimal valor) {
-        return getSaldoDisponivel().compareTo(valor) >= 0;
+        return temSaldoSuficiente(Dinheiro.de(valor));
+    }
+
+    /**
+     * Saldo total (linha e slots) mais o limite cobre o valor
+     */
+    public boolean temSaldoSuficiente(Dinheiro valor) {
+        return saldoCentavos + saldoSlotsCentavos + limiteCreditoCentavos >= valor.getCentavos();
+    }
+
+    /**
+     * Saldo da linha mais o limite cobre o valor, sem contar os slots
+     */
+    public boolean temSaldoNaLinha(Dinheiro valor) {
+        return saldoCentavos + limiteCreditoCentavos >= valor.getCentavos();
     }
 
     public void creditar(BigDecimal valor) {
-        this.saldo = this.saldo.add(valor);
+        creditar(Dinheiro.de(valor));
+    }
+
+    public void creditar(Dinheiro valor) {
+        definirSaldoCentavos(Dinheiro.somar(saldoCentavos, valor.getCentavos()));
     }
 
     public void debitar(BigDecimal valor) {
-        if (!temSaldoSuficiente(valor)) {
+        debitar(Dinheiro.de(valor));
+    }
+
+    /**
+     * Debita da linha da conta. Em conta quente os slots precisam ter sido
+     * consolidados antes (ver SaldoFracionadoService), pois o débito não os usa.
+     */
+    public void debitar(Dinheiro valor) {
+        if (!temSaldoNaLinha(valor)) {
             throw new RuntimeException("Saldo insuficiente");
         }
-        this.saldo = this.saldo.subtract(valor);
+        definirSaldoCentavos(Dinheiro.somar(saldoCentavos, -valor.getCentavos()));
+    }
+
+    /**
+     * Incorpora ao saldo da linha o valor retirado dos slots pela consolidação
+     */
+    public void incorporarSlots(BigDecimal valorConsolidado) {
+        definirSaldoCentavos(Dinheiro.somar(saldoCentavos, centavos(valorConsolidado)));
+        this.saldoSlots = BigDecimal.ZERO;
+        this.saldoSlotsCentavos = 0;
+    }
+
+    /**
+     * Novo saldo da linha; o BigDecimal é recriado na próxima leitura (no flush, pelo Hibernate)
+     */
+    private void definirSaldoCentavos(long centavos) {
+        this.saldoCentavos = centavos;
+        this.saldo = null;
+    }
+
+    private static long centavos(BigDecimal valor) {
+        return valor == null ? 0 : Dinheiro.de(valor).getCentavos();
     }
 
     @Override
@@ -197,7 +337,7 @@ public class Conta {
                 ", agencia='" + agencia + '\'' +
                 ", numeroConta='" + numeroConta + '\'' +
                 ", tipo=" + tipo +
-                ", saldo=" + saldo +
+                ", saldo=" + getSaldo() +
                 ", limiteCredito=" + limiteCredito +
                 '}';
     }
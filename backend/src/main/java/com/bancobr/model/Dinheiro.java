@@ -0,0 +1,221 @@
+package com.bancobr.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Valor monetário imutável em centavos ({@code long}), com aritmética verificada contra overflow.
+ *
+ * É o ponto único de leitura e validação de valores vindos das requisições: converte
+ * texto e números do JSON sem passar por {@code new BigDecimal(valor.toString())} e recusa
+ * mais de duas casas decimais (o que NUMERIC(15,2) arredondaria em silêncio). O ledger em
+ * memória trabalha diretamente com os centavos.
+ *
+ * As colunas das entidades continuam mapeadas como {@link BigDecimal}: a escala dos valores
+ * devolvidos por {@link Conta} e {@link Transacao} faz parte do contrato da API, e as
+ * atualizações de saldo por JPQL precisam de aritmética sobre atributos numéricos. A
+ * aritmética de saldo em {@link Conta} é feita sobre os centavos.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+public final class Dinheiro implements Comparable<Dinheiro> {
+
+    public static final Dinheiro ZERO = new Dinheiro(0);
+
+    private final long centavos;
+
+    private Dinheiro(long centavos) {
+        this.centavos = centavos;
+    }
+
+    /**
+     * Valor a partir de centavos
+     */
+    public static Dinheiro deCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Dinheiro(centavos);
+    }
+
+    /**
+     * Valor a partir de um BigDecimal com no máximo duas casas decimais
+     */
+    public static Dinheiro de(BigDecimal valor) {
+        if (valor == null) {
+            throw new RuntimeException("Valor é obrigatório");
+        }
+        if (valor.signum() == 0) {
+            return ZERO;
+        }
+        try {
+            return new Dinheiro(valor.movePointRight(2).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new RuntimeException(valor.scale() > 2 && valor.stripTrailingZeros().scale() > 2
+                    ? "Valor deve ter no máximo duas casas decimais"
+                    : "Valor fora do limite permitido");
+        }
+    }
+
+    /**
+     * Valor a partir de texto no formato {@code 1234}, {@code 1234.5} ou {@code 1234.56},
+     * opcionalmente com sinal, sem passar por BigDecimal
+     */
+    public static Dinheiro de(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            throw new RuntimeException("Valor é obrigatório");
+        }
+
+        int posicao = 0;
+        boolean negativo = false;
+        char sinal = texto.charAt(0);
+        if (sinal == '-' || sinal == '+') {
+            negativo = sinal == '-';
+            posicao++;
+        }
+
+        long centavos = 0;
+        int digitosInteiros = 0;
+        int casasDecimais = -1;
+        try {
+            for (; posicao < texto.length(); posicao++) {
+                char c = texto.charAt(posicao);
+                if (c == '.' && casasDecimais < 0) {
+                    casasDecimais = 0;
+                } else if (c >= '0' && c <= '9') {
+                    if (casasDecimais >= 0 && ++casasDecimais > 2) {
+                        if (c != '0') {
+                            throw new RuntimeException("Valor deve ter no máximo duas casas decimais");
+                        }
+                        continue;
+                    }
+                    if (casasDecimais < 0) {
+                        digitosInteiros++;
+                    }
+                    centavos = Math.addExact(Math.multiplyExact(centavos, 10), c - '0');
+                } else {
+                    throw new RuntimeException("Valor inválido: " + texto);
+                }
+            }
+            if (digitosInteiros == 0 && casasDecimais <= 0) {
+                throw new RuntimeException("Valor inválido: " + texto);
+            }
+            for (int casas = Math.max(casasDecimais, 0); casas < 2; casas++) {
+                centavos = Math.multiplyExact(centavos, 10);
+            }
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Valor fora do limite permitido");
+        }
+        return deCentavos(negativo ? -centavos : centavos);
+    }
+
+    /**
+     * Valor a partir do que chega no corpo JSON: texto, inteiro ou decimal
+     */
+    public static Dinheiro de(Object valor) {
+        if (valor == null) {
+            throw new RuntimeException("Valor é obrigatório");
+        }
+        if (valor instanceof Dinheiro dinheiro) {
+            return dinheiro;
+        }
+        if (valor instanceof String texto) {
+            return de(texto.trim());
+        }
+        if (valor instanceof Integer || valor instanceof Long || valor instanceof Short || valor instanceof Byte) {
+            try {
+                return deCentavos(Math.multiplyExact(((Number) valor).longValue(), 100));
+            } catch (ArithmeticException e) {
+                throw new RuntimeException("Valor fora do limite permitido");
+            }
+        }
+        if (valor instanceof BigDecimal decimal) {
+            return de(decimal);
+        }
+        if (valor instanceof Double || valor instanceof Float) {
+            // Double.toString usa notação científica para valores grandes
+            String texto = valor.toString();
+            return texto.indexOf('E') >= 0 ? de(new BigDecimal(texto)) : de(texto);
+        }
+        throw new RuntimeException("Valor inválido");
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    /**
+     * Soma de centavos verificada contra overflow, sem alocar valores intermediários
+     */
+    static long somar(long centavos, long outros) {
+        try {
+            return Math.addExact(centavos, outros);
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Valor fora do limite permitido");
+        }
+    }
+
+    public Dinheiro somar(Dinheiro outro) {
+        if (outro.centavos == 0) {
+            return this;
+        }
+        try {
+            return deCentavos(Math.addExact(centavos, outro.centavos));
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Valor fora do limite permitido");
+        }
+    }
+
+    public Dinheiro subtrair(Dinheiro outro) {
+        if (outro.centavos == 0) {
+            return this;
+        }
+        try {
+            return deCentavos(Math.subtractExact(centavos, outro.centavos));
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Valor fora do limite permitido");
+        }
+    }
+
+    public Dinheiro negar() {
+        try {
+            return deCentavos(Math.negateExact(centavos));
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Valor fora do limite permitido");
+        }
+    }
+
+    public int signum() {
+        return Long.signum(centavos);
+    }
+
+    public boolean isPositivo() {
+        return centavos > 0;
+    }
+
+    public BigDecimal paraBigDecimal() {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof Dinheiro dinheiro && dinheiro.centavos == centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    /**
+     * Valor com duas casas decimais, por exemplo {@code 1234.50}
+     */
+    @Override
+    public String toString() {
+        long absoluto = Math.abs(centavos);
+        long resto = absoluto % 100;
+        return (centavos < 0 ? "-" : "") + (absoluto / 100) + (resto < 10 ? ".0" : ".") + resto;
+    }
+}
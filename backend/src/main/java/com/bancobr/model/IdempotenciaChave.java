@@ -0,0 +1,108 @@
+package com.bancobr.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidade IdempotenciaChave do Sistema Bancário: resposta de uma operação
+ * financeira registrada pela chave enviada no header Idempotency-Key
+ */
+@Entity
+@Table(name = "idempotencia_chaves")
+public class IdempotenciaChave {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "usuario", nullable = false)
+    private String usuario;
+
+    @Column(name = "chave", nullable = false)
+    private String chave;
+
+    @Column(name = "operacao", nullable = false, length = 30)
+    private String operacao;
+
+    @Column(name = "hash_requisicao", nullable = false, length = 64)
+    private String hashRequisicao;
+
+    @Column(name = "status_http")
+    private Integer statusHttp;
+
+    @Column(name = "resposta", columnDefinition = "TEXT")
+    private String resposta;
+
+    @Column(name = "criada_em", nullable = false)
+    private LocalDateTime criadaEm;
+
+    // Construtores
+    public IdempotenciaChave() {}
+
+    // Getters e Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    public void setChave(String chave) {
+        this.chave = chave;
+    }
+
+    public String getOperacao() {
+        return operacao;
+    }
+
+    public void setOperacao(String operacao) {
+        this.operacao = operacao;
+    }
+
+    public String getHashRequisicao() {
+        return hashRequisicao;
+    }
+
+    public void setHashRequisicao(String hashRequisicao) {
+        this.hashRequisicao = hashRequisicao;
+    }
+
+    public Integer getStatusHttp() {
+        return statusHttp;
+    }
+
+    public void setStatusHttp(Integer statusHttp) {
+        this.statusHttp = statusHttp;
+    }
+
+    public String getResposta() {
+        return resposta;
+    }
+
+    public void setResposta(String resposta) {
+        this.resposta = resposta;
+    }
+
+    public LocalDateTime getCriadaEm() {
+        return criadaEm;
+    }
+
+    public void setCriadaEm(LocalDateTime criadaEm) {
+        this.criadaEm = criadaEm;
+    }
+}
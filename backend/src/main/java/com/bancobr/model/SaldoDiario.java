@@ -0,0 +1,84 @@
+package com.bancobr.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidade SaldoDiario do Sistema Bancário: saldo da conta ao fim de um dia,
+ * gravado pela rotina noturna de {@link com.bancobr.service.SaldoDiarioService}
+ */
+@Entity
+@Table(name = "saldos_diarios")
+public class SaldoDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "conta_id", nullable = false)
+    private UUID contaId;
+
+    @Column(name = "data", nullable = false)
+    private LocalDate data;
+
+    @Column(name = "saldo", nullable = false, precision = 15, scale = 2)
+    private BigDecimal saldo;
+
+    @Column(name = "gerado_em", nullable = false)
+    private LocalDateTime geradoEm;
+
+    // Construtores
+    public SaldoDiario() {}
+
+    public SaldoDiario(UUID contaId, LocalDate data, BigDecimal saldo) {
+        this.contaId = contaId;
+        this.data = data;
+        this.saldo = saldo;
+        this.geradoEm = LocalDateTime.now();
+    }
+
+    // Getters e Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getContaId() {
+        return contaId;
+    }
+
+    public void setContaId(UUID contaId) {
+        this.contaId = contaId;
+    }
+
+    public LocalDate getData() {
+        return data;
+    }
+
+    public void setData(LocalDate data) {
+        this.data = data;
+    }
+
+    public BigDecimal getSaldo() {
+        return saldo;
+    }
+
+    public void setSaldo(BigDecimal saldo) {
+        this.saldo = saldo;
+    }
+
+    public LocalDateTime getGeradoEm() {
+        return geradoEm;
+    }
+
+    public void setGeradoEm(LocalDateTime geradoEm) {
+        this.geradoEm = geradoEm;
+    }
+}
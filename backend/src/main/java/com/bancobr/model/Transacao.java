@@ -1,9 +1,11 @@
 package com.bancobr.model;
 
+import com.bancobr.evento.PublicadorTransacaoGravada;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.Hibernate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -19,7 +21,7 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "transacoes")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, PublicadorTransacaoGravada.class})
 public class Transacao {
 
     @Id
@@ -45,6 +47,12 @@ public class Transacao {
     @Column(name = "valor", nullable = false, precision = 15, scale = 2)
     private BigDecimal valor;
 
+    /**
+     * Valor em centavos para o débito/crédito das contas, sem converter o BigDecimal
+     */
+    @Transient
+    private Dinheiro quantia;
+
     @Column(name = "descricao", length = 500)
     private String descricao;
 
@@ -52,6 +60,30 @@ public class Transacao {
     @Column(name = "realizada_em", nullable = false, updatable = false)
     private LocalDateTime realizadaEm;
 
+    /**
+     * Saldo da conta origem logo após a transação (nulo quando não registrado)
+     */
+    @Column(name = "saldo_origem_apos", precision = 15, scale = 2)
+    private BigDecimal saldoOrigemApos;
+
+    /**
+     * Saldo da conta destino logo após a transação (nulo quando não registrado)
+     */
+    @Column(name = "saldo_destino_apos", precision = 15, scale = 2)
+    private BigDecimal saldoDestinoApos;
+
+    /**
+     * Donos das contas origem e destino, gravados com a transação para as consultas
+     * por usuário (o trigger trg_transacoes_usuarios preenche os que ficarem nulos)
+     */
+    @Column(name = "usuario_origem")
+    @JsonIgnore
+    private UUID usuarioOrigem;
+
+    @Column(name = "usuario_destino")
+    @JsonIgnore
+    private UUID usuarioDestino;
+
     // Construtores
     public Transacao() {}
 
@@ -63,6 +95,11 @@ public class Transacao {
         this.descricao = descricao;
     }
 
+    public Transacao(Conta contaOrigem, Conta contaDestino, TipoTransacao tipo, Dinheiro valor, String descricao) {
+        this(contaOrigem, contaDestino, tipo, valor.paraBigDecimal(), descricao);
+        this.quantia = valor;
+    }
+
     // Getters e Setters
     public UUID getId() {
         return id;
@@ -102,6 +139,7 @@ public class Transacao {
 
     public void setValor(BigDecimal valor) {
         this.valor = valor;
+        this.quantia = null;
     }
 
     public String getDescricao() {
@@ -120,10 +158,64 @@ public class Transacao {
         this.realizadaEm = realizadaEm;
     }
 
+    public BigDecimal getSaldoOrigemApos() {
+        return saldoOrigemApos;
+    }
+
+    public void setSaldoOrigemApos(BigDecimal saldoOrigemApos) {
+        this.saldoOrigemApos = saldoOrigemApos;
+    }
+
+    public BigDecimal getSaldoDestinoApos() {
+        return saldoDestinoApos;
+    }
+
+    public void setSaldoDestinoApos(BigDecimal saldoDestinoApos) {
+        this.saldoDestinoApos = saldoDestinoApos;
+    }
+
+    public UUID getUsuarioOrigem() {
+        return usuarioOrigem;
+    }
+
+    public void setUsuarioOrigem(UUID usuarioOrigem) {
+        this.usuarioOrigem = usuarioOrigem;
+    }
+
+    public UUID getUsuarioDestino() {
+        return usuarioDestino;
+    }
+
+    public void setUsuarioDestino(UUID usuarioDestino) {
+        this.usuarioDestino = usuarioDestino;
+    }
+
+    /**
+     * Preenche os donos das contas já carregadas; referências não carregadas ficam para
+     * o trigger, sem uma consulta a mais por conta
+     */
+    @PrePersist
+    void preencherUsuarios() {
+        if (usuarioOrigem == null) {
+            usuarioOrigem = donoCarregado(contaOrigem);
+        }
+        if (usuarioDestino == null) {
+            usuarioDestino = donoCarregado(contaDestino);
+        }
+    }
+
+    private static UUID donoCarregado(Conta conta) {
+        if (conta == null || !Hibernate.isInitialized(conta) || conta.getUsuario() == null) {
+            return null;
+        }
+        return conta.getUsuario().getId();
+    }
+
     /**
      * Processa a transação
      */
     public void processar() {
+        Dinheiro valor = quantia != null ? quantia : Dinheiro.de(this.valor);
         if (tipo == TipoTransacao.TRANSFERENCIA) {
             if (contaOrigem != null && contaDestino != null) {
                 contaOrigem.debitar(valor);
@@ -138,6 +230,16 @@ public class Transacao {
                 contaOrigem.debitar(valor);
             }
         }
+        saldoOrigemApos = saldoApos(contaOrigem);
+        saldoDestinoApos = saldoApos(contaDestino);
+    }
+
+    /**
+     * Saldo da conta carregada após a alteração. Conta quente fica sem registro: os
+     * créditos em slot não bloqueiam a conta, então o saldo lido pode não ser o atual.
+     */
+    public static BigDecimal saldoApos(Conta conta) {
+        return conta == null || conta.isQuente() ? null : conta.getSaldo();
     }
 
     /**
@@ -0,0 +1,175 @@
+package com.bancobr.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidade TransferenciaPendente do Sistema Bancário: transferência assíncrona aceita,
+ * executada por um worker que a reserva na tabela
+ */
+@Entity
+@Table(name = "transferencias_pendentes")
+public class TransferenciaPendente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "usuario", nullable = false)
+    private String usuario;
+
+    @Column(name = "conta_origem", nullable = false, length = 20)
+    private String contaOrigem;
+
+    @Column(name = "conta_destino", nullable = false, length = 20)
+    private String contaDestino;
+
+    @Column(name = "valor", nullable = false, precision = 15, scale = 2)
+    private BigDecimal valor;
+
+    @Column(name = "descricao", columnDefinition = "TEXT")
+    private String descricao;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    private Estado estado;
+
+    @Column(name = "reserva")
+    private UUID reserva;
+
+    @Column(name = "transacao_id")
+    private UUID transacaoId;
+
+    @Column(name = "erro", columnDefinition = "TEXT")
+    private String erro;
+
+    @Column(name = "criada_em", nullable = false)
+    private LocalDateTime criadaEm;
+
+    @Column(name = "atualizada_em", nullable = false)
+    private LocalDateTime atualizadaEm;
+
+    // Construtores
+    public TransferenciaPendente() {}
+
+    public TransferenciaPendente(String usuario, String contaOrigem, String contaDestino, BigDecimal valor, String descricao) {
+        this.usuario = usuario;
+        this.contaOrigem = contaOrigem;
+        this.contaDestino = contaDestino;
+        this.valor = valor;
+        this.descricao = descricao;
+        this.estado = Estado.PENDENTE;
+        this.criadaEm = LocalDateTime.now();
+        this.atualizadaEm = criadaEm;
+    }
+
+    // Getters e Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public String getContaOrigem() {
+        return contaOrigem;
+    }
+
+    public void setContaOrigem(String contaOrigem) {
+        this.contaOrigem = contaOrigem;
+    }
+
+    public String getContaDestino() {
+        return contaDestino;
+    }
+
+    public void setContaDestino(String contaDestino) {
+        this.contaDestino = contaDestino;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public void setDescricao(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public void setEstado(Estado estado) {
+        this.estado = estado;
+    }
+
+    public UUID getReserva() {
+        return reserva;
+    }
+
+    public void setReserva(UUID reserva) {
+        this.reserva = reserva;
+    }
+
+    public UUID getTransacaoId() {
+        return transacaoId;
+    }
+
+    public void setTransacaoId(UUID transacaoId) {
+        this.transacaoId = transacaoId;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    public void setErro(String erro) {
+        this.erro = erro;
+    }
+
+    public LocalDateTime getCriadaEm() {
+        return criadaEm;
+    }
+
+    public void setCriadaEm(LocalDateTime criadaEm) {
+        this.criadaEm = criadaEm;
+    }
+
+    public LocalDateTime getAtualizadaEm() {
+        return atualizadaEm;
+    }
+
+    public void setAtualizadaEm(LocalDateTime atualizadaEm) {
+        this.atualizadaEm = atualizadaEm;
+    }
+
+    /**
+     * Situação da transferência
+     */
+    public enum Estado {
+        PENDENTE,
+        PROCESSANDO,
+        CONCLUIDA,
+        FALHOU
+    }
+}
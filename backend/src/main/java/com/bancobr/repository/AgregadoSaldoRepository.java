@@ -0,0 +1,36 @@
+package com.bancobr.repository;
+
+import com.bancobr.model.AgregadoSaldo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Repository para entidade AgregadoSaldo
+ */
+@Repository
+public interface AgregadoSaldoRepository extends JpaRepository<AgregadoSaldo, UUID> {
+
+    /**
+     * Grava o agregado da agência e tipo, substituindo o anterior
+     */
+    @Modifying
+    @Query(value = "INSERT INTO agregados_saldo (id, agencia, tipo, saldo, contas, atualizado_em) " +
+           "VALUES (gen_random_uuid(), :agencia, :tipo, :saldo, :contas, :agora) " +
+           "ON CONFLICT (agencia, tipo) DO UPDATE SET saldo = EXCLUDED.saldo, contas = EXCLUDED.contas, " +
+           "atualizado_em = EXCLUDED.atualizado_em", nativeQuery = true)
+    int gravar(@Param("agencia") String agencia, @Param("tipo") String tipo, @Param("saldo") BigDecimal saldo,
+               @Param("contas") long contas, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Consulta vazia que, como primeira instrução de uma transação REPEATABLE READ, fixa o snapshot
+     */
+    @Query(value = "SELECT 1", nativeQuery = true)
+    int fixarSnapshot();
+}
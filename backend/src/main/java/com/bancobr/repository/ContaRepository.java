@@ -1,12 +1,19 @@
 package com.bancobr.repository;
 
 import com.bancobr.model.Conta;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -46,20 +53,27 @@ public interface ContaRepository extends JpaRepository<Conta, UUID> {
     List<Conta> findByUsuarioIdAndTipo(UUID usuarioId, Conta.TipoConta tipo);
 
     /**
-     * Busca contas com saldo maior que
+     * Busca contas com saldo maior que (incluindo slots de contas quentes)
      */
-    List<Conta> findBySaldoGreaterThan(BigDecimal saldo);
+    @Query("SELECT c FROM Conta c WHERE (c.saldo + c.saldoSlots) > :saldo")
+    List<Conta> findBySaldoGreaterThan(@Param("saldo") BigDecimal saldo);
 
     /**
-     * Busca contas com saldo menor que
+     * Busca contas com saldo menor que (incluindo slots de contas quentes)
      */
-    List<Conta> findBySaldoLessThan(BigDecimal saldo);
+    @Query("SELECT c FROM Conta c WHERE (c.saldo + c.saldoSlots) < :saldo")
+    List<Conta> findBySaldoLessThan(@Param("saldo") BigDecimal saldo);
 
     /**
      * Verifica se existe conta por número
      */
     boolean existsByNumeroConta(String numeroConta);
 
+    /**
+     * Verifica se a conta pertence ao usuário com o email informado
+     */
+    boolean existsByIdAndUsuarioEmail(UUID id, String email);
+
     /**
      * Conta contas por usuário
      */
@@ -97,21 +111,40 @@ public interface ContaRepository extends JpaRepository<Conta, UUID> {
     /**
      * Soma saldo total de todas as contas
      */
-    @Query("SELECT SUM(c.saldo) FROM Conta c")
+    @Query("SELECT SUM(c.saldo + c.saldoSlots) FROM Conta c")
     BigDecimal sumSaldoTotal();
 
     /**
      * Soma saldo por usuário
      */
-    @Query("SELECT SUM(c.saldo) FROM Conta c WHERE c.usuario.id = :usuarioId")
+    @Query("SELECT SUM(c.saldo + c.saldoSlots) FROM Conta c WHERE c.usuario.id = :usuarioId")
     BigDecimal sumSaldoByUsuarioId(@Param("usuarioId") UUID usuarioId);
 
     /**
      * Soma saldo por tipo
      */
-    @Query("SELECT SUM(c.saldo) FROM Conta c WHERE c.tipo = :tipo")
+    @Query("SELECT SUM(c.saldo + c.saldoSlots) FROM Conta c WHERE c.tipo = :tipo")
     BigDecimal sumSaldoByTipo(@Param("tipo") Conta.TipoConta tipo);
 
+    /**
+     * Soma saldo por agência
+     */
+    @Query("SELECT SUM(c.saldo + c.saldoSlots) FROM Conta c WHERE c.agencia = :agencia")
+    BigDecimal sumSaldoByAgencia(@Param("agencia") String agencia);
+
+    /**
+     * Soma saldo e conta as contas por agência e tipo (reconciliação dos agregados em memória)
+     */
+    @Query("SELECT c.agencia AS agencia, c.tipo AS tipo, SUM(c.saldo + c.saldoSlots) AS saldo, COUNT(c) AS contas " +
+           "FROM Conta c GROUP BY c.agencia, c.tipo")
+    List<AgregadoContas> agregarPorAgenciaETipo();
+
+    /**
+     * Agência e tipo de uma conta, sem carregar a entidade
+     */
+    @Query("SELECT c.agencia AS agencia, c.tipo AS tipo FROM Conta c WHERE c.id = :id")
+    Optional<AgrupamentoConta> findAgrupamentoById(@Param("id") UUID id);
+
     /**
      * Conta contas ativas
      */
@@ -121,6 +154,202 @@ public interface ContaRepository extends JpaRepository<Conta, UUID> {
     /**
      * Busca contas com saldo disponível maior que
      */
-    @Query("SELECT c FROM Conta c WHERE (c.saldo + c.limiteCredito) > :valor")
+    @Query("SELECT c FROM Conta c WHERE (c.saldo + c.saldoSlots + c.limiteCredito) > :valor")
     List<Conta> findBySaldoDisponivelGreaterThan(@Param("valor") BigDecimal valor);
-} 
\ No newline at end of file
+
+    /**
+     * Busca o ID da conta pelo número, sem carregar a entidade
+     */
+    @Query("SELECT c.id FROM Conta c WHERE c.numeroConta = :numeroConta")
+    Optional<UUID> findIdByNumeroConta(@Param("numeroConta") String numeroConta);
+
+    /**
+     * Busca contas com lock de escrita (SELECT ... FOR UPDATE), bloqueando na ordem do ID.
+     * A espera pelo lock é limitada pelo lock_timeout da transação.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Conta c WHERE c.id IN :ids ORDER BY c.id")
+    List<Conta> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Busca contas com lock de escrita sem espera (SELECT ... FOR UPDATE NOWAIT)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0"))
+    @Query("SELECT c FROM Conta c WHERE c.id IN :ids ORDER BY c.id")
+    List<Conta> findAllByIdForUpdateNowait(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Resolve números de conta em IDs com uma única consulta
+     */
+    List<IdentificacaoConta> findByNumeroContaIn(Collection<String> numerosConta);
+
+    /**
+     * Define o lock_timeout (em milissegundos) da transação corrente
+     */
+    @Query(value = "SELECT set_config('lock_timeout', :timeout, true)", nativeQuery = true)
+    String definirLockTimeout(@Param("timeout") String timeout);
+
+    /**
+     * Debita a conta em um único UPDATE, somente se houver saldo disponível (saldo + limite).
+     * Retorna 0 quando o saldo é insuficiente ou a conta não existe.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Conta c SET c.saldo = c.saldo - :valor, c.atualizadoEm = :agora " +
+           "WHERE c.id = :id AND c.saldo + c.limiteCredito >= :valor")
+    int debitarSeSaldoSuficiente(@Param("id") UUID id, @Param("valor") BigDecimal valor, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Credita a conta em um único UPDATE. Retorna 0 quando a conta não existe.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Conta c SET c.saldo = c.saldo + :valor, c.atualizadoEm = :agora WHERE c.id = :id")
+    int creditarSaldo(@Param("id") UUID id, @Param("valor") BigDecimal valor, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Soma (ou subtrai, com valor negativo) ao saldo em um único UPDATE, sem validar saldo.
+     * Usado pelo ledger em memória, que já validou o saldo antes de persistir.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Conta c SET c.saldo = c.saldo + :delta, c.atualizadoEm = :agora WHERE c.id = :id")
+    int ajustarSaldo(@Param("id") UUID id, @Param("delta") BigDecimal delta, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Carrega saldo e limite de todas as contas, sem carregar as entidades
+     */
+    @Query("SELECT c.id AS id, c.saldo + c.saldoSlots AS saldo, c.limiteCredito AS limiteCredito FROM Conta c")
+    List<SaldoConta> findAllSaldos();
+
+    /**
+     * Carrega saldo e limite de uma conta, sem carregar a entidade
+     */
+    @Query("SELECT c.id AS id, c.saldo + c.saldoSlots AS saldo, c.limiteCredito AS limiteCredito FROM Conta c WHERE c.id = :id")
+    Optional<SaldoConta> findSaldoById(@Param("id") UUID id);
+
+    /**
+     * Saldo da linha da conta (sem os slots), lido do banco
+     */
+    @Query("SELECT c.saldo FROM Conta c WHERE c.id = :id")
+    Optional<BigDecimal> findSaldoLinhaById(@Param("id") UUID id);
+
+    /**
+     * IDs de todas as contas, em ordem
+     */
+    @Query("SELECT c.id FROM Conta c ORDER BY c.id")
+    List<UUID> findAllIds();
+
+    /**
+     * IDs das contas criadas antes do instante informado, em ordem
+     */
+    @Query("SELECT c.id FROM Conta c WHERE c.criadoEm < :corte ORDER BY c.id")
+    List<UUID> findIdsCriadasAntesDe(@Param("corte") LocalDateTime corte);
+
+    /**
+     * Registra uma alteração de saldo sem transação: o preenchimento do saldo após não
+     * recalcula as transações anteriores a ela
+     */
+    @Modifying
+    @Query(value = "UPDATE contas SET saldo_ajustado_em = GREATEST(COALESCE(saldo_ajustado_em, :em), :em) WHERE id = :id",
+           nativeQuery = true)
+    int marcarSaldoAjustado(@Param("id") UUID id, @Param("em") LocalDateTime em);
+
+    /**
+     * Dono de cada conta informada, sem carregar as entidades
+     */
+    @Query("SELECT c.id AS id, c.usuario.id AS usuarioId FROM Conta c WHERE c.id IN :ids")
+    List<DonoConta> findDonosByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * IDs das contas quentes (saldo fracionado em slots)
+     */
+    @Query("SELECT c.id FROM Conta c WHERE c.quente = true")
+    List<UUID> findIdsContasQuentes();
+
+    /**
+     * Credita um slot de conta quente. Retorna 0 se o slot não existir
+     * (conta deixou de ser quente ou quantidade de slots alterada).
+     */
+    @Modifying
+    @Query(value = "UPDATE conta_saldo_slots SET saldo = saldo + :valor WHERE conta_id = :contaId AND slot = :slot",
+           nativeQuery = true)
+    int creditarSlot(@Param("contaId") UUID contaId, @Param("slot") int slot, @Param("valor") BigDecimal valor);
+
+    /**
+     * Bloqueia a linha da conta (SELECT ... FOR UPDATE) sem carregar a entidade.
+     * Retorna vazio se a conta não existir.
+     */
+    @Query(value = "SELECT id FROM contas WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<UUID> bloquearLinha(@Param("id") UUID id);
+
+    /**
+     * Zera os slots da conta e retorna o valor retirado. Os slots com saldo são bloqueados
+     * antes de zerar, então créditos concorrentes entram no total ou ficam no slot.
+     */
+    @Query(value = "WITH anteriores AS (" +
+                   "    SELECT slot, saldo FROM conta_saldo_slots WHERE conta_id = :contaId AND saldo <> 0 FOR UPDATE" +
+                   "), zerados AS (" +
+                   "    UPDATE conta_saldo_slots s SET saldo = 0 FROM anteriores a" +
+                   "    WHERE s.conta_id = :contaId AND s.slot = a.slot RETURNING a.saldo" +
+                   ") SELECT COALESCE(SUM(saldo), 0) FROM zerados",
+           nativeQuery = true)
+    BigDecimal zerarSlots(@Param("contaId") UUID contaId);
+
+    /**
+     * Cria os slots 0..quantidade-1 da conta, mantendo os existentes
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conta_saldo_slots (conta_id, slot, saldo) " +
+                   "SELECT :contaId, g, 0 FROM generate_series(0, :quantidade - 1) g ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int criarSlots(@Param("contaId") UUID contaId, @Param("quantidade") int quantidade);
+
+    /**
+     * Remove os slots da conta e retorna a soma removida. O DELETE espera créditos
+     * em andamento nos slots; créditos posteriores não encontram o slot e vão para a linha.
+     */
+    @Query(value = "WITH removidos AS (DELETE FROM conta_saldo_slots WHERE conta_id = :contaId RETURNING saldo) " +
+                   "SELECT COALESCE(SUM(saldo), 0) FROM removidos",
+           nativeQuery = true)
+    BigDecimal removerSlots(@Param("contaId") UUID contaId);
+
+    /**
+     * Projeção com número e ID da conta
+     */
+    interface IdentificacaoConta {
+        UUID getId();
+        String getNumeroConta();
+    }
+
+    /**
+     * Agência e tipo de uma conta
+     */
+    interface AgrupamentoConta {
+        String getAgencia();
+        Conta.TipoConta getTipo();
+    }
+
+    /**
+     * Saldo somado e quantidade de contas de uma agência e tipo
+     */
+    interface AgregadoContas extends AgrupamentoConta {
+        BigDecimal getSaldo();
+        long getContas();
+    }
+
+    /**
+     * Projeção com ID da conta e do usuário dono
+     */
+    interface DonoConta {
+        UUID getId();
+        UUID getUsuarioId();
+    }
+
+    /**
+     * Projeção com saldo e limite da conta
+     */
+    interface SaldoConta {
+        UUID getId();
+        BigDecimal getSaldo();
+        BigDecimal getLimiteCredito();
+    }
+}
@@ -0,0 +1,49 @@
+package com.bancobr.repository;
+
+import com.bancobr.model.IdempotenciaChave;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository para entidade IdempotenciaChave
+ */
+@Repository
+public interface IdempotenciaChaveRepository extends JpaRepository<IdempotenciaChave, UUID> {
+
+    /**
+     * Busca a chave de um usuário
+     */
+    Optional<IdempotenciaChave> findByUsuarioAndChave(String usuario, String chave);
+
+    /**
+     * Reserva a chave para a transação corrente. Retorna 1 se a chave é nova ou estava
+     * expirada (criada antes de {@code limite}) e 0 se já foi usada. Com a chave em uso
+     * por uma transação ainda aberta, o INSERT aguarda o fim dela.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotencia_chaves (id, usuario, chave, operacao, hash_requisicao, criada_em) " +
+           "VALUES (gen_random_uuid(), :usuario, :chave, :operacao, :hash, :agora) " +
+           "ON CONFLICT (usuario, chave) DO UPDATE SET operacao = EXCLUDED.operacao, " +
+           "hash_requisicao = EXCLUDED.hash_requisicao, status_http = NULL, resposta = NULL, " +
+           "criada_em = EXCLUDED.criada_em " +
+           "WHERE idempotencia_chaves.criada_em < :limite", nativeQuery = true)
+    int reservar(@Param("usuario") String usuario, @Param("chave") String chave,
+                 @Param("operacao") String operacao, @Param("hash") String hash,
+                 @Param("agora") LocalDateTime agora, @Param("limite") LocalDateTime limite);
+
+    /**
+     * Grava a resposta da operação na chave reservada
+     */
+    @Modifying
+    @Query("UPDATE IdempotenciaChave i SET i.statusHttp = :statusHttp, i.resposta = :resposta " +
+           "WHERE i.usuario = :usuario AND i.chave = :chave")
+    int concluir(@Param("usuario") String usuario, @Param("chave") String chave,
+                 @Param("statusHttp") int statusHttp, @Param("resposta") String resposta);
+}
@@ -0,0 +1,49 @@
+package com.bancobr.repository;
+
+import com.bancobr.model.SaldoDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository para entidade SaldoDiario
+ */
+@Repository
+public interface SaldoDiarioRepository extends JpaRepository<SaldoDiario, UUID> {
+
+    /**
+     * Snapshot mais recente da conta até a data (inclusive)
+     */
+    Optional<SaldoDiario> findFirstByContaIdAndDataLessThanEqualOrderByDataDesc(UUID contaId, LocalDate data);
+
+    /**
+     * Grava o saldo de todas as contas ao fim do dia {@code data}: saldo atual (linha da
+     * conta mais slots de conta quente) menos o movimento realizado a partir de
+     * {@code corte}. Contas que já têm snapshot do dia são mantidas. Retorna o número
+     * de snapshots gravados.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO saldos_diarios (id, conta_id, data, saldo, gerado_em) " +
+           "SELECT gen_random_uuid(), c.id, :data, " +
+           "c.saldo + COALESCE(s.saldo, 0) - COALESCE(m.movimento, 0), :agora " +
+           "FROM contas c " +
+           "LEFT JOIN (SELECT conta_id, SUM(saldo) AS saldo FROM conta_saldo_slots GROUP BY conta_id) s " +
+           "ON s.conta_id = c.id AND c.quente " +
+           "LEFT JOIN (SELECT x.conta_id, SUM(x.valor) AS movimento FROM (" +
+           "SELECT t.conta_destino AS conta_id, t.valor FROM transacoes t " +
+           "WHERE t.realizada_em >= :corte AND t.conta_destino IS NOT NULL " +
+           "UNION ALL " +
+           "SELECT t.conta_origem, -t.valor FROM transacoes t " +
+           "WHERE t.realizada_em >= :corte AND t.conta_origem IS NOT NULL" +
+           ") x GROUP BY x.conta_id) m ON m.conta_id = c.id " +
+           "ON CONFLICT (conta_id, data) DO NOTHING", nativeQuery = true)
+    int gerarSnapshots(@Param("data") LocalDate data, @Param("corte") LocalDateTime corte,
+                       @Param("agora") LocalDateTime agora);
+}
@@ -1,8 +1,12 @@
 package com.bancobr.repository;
 
 import com.bancobr.model.Transacao;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -11,6 +15,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repositório para entidade Transacao
@@ -43,9 +48,14 @@ public interface TransacaoRepository extends JpaRepository<Transacao, UUID> {
     List<Transacao> findByContaId(@Param("contaId") UUID contaId);
 
     /**
-     * Busca transações por usuário (através das contas)
+     * Busca transações por usuário, pelos donos das contas gravados na transação
+     * (usuario_origem / usuario_destino). A segunda metade do UNION ALL exclui as
+     * transferências entre contas do próprio usuário, já trazidas pela primeira.
      */
-    @Query("SELECT t FROM Transacao t WHERE t.contaOrigem.usuario.id = :usuarioId OR t.contaDestino.usuario.id = :usuarioId")
+    @Query(value = "SELECT t.* FROM transacoes t WHERE t.usuario_origem = :usuarioId " +
+            "UNION ALL " +
+            "SELECT t.* FROM transacoes t WHERE t.usuario_destino = :usuarioId " +
+            "AND t.usuario_origem IS DISTINCT FROM :usuarioId", nativeQuery = true)
     List<Transacao> findByUsuarioId(@Param("usuarioId") UUID usuarioId);
 
     /**
@@ -92,7 +102,10 @@ public interface TransacaoRepository extends JpaRepository<Transacao, UUID> {
     /**
      * Busca transações por usuário e tipo
      */
-    @Query("SELECT t FROM Transacao t WHERE (t.contaOrigem.usuario.id = :usuarioId OR t.contaDestino.usuario.id = :usuarioId) AND t.tipo = :tipo")
+    @Query(value = "SELECT t.* FROM transacoes t WHERE t.usuario_origem = :usuarioId AND t.tipo = :#{#tipo.name()} " +
+            "UNION ALL " +
+            "SELECT t.* FROM transacoes t WHERE t.usuario_destino = :usuarioId " +
+            "AND t.usuario_origem IS DISTINCT FROM :usuarioId AND t.tipo = :#{#tipo.name()}", nativeQuery = true)
     List<Transacao> findByUsuarioIdAndTipo(@Param("usuarioId") UUID usuarioId, @Param("tipo") Transacao.TipoTransacao tipo);
 
     /**
@@ -128,7 +141,12 @@ public interface TransacaoRepository extends JpaRepository<Transacao, UUID> {
     /**
      * Soma valor por usuário
      */
-    @Query("SELECT SUM(t.valor) FROM Transacao t WHERE t.contaOrigem.usuario.id = :usuarioId OR t.contaDestino.usuario.id = :usuarioId")
+    @Query(value = "SELECT SUM(x.valor) FROM (" +
+            "SELECT t.valor FROM transacoes t WHERE t.usuario_origem = :usuarioId " +
+            "UNION ALL " +
+            "SELECT t.valor FROM transacoes t WHERE t.usuario_destino = :usuarioId " +
+            "AND t.usuario_origem IS DISTINCT FROM :usuarioId" +
+            ") x", nativeQuery = true)
     BigDecimal sumValorByUsuarioId(@Param("usuarioId") UUID usuarioId);
 
     /**
@@ -145,15 +163,209 @@ public interface TransacaoRepository extends JpaRepository<Transacao, UUID> {
     /**
      * Conta transações por usuário
      */
-    @Query("SELECT COUNT(t) FROM Transacao t WHERE t.contaOrigem.usuario.id = :usuarioId OR t.contaDestino.usuario.id = :usuarioId")
+    @Query(value = "SELECT (SELECT COUNT(*) FROM transacoes t WHERE t.usuario_origem = :usuarioId) + " +
+            "(SELECT COUNT(*) FROM transacoes t WHERE t.usuario_destino = :usuarioId " +
+            "AND t.usuario_origem IS DISTINCT FROM :usuarioId)", nativeQuery = true)
     long countByUsuarioId(@Param("usuarioId") UUID usuarioId);
 
+    /**
+     * Conta transações do usuário a partir do instante informado
+     */
+    @Query(value = "SELECT (SELECT COUNT(*) FROM transacoes t WHERE t.usuario_origem = :usuarioId " +
+            "AND t.realizada_em >= :inicio) + " +
+            "(SELECT COUNT(*) FROM transacoes t WHERE t.usuario_destino = :usuarioId " +
+            "AND t.realizada_em >= :inicio AND t.usuario_origem IS DISTINCT FROM :usuarioId)", nativeQuery = true)
+    long countByUsuarioIdDesde(@Param("usuarioId") UUID usuarioId, @Param("inicio") LocalDateTime inicio);
+
+    /**
+     * Últimas transações do usuário (mais recente primeiro), lidas só até o limite em cada índice
+     */
+    @Query(value = "SELECT x.* FROM (" +
+            "(SELECT t.* FROM transacoes t WHERE t.usuario_origem = :usuarioId " +
+            "ORDER BY t.realizada_em DESC, t.id DESC LIMIT :limite) " +
+            "UNION ALL " +
+            "(SELECT t.* FROM transacoes t WHERE t.usuario_destino = :usuarioId " +
+            "AND t.usuario_origem IS DISTINCT FROM :usuarioId " +
+            "ORDER BY t.realizada_em DESC, t.id DESC LIMIT :limite)" +
+            ") x ORDER BY x.realizada_em DESC, x.id DESC LIMIT :limite", nativeQuery = true)
+    List<Transacao> findUltimasByUsuarioId(@Param("usuarioId") UUID usuarioId, @Param("limite") int limite);
+
     /**
      * Busca última transação por conta
      */
     @Query("SELECT t FROM Transacao t WHERE t.contaOrigem.id = :contaId OR t.contaDestino.id = :contaId ORDER BY t.realizadaEm DESC")
     List<Transacao> findUltimasTransacoesByContaId(@Param("contaId") UUID contaId);
 
+    /**
+     * Primeira página do extrato da conta, da mais recente para a mais antiga.
+     * Cada lado do UNION ALL percorre um índice (conta, realizada_em DESC, id DESC).
+     */
+    @Query(value = "SELECT x.* FROM (" +
+            "(SELECT t.* FROM transacoes t WHERE t.conta_origem = :contaId " +
+            "ORDER BY t.realizada_em DESC, t.id DESC LIMIT :limite) " +
+            "UNION ALL " +
+            "(SELECT t.* FROM transacoes t WHERE t.conta_destino = :contaId " +
+            "ORDER BY t.realizada_em DESC, t.id DESC LIMIT :limite)" +
+            ") x ORDER BY x.realizada_em DESC, x.id DESC LIMIT :limite", nativeQuery = true)
+    List<Transacao> findExtratoPrimeiraPagina(@Param("contaId") UUID contaId, @Param("limite") int limite);
+
+    /**
+     * Página do extrato após o cursor (realizada_em, id) da última transação da página anterior
+     */
+    @Query(value = "SELECT x.* FROM (" +
+            "(SELECT t.* FROM transacoes t WHERE t.conta_origem = :contaId " +
+            "AND (t.realizada_em, t.id) < (:realizadaEm, :id) " +
+            "ORDER BY t.realizada_em DESC, t.id DESC LIMIT :limite) " +
+            "UNION ALL " +
+            "(SELECT t.* FROM transacoes t WHERE t.conta_destino = :contaId " +
+            "AND (t.realizada_em, t.id) < (:realizadaEm, :id) " +
+            "ORDER BY t.realizada_em DESC, t.id DESC LIMIT :limite)" +
+            ") x ORDER BY x.realizada_em DESC, x.id DESC LIMIT :limite", nativeQuery = true)
+    List<Transacao> findExtratoAposCursor(@Param("contaId") UUID contaId,
+                                         @Param("realizadaEm") LocalDateTime realizadaEm,
+                                         @Param("id") UUID id,
+                                         @Param("limite") int limite);
+
+    /**
+     * Busca textual na descrição (coluna busca, tsvector em português sem acentos), da
+     * mais recente para a mais antiga: transações a partir de {@code inicio} e antes da
+     * posição (realizada_em, id) informada
+     */
+    @Query(value = "SELECT t.* FROM transacoes t " +
+            "WHERE t.busca @@ websearch_to_tsquery('portuguese', sem_acentos(:termo)) " +
+            "AND t.realizada_em >= :inicio AND (t.realizada_em, t.id) < (:realizadaEm, :id) " +
+            "ORDER BY t.realizada_em DESC, t.id DESC LIMIT :limite", nativeQuery = true)
+    List<Transacao> buscarPorTexto(@Param("termo") String termo,
+                                   @Param("inicio") LocalDateTime inicio,
+                                   @Param("realizadaEm") LocalDateTime realizadaEm,
+                                   @Param("id") UUID id,
+                                   @Param("limite") int limite);
+
+    /**
+     * Busca textual na descrição restrita a uma conta (origem ou destino), na ordem do extrato
+     */
+    @Query(value = "SELECT x.* FROM (" +
+            "(SELECT t.* FROM transacoes t WHERE t.conta_origem = :contaId " +
+            "AND t.realizada_em >= :inicio AND (t.realizada_em, t.id) < (:realizadaEm, :id) " +
+            "AND t.busca @@ websearch_to_tsquery('portuguese', sem_acentos(:termo)) " +
+            "ORDER BY t.realizada_em DESC, t.id DESC LIMIT :limite) " +
+            "UNION ALL " +
+            "(SELECT t.* FROM transacoes t WHERE t.conta_destino = :contaId " +
+            "AND t.realizada_em >= :inicio AND (t.realizada_em, t.id) < (:realizadaEm, :id) " +
+            "AND t.busca @@ websearch_to_tsquery('portuguese', sem_acentos(:termo)) " +
+            "ORDER BY t.realizada_em DESC, t.id DESC LIMIT :limite)" +
+            ") x ORDER BY x.realizada_em DESC, x.id DESC LIMIT :limite", nativeQuery = true)
+    List<Transacao> buscarPorTextoNaConta(@Param("termo") String termo,
+                                          @Param("contaId") UUID contaId,
+                                          @Param("inicio") LocalDateTime inicio,
+                                          @Param("realizadaEm") LocalDateTime realizadaEm,
+                                          @Param("id") UUID id,
+                                          @Param("limite") int limite);
+
+    /**
+     * Extrato da conta no período (limites inclusivos), da mais recente para a mais antiga.
+     * Cada lado do UNION ALL lê só o intervalo do período no índice (conta, realizada_em).
+     */
+    @Query(value = "SELECT x.* FROM (" +
+            "SELECT t.* FROM transacoes t WHERE t.conta_origem = :contaId " +
+            "AND t.realizada_em BETWEEN :dataInicio AND :dataFim " +
+            "UNION ALL " +
+            "SELECT t.* FROM transacoes t WHERE t.conta_destino = :contaId " +
+            "AND t.realizada_em BETWEEN :dataInicio AND :dataFim" +
+            ") x ORDER BY x.realizada_em DESC, x.id DESC", nativeQuery = true)
+    List<Transacao> findExtratoPorPeriodo(@Param("contaId") UUID contaId,
+                                         @Param("dataInicio") LocalDateTime dataInicio,
+                                         @Param("dataFim") LocalDateTime dataFim);
+
+    /**
+     * Movimento líquido da conta (créditos menos débitos) realizado em [inicio, fim)
+     */
+    @Query(value = "SELECT COALESCE(SUM(x.valor), 0) FROM (" +
+            "SELECT t.valor FROM transacoes t WHERE t.conta_destino = :contaId " +
+            "AND t.realizada_em >= :inicio AND t.realizada_em < :fim " +
+            "UNION ALL " +
+            "SELECT -t.valor FROM transacoes t WHERE t.conta_origem = :contaId " +
+            "AND t.realizada_em >= :inicio AND t.realizada_em < :fim" +
+            ") x", nativeQuery = true)
+    BigDecimal somarMovimentoEntre(@Param("contaId") UUID contaId,
+                                   @Param("inicio") LocalDateTime inicio,
+                                   @Param("fim") LocalDateTime fim);
+
+    /**
+     * Movimento líquido da conta (créditos menos débitos) realizado a partir de {@code inicio}
+     */
+    @Query(value = "SELECT COALESCE(SUM(x.valor), 0) FROM (" +
+            "SELECT t.valor FROM transacoes t WHERE t.conta_destino = :contaId AND t.realizada_em >= :inicio " +
+            "UNION ALL " +
+            "SELECT -t.valor FROM transacoes t WHERE t.conta_origem = :contaId AND t.realizada_em >= :inicio" +
+            ") x", nativeQuery = true)
+    BigDecimal somarMovimentoDesde(@Param("contaId") UUID contaId, @Param("inicio") LocalDateTime inicio);
+
+    /**
+     * Preenche o saldo após das transações da conta que ainda não o têm. Parte do saldo
+     * atual da conta e desfaz, da mais recente para a mais antiga, o movimento posterior a
+     * cada transação; tudo em um único comando, sobre um mesmo snapshot do banco. Para no
+     * último ajuste de saldo sem transação (saldo_ajustado_em), antes do qual o movimento
+     * não explica o saldo, e não altera conta quente, cujo saldo inclui créditos em slot
+     * sem ordem garantida. Retorna o número de transações atualizadas.
+     */
+    @Modifying
+    @Query(value = "WITH conta AS (" +
+            "SELECT c.saldo, c.saldo_ajustado_em FROM contas c WHERE c.id = :contaId AND NOT c.quente" +
+            "), movimento AS (" +
+            "SELECT t.id, t.realizada_em, -t.valor AS delta FROM transacoes t, conta c WHERE t.conta_origem = :contaId " +
+            "AND (c.saldo_ajustado_em IS NULL OR t.realizada_em > c.saldo_ajustado_em) " +
+            "UNION ALL " +
+            "SELECT t.id, t.realizada_em, t.valor FROM transacoes t, conta c WHERE t.conta_destino = :contaId " +
+            "AND (c.saldo_ajustado_em IS NULL OR t.realizada_em > c.saldo_ajustado_em)" +
+            "), saldo_apos AS (" +
+            "SELECT m.id, (SELECT c.saldo FROM conta c) " +
+            "- COALESCE(SUM(m.delta) OVER (ORDER BY m.realizada_em DESC, m.id DESC " +
+            "ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) AS saldo " +
+            "FROM movimento m" +
+            ") " +
+            "UPDATE transacoes t SET " +
+            "saldo_origem_apos = CASE WHEN t.conta_origem = :contaId THEN s.saldo ELSE t.saldo_origem_apos END, " +
+            "saldo_destino_apos = CASE WHEN t.conta_destino = :contaId THEN s.saldo ELSE t.saldo_destino_apos END " +
+            "FROM saldo_apos s WHERE t.id = s.id " +
+            "AND ((t.conta_origem = :contaId AND t.saldo_origem_apos IS NULL) " +
+            "OR (t.conta_destino = :contaId AND t.saldo_destino_apos IS NULL))", nativeQuery = true)
+    int preencherSaldosApos(@Param("contaId") UUID contaId);
+
+    /**
+     * Todo o extrato da conta como stream, lido do banco em blocos de {@code fetchSize} linhas
+     * (exige transação aberta enquanto o stream é consumido)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT x.* FROM (" +
+            "SELECT t.* FROM transacoes t WHERE t.conta_origem = :contaId " +
+            "UNION ALL " +
+            "SELECT t.* FROM transacoes t WHERE t.conta_destino = :contaId" +
+            ") x ORDER BY x.realizada_em DESC, x.id DESC", nativeQuery = true)
+    Stream<Transacao> streamExtratoByContaId(@Param("contaId") UUID contaId);
+
+    /**
+     * Extrato da conta no intervalo [inicio, fim) em ordem cronológica, como stream
+     * (exige transação aberta enquanto o stream é consumido)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT x.* FROM (" +
+            "SELECT t.* FROM transacoes t WHERE t.conta_origem = :contaId " +
+            "AND t.realizada_em >= :inicio AND t.realizada_em < :fim " +
+            "UNION ALL " +
+            "SELECT t.* FROM transacoes t WHERE t.conta_destino = :contaId " +
+            "AND t.realizada_em >= :inicio AND t.realizada_em < :fim" +
+            ") x ORDER BY x.realizada_em, x.id", nativeQuery = true)
+    Stream<Transacao> streamExtratoPorPeriodo(@Param("contaId") UUID contaId,
+                                              @Param("inicio") LocalDateTime inicio,
+                                              @Param("fim") LocalDateTime fim);
+
     /**
      * Busca transação com contas
      */
@@ -0,0 +1,92 @@
+package com.bancobr.repository;
+
+import com.bancobr.model.TransferenciaPendente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository para entidade TransferenciaPendente
+ */
+@Repository
+public interface TransferenciaPendenteRepository extends JpaRepository<TransferenciaPendente, UUID> {
+
+    /**
+     * Quantidade de transferências no estado informado
+     */
+    long countByEstado(TransferenciaPendente.Estado estado);
+
+    /**
+     * Transferência reservada com o identificador de reserva informado
+     */
+    Optional<TransferenciaPendente> findByReserva(UUID reserva);
+
+    /**
+     * Reserva a pendente mais antiga para um worker. Linhas já bloqueadas por outro worker
+     * são puladas. Retorna 1 se reservou e 0 se não havia pendente livre.
+     */
+    @Modifying
+    @Query(value = "UPDATE transferencias_pendentes SET estado = 'PROCESSANDO', reserva = :reserva, atualizada_em = :agora " +
+           "WHERE id = (SELECT id FROM transferencias_pendentes WHERE estado = 'PENDENTE' " +
+           "ORDER BY criada_em LIMIT 1 FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int reservarProxima(@Param("reserva") UUID reserva, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Conclui a transferência, se a reserva ainda for a informada. Retorna 0 se a reserva expirou.
+     */
+    @Modifying
+    @Query(value = "UPDATE transferencias_pendentes SET estado = 'CONCLUIDA', transacao_id = :transacaoId, " +
+           "atualizada_em = :agora WHERE id = :id AND reserva = :reserva AND estado = 'PROCESSANDO'", nativeQuery = true)
+    int concluir(@Param("id") UUID id, @Param("reserva") UUID reserva,
+                 @Param("transacaoId") UUID transacaoId, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Conclui a transferência independentemente da reserva. Usado no modo LEDGER, em que a
+     * transferência já foi gravada pelo shard e a conclusão deve prevalecer sobre uma recusa.
+     */
+    @Modifying
+    @Query(value = "UPDATE transferencias_pendentes SET estado = 'CONCLUIDA', transacao_id = :transacaoId, erro = NULL, " +
+           "atualizada_em = :agora WHERE id = :id", nativeQuery = true)
+    int registrarConclusao(@Param("id") UUID id, @Param("transacaoId") UUID transacaoId,
+                           @Param("agora") LocalDateTime agora);
+
+    /**
+     * Marca a transferência como recusada, se a reserva ainda for a informada
+     */
+    @Modifying
+    @Query(value = "UPDATE transferencias_pendentes SET estado = 'FALHOU', erro = :erro, atualizada_em = :agora " +
+           "WHERE id = :id AND reserva = :reserva AND estado = 'PROCESSANDO'", nativeQuery = true)
+    int falhar(@Param("id") UUID id, @Param("reserva") UUID reserva,
+               @Param("erro") String erro, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Devolve à fila as reservas feitas antes de {@code limite} (worker ou instância interrompidos)
+     */
+    @Modifying
+    @Query(value = "UPDATE transferencias_pendentes SET estado = 'PENDENTE', reserva = NULL, atualizada_em = :agora " +
+           "WHERE estado = 'PROCESSANDO' AND atualizada_em < :limite", nativeQuery = true)
+    int liberarReservasExpiradas(@Param("limite") LocalDateTime limite, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Marca como recusadas as reservas feitas antes de {@code limite}, sem executá-las de novo
+     */
+    @Modifying
+    @Query(value = "UPDATE transferencias_pendentes SET estado = 'FALHOU', erro = :erro, atualizada_em = :agora " +
+           "WHERE estado = 'PROCESSANDO' AND atualizada_em < :limite", nativeQuery = true)
+    int encerrarReservasExpiradas(@Param("limite") LocalDateTime limite, @Param("erro") String erro,
+                                  @Param("agora") LocalDateTime agora);
+
+    /**
+     * Remove as transferências concluídas ou recusadas antes de {@code limite}
+     */
+    @Modifying
+    @Query(value = "DELETE FROM transferencias_pendentes WHERE estado IN ('CONCLUIDA', 'FALHOU') " +
+           "AND atualizada_em < :limite", nativeQuery = true)
+    int removerFinalizadasAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -1,6 +1,7 @@
 package com.bancobr.security;
 
 import com.bancobr.service.JwtService;
+import com.bancobr.util.EventoLog;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,6 +26,9 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final EventoLog TOKEN_AUTENTICADO = EventoLog.debug("seguranca", "jwt.autenticado").amostrado(100);
+    private static final EventoLog TOKEN_INVALIDO = EventoLog.info("seguranca", "jwt.invalido").amostrado(10);
+
     @Autowired
     private JwtService jwtService;
     
@@ -37,36 +41,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
-        System.out.println("🎯 JwtFilter executando para: " + request.getRequestURI());
-        
         final String authHeader = request.getHeader("Authorization");
-        System.out.println("📦 Authorization Header: " + authHeader);
-        
         final String jwt;
         final String userEmail;
 
         // Verifica se o header Authorization existe e começa com "Bearer "
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            System.out.println("❌ Header Authorization inválido ou ausente");
             filterChain.doFilter(request, response);
             return;
         }
 
         // Extrai o token JWT
         jwt = authHeader.substring(7);
-        System.out.println("🔑 JWT Token: " + jwt.substring(0, Math.min(50, jwt.length())) + "...");
-        
         userEmail = jwtService.extractUsername(jwt);
-        System.out.println("📧 User Email: " + userEmail);
 
         // Se o email foi extraído e não há autenticação atual
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            System.out.println("👤 Carregando UserDetails para: " + userEmail);
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
             
             // Se o token é válido
             if (jwtService.isTokenValid(jwt, userDetails)) {
-                System.out.println("✅ Token válido, criando autenticação");
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -74,12 +68,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-                System.out.println("🔐 Autenticação configurada com sucesso");
+                TOKEN_AUTENTICADO.registrar()
+                        .addKeyValue("usuario", EventoLog.resumoEmail(userEmail))
+                        .addKeyValue("uri", request::getRequestURI)
+                        .log();
             } else {
-                System.out.println("❌ Token inválido");
+                TOKEN_INVALIDO.registrar()
+                        .addKeyValue("uri", request::getRequestURI)
+                        .log();
             }
-        } else {
-            System.out.println("⚠️ Email nulo ou já autenticado");
         }
         
         filterChain.doFilter(request, response);
@@ -0,0 +1,449 @@
+package com.bancobr.service;
+
+import com.bancobr.evento.TransacaoGravadaEvento;
+import com.bancobr.model.Conta;
+import com.bancobr.model.Dinheiro;
+import com.bancobr.repository.AgregadoSaldoRepository;
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.util.EventoLog;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Saldo somado e quantidade de contas por agência e tipo de conta, mantidos em memória
+ * para os dashboards e relatórios de ADMIN (saldo total, por tipo, por agência) sem
+ * varrer a tabela de contas.
+ *
+ * O valor de cada agência e tipo é a base lida do banco (GROUP BY agência e tipo) mais as
+ * variações confirmadas depois dela, em centavos ({@link LongAdder}): transações gravadas
+ * ({@link TransacaoGravadaEvento}) e ajustes diretos e contas novas ({@link ContaService}).
+ * A base é lida na inicialização e a cada {@code bancobr.agregados.reconciliacao-ms}, o que
+ * corrige alterações feitas fora desta instância (outras instâncias, SQL direto).
+ *
+ * A leitura da base e a troca dos contadores formam um corte consistente: a transação que
+ * altera saldo segura um lock de leitura do registro da primeira variação até o fim do
+ * commit, e a reconciliação fixa o snapshot (REPEATABLE READ) e troca os contadores sob o
+ * lock de escrita. Cada commit fica então inteiro antes do snapshot (na base) ou depois
+ * (nos contadores novos), sem contagem em dobro nem perda. A espera pelo lock de escrita
+ * é limitada a {@code bancobr.agregados.espera-corte-ms}; sem o lock, a reconciliação é
+ * refeita na rodada seguinte.
+ *
+ * Os valores são gravados em {@code agregados_saldo} a cada {@code bancobr.agregados.gravacao-ms},
+ * para consulta externa; a tabela não é lida na inicialização.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+@ConditionalOnProperty(name = "bancobr.agregados.habilitado", havingValue = "true", matchIfMissing = true)
+public class AgregadoSaldoService {
+
+    private static final EventoLog RECONCILIADOS = EventoLog.info("saldo", "agregados.reconciliados");
+    private static final EventoLog CORTE_ADIADO = EventoLog.warn("saldo", "agregados.corte-adiado");
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private AgregadoSaldoRepository agregadoSaldoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${bancobr.agregados.max-contas-cache:100000}")
+    private long maxContasCache = 100000;
+
+    @Value("${bancobr.agregados.espera-corte-ms:500}")
+    private long esperaCorteMs = 500;
+
+    /** Leitura: commits com variação pendente; escrita: corte da reconciliação */
+    private final ReentrantReadWriteLock corteLock = new ReentrantReadWriteLock();
+
+    private volatile Corte corte = new Corte(Map.of(), null, new Geracao());
+
+    private LoadingCache<UUID, Optional<Chave>> chaves;
+
+    @PostConstruct
+    void inicializar() {
+        chaves = Caffeine.newBuilder()
+                .maximumSize(maxContasCache)
+                .build(contaId -> contaRepository.findAgrupamentoById(contaId)
+                        .map(conta -> new Chave(conta.getAgencia(), conta.getTipo())));
+
+        reconciliar();
+    }
+
+    /**
+     * Registra a variação de saldo das contas de uma transação gravada. Executado dentro da
+     * transação, para que o commit fique de um lado só do corte da reconciliação; a variação
+     * vale após o commit.
+     */
+    @EventListener
+    public void aoGravarTransacao(TransacaoGravadaEvento evento) {
+        UUID origem = evento.getContaOrigemId();
+        UUID destino = evento.getContaDestinoId();
+        long centavos = Dinheiro.de(evento.getValor()).getCentavos();
+        registrar(geracao -> {
+            Chave chaveOrigem = origem != null ? chaves.get(origem).orElse(null) : null;
+            Chave chaveDestino = destino != null ? chaves.get(destino).orElse(null) : null;
+            // Transferência dentro da mesma agência e tipo não altera o agregado
+            if (Objects.equals(chaveOrigem, chaveDestino)) {
+                return;
+            }
+            if (chaveOrigem != null) {
+                geracao.agregado(chaveOrigem).centavos.add(-centavos);
+            }
+            if (chaveDestino != null) {
+                geracao.agregado(chaveDestino).centavos.add(centavos);
+            }
+        });
+    }
+
+    /**
+     * Registra uma alteração de saldo sem transação (crédito, débito ou novo saldo), após o commit
+     */
+    public void ajustar(Conta conta, BigDecimal delta) {
+        Chave chave = new Chave(conta.getAgencia(), conta.getTipo());
+        long centavos = Dinheiro.de(delta).getCentavos();
+        if (centavos != 0) {
+            registrar(geracao -> geracao.agregado(chave).centavos.add(centavos));
+        }
+    }
+
+    /**
+     * Registra uma conta nova, após o commit
+     */
+    public void registrarCriacao(Conta conta) {
+        Chave chave = new Chave(conta.getAgencia(), conta.getTipo());
+        long centavos = Dinheiro.de(conta.getSaldo()).getCentavos();
+        registrar(geracao -> {
+            Agregado agregado = geracao.agregado(chave);
+            agregado.contas.increment();
+            agregado.centavos.add(centavos);
+        });
+    }
+
+    /**
+     * Saldo somado de todas as contas
+     */
+    public BigDecimal saldoTotal() {
+        return somar(chave -> true);
+    }
+
+    /**
+     * Saldo somado das contas do tipo
+     */
+    public BigDecimal saldoPorTipo(Conta.TipoConta tipo) {
+        return somar(chave -> chave.tipo == tipo);
+    }
+
+    /**
+     * Saldo somado das contas da agência
+     */
+    public BigDecimal saldoPorAgencia(String agencia) {
+        return somar(chave -> chave.agencia.equals(agencia));
+    }
+
+    /**
+     * Relê a base do banco em um corte consistente com os contadores
+     */
+    @Scheduled(fixedDelayString = "${bancobr.agregados.reconciliacao-ms:900000}",
+               initialDelayString = "${bancobr.agregados.reconciliacao-ms:900000}")
+    public synchronized void reconciliar() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        Map<Chave, long[]> base;
+        try {
+            base = transactionTemplate.execute(status -> {
+                if (!cortar()) {
+                    return null;
+                }
+                Map<Chave, long[]> lida = new HashMap<>();
+                for (ContaRepository.AgregadoContas doBanco : contaRepository.agregarPorAgenciaETipo()) {
+                    lida.put(new Chave(doBanco.getAgencia(), doBanco.getTipo()),
+                            new long[] {Dinheiro.de(doBanco.getSaldo()).getCentavos(), doBanco.getContas()});
+                }
+                return lida;
+            });
+        } catch (RuntimeException e) {
+            // Sem a base nova, a geração anterior volta para a base atual
+            Corte atual = corte;
+            if (atual.anterior != null) {
+                corte = new Corte(atual.somarAnterior(), null, atual.atual);
+            }
+            throw e;
+        }
+        if (base == null) {
+            CORTE_ADIADO.registrar()
+                    .addKeyValue("esperaMs", esperaCorteMs)
+                    .log();
+            return;
+        }
+
+        Corte anterior = corte;
+        long diferenca = 0;
+        Set<Chave> todas = new HashSet<>(base.keySet());
+        todas.addAll(anterior.base.keySet());
+        if (anterior.anterior != null) {
+            todas.addAll(anterior.anterior.agregados.keySet());
+        }
+        for (Chave chave : todas) {
+            // Grupo sem contas no banco fica zerado, para que agregados_saldo também zere
+            long[] lida = base.computeIfAbsent(chave, c -> new long[2]);
+            long[] esperada = anterior.ate(chave);
+            diferenca += Math.abs(lida[0] - esperada[0]);
+        }
+        corte = new Corte(base, null, anterior.atual);
+
+        RECONCILIADOS.registrar()
+                .addKeyValue("grupos", base.size())
+                .addKeyValue("diferencaCentavos", diferenca)
+                .log();
+        gravar();
+    }
+
+    /**
+     * Grava os agregados atuais em {@code agregados_saldo}
+     */
+    @Scheduled(fixedDelayString = "${bancobr.agregados.gravacao-ms:30000}")
+    public void gravar() {
+        LocalDateTime agora = LocalDateTime.now();
+        Corte atual = corte;
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (Chave chave : atual.chaves()) {
+                long[] valores = atual.valores(chave);
+                agregadoSaldoRepository.gravar(chave.agencia, chave.tipo.name(),
+                        Dinheiro.deCentavos(valores[0]).paraBigDecimal(), valores[1], agora);
+            }
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        gravar();
+    }
+
+    /**
+     * Sob o lock de escrita, sem commits pendentes: fixa o snapshot da transação corrente e
+     * passa a registrar as variações em uma geração nova
+     */
+    private boolean cortar() {
+        try {
+            if (!corteLock.writeLock().tryLock(esperaCorteMs, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            agregadoSaldoRepository.fixarSnapshot();
+            Corte atual = corte;
+            corte = new Corte(atual.base, atual.atual, new Geracao());
+            return true;
+        } finally {
+            corteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica a variação à geração corrente após o commit. Dentro de uma transação, o lock
+     * de leitura é tomado na primeira variação e liberado no fim do commit.
+     */
+    private void registrar(Variacao variacao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            corteLock.readLock().lock();
+            try {
+                variacao.aplicar(corte.atual);
+            } finally {
+                corteLock.readLock().unlock();
+            }
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Variacao> pendentes = (List<Variacao>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            List<Variacao> novas = new ArrayList<>();
+            corteLock.readLock().lock();
+            TransactionSynchronizationManager.bindResource(this, novas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    Geracao geracao = corte.atual;
+                    for (Variacao pendente : novas) {
+                        pendente.aplicar(geracao);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AgregadoSaldoService.this);
+                    corteLock.readLock().unlock();
+                }
+            });
+            pendentes = novas;
+        }
+        pendentes.add(variacao);
+    }
+
+    private BigDecimal somar(Predicate<Chave> filtro) {
+        Corte atual = corte;
+        long centavos = 0;
+        for (Chave chave : atual.chaves()) {
+            if (filtro.test(chave)) {
+                centavos += atual.valores(chave)[0];
+            }
+        }
+        return Dinheiro.deCentavos(centavos).paraBigDecimal();
+    }
+
+    /**
+     * Variação de saldo a aplicar na geração corrente
+     */
+    @FunctionalInterface
+    private interface Variacao {
+        void aplicar(Geracao geracao);
+    }
+
+    /**
+     * Base lida do banco e variações confirmadas depois dela. {@code anterior} só existe
+     * durante a leitura da base: são as variações anteriores ao snapshot, descartadas
+     * quando a base nova é publicada.
+     */
+    private static final class Corte {
+        private final Map<Chave, long[]> base;
+        private final Geracao anterior;
+        private final Geracao atual;
+
+        private Corte(Map<Chave, long[]> base, Geracao anterior, Geracao atual) {
+            this.base = base;
+            this.anterior = anterior;
+            this.atual = atual;
+        }
+
+        private Set<Chave> chaves() {
+            Set<Chave> chaves = new HashSet<>(base.keySet());
+            if (anterior != null) {
+                chaves.addAll(anterior.agregados.keySet());
+            }
+            chaves.addAll(atual.agregados.keySet());
+            return chaves;
+        }
+
+        /**
+         * Saldo em centavos e contas da agência e tipo
+         */
+        private long[] valores(Chave chave) {
+            long[] valores = ate(chave);
+            Agregado agregado = atual.agregados.get(chave);
+            if (agregado != null) {
+                valores[0] += agregado.centavos.sum();
+                valores[1] += agregado.contas.sum();
+            }
+            return valores;
+        }
+
+        /**
+         * Base mais a geração anterior, sem a atual
+         */
+        private long[] ate(Chave chave) {
+            long[] doBanco = base.get(chave);
+            long[] valores = doBanco != null ? doBanco.clone() : new long[2];
+            Agregado agregado = anterior != null ? anterior.agregados.get(chave) : null;
+            if (agregado != null) {
+                valores[0] += agregado.centavos.sum();
+                valores[1] += agregado.contas.sum();
+            }
+            return valores;
+        }
+
+        /**
+         * Base com a geração anterior incorporada
+         */
+        private Map<Chave, long[]> somarAnterior() {
+            Map<Chave, long[]> somada = new HashMap<>();
+            Set<Chave> chaves = new HashSet<>(base.keySet());
+            if (anterior != null) {
+                chaves.addAll(anterior.agregados.keySet());
+            }
+            for (Chave chave : chaves) {
+                somada.put(chave, ate(chave));
+            }
+            return somada;
+        }
+    }
+
+    /**
+     * Variações confirmadas por agência e tipo desde a troca de geração
+     */
+    private static final class Geracao {
+        private final Map<Chave, Agregado> agregados = new ConcurrentHashMap<>();
+
+        private Agregado agregado(Chave chave) {
+            return agregados.computeIfAbsent(chave, c -> new Agregado());
+        }
+    }
+
+    /**
+     * Agência e tipo de conta
+     */
+    private static final class Chave {
+        private final String agencia;
+        private final Conta.TipoConta tipo;
+
+        private Chave(String agencia, Conta.TipoConta tipo) {
+            this.agencia = agencia;
+            this.tipo = tipo;
+        }
+
+        @Override
+        public boolean equals(Object outro) {
+            return outro instanceof Chave chave && agencia.equals(chave.agencia) && tipo == chave.tipo;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * agencia.hashCode() + tipo.hashCode();
+        }
+    }
+
+    /**
+     * Variação de saldo em centavos e de quantidade de contas de uma agência e tipo
+     */
+    private static final class Agregado {
+        private final LongAdder centavos = new LongAdder();
+        private final LongAdder contas = new LongAdder();
+    }
+}
@@ -4,6 +4,7 @@ import com.bancobr.dto.LoginRequest;
 import com.bancobr.dto.LoginResponse;
 import com.bancobr.model.Usuario;
 import com.bancobr.repository.UsuarioRepository;
+import com.bancobr.util.EventoLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -27,9 +28,17 @@ import java.util.Optional;
 @Transactional
 public class AuthService {
 
+    private static final EventoLog LOGIN_TENTATIVA = EventoLog.debug("auth", "login.tentativa");
+    private static final EventoLog LOGIN_USUARIO_INEXISTENTE =
+            EventoLog.info("auth", "login.usuario-inexistente").amostrado(10);
+    private static final EventoLog HASH_ADMIN_CORRIGIDO = EventoLog.warn("auth", "login.hash-admin-corrigido");
+
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private UsuarioService usuarioService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -43,28 +52,27 @@ public class AuthService {
      * Realiza login do usuário
      */
     public LoginResponse login(LoginRequest request) {
-        System.out.println("🔐 Tentativa de login para: " + request.getEmail());
-        
-        // Busca o usuário primeiro para debug
+        LOGIN_TENTATIVA.registrar()
+                .addKeyValue("email", EventoLog.resumoEmail(request.getEmail()))
+                .log();
+
         Optional<Usuario> usuarioOpt = usuarioRepository.findByEmailAndAtivoTrue(request.getEmail());
         if (usuarioOpt.isPresent()) {
             Usuario usuario = usuarioOpt.get();
-            System.out.println("👤 Usuário encontrado: " + usuario.getEmail());
-            System.out.println("🔑 Hash da senha: " + usuario.getSenhaHash());
-            System.out.println("✅ Usuário ativo: " + usuario.getAtivo());
-            
             // CORREÇÃO: Se a senha for admin123, corrige o hash automaticamente
             if ("admin@bancobr.com".equals(request.getEmail()) && "admin123".equals(request.getSenha())) {
                 if (usuario.getSenhaHash() == null || !passwordEncoder.matches("admin123", usuario.getSenhaHash())) {
-                    System.out.println("🔧 Corrigindo hash da senha do admin...");
                     String novoHash = passwordEncoder.encode("admin123");
-                    usuario.setSenhaHash(novoHash);
-                    usuarioRepository.save(usuario);
-                    System.out.println("✅ Hash corrigido: " + novoHash);
+                    usuarioService.definirSenhaHash(usuario, novoHash);
+                    HASH_ADMIN_CORRIGIDO.registrar()
+                            .addKeyValue("usuario", usuario.getId())
+                            .log();
                 }
             }
         } else {
-            System.out.println("❌ Usuário não encontrado: " + request.getEmail());
+            LOGIN_USUARIO_INEXISTENTE.registrar()
+                    .addKeyValue("email", EventoLog.resumoEmail(request.getEmail()))
+                    .log();
         }
         
         // Autentica com Spring Security
@@ -223,4 +231,4 @@ public class AuthService {
         
         return info;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,232 @@
+package com.bancobr.service;
+
+import com.bancobr.evento.TransacaoGravadaEvento;
+import com.bancobr.model.Conta;
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.TransacaoRepository;
+import com.bancobr.util.OrdemUuid;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache da primeira página do extrato: as transações mais recentes de cada conta.
+ *
+ * Cada transação gravada nesta instância entra, após o commit, na lista das contas
+ * envolvidas que estão no cache ({@link TransacaoGravadaEvento}), na posição da ordem do
+ * extrato; a lista não é descartada nem relida do banco. A carga de uma conta e a inclusão
+ * de uma transação nela são atômicas por conta, então uma transação confirmada durante a
+ * carga não se perde.
+ *
+ * Transações gravadas por outras instâncias não chegam aqui: cada lista é descartada
+ * {@code bancobr.extrato.cache.validade-segundos} após a carga do banco, e as inclusões
+ * locais não prolongam esse prazo.
+ *
+ * As listas são imutáveis e guardam cópias das transações, sem vínculo com o contexto de
+ * persistência. O cache é limitado por memória estimada ({@code bancobr.extrato.cache.memoria-mb});
+ * as contas menos usadas saem primeiro.
+ *
+ * Métricas: {@code cache.gets} (hit/miss), {@code cache.size}, {@code cache.evictions} com a
+ * tag {@code cache=extrato.primeira-pagina} e a taxa de acerto em
+ * {@code bancobr.extrato.cache.taxa-acerto}.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+@ConditionalOnProperty(name = "bancobr.extrato.cache.habilitado", havingValue = "true", matchIfMissing = true)
+public class CacheExtratoService {
+
+    static final String NOME_CACHE = "extrato.primeira-pagina";
+
+    /** Estimativa de memória de uma transação em cache, sem a descrição */
+    private static final int BYTES_POR_TRANSACAO = 240;
+
+    private static final Comparator<Transacao> ORDEM_EXTRATO = Comparator
+            .comparing(Transacao::getRealizadaEm, Comparator.reverseOrder())
+            .thenComparing(Transacao::getId, OrdemUuid.POSTGRES.reversed());
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${bancobr.extrato.cache.entradas:50}")
+    private int entradas = 50;
+
+    @Value("${bancobr.extrato.cache.memoria-mb:64}")
+    private long memoriaMb = 64;
+
+    @Value("${bancobr.extrato.cache.validade-segundos:30}")
+    private long validadeSegundos = 30;
+
+    private Cache<UUID, List<Transacao>> paginas;
+
+    @PostConstruct
+    void inicializar() {
+        paginas = Caffeine.newBuilder()
+                .maximumWeight(memoriaMb * 1024 * 1024)
+                .weigher((UUID contaId, List<Transacao> transacoes) -> peso(transacoes))
+                .expireAfter(validadeDesdeACarga(TimeUnit.SECONDS.toNanos(validadeSegundos)))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, paginas, NOME_CACHE);
+        Gauge.builder("bancobr.extrato.cache.taxa-acerto", paginas, cache -> cache.stats().hitRate())
+                .description("Fração das primeiras páginas de extrato atendidas pelo cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * As {@code quantidade} transações mais recentes da conta. Acima do que o cache guarda
+     * (entradas + 1, para indicar se há página seguinte) a consulta vai direto ao banco.
+     */
+    public List<Transacao> primeiraPagina(UUID contaId, int quantidade) {
+        if (quantidade > capacidade()) {
+            return transacaoRepository.findExtratoPrimeiraPagina(contaId, quantidade);
+        }
+        List<Transacao> transacoes = paginas.get(contaId, this::carregar);
+        return transacoes.size() <= quantidade ? transacoes : transacoes.subList(0, quantidade);
+    }
+
+    /**
+     * Inclui a transação gravada nas contas envolvidas que estão no cache, após o commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoGravarTransacao(TransacaoGravadaEvento evento) {
+        incluir(copiar(evento));
+    }
+
+    /**
+     * Descarta todas as páginas (após alterações em massa de transações já gravadas)
+     */
+    public void invalidarTodas() {
+        paginas.invalidateAll();
+    }
+
+    void incluir(Transacao transacao) {
+        incluir(transacao.getContaOrigem(), transacao);
+        incluir(transacao.getContaDestino(), transacao);
+    }
+
+    private void incluir(Conta conta, Transacao transacao) {
+        if (conta == null) {
+            return;
+        }
+        // Só altera contas já em cache; uma carga em andamento para a conta termina antes
+        paginas.asMap().computeIfPresent(conta.getId(), (contaId, atuais) -> inserir(atuais, transacao));
+    }
+
+    private List<Transacao> inserir(List<Transacao> atuais, Transacao transacao) {
+        int posicao = 0;
+        while (posicao < atuais.size() && ORDEM_EXTRATO.compare(atuais.get(posicao), transacao) < 0) {
+            posicao++;
+        }
+        if (posicao == capacidade()
+                || (posicao < atuais.size() && atuais.get(posicao).getId().equals(transacao.getId()))) {
+            return atuais;
+        }
+        List<Transacao> novas = new ArrayList<>(Math.min(atuais.size() + 1, capacidade()));
+        novas.addAll(atuais.subList(0, posicao));
+        novas.add(transacao);
+        novas.addAll(atuais.subList(posicao, Math.min(atuais.size(), capacidade() - 1)));
+        return Collections.unmodifiableList(novas);
+    }
+
+    private List<Transacao> carregar(UUID contaId) {
+        List<Transacao> transacoes = transacaoRepository.findExtratoPrimeiraPagina(contaId, capacidade());
+        List<Transacao> copias = new ArrayList<>(transacoes.size());
+        for (Transacao transacao : transacoes) {
+            copias.add(copiar(transacao));
+        }
+        return Collections.unmodifiableList(copias);
+    }
+
+    private int capacidade() {
+        return entradas + 1;
+    }
+
+    /**
+     * Validade contada da carga do banco: a inclusão de transações locais mantém o prazo
+     */
+    private static Expiry<UUID, List<Transacao>> validadeDesdeACarga(long validadeNanos) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(UUID contaId, List<Transacao> transacoes, long agora) {
+                return validadeNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(UUID contaId, List<Transacao> transacoes, long agora, long restante) {
+                return restante;
+            }
+
+            @Override
+            public long expireAfterRead(UUID contaId, List<Transacao> transacoes, long agora, long restante) {
+                return restante;
+            }
+        };
+    }
+
+    private static Transacao copiar(TransacaoGravadaEvento evento) {
+        Transacao copia = new Transacao(referencia(evento.getContaOrigemId()), referencia(evento.getContaDestinoId()),
+                evento.getTipo(), evento.getValor(), evento.getDescricao());
+        copia.setId(evento.getTransacaoId());
+        copia.setRealizadaEm(evento.getRealizadaEm());
+        copia.setSaldoOrigemApos(evento.getSaldoOrigemApos());
+        copia.setSaldoDestinoApos(evento.getSaldoDestinoApos());
+        return copia;
+    }
+
+    /**
+     * Cópia desvinculada do contexto de persistência; das contas mantém só o ID
+     */
+    private static Transacao copiar(Transacao transacao) {
+        Transacao copia = new Transacao(referencia(id(transacao.getContaOrigem())), referencia(id(transacao.getContaDestino())),
+                transacao.getTipo(), transacao.getValor(), transacao.getDescricao());
+        copia.setId(transacao.getId());
+        copia.setRealizadaEm(transacao.getRealizadaEm());
+        copia.setSaldoOrigemApos(transacao.getSaldoOrigemApos());
+        copia.setSaldoDestinoApos(transacao.getSaldoDestinoApos());
+        return copia;
+    }
+
+    private static UUID id(Conta conta) {
+        return conta != null ? conta.getId() : null;
+    }
+
+    private static Conta referencia(UUID contaId) {
+        if (contaId == null) {
+            return null;
+        }
+        Conta referencia = new Conta();
+        referencia.setId(contaId);
+        return referencia;
+    }
+
+    private static int peso(List<Transacao> transacoes) {
+        int peso = 0;
+        for (Transacao transacao : transacoes) {
+            String descricao = transacao.getDescricao();
+            peso += BYTES_POR_TRANSACAO + (descricao != null ? 2 * descricao.length() : 0);
+        }
+        return Math.max(peso, 1);
+    }
+}
@@ -0,0 +1,321 @@
+package com.bancobr.service;
+
+import com.bancobr.dto.TransacaoRequest;
+import com.bancobr.dto.TransferenciaLoteResultado;
+import com.bancobr.model.Transacao;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Commit agrupado de transferências, ativo com
+ * {@code bancobr.transacao.commit-agrupado.habilitado=true}.
+ *
+ * Transferências concorrentes que chegam dentro de uma janela curta (ou até o limite
+ * de itens) são aplicadas em uma única transação do PostgreSQL, dividindo o custo do
+ * commit (fsync) entre elas. Cada chamador recebe o próprio resultado; se a transação
+ * do grupo falhar, cada item é refeito sozinho
+ * ({@link TransferenciaLoteService#realizarEmTransacaoUnica}). Destinos quentes do grupo
+ * não entram no lock: recebem o crédito em um slot, como nas transferências avulsas.
+ *
+ * Chamadas feitas dentro de uma transação já aberta (por exemplo com Idempotency-Key)
+ * são executadas diretamente, pois precisam fazer parte daquela transação.
+ *
+ * Se o tempo de espera ({@code timeout-ms}) esgotar antes de o despachante pegar o pedido,
+ * ele é cancelado e não será aplicado. Se o grupo já estiver sendo aplicado, o chamador
+ * recebe {@link CommitPendenteException} com o ID para consultar o resultado em
+ * {@link #buscarResultado} (guardado por {@code resultado-retencao-minutos}).
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+@ConditionalOnProperty(name = "bancobr.transacao.commit-agrupado.habilitado", havingValue = "true")
+public class CommitAgrupadoService {
+
+    @Autowired
+    private TransferenciaLoteService transferenciaLoteService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${bancobr.transacao.commit-agrupado.janela-ms:2}")
+    private long janelaMs = 2;
+
+    @Value("${bancobr.transacao.commit-agrupado.max-itens:64}")
+    private int maxItens = 64;
+
+    @Value("${bancobr.transacao.commit-agrupado.despachantes:2}")
+    private int quantidadeDespachantes = 2;
+
+    @Value("${bancobr.transacao.commit-agrupado.capacidade-fila:4096}")
+    private int capacidadeFila = 4096;
+
+    @Value("${bancobr.transacao.commit-agrupado.timeout-ms:30000}")
+    private long timeoutMs = 30000;
+
+    @Value("${bancobr.transacao.commit-agrupado.resultado-retencao-minutos:60}")
+    private long retencaoResultadoMinutos = 60;
+
+    private BlockingQueue<Pedido> fila;
+
+    private Cache<UUID, Pedido> pendentes;
+
+    private List<Thread> despachantes;
+
+    private DistributionSummary tamanhoGrupo;
+
+    private volatile boolean executando;
+
+    @PostConstruct
+    void iniciar() {
+        fila = new ArrayBlockingQueue<>(capacidadeFila);
+        pendentes = Caffeine.newBuilder()
+                .maximumSize(capacidadeFila)
+                .expireAfterWrite(Duration.ofMinutes(retencaoResultadoMinutos))
+                .build();
+        tamanhoGrupo = DistributionSummary.builder("bancobr.transferencias.commit-agrupado.tamanho")
+                .description("Transferências aplicadas por transação")
+                .register(meterRegistry);
+
+        executando = true;
+        despachantes = new ArrayList<>(quantidadeDespachantes);
+        for (int i = 0; i < quantidadeDespachantes; i++) {
+            Thread thread = new Thread(this::despachar, "commit-agrupado-" + i);
+            thread.setDaemon(true);
+            despachantes.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Realiza a transferência no próximo grupo e aguarda o commit dele
+     */
+    public Transacao transferir(String usuario, String numeroContaOrigem, String numeroContaDestino,
+                                BigDecimal valor, String descricao) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transacaoService.realizarTransferenciaPorNumero(numeroContaOrigem, numeroContaDestino, valor, descricao);
+        }
+        if (!executando) {
+            throw new RuntimeException("Commit agrupado não está em execução");
+        }
+
+        Pedido pedido = new Pedido(usuario, new TransacaoRequest(numeroContaOrigem, numeroContaDestino, valor, descricao));
+        try {
+            if (!fila.offer(pedido, timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Fila de commit agrupado cheia, tente novamente");
+            }
+            if (!executando && fila.remove(pedido)) {
+                // Encerrado entre a verificação e a entrada na fila: ninguém mais vai aplicá-lo
+                throw new RuntimeException("Commit agrupado não está em execução");
+            }
+            return pedido.futuro.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw abandonar(pedido, "Tempo esgotado aguardando o commit da transferência");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw abandonar(pedido, "Operação interrompida aguardando o commit da transferência");
+        }
+    }
+
+    /**
+     * Resultado de uma transferência cujo chamador deixou de aguardar durante a aplicação
+     * do grupo: PENDENTE, SUCESSO (com transacaoId) ou FALHA (com erro)
+     */
+    public Optional<Map<String, Object>> buscarResultado(UUID id, String usuario) {
+        return Optional.ofNullable(pendentes.getIfPresent(id))
+                .filter(pedido -> pedido.usuario.equals(usuario))
+                .map(Pedido::resultado);
+    }
+
+    /**
+     * Chamador desistiu de aguardar: o pedido ainda na fila é cancelado; o que já está sendo
+     * aplicado passa a ser consultado pelo ID
+     */
+    private RuntimeException abandonar(Pedido pedido, String motivo) {
+        if (pedido.estado.compareAndSet(Pedido.AGUARDANDO, Pedido.CANCELADO)) {
+            fila.remove(pedido);
+            return new RuntimeException(motivo + "; a transferência não foi realizada");
+        }
+        pendentes.put(pedido.id, pedido);
+        return new CommitPendenteException(pedido.id, motivo + "; consulte o resultado pelo ID " + pedido.id);
+    }
+
+    /**
+     * Laço de um despachante: espera o primeiro pedido, junta os que chegarem na janela
+     * (até o limite de itens) e aplica o grupo
+     */
+    private void despachar() {
+        List<Pedido> grupo = new ArrayList<>(maxItens);
+        while (executando || !fila.isEmpty()) {
+            try {
+                Pedido primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                grupo.add(primeiro);
+
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(janelaMs);
+                while (grupo.size() < maxItens) {
+                    long restante = limite - System.nanoTime();
+                    Pedido proximo = restante > 0 ? fila.poll(restante, TimeUnit.NANOSECONDS) : fila.poll();
+                    if (proximo == null) {
+                        break;
+                    }
+                    grupo.add(proximo);
+                }
+
+                aplicar(grupo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                falhar(grupo, new RuntimeException("Commit agrupado encerrado"));
+                return;
+            } finally {
+                grupo.clear();
+            }
+        }
+    }
+
+    private void aplicar(List<Pedido> grupo) {
+        // Pedidos cancelados pelo chamador (tempo esgotado) ficam fora do grupo
+        grupo.removeIf(pedido -> !pedido.estado.compareAndSet(Pedido.AGUARDANDO, Pedido.APLICANDO));
+        if (grupo.isEmpty()) {
+            return;
+        }
+        tamanhoGrupo.record(grupo.size());
+        List<TransacaoRequest> itens = new ArrayList<>(grupo.size());
+        for (Pedido pedido : grupo) {
+            itens.add(pedido.request);
+        }
+
+        List<TransferenciaLoteResultado> resultados;
+        try {
+            resultados = transferenciaLoteService.realizarEmTransacaoUnica(itens);
+        } catch (RuntimeException e) {
+            falhar(grupo, e);
+            return;
+        }
+
+        for (int i = 0; i < grupo.size(); i++) {
+            TransferenciaLoteResultado resultado = resultados.get(i);
+            if (resultado.getStatus() == TransferenciaLoteResultado.Status.SUCESSO) {
+                grupo.get(i).futuro.complete(resultado.getTransacao());
+            } else {
+                grupo.get(i).futuro.completeExceptionally(new RuntimeException(resultado.getErro()));
+            }
+        }
+    }
+
+    private void falhar(List<Pedido> grupo, RuntimeException motivo) {
+        for (Pedido pedido : grupo) {
+            pedido.futuro.completeExceptionally(motivo);
+        }
+    }
+
+    /**
+     * Para de aceitar transferências e aplica as que já estão na fila; as que sobrarem
+     * após o tempo de espera são recusadas
+     */
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        executando = false;
+        try {
+            for (Thread despachante : despachantes) {
+                despachante.join(timeoutMs);
+            }
+        } finally {
+            List<Pedido> restantes = new ArrayList<>();
+            fila.drainTo(restantes);
+            restantes.removeIf(pedido -> !pedido.estado.compareAndSet(Pedido.AGUARDANDO, Pedido.CANCELADO));
+            falhar(restantes, new RuntimeException("Commit agrupado encerrado; a transferência não foi realizada"));
+        }
+    }
+
+    /**
+     * Tempo de espera esgotado com a transferência já em aplicação: o resultado é consultado
+     * por {@link #buscarResultado}
+     */
+    public static class CommitPendenteException extends RuntimeException {
+        private final UUID id;
+
+        public CommitPendenteException(UUID id, String mensagem) {
+            super(mensagem);
+            this.id = id;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+    }
+
+    /**
+     * Transferência aguardando o grupo
+     */
+    private static final class Pedido {
+        private static final int AGUARDANDO = 0;
+        private static final int APLICANDO = 1;
+        private static final int CANCELADO = 2;
+
+        private final UUID id = UUID.randomUUID();
+        private final String usuario;
+        private final TransacaoRequest request;
+        private final CompletableFuture<Transacao> futuro = new CompletableFuture<>();
+        private final AtomicInteger estado = new AtomicInteger(AGUARDANDO);
+
+        private Pedido(String usuario, TransacaoRequest request) {
+            this.usuario = usuario;
+            this.request = request;
+        }
+
+        private Map<String, Object> resultado() {
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            resultado.put("id", id);
+            if (!futuro.isDone()) {
+                resultado.put("status", "PENDENTE");
+                return resultado;
+            }
+            try {
+                Transacao transacao = futuro.getNow(null);
+                resultado.put("status", "SUCESSO");
+                resultado.put("transacaoId", transacao.getId());
+            } catch (CompletionException e) {
+                resultado.put("status", "FALHA");
+                resultado.put("erro", e.getCause().getMessage());
+            }
+            return resultado;
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.bancobr.service;
 
+import com.bancobr.config.CacheConfig;
+import com.bancobr.ledger.LedgerEngine;
 import com.bancobr.model.Conta;
+import com.bancobr.model.Dinheiro;
 import com.bancobr.model.Usuario;
 import com.bancobr.repository.ContaRepository;
 import com.bancobr.repository.UsuarioRepository;
+import com.bancobr.util.RelogioTransacoes;
 import com.bancobr.service.LogService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,10 +41,38 @@ public class ContaService {
     @Autowired
     private LogService logService;
 
+    @Autowired
+    private SaldoFracionadoService saldoFracionadoService;
+
+    @Autowired
+    private ResolucaoContaService resolucaoContaService;
+
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    @Autowired(required = false)
+    private AgregadoSaldoService agregadoSaldoService;
+
     /**
      * Cria uma nova conta
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CONTAS_CONTAGEM, key = "'usuario:' + #usuarioId"),
+            @CacheEvict(cacheNames = CacheConfig.CONTAS_CONTAGEM, key = "'tipo:' + #tipo")
+    })
     public Conta criarConta(UUID usuarioId, String agencia, String numeroConta, Conta.TipoConta tipo, BigDecimal limiteCredito) {
+        return criarConta(usuarioId, agencia, numeroConta, tipo,
+                limiteCredito != null ? Dinheiro.de(limiteCredito) : Dinheiro.ZERO);
+    }
+
+    /**
+     * Cria uma nova conta, com o limite já lido em centavos
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CONTAS_CONTAGEM, key = "'usuario:' + #usuarioId"),
+            @CacheEvict(cacheNames = CacheConfig.CONTAS_CONTAGEM, key = "'tipo:' + #tipo")
+    })
+    public Conta criarConta(UUID usuarioId, String agencia, String numeroConta, Conta.TipoConta tipo, Dinheiro limiteCredito) {
         // Valida usuário
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
@@ -49,13 +84,20 @@ public class ContaService {
 
         // Cria a conta
         Conta conta = new Conta(usuario, agencia, numeroConta, tipo);
-        conta.setLimiteCredito(limiteCredito != null ? limiteCredito : BigDecimal.ZERO);
+        conta.setLimiteCredito(limiteCredito);
         conta.setSaldo(BigDecimal.ZERO);
         conta.setCriadoEm(LocalDateTime.now());
 
         // Salva a conta
         Conta contaSalva = contaRepository.save(conta);
 
+        // Remove a entrada negativa do número no cache de resolução
+        resolucaoContaService.invalidar(numeroConta);
+
+        if (agregadoSaldoService != null) {
+            agregadoSaldoService.registrarCriacao(contaSalva);
+        }
+
         // Registra log (comentado temporariamente para resolver problema jsonb)
         // logService.criarLog(usuario, "INSERT", "contas", contaSalva.getId());
 
@@ -136,12 +178,27 @@ public class ContaService {
      * Atualiza saldo da conta
      */
     public Conta atualizarSaldo(UUID id, BigDecimal novoSaldo) {
-        Conta conta = contaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+        if (ledgerEngine != null) {
+            BigDecimal anterior = contaRepository.findSaldoById(id)
+                    .map(ContaRepository.SaldoConta::getSaldo)
+                    .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+            ledgerEngine.aguardar(ledgerEngine.definirSaldo(id, novoSaldo));
+            Conta conta = recarregar(id);
+            registrarAjuste(conta, conta.getSaldo().subtract(anterior));
+            return conta;
+        }
 
+        Conta conta = bloquearConta(id);
+
+        // Em conta quente o novo saldo substitui também o que estava nos slots
+        if (conta.isQuente()) {
+            conta.incorporarSlots(contaRepository.zerarSlots(id));
+        }
+        registrarAjuste(conta, novoSaldo.subtract(conta.getSaldo()));
         conta.setSaldo(novoSaldo);
         conta.setAtualizadoEm(LocalDateTime.now());
         Conta contaSalva = contaRepository.save(conta);
+        contaRepository.marcarSaldoAjustado(id, RelogioTransacoes.agora());
 
         // Registra log (comentado temporariamente para resolver problema jsonb)
         // logService.criarLog(conta.getUsuario(), "UPDATE", "contas", contaSalva.getId());
@@ -153,6 +210,13 @@ public class ContaService {
      * Atualiza limite de crédito
      */
     public Conta atualizarLimiteCredito(UUID id, BigDecimal novoLimite) {
+        return atualizarLimiteCredito(id, Dinheiro.de(novoLimite));
+    }
+
+    /**
+     * Atualiza limite de crédito, com o valor já lido em centavos
+     */
+    public Conta atualizarLimiteCredito(UUID id, Dinheiro novoLimite) {
         Conta conta = contaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
 
@@ -160,6 +224,10 @@ public class ContaService {
         conta.setAtualizadoEm(LocalDateTime.now());
         Conta contaSalva = contaRepository.save(conta);
 
+        if (ledgerEngine != null) {
+            ledgerEngine.aguardar(ledgerEngine.definirLimite(id, conta.getLimiteCredito()));
+        }
+
         // Registra log (comentado temporariamente para resolver problema jsonb)
         // logService.criarLog(conta.getUsuario(), "UPDATE", "contas", contaSalva.getId());
 
@@ -170,12 +238,27 @@ public class ContaService {
      * Credita valor na conta
      */
     public Conta creditar(UUID id, BigDecimal valor) {
-        Conta conta = contaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+        return creditar(id, Dinheiro.de(valor));
+    }
+
+    /**
+     * Credita valor na conta, já lido em centavos
+     */
+    public Conta creditar(UUID id, Dinheiro valor) {
+        if (ledgerEngine != null) {
+            ledgerEngine.aguardar(ledgerEngine.ajustarSaldo(id, valor, false));
+            Conta conta = recarregar(id);
+            registrarAjuste(conta, valor);
+            return conta;
+        }
+
+        Conta conta = bloquearConta(id);
 
         conta.creditar(valor);
+        registrarAjuste(conta, valor);
         conta.setAtualizadoEm(LocalDateTime.now());
         Conta contaSalva = contaRepository.save(conta);
+        contaRepository.marcarSaldoAjustado(id, RelogioTransacoes.agora());
 
         // Registra log (comentado temporariamente para resolver problema jsonb)
         // logService.criarLog(conta.getUsuario(), "UPDATE", "contas", contaSalva.getId());
@@ -187,16 +270,32 @@ public class ContaService {
      * Debita valor da conta
      */
     public Conta debitar(UUID id, BigDecimal valor) {
-        Conta conta = contaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+        return debitar(id, Dinheiro.de(valor));
+    }
+
+    /**
+     * Debita valor da conta, já lido em centavos
+     */
+    public Conta debitar(UUID id, Dinheiro valor) {
+        if (ledgerEngine != null) {
+            ledgerEngine.aguardar(ledgerEngine.ajustarSaldo(id, valor.negar(), true));
+            Conta conta = recarregar(id);
+            registrarAjuste(conta, valor.negar());
+            return conta;
+        }
+
+        Conta conta = bloquearConta(id);
 
         if (!conta.temSaldoSuficiente(valor)) {
             throw new RuntimeException("Saldo insuficiente");
         }
 
+        saldoFracionadoService.consolidarSeNecessario(conta, valor);
         conta.debitar(valor);
+        registrarAjuste(conta, valor.negar());
         conta.setAtualizadoEm(LocalDateTime.now());
         Conta contaSalva = contaRepository.save(conta);
+        contaRepository.marcarSaldoAjustado(id, RelogioTransacoes.agora());
 
         // Registra log (comentado temporariamente para resolver problema jsonb)
         // logService.criarLog(conta.getUsuario(), "UPDATE", "contas", contaSalva.getId());
@@ -204,6 +303,39 @@ public class ContaService {
         return contaSalva;
     }
 
+    /**
+     * Carrega a conta bloqueada para uma alteração de saldo sem transação: a marca de
+     * ajuste (saldo_ajustado_em) fica depois de todas as transações já gravadas nela
+     */
+    private Conta bloquearConta(UUID id) {
+        return contaRepository.findAllByIdForUpdate(List.of(id)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+    }
+
+    /**
+     * Lê a conta do banco depois de uma alteração de saldo gravada pelo ledger
+     */
+    private Conta recarregar(UUID id) {
+        return contaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+    }
+
+    /**
+     * Repassa aos agregados de saldo uma alteração que não gera transação
+     */
+    private void registrarAjuste(Conta conta, BigDecimal delta) {
+        if (agregadoSaldoService != null) {
+            agregadoSaldoService.ajustar(conta, delta);
+        }
+    }
+
+    private void registrarAjuste(Conta conta, Dinheiro delta) {
+        if (agregadoSaldoService != null) {
+            agregadoSaldoService.ajustar(conta, delta.paraBigDecimal());
+        }
+    }
+
     /**
      * Verifica se conta existe
      */
@@ -214,6 +346,7 @@ public class ContaService {
     /**
      * Conta contas por usuário
      */
+    @Cacheable(cacheNames = CacheConfig.CONTAS_CONTAGEM, key = "'usuario:' + #usuarioId")
     public long contarPorUsuario(UUID usuarioId) {
         return contaRepository.countByUsuarioId(usuarioId);
     }
@@ -221,6 +354,7 @@ public class ContaService {
     /**
      * Conta contas por tipo
      */
+    @Cacheable(cacheNames = CacheConfig.CONTAS_CONTAGEM, key = "'tipo:' + #tipo")
     public long contarPorTipo(Conta.TipoConta tipo) {
         return contaRepository.countByTipo(tipo);
     }
@@ -229,6 +363,9 @@ public class ContaService {
      * Soma saldo total
      */
     public BigDecimal somarSaldoTotal() {
+        if (agregadoSaldoService != null) {
+            return agregadoSaldoService.saldoTotal();
+        }
         return contaRepository.sumSaldoTotal();
     }
 
@@ -243,9 +380,22 @@ public class ContaService {
      * Soma saldo por tipo
      */
     public BigDecimal somarSaldoPorTipo(Conta.TipoConta tipo) {
+        if (agregadoSaldoService != null) {
+            return agregadoSaldoService.saldoPorTipo(tipo);
+        }
         return contaRepository.sumSaldoByTipo(tipo);
     }
 
+    /**
+     * Soma saldo por agência
+     */
+    public BigDecimal somarSaldoPorAgencia(String agencia) {
+        if (agregadoSaldoService != null) {
+            return agregadoSaldoService.saldoPorAgencia(agencia);
+        }
+        return contaRepository.sumSaldoByAgencia(agencia);
+    }
+
     /**
      * Busca conta com usuário
      */
@@ -295,6 +445,13 @@ public class ContaService {
         return contaRepository.findBySaldoDisponivelGreaterThan(valor);
     }
 
+    /**
+     * Verifica se a conta pertence ao usuário com o email informado
+     */
+    public boolean pertenceAoUsuario(UUID id, String email) {
+        return contaRepository.existsByIdAndUsuarioEmail(id, email);
+    }
+
     /**
      * Valida se conta tem saldo suficiente
      */
@@ -0,0 +1,69 @@
+package com.bancobr.service;
+
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.TransacaoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Dashboard de contas do usuário (GET /contas/dashboard).
+ *
+ * Cada número vem de uma consulta agregada ou limitada no banco: soma dos saldos e
+ * quantidade de contas, transações de hoje e as últimas transações pelos índices de
+ * usuario_origem / usuario_destino. Nenhuma transação além das exibidas é carregada, então
+ * o tempo de resposta não cresce com o histórico do usuário.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+public class DashboardService {
+
+    private static final int ULTIMAS_TRANSACOES = 5;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    /**
+     * Saldo total, contas, transações de hoje e últimas transações do usuário
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> dashboardContas(UUID usuarioId) {
+        BigDecimal saldoTotal = contaRepository.sumSaldoByUsuarioId(usuarioId);
+        long contasAtivas = contaRepository.countByUsuarioId(usuarioId);
+        long transacoesHoje = transacaoRepository.countByUsuarioIdDesde(usuarioId, LocalDate.now().atStartOfDay());
+        List<Transacao> ultimas = transacaoRepository.findUltimasByUsuarioId(usuarioId, ULTIMAS_TRANSACOES);
+
+        List<Map<String, Object>> ultimasTransacoes = new ArrayList<>(ultimas.size());
+        for (Transacao transacao : ultimas) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", transacao.getId().toString());
+            item.put("dataTransacao", transacao.getRealizadaEm().toString());
+            item.put("tipo", transacao.getTipo().toString());
+            item.put("valor", transacao.getValor());
+            item.put("status", "CONCLUIDA");
+            item.put("descricao", transacao.getDescricao());
+            ultimasTransacoes.add(item);
+        }
+
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        dashboard.put("saldoTotal", saldoTotal != null ? saldoTotal : BigDecimal.ZERO);
+        dashboard.put("contasAtivas", contasAtivas);
+        dashboard.put("transacoesHoje", transacoesHoje);
+        dashboard.put("ultimasTransacoes", ultimasTransacoes);
+        return dashboard;
+    }
+}
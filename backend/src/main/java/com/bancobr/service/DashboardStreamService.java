@@ -0,0 +1,264 @@
+package com.bancobr.service;
+
+import com.bancobr.evento.TransacaoGravadaEvento;
+import com.bancobr.util.EventoLog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dashboard geral em tempo real para ADMIN (GET /dashboard/stream, Server-Sent Events).
+ *
+ * A cada {@code bancobr.dashboard.stream.intervalo-ms} os números do dashboard são
+ * calculados uma única vez, serializados uma única vez e enviados a todos os assinantes,
+ * qualquer que seja o número de dashboards abertos; sem assinantes nada é calculado.
+ * Cada evento traz os valores atuais e a variação desde o evento anterior. O assinante
+ * novo recebe logo o último evento calculado.
+ *
+ * O envio não acontece na thread do agendador, que é compartilhada com os demais jobs
+ * {@code @Scheduled}: cada assinante recebe o evento em um pool próprio
+ * ({@code bancobr.dashboard.stream.envio-threads}), com no máximo um envio em andamento
+ * por assinante. Um assinante lento perde os eventos do intervalo (o seguinte traz os
+ * valores atuais) e, com um envio parado há mais de {@code bancobr.dashboard.stream.envio-timeout-ms},
+ * sai da lista; a conexão é encerrada quando a escrita falhar ou pelo timeout da assinatura.
+ *
+ * Transações por segundo são contadas pelos commits desta instância
+ * ({@link TransacaoGravadaEvento}); o saldo total vem de {@link ContaService#somarSaldoTotal()}.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+public class DashboardStreamService {
+
+    static final String EVENTO = "dashboard";
+
+    private static final EventoLog DESCONECTADO = EventoLog.debug("dashboard", "dashboard.stream.desconectado");
+    private static final EventoLog ENVIO_PARADO = EventoLog.warn("dashboard", "dashboard.stream.envio-parado");
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${bancobr.dashboard.stream.timeout-ms:1800000}")
+    private long timeoutMs = 1800000;
+
+    @Value("${bancobr.dashboard.stream.max-assinantes:200}")
+    private int maxAssinantes = 200;
+
+    @Value("${bancobr.dashboard.stream.envio-threads:4}")
+    private int threadsEnvio = 4;
+
+    @Value("${bancobr.dashboard.stream.envio-timeout-ms:10000}")
+    private long timeoutEnvioMs = 10000;
+
+    private final List<Assinante> assinantes = new CopyOnWriteArrayList<>();
+
+    private ThreadPoolExecutor envios;
+
+    private final LongAdder transacoes = new LongAdder();
+
+    private Leitura anterior;
+
+    private volatile String ultimoEvento;
+
+    @PostConstruct
+    void inicializar() {
+        AtomicInteger contador = new AtomicInteger();
+        // Cada assinante tem no máximo um envio pendente, então a fila não passa do limite de assinantes
+        envios = new ThreadPoolExecutor(threadsEnvio, threadsEnvio, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxAssinantes), tarefa -> {
+                    Thread thread = new Thread(tarefa, "dashboard-stream-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Nova assinatura, ou vazio se o limite de assinantes foi atingido
+     */
+    public synchronized Optional<SseEmitter> assinar() {
+        if (assinantes.size() >= maxAssinantes) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = novoEmitter();
+        Assinante assinante = new Assinante(emitter);
+        emitter.onCompletion(() -> assinantes.remove(assinante));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(erro -> assinantes.remove(assinante));
+        assinantes.add(assinante);
+
+        String evento = ultimoEvento;
+        if (evento != null) {
+            despachar(assinante, evento);
+        }
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Conta uma transação gravada, após o commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoGravarTransacao(TransacaoGravadaEvento evento) {
+        transacoes.increment();
+    }
+
+    /**
+     * Calcula o dashboard e envia a todos os assinantes
+     */
+    @Scheduled(fixedRateString = "${bancobr.dashboard.stream.intervalo-ms:2000}")
+    public void publicar() {
+        if (assinantes.isEmpty()) {
+            // O primeiro evento após um período sem assinantes não tem variação
+            anterior = null;
+            ultimoEvento = null;
+            return;
+        }
+
+        Leitura atual = new Leitura(usuarioService.contarAtivos(), contaService.somarSaldoTotal(),
+                transacoes.sum(), System.nanoTime());
+        String evento = serializar(atual, anterior);
+        anterior = atual;
+        ultimoEvento = evento;
+
+        for (Assinante assinante : assinantes) {
+            despachar(assinante, evento);
+        }
+    }
+
+    int totalAssinantes() {
+        return assinantes.size();
+    }
+
+    SseEmitter novoEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private String serializar(Leitura atual, Leitura anterior) {
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        dashboard.put("totalUsuarios", atual.usuarios);
+        dashboard.put("saldoTotal", atual.saldoTotal);
+        dashboard.put("transacoesPorSegundo", anterior != null ? atual.transacoesPorSegundo(anterior) : null);
+        dashboard.put("variacaoUsuarios", anterior != null ? atual.usuarios - anterior.usuarios : 0);
+        dashboard.put("variacaoSaldo", anterior != null ? atual.saldoTotal.subtract(anterior.saldoTotal) : BigDecimal.ZERO);
+        dashboard.put("timestamp", LocalDateTime.now());
+        try {
+            return objectMapper.writeValueAsString(dashboard);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Erro ao serializar o dashboard", e);
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        envios.shutdownNow();
+    }
+
+    /**
+     * Entrega o evento ao assinante no pool de envio, sem esperar a escrita
+     */
+    private void despachar(Assinante assinante, String evento) {
+        long inicio = assinante.enviandoDesde.get();
+        if (inicio != 0) {
+            // Envio anterior ainda em andamento: este evento é descartado para o assinante
+            if (System.nanoTime() - inicio > TimeUnit.MILLISECONDS.toNanos(timeoutEnvioMs)
+                    && assinantes.remove(assinante)) {
+                ENVIO_PARADO.registrar()
+                        .addKeyValue("paradoMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio))
+                        .log();
+            }
+            return;
+        }
+        if (!assinante.enviandoDesde.compareAndSet(0, System.nanoTime() | 1)) {
+            return;
+        }
+        try {
+            envios.execute(() -> {
+                try {
+                    enviar(assinante, evento);
+                } finally {
+                    assinante.enviandoDesde.set(0);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            assinante.enviandoDesde.set(0);
+        }
+    }
+
+    private void enviar(Assinante assinante, String evento) {
+        try {
+            assinante.emitter.send(SseEmitter.event().name(EVENTO).data(evento));
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado: a conexão é encerrada e sai da lista
+            assinantes.remove(assinante);
+            assinante.emitter.completeWithError(e);
+            DESCONECTADO.registrar()
+                    .addKeyValue("motivo", e.getMessage())
+                    .log();
+        }
+    }
+
+    /**
+     * Conexão de um assinante e o início do envio em andamento (0 sem envio)
+     */
+    private static final class Assinante {
+        private final SseEmitter emitter;
+        private final AtomicLong enviandoDesde = new AtomicLong();
+
+        private Assinante(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * Valores do dashboard em um instante
+     */
+    private static final class Leitura {
+        private final long usuarios;
+        private final BigDecimal saldoTotal;
+        private final long transacoes;
+        private final long nanos;
+
+        private Leitura(long usuarios, BigDecimal saldoTotal, long transacoes, long nanos) {
+            this.usuarios = usuarios;
+            this.saldoTotal = saldoTotal != null ? saldoTotal : BigDecimal.ZERO;
+            this.transacoes = transacoes;
+            this.nanos = nanos;
+        }
+
+        private BigDecimal transacoesPorSegundo(Leitura anterior) {
+            long decorrido = Math.max(nanos - anterior.nanos, 1);
+            return BigDecimal.valueOf((transacoes - anterior.transacoes) * 1_000_000_000L)
+                    .divide(BigDecimal.valueOf(decorrido), 2, RoundingMode.HALF_UP);
+        }
+    }
+}
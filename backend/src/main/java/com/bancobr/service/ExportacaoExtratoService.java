@@ -0,0 +1,245 @@
+package com.bancobr.service;
+
+import com.bancobr.model.Conta;
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.TransacaoRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Exportação do extrato completo da conta em CSV ou NDJSON
+ * (GET /transacoes/extrato/conta/{contaId}/export).
+ *
+ * As linhas vêm de {@link TransacaoRepository#streamExtratoByContaId} e são escritas na
+ * resposta à medida que chegam do banco: cada transação é desanexada do contexto de
+ * persistência depois de escrita, então a memória não cresce com o tamanho do extrato.
+ *
+ * Cada exportação mantém uma conexão do pool até terminar; o número de exportações
+ * simultâneas é limitado por {@code bancobr.extrato.exportacao.simultaneas}.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+public class ExportacaoExtratoService {
+
+    /** Linhas escritas entre envios do buffer ao cliente */
+    private static final int LINHAS_POR_ENVIO = 500;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${bancobr.extrato.exportacao.simultaneas:4}")
+    private int exportacoesSimultaneas = 4;
+
+    private Semaphore vagas;
+
+    @PostConstruct
+    void inicializar() {
+        vagas = new Semaphore(exportacoesSimultaneas);
+    }
+
+    /**
+     * Corpo da resposta com a exportação, ou vazio se o limite de exportações
+     * simultâneas foi atingido
+     */
+    public Optional<StreamingResponseBody> preparar(UUID contaId, Formato formato) {
+        if (!vagas.tryAcquire()) {
+            return Optional.empty();
+        }
+        return Optional.of(saida -> {
+            try {
+                exportar(contaId, formato, saida);
+            } finally {
+                vagas.release();
+            }
+        });
+    }
+
+    void exportar(UUID contaId, Formato formato, OutputStream saida) throws IOException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Transacao> transacoes = transacaoRepository.streamExtratoByContaId(contaId)) {
+                    if (formato == Formato.CSV) {
+                        escreverCsv(contaId, transacoes.iterator(), saida);
+                    } else {
+                        escreverNdjson(contaId, transacoes.iterator(), saida);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void escreverNdjson(UUID contaId, Iterator<Transacao> transacoes, OutputStream saida) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(saida, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long linhas = 0;
+            while (transacoes.hasNext()) {
+                Transacao transacao = transacoes.next();
+                json.writeStartObject();
+                json.writeStringField("id", transacao.getId().toString());
+                json.writeStringField("realizadaEm", transacao.getRealizadaEm().toString());
+                json.writeStringField("tipo", transacao.getTipo().name());
+                json.writeNumberField("valor", transacao.getValor());
+                json.writeStringField("descricao", transacao.getDescricao());
+                json.writeStringField("contaOrigem", idConta(transacao.getContaOrigem()));
+                json.writeStringField("contaDestino", idConta(transacao.getContaDestino()));
+                json.writeNumberField("saldoApos", saldoApos(contaId, transacao));
+                json.writeEndObject();
+                json.writeRaw('\n');
+                entityManager.detach(transacao);
+
+                // A primeira linha sai logo; as demais a cada bloco
+                if (++linhas % LINHAS_POR_ENVIO == 1) {
+                    json.flush();
+                }
+            }
+        }
+    }
+
+    private void escreverCsv(UUID contaId, Iterator<Transacao> transacoes, OutputStream saida) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        csv.write("id,realizada_em,tipo,valor,descricao,conta_origem,conta_destino,saldo_apos\n");
+        csv.flush();
+        long linhas = 0;
+        while (transacoes.hasNext()) {
+            Transacao transacao = transacoes.next();
+            csv.write(transacao.getId().toString());
+            csv.write(',');
+            csv.write(transacao.getRealizadaEm().toString());
+            csv.write(',');
+            csv.write(transacao.getTipo().name());
+            csv.write(',');
+            csv.write(transacao.getValor().toPlainString());
+            csv.write(',');
+            escreverCampoCsv(csv, transacao.getDescricao());
+            csv.write(',');
+            escreverCampoCsv(csv, idConta(transacao.getContaOrigem()));
+            csv.write(',');
+            escreverCampoCsv(csv, idConta(transacao.getContaDestino()));
+            csv.write(',');
+            BigDecimal saldoApos = saldoApos(contaId, transacao);
+            if (saldoApos != null) {
+                csv.write(saldoApos.toPlainString());
+            }
+            csv.write('\n');
+            entityManager.detach(transacao);
+
+            if (++linhas % LINHAS_POR_ENVIO == 0) {
+                csv.flush();
+            }
+        }
+        csv.flush();
+    }
+
+    /**
+     * Campo CSV entre aspas quando contém vírgula, aspas ou quebra de linha (RFC 4180)
+     */
+    static void escreverCampoCsv(Writer csv, String valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        boolean precisaAspas = false;
+        for (int i = 0; i < valor.length() && !precisaAspas; i++) {
+            char c = valor.charAt(i);
+            precisaAspas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!precisaAspas) {
+            csv.write(valor);
+            return;
+        }
+        csv.write('"');
+        csv.write(valor.replace("\"", "\"\""));
+        csv.write('"');
+    }
+
+    /**
+     * Saldo da conta exportada logo após a transação, do lado em que ela aparece
+     */
+    private static BigDecimal saldoApos(UUID contaId, Transacao transacao) {
+        Conta origem = transacao.getContaOrigem();
+        return origem != null && contaId.equals(origem.getId())
+                ? transacao.getSaldoOrigemApos()
+                : transacao.getSaldoDestinoApos();
+    }
+
+    /**
+     * ID da conta sem carregar a entidade (a referência é um proxy não inicializado)
+     */
+    private static String idConta(Conta conta) {
+        return conta != null ? conta.getId().toString() : null;
+    }
+
+    /**
+     * Formatos de exportação
+     */
+    public enum Formato {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        NDJSON(new MediaType("application", "x-ndjson"), "ndjson");
+
+        private final MediaType tipoConteudo;
+        private final String extensao;
+
+        Formato(MediaType tipoConteudo, String extensao) {
+            this.tipoConteudo = tipoConteudo;
+            this.extensao = extensao;
+        }
+
+        public static Formato de(String formato) {
+            for (Formato valor : values()) {
+                if (valor.extensao.equalsIgnoreCase(formato)) {
+                    return valor;
+                }
+            }
+            throw new RuntimeException("Formato de exportação inválido: use csv ou ndjson");
+        }
+
+        public MediaType getTipoConteudo() {
+            return tipoConteudo;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.bancobr.service;
+
+import com.bancobr.model.Conta;
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.TransacaoRepository;
+import com.bancobr.util.EventoLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Extratos mensais em arquivo (GET /contas/{id}/extratos/{AAAA-MM}).
+ *
+ * No início de cada mês é gerado, para cada conta existente no mês anterior, um CSV
+ * compactado com todas as transações do mês, o saldo inicial, o saldo após cada
+ * transação e o saldo final. As contas são divididas em intervalos processados em um
+ * {@link ForkJoinPool}; cada conta é lida em uma transação própria, por stream, e escrita
+ * direto no arquivo. Os arquivos ficam em {@code <diretorio>/<AAAA-MM>/<conta>.csv.gz}
+ * e são servidos do disco, sem consultar o banco.
+ *
+ * O saldo após cada transação é o gravado com ela ({@code saldo_origem_apos} /
+ * {@code saldo_destino_apos}), que inclui alterações de saldo sem transação; sem ele
+ * (conta quente, linhas ainda não preenchidas) é o saldo anterior mais o movimento.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+public class ExtratoMensalService {
+
+    private static final EventoLog EXTRATOS_GERADOS = EventoLog.info("saldo", "extratos.mensais.gerados");
+    private static final EventoLog CONTA_FALHOU = EventoLog.warn("saldo", "extrato.mensal.conta.falhou");
+    private static final EventoLog GERACAO_EM_ANDAMENTO = EventoLog.warn("saldo", "extratos.mensais.em.andamento");
+
+    /** Atributos de request do Tomcat para envio do arquivo pelo sistema operacional (sendfile) */
+    private static final String SENDFILE_SUPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARQUIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIM = "org.apache.tomcat.sendfile.end";
+
+    private static final String EXTENSAO = ".csv.gz";
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private SaldoDiarioService saldoDiarioService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${bancobr.extrato.mensal.diretorio:extratos-mensais}")
+    private String diretorio = "extratos-mensais";
+
+    @Value("${bancobr.extrato.mensal.paralelismo:4}")
+    private int paralelismo = 4;
+
+    @Value("${bancobr.extrato.mensal.contas-por-tarefa:100}")
+    private int contasPorTarefa = 100;
+
+    private ForkJoinPool pool;
+
+    private volatile ForkJoinTask<Integer> execucao;
+
+    @PostConstruct
+    void inicializar() {
+        pool = new ForkJoinPool(paralelismo, fjp -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(fjp);
+            thread.setName("extrato-mensal-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Rotina mensal: gera os extratos do mês anterior, depois do snapshot de saldos do último dia
+     */
+    @Scheduled(cron = "${bancobr.extrato.mensal.cron:0 0 2 1 * *}")
+    public void gerarMesAnterior() {
+        YearMonth mes = YearMonth.now().minusMonths(1);
+        if (!iniciar(mes)) {
+            GERACAO_EM_ANDAMENTO.registrar().addKeyValue("mes", mes).log();
+        }
+    }
+
+    /**
+     * Inicia a geração dos extratos do mês em segundo plano; retorna false se já houver
+     * uma em andamento. Arquivos já gerados para o mês são substituídos.
+     */
+    public synchronized boolean iniciar(YearMonth mes) {
+        if (!mes.isBefore(YearMonth.now())) {
+            throw new RuntimeException("Mês ainda não encerrado");
+        }
+        if (execucao != null && !execucao.isDone()) {
+            return false;
+        }
+        execucao = pool.submit(new Geracao(mes));
+        return true;
+    }
+
+    /**
+     * Arquivo do extrato da conta no mês, se já foi gerado
+     */
+    public Optional<Path> arquivo(UUID contaId, YearMonth mes) {
+        Path arquivo = diretorioMes(mes).resolve(contaId + EXTENSAO);
+        return Files.isRegularFile(arquivo) ? Optional.of(arquivo) : Optional.empty();
+    }
+
+    /**
+     * Escreve o arquivo na resposta sem passar o conteúdo pelo heap: com o Tomcat, o envio
+     * fica com o sistema operacional (sendfile) depois que o controlador retorna; nos
+     * demais casos, o conteúdo é transferido do canal do arquivo para a resposta.
+     */
+    public void enviar(Path arquivo, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long tamanho = Files.size(arquivo);
+        response.setContentLengthLong(tamanho);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPORTADO))) {
+            request.setAttribute(SENDFILE_ARQUIVO, arquivo.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, 0L);
+            request.setAttribute(SENDFILE_FIM, tamanho);
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            WritableByteChannel saida = Channels.newChannel(response.getOutputStream());
+            long enviado = 0;
+            while (enviado < tamanho) {
+                enviado += canal.transferTo(enviado, tamanho - enviado, saida);
+            }
+        }
+    }
+
+    ForkJoinTask<Integer> execucaoAtual() {
+        return execucao;
+    }
+
+    private Path diretorioMes(YearMonth mes) {
+        return Paths.get(diretorio, mes.toString());
+    }
+
+    /**
+     * Gera o extrato de uma conta em um arquivo temporário e o move para o nome final,
+     * para que um download nunca veja um arquivo pela metade
+     */
+    private void gerarConta(UUID contaId, YearMonth mes, TransactionTemplate transactionTemplate) throws IOException {
+        Path pasta = diretorioMes(mes);
+        Path destino = pasta.resolve(contaId + EXTENSAO);
+        Path temporario = pasta.resolve(contaId + EXTENSAO + ".tmp");
+        LocalDateTime inicio = mes.atDay(1).atStartOfDay();
+        LocalDateTime fim = mes.plusMonths(1).atDay(1).atStartOfDay();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                BigDecimal saldoInicial = saldoDiarioService.saldoEm(contaId, mes.atDay(1).minusDays(1));
+                try (Stream<Transacao> transacoes = transacaoRepository.streamExtratoPorPeriodo(contaId, inicio, fim);
+                     OutputStream arquivo = Files.newOutputStream(temporario)) {
+                    escrever(contaId, inicio, fim, saldoInicial, transacoes.iterator(), arquivo);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    private void escrever(UUID contaId, LocalDateTime inicio, LocalDateTime fim, BigDecimal saldoInicial,
+                          Iterator<Transacao> transacoes, OutputStream arquivo) throws IOException {
+        try (Writer csv = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(arquivo, 64 * 1024), StandardCharsets.UTF_8))) {
+            csv.write("id,realizada_em,tipo,valor,descricao,conta_origem,conta_destino,saldo\n");
+            escreverSaldo(csv, inicio, "SALDO_INICIAL", saldoInicial);
+
+            BigDecimal saldo = saldoInicial;
+            while (transacoes.hasNext()) {
+                Transacao transacao = transacoes.next();
+                Conta origem = transacao.getContaOrigem();
+                boolean saida = origem != null && contaId.equals(origem.getId());
+                BigDecimal registrado = saida ? transacao.getSaldoOrigemApos() : transacao.getSaldoDestinoApos();
+                if (registrado != null) {
+                    saldo = registrado;
+                } else {
+                    saldo = saida ? saldo.subtract(transacao.getValor()) : saldo.add(transacao.getValor());
+                }
+
+                csv.write(transacao.getId().toString());
+                csv.write(',');
+                csv.write(transacao.getRealizadaEm().toString());
+                csv.write(',');
+                csv.write(transacao.getTipo().name());
+                csv.write(',');
+                csv.write(transacao.getValor().toPlainString());
+                csv.write(',');
+                ExportacaoExtratoService.escreverCampoCsv(csv, transacao.getDescricao());
+                csv.write(',');
+                ExportacaoExtratoService.escreverCampoCsv(csv, idConta(origem));
+                csv.write(',');
+                ExportacaoExtratoService.escreverCampoCsv(csv, idConta(transacao.getContaDestino()));
+                csv.write(',');
+                csv.write(saldo.toPlainString());
+                csv.write('\n');
+                entityManager.detach(transacao);
+            }
+
+            escreverSaldo(csv, fim, "SALDO_FINAL", saldo);
+        }
+    }
+
+    private static void escreverSaldo(Writer csv, LocalDateTime em, String tipo, BigDecimal saldo) throws IOException {
+        csv.write(",");
+        csv.write(em.toString());
+        csv.write(',');
+        csv.write(tipo);
+        csv.write(",,,,,");
+        csv.write(saldo.toPlainString());
+        csv.write('\n');
+    }
+
+    private static String idConta(Conta conta) {
+        return conta != null ? conta.getId().toString() : null;
+    }
+
+    @PreDestroy
+    void encerrar() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Geração de um mês: lista as contas e divide em intervalos
+     */
+    private final class Geracao extends RecursiveTask<Integer> {
+        private final YearMonth mes;
+
+        private Geracao(YearMonth mes) {
+            this.mes = mes;
+        }
+
+        @Override
+        protected Integer compute() {
+            List<UUID> contaIds = contaRepository.findIdsCriadasAntesDe(mes.plusMonths(1).atDay(1).atStartOfDay());
+            try {
+                Files.createDirectories(diretorioMes(mes));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int gerados = new Intervalo(mes, contaIds).invoke();
+            EXTRATOS_GERADOS.registrar()
+                    .addKeyValue("mes", mes)
+                    .addKeyValue("contas", contaIds.size())
+                    .addKeyValue("gerados", gerados)
+                    .log();
+            return gerados;
+        }
+    }
+
+    /**
+     * Intervalo de contas: acima de {@code contasPorTarefa} é dividido ao meio; abaixo,
+     * os extratos são gerados em sequência pela thread que o executa
+     */
+    private final class Intervalo extends RecursiveTask<Integer> {
+        private final YearMonth mes;
+        private final List<UUID> contaIds;
+
+        private Intervalo(YearMonth mes, List<UUID> contaIds) {
+            this.mes = mes;
+            this.contaIds = contaIds;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (contaIds.size() > contasPorTarefa) {
+                int meio = contaIds.size() / 2;
+                Intervalo primeira = new Intervalo(mes, contaIds.subList(0, meio));
+                Intervalo segunda = new Intervalo(mes, contaIds.subList(meio, contaIds.size()));
+                primeira.fork();
+                return segunda.compute() + primeira.join();
+            }
+
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            int gerados = 0;
+            for (UUID contaId : contaIds) {
+                try {
+                    gerarConta(contaId, mes, transactionTemplate);
+                    gerados++;
+                } catch (IOException | RuntimeException e) {
+                    CONTA_FALHOU.registrar()
+                            .addKeyValue("conta", contaId)
+                            .addKeyValue("mes", mes)
+                            .addKeyValue("motivo", e.getMessage())
+                            .log();
+                }
+            }
+            return gerados;
+        }
+    }
+}
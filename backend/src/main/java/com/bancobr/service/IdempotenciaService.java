@@ -0,0 +1,201 @@
+package com.bancobr.service;
+
+import com.bancobr.ledger.LedgerEngine;
+import com.bancobr.model.IdempotenciaChave;
+import com.bancobr.repository.IdempotenciaChaveRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Serviço de idempotência das operações financeiras (header Idempotency-Key).
+ *
+ * A chave é reservada em idempotencia_chaves na mesma transação da operação e recebe
+ * a resposta antes do commit: uma repetição concorrente aguarda o commit da primeira
+ * e devolve a mesma resposta; se a primeira falhar, a repetição executa a operação.
+ * Só respostas 2xx ficam registradas. As respostas recentes ficam em um cache em
+ * memória limitado, consultado sem ir ao banco.
+ *
+ * Execução única por chave (ver {@link #aceitaChave}):
+ * - modos NENHUM, PESSIMISTA, NOWAIT e ATOMICO ({@link TransacaoService.ModoConcorrencia}),
+ *   com ou sem commit agrupado (que executa diretamente dentro desta transação): a operação
+ *   é gravada junto com a chave. No NOWAIT os locks FOR UPDATE NOWAIT e no ATOMICO os
+ *   UPDATEs condicionais de saldo também rodam dentro da transação da chave;
+ * - async=true: a transferência pendente é gravada junto com a chave e executada uma
+ *   única vez pelo worker que a reserva;
+ * - modo LEDGER síncrono: o shard grava a operação em outra transação, então a chave
+ *   é recusada.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+public class IdempotenciaService {
+
+    public static final String HEADER_CHAVE = "Idempotency-Key";
+
+    public static final String HEADER_REPETIDA = "Idempotent-Replayed";
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    @Autowired
+    private IdempotenciaChaveRepository idempotenciaChaveRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    @Value("${bancobr.idempotencia.validade-horas:24}")
+    private long validadeHoras = 24;
+
+    @Value("${bancobr.idempotencia.cache-max:100000}")
+    private long tamanhoMaximoCache = 100000;
+
+    private Cache<String, RespostaRegistrada> respostas;
+
+    @PostConstruct
+    void inicializar() {
+        respostas = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximoCache)
+                .expireAfterWrite(Duration.ofHours(validadeHoras))
+                .build();
+    }
+
+    /**
+     * Indica se a chave garante execução única para a operação: no modo LEDGER, apenas a
+     * transferência assíncrona é gravada na transação da chave
+     */
+    public boolean aceitaChave(boolean assincrona) {
+        return ledgerEngine == null || assincrona;
+    }
+
+    /**
+     * Executa a operação uma única vez por chave do usuário. Uma repetição com a mesma
+     * requisição recebe a resposta registrada; com outra requisição recebe 422.
+     */
+    public ResponseEntity<?> executar(String usuario, String chave, String operacao, Object requisicao,
+                                      Supplier<ResponseEntity<?>> acao) {
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Idempotency-Key inválida"));
+        }
+
+        String hash = calcularHash(operacao, requisicao);
+        String chaveCache = usuario + '\n' + chave;
+
+        RespostaRegistrada registrada = respostas.getIfPresent(chaveCache);
+        if (registrada != null) {
+            return repetir(registrada, hash);
+        }
+
+        ResponseEntity<?> resposta = new TransactionTemplate(transactionManager).execute(status -> {
+            LocalDateTime agora = LocalDateTime.now();
+            if (idempotenciaChaveRepository.reservar(usuario, chave, operacao, hash, agora,
+                    agora.minusHours(validadeHoras)) == 0) {
+                // Chave já usada: a linha foi gravada com a resposta por uma transação concluída
+                RespostaRegistrada existente = idempotenciaChaveRepository.findByUsuarioAndChave(usuario, chave)
+                        .map(RespostaRegistrada::new)
+                        .orElseThrow(() -> new RuntimeException("Chave de idempotência não encontrada"));
+                respostas.put(chaveCache, existente);
+                return repetir(existente, hash);
+            }
+
+            ResponseEntity<?> executada = acao.get();
+            if (!executada.getStatusCode().is2xxSuccessful()) {
+                // Libera a chave para uma nova tentativa
+                status.setRollbackOnly();
+                return executada;
+            }
+
+            String corpo = serializar(executada.getBody());
+            idempotenciaChaveRepository.concluir(usuario, chave, executada.getStatusCode().value(), corpo);
+            return ResponseEntity.status(executada.getStatusCode())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(corpo);
+        });
+
+        if (resposta.getStatusCode().is2xxSuccessful() && !resposta.getHeaders().containsKey(HEADER_REPETIDA)) {
+            respostas.put(chaveCache, new RespostaRegistrada(hash, resposta.getStatusCode().value(), (String) resposta.getBody()));
+        }
+        return resposta;
+    }
+
+    private ResponseEntity<?> repetir(RespostaRegistrada registrada, String hash) {
+        if (!registrada.hashRequisicao.equals(hash)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(Map.of("error", "Idempotency-Key já utilizada com outra requisição"));
+        }
+        return ResponseEntity.status(registrada.statusHttp)
+                .header(HEADER_REPETIDA, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(registrada.corpo);
+    }
+
+    /**
+     * SHA-256 da operação com a requisição serializada em ordem de chaves
+     */
+    private String calcularHash(String operacao, Object requisicao) {
+        try {
+            byte[] json = objectMapper.writer()
+                    .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsBytes(requisicao);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operacao.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            return HexFormat.of().formatHex(digest.digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Erro ao processar requisição idempotente: " + e.getMessage());
+        }
+    }
+
+    private String serializar(Object corpo) {
+        try {
+            return objectMapper.writeValueAsString(corpo);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Erro ao registrar resposta idempotente: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resposta registrada de uma chave
+     */
+    private static final class RespostaRegistrada {
+        private final String hashRequisicao;
+        private final int statusHttp;
+        private final String corpo;
+
+        private RespostaRegistrada(String hashRequisicao, int statusHttp, String corpo) {
+            this.hashRequisicao = hashRequisicao;
+            this.statusHttp = statusHttp;
+            this.corpo = corpo;
+        }
+
+        private RespostaRegistrada(IdempotenciaChave idempotenciaChave) {
+            this(idempotenciaChave.getHashRequisicao(), idempotenciaChave.getStatusHttp(), idempotenciaChave.getResposta());
+        }
+    }
+}
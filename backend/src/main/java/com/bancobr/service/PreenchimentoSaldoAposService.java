@@ -0,0 +1,177 @@
+package com.bancobr.service;
+
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.TransacaoRepository;
+import com.bancobr.util.EventoLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preenchimento do saldo após (saldo_origem_apos / saldo_destino_apos) das transações
+ * gravadas sem ele: as anteriores à coluna e as de contas que foram quentes.
+ *
+ * As contas são divididas em blocos processados em paralelo; cada conta é preenchida
+ * em uma transação própria, curta. Só transações sem saldo após são alteradas, então o
+ * preenchimento pode ser executado de novo a qualquer momento.
+ *
+ * Contas quentes ficam de fora (o saldo delas inclui créditos em slot que não bloqueiam a
+ * conta) e, em cada conta, as transações anteriores ao último ajuste de saldo sem
+ * transação (crédito, débito ou saldo definido pelo ADMIN) continuam sem saldo após
+ * ({@link TransacaoRepository#preencherSaldosApos}).
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+public class PreenchimentoSaldoAposService {
+
+    private static final EventoLog PREENCHIMENTO_CONCLUIDO = EventoLog.info("saldo", "saldo.apos.preenchido");
+    private static final EventoLog CONTA_FALHOU = EventoLog.warn("saldo", "saldo.apos.conta.falhou");
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private CacheExtratoService cacheExtratoService;
+
+    @Value("${bancobr.saldo-apos.preenchimento.paralelismo:4}")
+    private int paralelismo = 4;
+
+    @Value("${bancobr.saldo-apos.preenchimento.contas-por-bloco:200}")
+    private int contasPorBloco = 200;
+
+    private ExecutorService executor;
+
+    private volatile Execucao execucao;
+
+    @PostConstruct
+    void inicializar() {
+        AtomicInteger contador = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(paralelismo, tarefa -> {
+            Thread thread = new Thread(tarefa, "saldo-apos-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Inicia o preenchimento em segundo plano; retorna false se já houver um em andamento
+     */
+    public synchronized boolean iniciar() {
+        if (execucao != null && execucao.concluidoEm == null) {
+            return false;
+        }
+
+        Set<UUID> quentes = new HashSet<>(contaRepository.findIdsContasQuentes());
+        List<UUID> contaIds = new ArrayList<>(contaRepository.findAllIds());
+        contaIds.removeAll(quentes);
+        Execucao atual = new Execucao(contaIds.size(), quentes.size());
+        execucao = atual;
+
+        List<CompletableFuture<Void>> blocos = new ArrayList<>();
+        for (int inicio = 0; inicio < contaIds.size(); inicio += contasPorBloco) {
+            List<UUID> bloco = contaIds.subList(inicio, Math.min(inicio + contasPorBloco, contaIds.size()));
+            blocos.add(CompletableFuture.runAsync(() -> preencherBloco(bloco, atual), executor));
+        }
+        CompletableFuture.allOf(blocos.toArray(new CompletableFuture[0])).whenComplete((ok, erro) -> {
+            // As páginas em cache têm as transações com o saldo após antigo
+            if (cacheExtratoService != null) {
+                cacheExtratoService.invalidarTodas();
+            }
+            atual.concluidoEm = LocalDateTime.now();
+            PREENCHIMENTO_CONCLUIDO.registrar()
+                    .addKeyValue("contas", atual.contasProcessadas.get())
+                    .addKeyValue("transacoes", atual.transacoesAtualizadas.get())
+                    .addKeyValue("falhas", atual.contasComFalha.get())
+                    .addKeyValue("quentesIgnoradas", atual.contasQuentesIgnoradas)
+                    .log();
+        });
+        return true;
+    }
+
+    /**
+     * Andamento do preenchimento atual ou do último executado
+     */
+    public Map<String, Object> status() {
+        Execucao atual = execucao;
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (atual == null) {
+            status.put("emAndamento", false);
+            return status;
+        }
+        status.put("emAndamento", atual.concluidoEm == null);
+        status.put("iniciadoEm", atual.iniciadoEm.toString());
+        status.put("concluidoEm", atual.concluidoEm != null ? atual.concluidoEm.toString() : null);
+        status.put("totalContas", atual.totalContas);
+        status.put("contasProcessadas", atual.contasProcessadas.get());
+        status.put("contasComFalha", atual.contasComFalha.get());
+        status.put("contasQuentesIgnoradas", atual.contasQuentesIgnoradas);
+        status.put("transacoesAtualizadas", atual.transacoesAtualizadas.get());
+        return status;
+    }
+
+    private void preencherBloco(List<UUID> contaIds, Execucao atual) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (UUID contaId : contaIds) {
+            try {
+                Integer atualizadas = transactionTemplate.execute(status -> transacaoRepository.preencherSaldosApos(contaId));
+                atual.transacoesAtualizadas.addAndGet(atualizadas);
+            } catch (RuntimeException e) {
+                atual.contasComFalha.incrementAndGet();
+                CONTA_FALHOU.registrar()
+                        .addKeyValue("conta", contaId)
+                        .addKeyValue("motivo", e.getMessage())
+                        .log();
+            }
+            atual.contasProcessadas.incrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Contadores de uma execução do preenchimento
+     */
+    private static final class Execucao {
+        private final LocalDateTime iniciadoEm = LocalDateTime.now();
+        private final int totalContas;
+        private final int contasQuentesIgnoradas;
+        private final AtomicLong contasProcessadas = new AtomicLong();
+        private final AtomicLong contasComFalha = new AtomicLong();
+        private final AtomicLong transacoesAtualizadas = new AtomicLong();
+        private volatile LocalDateTime concluidoEm;
+
+        private Execucao(int totalContas, int contasQuentesIgnoradas) {
+            this.totalContas = totalContas;
+            this.contasQuentesIgnoradas = contasQuentesIgnoradas;
+        }
+    }
+}
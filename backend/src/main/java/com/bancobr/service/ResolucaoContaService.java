@@ -0,0 +1,114 @@
+package com.bancobr.service;
+
+import com.bancobr.repository.ContaRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cache da resolução número da conta → ID usada pelas transferências por número.
+ *
+ * O número de uma conta não muda, então a entrada positiva vale até ser removida por
+ * tamanho ou validade. Números inexistentes também ficam no cache (entrada negativa), por
+ * um tempo curto: contas criadas por outra instância da aplicação só são vistas depois
+ * que a entrada expira. Nesta instância, {@link ContaService#criarConta} remove a entrada
+ * após o commit.
+ *
+ * Métricas: {@code cache.gets} (hit/miss), {@code cache.size}, {@code cache.evictions}
+ * com a tag {@code cache=contas.numero} e a taxa de acerto em
+ * {@code bancobr.contas.resolucao.taxa-acerto}.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+public class ResolucaoContaService {
+
+    static final String NOME_CACHE = "contas.numero";
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${bancobr.contas.resolucao.max-entradas:100000}")
+    private long maxEntradas = 100000;
+
+    @Value("${bancobr.contas.resolucao.validade-minutos:60}")
+    private long validadeMinutos = 60;
+
+    @Value("${bancobr.contas.resolucao.validade-negativa-segundos:30}")
+    private long validadeNegativaSegundos = 30;
+
+    private LoadingCache<String, Optional<UUID>> ids;
+
+    @PostConstruct
+    void inicializar() {
+        long validadePositiva = Duration.ofMinutes(validadeMinutos).toNanos();
+        long validadeNegativa = Duration.ofSeconds(validadeNegativaSegundos).toNanos();
+
+        ids = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfter(new Expiry<String, Optional<UUID>>() {
+                    @Override
+                    public long expireAfterCreate(String numero, Optional<UUID> id, long agora) {
+                        return id.isPresent() ? validadePositiva : validadeNegativa;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String numero, Optional<UUID> id, long agora, long restante) {
+                        return expireAfterCreate(numero, id, agora);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String numero, Optional<UUID> id, long agora, long restante) {
+                        return restante;
+                    }
+                })
+                .recordStats()
+                .build(contaRepository::findIdByNumeroConta);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, ids, NOME_CACHE);
+        Gauge.builder("bancobr.contas.resolucao.taxa-acerto", ids, cache -> cache.stats().hitRate())
+                .description("Fração das resoluções de número de conta atendidas pelo cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * ID da conta com o número informado, ou vazio se não existir
+     */
+    public Optional<UUID> resolver(String numeroConta) {
+        return ids.get(numeroConta);
+    }
+
+    /**
+     * Remove a entrada do número. Dentro de uma transação a remoção é feita após o commit,
+     * para que uma consulta concorrente não grave de novo a entrada antiga.
+     */
+    public void invalidar(String numeroConta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.invalidate(numeroConta);
+                }
+            });
+        } else {
+            ids.invalidate(numeroConta);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.bancobr.service;
+
+import com.bancobr.model.Conta;
+import com.bancobr.model.SaldoDiario;
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.SaldoDiarioRepository;
+import com.bancobr.repository.TransacaoRepository;
+import com.bancobr.util.EventoLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Saldo da conta ao fim de um dia (GET /contas/{id}/saldo?em=AAAA-MM-DD).
+ *
+ * Toda noite o saldo de cada conta ao fim do dia anterior é gravado em
+ * {@code saldos_diarios}. O saldo em uma data parte do snapshot mais recente até ela e
+ * soma só o movimento dos dias seguintes ao snapshot; sem snapshot anterior, parte do
+ * saldo atual e desfaz o movimento posterior à data.
+ *
+ * O cálculo considera apenas alterações de saldo registradas em {@code transacoes};
+ * ajustes diretos de saldo (atualização pelo ADMIN, crédito e débito sem transação)
+ * só aparecem a partir do snapshot seguinte.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+public class SaldoDiarioService {
+
+    private static final EventoLog SNAPSHOTS_GERADOS = EventoLog.info("saldo", "saldos.diarios.gerados");
+
+    @Autowired
+    private SaldoDiarioRepository saldoDiarioRepository;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Rotina noturna: grava os saldos ao fim do dia anterior
+     */
+    @Scheduled(cron = "${bancobr.saldos.diarios.cron:0 15 0 * * *}")
+    public void gerarSnapshotsDoDiaAnterior() {
+        gerarSnapshots(LocalDate.now().minusDays(1));
+    }
+
+    /**
+     * Grava o saldo de todas as contas ao fim do dia informado. Pode ser executada de novo
+     * para o mesmo dia: contas que já têm snapshot são mantidas.
+     */
+    public int gerarSnapshots(LocalDate data) {
+        LocalDateTime corte = data.plusDays(1).atStartOfDay();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer gravados = transactionTemplate.execute(status ->
+                saldoDiarioRepository.gerarSnapshots(data, corte, LocalDateTime.now()));
+
+        SNAPSHOTS_GERADOS.registrar()
+                .addKeyValue("data", data)
+                .addKeyValue("contas", gravados)
+                .log();
+        return gravados;
+    }
+
+    /**
+     * Saldo da conta ao fim do dia informado; para hoje, o saldo atual
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public BigDecimal saldoEm(UUID contaId, LocalDate data) {
+        LocalDate hoje = LocalDate.now();
+        if (data.isAfter(hoje)) {
+            throw new RuntimeException("Data não pode ser futura");
+        }
+
+        Conta conta = contaRepository.findById(contaId)
+                .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+        if (data.isEqual(hoje)) {
+            return conta.getSaldo();
+        }
+
+        LocalDateTime fimDoDia = data.plusDays(1).atStartOfDay();
+        Optional<SaldoDiario> snapshot =
+                saldoDiarioRepository.findFirstByContaIdAndDataLessThanEqualOrderByDataDesc(contaId, data);
+        if (snapshot.isPresent()) {
+            SaldoDiario anterior = snapshot.get();
+            if (anterior.getData().isEqual(data)) {
+                return anterior.getSaldo();
+            }
+            LocalDateTime inicio = anterior.getData().plusDays(1).atStartOfDay();
+            return anterior.getSaldo().add(transacaoRepository.somarMovimentoEntre(contaId, inicio, fimDoDia));
+        }
+
+        // Data anterior ao primeiro snapshot da conta
+        return conta.getSaldo().subtract(transacaoRepository.somarMovimentoDesde(contaId, fimDoDia));
+    }
+}
@@ -0,0 +1,141 @@
+package com.bancobr.service;
+
+import com.bancobr.model.Conta;
+import com.bancobr.model.Dinheiro;
+import com.bancobr.repository.ContaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Serviço de saldo fracionado para contas quentes (lojistas, folha de pagamento).
+ *
+ * O saldo de uma conta quente é contas.saldo mais K slots em conta_saldo_slots.
+ * Créditos atualizam um slot aleatório, dividindo a disputa pela linha entre K linhas;
+ * débitos consolidam os slots na linha da conta quando o saldo dela não basta.
+ *
+ * O conjunto de contas quentes é mantido em memória e recarregado por uma tarefa
+ * agendada, fora das requisições. Uma informação desatualizada não afeta o saldo:
+ * crédito em slot inexistente cai no saldo da linha, e crédito na linha de uma conta
+ * quente continua somando.
+ *
+ * Os locks de uma conta seguem a ordem linha, depois slots, como no débito com a conta
+ * carregada (SELECT ... FOR UPDATE em ordem de ID e então {@link #consolidarSeNecessario}).
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+@Transactional
+public class SaldoFracionadoService {
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Value("${bancobr.saldo-fracionado.slots:16}")
+    private int quantidadeSlots = 16;
+
+    private volatile Set<UUID> contasQuentes = Set.of();
+
+    /**
+     * Indica se a conta é quente, segundo a última recarga
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean isQuente(UUID contaId) {
+        return contasQuentes.contains(contaId);
+    }
+
+    /**
+     * Recarrega o conjunto de contas quentes (na inicialização e a cada {@code atualizacao-ms})
+     */
+    @Scheduled(fixedDelayString = "${bancobr.saldo-fracionado.atualizacao-ms:30000}")
+    @Transactional(readOnly = true)
+    public void recarregarContasQuentes() {
+        contasQuentes = Set.copyOf(contaRepository.findIdsContasQuentes());
+    }
+
+    /**
+     * Credita a conta: em um slot aleatório se for quente, senão na linha da conta
+     */
+    public void creditar(UUID contaId, BigDecimal valor, String mensagemNaoEncontrada) {
+        if (isQuente(contaId)
+                && contaRepository.creditarSlot(contaId, ThreadLocalRandom.current().nextInt(quantidadeSlots), valor) == 1) {
+            return;
+        }
+        if (contaRepository.creditarSaldo(contaId, valor, LocalDateTime.now()) == 0) {
+            throw new RuntimeException(mensagemNaoEncontrada);
+        }
+    }
+
+    /**
+     * Antes de debitar uma conta carregada: se a linha da conta não cobre o valor,
+     * move os slots para ela. A conta deve estar bloqueada (ou ser a única cópia em uso).
+     */
+    public void consolidarSeNecessario(Conta conta, BigDecimal valor) {
+        consolidarSeNecessario(conta, Dinheiro.de(valor));
+    }
+
+    public void consolidarSeNecessario(Conta conta, Dinheiro valor) {
+        if (!conta.isQuente() || conta.temSaldoNaLinha(valor)) {
+            return;
+        }
+        conta.incorporarSlots(contaRepository.zerarSlots(conta.getId()));
+    }
+
+    /**
+     * Move os slots para a linha da conta com UPDATEs, sem carregar a entidade.
+     * A linha é bloqueada antes dos slots, na posição da conta na ordem canônica.
+     * Retorna o valor movido (zero se a conta não existir).
+     */
+    public BigDecimal consolidar(UUID contaId) {
+        if (contaRepository.bloquearLinha(contaId).isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal valor = contaRepository.zerarSlots(contaId);
+        if (valor.signum() != 0) {
+            contaRepository.creditarSaldo(contaId, valor, LocalDateTime.now());
+        }
+        return valor;
+    }
+
+    /**
+     * Marca ou desmarca a conta como quente. Ao desmarcar, os slots voltam para a linha da conta.
+     */
+    public Conta definirQuente(UUID contaId, boolean quente) {
+        // A linha fica bloqueada para que créditos diretos nela não se percam
+        Conta conta = contaRepository.findAllByIdForUpdate(List.of(contaId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Conta não encontrada"));
+
+        if (quente) {
+            contaRepository.criarSlots(contaId, quantidadeSlots);
+        } else if (conta.isQuente()) {
+            conta.incorporarSlots(contaRepository.removerSlots(contaId));
+        }
+        conta.setQuente(quente);
+        conta.setAtualizadoEm(LocalDateTime.now());
+        Conta contaSalva = contaRepository.save(conta);
+
+        // Atualiza o conjunto local sem esperar a próxima recarga
+        Set<UUID> atualizadas = new HashSet<>(contasQuentes);
+        if (quente) {
+            atualizadas.add(contaId);
+        } else {
+            atualizadas.remove(contaId);
+        }
+        contasQuentes = Set.copyOf(atualizadas);
+
+        return contaSalva;
+    }
+}
@@ -1,20 +1,34 @@
 package com.bancobr.service;
 
+import com.bancobr.dto.ExtratoPagina;
+import com.bancobr.ledger.LedgerEngine;
 import com.bancobr.model.Conta;
+import com.bancobr.model.Dinheiro;
 import com.bancobr.model.Transacao;
 import com.bancobr.model.Usuario;
 import com.bancobr.repository.ContaRepository;
 import com.bancobr.repository.TransacaoRepository;
 import com.bancobr.repository.UsuarioRepository;
+import com.bancobr.util.EventoLog;
+import com.bancobr.util.OrdemUuid;
+import com.bancobr.util.RelogioTransacoes;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Serviço para gerenciamento de transações bancárias
@@ -26,6 +40,18 @@ import java.util.UUID;
 @Transactional
 public class TransacaoService {
 
+    private static final EventoLog TRANSFERENCIA_INICIADA =
+            EventoLog.debug("transacao", "transferencia.iniciada").amostrado(100);
+    private static final EventoLog TRANSFERENCIA_CONCLUIDA =
+            EventoLog.debug("transacao", "transferencia.concluida").amostrado(100);
+    private static final EventoLog TRANSFERENCIA_FALHOU =
+            EventoLog.info("transacao", "transferencia.falhou").amostrado(10);
+
+    /** Limites do período quando a busca textual não informa início ou fim */
+    private static final LocalDateTime BUSCA_DESDE = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime BUSCA_ATE = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final int TAMANHO_MAXIMO_TERMO_BUSCA = 200;
+
     @Autowired
     private TransacaoRepository transacaoRepository;
 
@@ -38,35 +64,50 @@ public class TransacaoService {
     @Autowired
     private LogService logService;
 
+    @Autowired
+    private SaldoFracionadoService saldoFracionadoService;
+
+    @Autowired
+    private ResolucaoContaService resolucaoContaService;
+
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    @Autowired(required = false)
+    private CacheExtratoService cacheExtratoService;
+
+    @Value("${bancobr.transacao.concorrencia.modo:NENHUM}")
+    private ModoConcorrencia modoConcorrencia = ModoConcorrencia.NENHUM;
+
+    @Value("${bancobr.transacao.concorrencia.lock-timeout-ms:2000}")
+    private long lockTimeoutMs = 2000;
+
+    @Value("${bancobr.extrato.tamanho-pagina:50}")
+    private int tamanhoPaginaExtrato = 50;
+
+    @Value("${bancobr.extrato.tamanho-maximo:200}")
+    private int tamanhoMaximoExtrato = 200;
+
     /**
      * Realiza transferência entre contas por número de conta
      */
     @Transactional(rollbackFor = Exception.class)
     public Transacao realizarTransferenciaPorNumero(String numeroContaOrigem, String numeroContaDestino, BigDecimal valor, String descricao) {
-        System.out.println("🔍 [DEBUG] Iniciando transferência por número:");
-        System.out.println("   - Conta Origem: " + numeroContaOrigem);
-        System.out.println("   - Conta Destino: " + numeroContaDestino);
-        System.out.println("   - Valor: " + valor);
-        System.out.println("   - Descrição: " + descricao);
+        return realizarTransferenciaPorNumero(numeroContaOrigem, numeroContaDestino, dinheiro(valor), descricao);
+    }
 
-        try {
-            // Busca contas por número
-            System.out.println("🔍 [DEBUG] Buscando conta origem por número...");
-            Conta contaOrigem = contaRepository.findByNumeroConta(numeroContaOrigem)
-                    .orElseThrow(() -> new RuntimeException("Conta origem não encontrada: " + numeroContaOrigem));
-            System.out.println("✅ [DEBUG] Conta origem encontrada: " + contaOrigem.getId() + " - Saldo: " + contaOrigem.getSaldo());
-            
-            System.out.println("🔍 [DEBUG] Buscando conta destino por número...");
-            Conta contaDestino = contaRepository.findByNumeroConta(numeroContaDestino)
-                    .orElseThrow(() -> new RuntimeException("Conta destino não encontrada: " + numeroContaDestino));
-            System.out.println("✅ [DEBUG] Conta destino encontrada: " + contaDestino.getId() + " - Saldo: " + contaDestino.getSaldo());
-
-            // Chama o método original com os UUIDs
-            return realizarTransferencia(contaOrigem.getId(), contaDestino.getId(), valor, descricao);
-        } catch (Exception e) {
-            System.out.println("❌ [DEBUG] Erro na transferência por número: " + e.getMessage());
-            throw e;
-        }
+    /**
+     * Realiza transferência entre contas por número de conta, com o valor já lido em centavos
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Transacao realizarTransferenciaPorNumero(String numeroContaOrigem, String numeroContaDestino, Dinheiro valor, String descricao) {
+        // Resolve apenas os IDs (em cache); as contas são carregadas (e bloqueadas) em realizarTransferencia
+        UUID contaOrigemId = resolucaoContaService.resolver(numeroContaOrigem)
+                .orElseThrow(() -> new RuntimeException("Conta origem não encontrada: " + numeroContaOrigem));
+        UUID contaDestinoId = resolucaoContaService.resolver(numeroContaDestino)
+                .orElseThrow(() -> new RuntimeException("Conta destino não encontrada: " + numeroContaDestino));
+
+        return realizarTransferencia(contaOrigemId, contaDestinoId, valor, descricao);
     }
 
     /**
@@ -74,79 +115,107 @@ public class TransacaoService {
      */
     @Transactional(rollbackFor = Exception.class)
     public Transacao realizarTransferencia(UUID contaOrigemId, UUID contaDestinoId, BigDecimal valor, String descricao) {
-        System.out.println("🔍 [DEBUG] Iniciando transferência:");
-        System.out.println("   - Conta Origem: " + contaOrigemId);
-        System.out.println("   - Conta Destino: " + contaDestinoId);
-        System.out.println("   - Valor: " + valor);
-        System.out.println("   - Descrição: " + descricao);
+        return realizarTransferencia(contaOrigemId, contaDestinoId, dinheiro(valor), descricao);
+    }
+
+    /**
+     * Realiza transferência entre contas, com o valor já lido em centavos
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Transacao realizarTransferencia(UUID contaOrigemId, UUID contaDestinoId, Dinheiro valor, String descricao) {
+        TRANSFERENCIA_INICIADA.registrar()
+                .addKeyValue("origem", contaOrigemId)
+                .addKeyValue("destino", contaDestinoId)
+                .addKeyValue("valor", valor)
+                .addKeyValue("modo", modoConcorrencia)
+                .log();
 
         try {
-            // Validações de negócio
-            System.out.println("✅ [DEBUG] Validando transferência...");
-            validarTransferencia(contaOrigemId, contaDestinoId, valor);
-            System.out.println("✅ [DEBUG] Validações passaram!");
-
-            // Busca contas com lock otimista
-            System.out.println("🔍 [DEBUG] Buscando conta origem...");
-            Conta contaOrigem = contaRepository.findById(contaOrigemId)
-                    .orElseThrow(() -> new RuntimeException("Conta origem não encontrada"));
-            System.out.println("✅ [DEBUG] Conta origem encontrada: " + contaOrigem.getId() + " - Saldo: " + contaOrigem.getSaldo());
-            
-            System.out.println("🔍 [DEBUG] Buscando conta destino...");
-            Conta contaDestino = contaRepository.findById(contaDestinoId)
-                    .orElseThrow(() -> new RuntimeException("Conta destino não encontrada"));
-            System.out.println("✅ [DEBUG] Conta destino encontrada: " + contaDestino.getId() + " - Saldo: " + contaDestino.getSaldo());
-
-            // Validações adicionais
-            System.out.println("🔍 [DEBUG] Validando saldo...");
-            if (!contaOrigem.temSaldoSuficiente(valor)) {
-                System.out.println("❌ [DEBUG] Saldo insuficiente!");
-                throw new RuntimeException("Saldo insuficiente na conta origem");
-            }
-            System.out.println("✅ [DEBUG] Saldo suficiente!");
+            Transacao transacaoSalva = executarTransferencia(contaOrigemId, contaDestinoId, valor, descricao);
+            TRANSFERENCIA_CONCLUIDA.registrar()
+                    .addKeyValue("transacao", transacaoSalva.getId())
+                    .log();
+            return transacaoSalva;
+        } catch (RuntimeException e) {
+            TRANSFERENCIA_FALHOU.registrar()
+                    .addKeyValue("origem", contaOrigemId)
+                    .addKeyValue("destino", contaDestinoId)
+                    .addKeyValue("motivo", e.getMessage())
+                    .log();
+            throw e;
+        }
+    }
 
-            System.out.println("🔍 [DEBUG] Validando contas diferentes...");
-            if (contaOrigem.getId().equals(contaDestino.getId())) {
-                System.out.println("❌ [DEBUG] Mesma conta!");
-                throw new RuntimeException("Não é possível transferir para a mesma conta");
-            }
-            System.out.println("✅ [DEBUG] Contas diferentes!");
+    private Transacao executarTransferencia(UUID contaOrigemId, UUID contaDestinoId, Dinheiro valor, String descricao) {
+        // Validações de negócio
+        validarTransferencia(contaOrigemId, contaDestinoId, valor);
 
-            // Cria a transação
-            System.out.println("🔍 [DEBUG] Criando transação...");
-            Transacao transacao = new Transacao(contaOrigem, contaDestino, Transacao.TipoTransacao.TRANSFERENCIA, valor, descricao);
-            transacao.setRealizadaEm(LocalDateTime.now());
-            System.out.println("✅ [DEBUG] Transação criada!");
+        if (modoConcorrencia == ModoConcorrencia.LEDGER) {
+            return ledger().aguardar(ledger().transferir(contaOrigemId, contaDestinoId, valor, descricao));
+        }
 
-            // Processa a transação (debitar/creditar)
-            System.out.println("🔍 [DEBUG] Processando transação...");
-            transacao.processar();
-            System.out.println("✅ [DEBUG] Transação processada!");
+        if (modoConcorrencia == ModoConcorrencia.ATOMICO) {
+            return transferirComUpdateCondicional(contaOrigemId, contaDestinoId, valor, descricao);
+        }
 
-            // Salva a transação
-            System.out.println("🔍 [DEBUG] Salvando transação...");
-            Transacao transacaoSalva = transacaoRepository.save(transacao);
-            System.out.println("✅ [DEBUG] Transação salva: " + transacaoSalva.getId());
+        // Conta quente no destino recebe o crédito em um slot, sem carregar nem bloquear a linha
+        boolean destinoQuente = saldoFracionadoService.isQuente(contaDestinoId);
 
-            // Atualiza as contas
-            System.out.println("🔍 [DEBUG] Atualizando contas...");
-            contaRepository.save(contaOrigem);
-            contaRepository.save(contaDestino);
-            System.out.println("✅ [DEBUG] Contas atualizadas!");
+        // Busca contas (com lock de escrita em ordem canônica, conforme o modo de concorrência)
+        Conta contaOrigem;
+        Conta contaDestino;
+        if (modoConcorrencia == ModoConcorrencia.NENHUM) {
+            contaOrigem = contaRepository.findById(contaOrigemId)
+                    .orElseThrow(() -> new RuntimeException("Conta origem não encontrada"));
+            contaDestino = destinoQuente
+                    ? contaRepository.getReferenceById(contaDestinoId)
+                    : contaRepository.findById(contaDestinoId)
+                            .orElseThrow(() -> new RuntimeException("Conta destino não encontrada"));
+        } else {
+            Map<UUID, Conta> contas = destinoQuente
+                    ? bloquearContas(contaOrigemId)
+                    : bloquearContas(contaOrigemId, contaDestinoId);
+            contaOrigem = Optional.ofNullable(contas.get(contaOrigemId))
+                    .orElseThrow(() -> new RuntimeException("Conta origem não encontrada"));
+            contaDestino = destinoQuente
+                    ? contaRepository.getReferenceById(contaDestinoId)
+                    : Optional.ofNullable(contas.get(contaDestinoId))
+                            .orElseThrow(() -> new RuntimeException("Conta destino não encontrada"));
+        }
 
-                    // Registra log de auditoria
-        System.out.println("🔍 [DEBUG] Registrando log...");
-        // logService.criarLogSistema("TRANSFERENCIA", "transacoes", transacaoSalva.getId());
-        System.out.println("✅ [DEBUG] Log registrado!");
+        // Validações adicionais
+        if (!contaOrigem.temSaldoSuficiente(valor)) {
+            throw new RuntimeException("Saldo insuficiente na conta origem");
+        }
+        if (contaOrigem.getId().equals(contaDestino.getId())) {
+            throw new RuntimeException("Não é possível transferir para a mesma conta");
+        }
 
-            System.out.println("🎉 [DEBUG] Transferência concluída com sucesso!");
-            return transacaoSalva;
+        // Cria a transação
+        Transacao transacao = new Transacao(contaOrigem, contaDestino, Transacao.TipoTransacao.TRANSFERENCIA, valor, descricao);
+        transacao.setRealizadaEm(RelogioTransacoes.agora());
+
+        // Processa a transação (debitar/creditar)
+        saldoFracionadoService.consolidarSeNecessario(contaOrigem, valor);
+        if (destinoQuente) {
+            contaOrigem.debitar(valor);
+            transacao.setSaldoOrigemApos(Transacao.saldoApos(contaOrigem));
+            saldoFracionadoService.creditar(contaDestinoId, transacao.getValor(), "Conta destino não encontrada");
+        } else {
+            transacao.processar();
+        }
 
-        } catch (Exception e) {
-            System.out.println("❌ [DEBUG] Erro na transferência: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
+        // Salva a transação e atualiza as contas
+        Transacao transacaoSalva = transacaoRepository.save(transacao);
+        contaRepository.save(contaOrigem);
+        if (!destinoQuente) {
+            contaRepository.save(contaDestino);
         }
+
+        // Registra log de auditoria
+        // logService.criarLogSistema("TRANSFERENCIA", "transacoes", transacaoSalva.getId());
+
+        return transacaoSalva;
     }
 
     /**
@@ -154,17 +223,39 @@ public class TransacaoService {
      */
     @Transactional(rollbackFor = Exception.class)
     public Transacao realizarDeposito(UUID contaDestinoId, BigDecimal valor, String descricao) {
+        return realizarDeposito(contaDestinoId, dinheiro(valor), descricao);
+    }
+
+    /**
+     * Realiza depósito, com o valor já lido em centavos
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Transacao realizarDeposito(UUID contaDestinoId, Dinheiro valor, String descricao) {
         // Validações
-        if (valor.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!valor.isPositivo()) {
             throw new RuntimeException("Valor deve ser maior que zero");
         }
 
-        Conta contaDestino = contaRepository.findById(contaDestinoId)
+        if (modoConcorrencia == ModoConcorrencia.LEDGER) {
+            return ledger().aguardar(ledger().depositar(contaDestinoId, valor, descricao));
+        }
+
+        if (modoConcorrencia == ModoConcorrencia.ATOMICO || saldoFracionadoService.isQuente(contaDestinoId)) {
+            BigDecimal decimal = valor.paraBigDecimal();
+            creditarAtomico(contaDestinoId, decimal, "Conta destino não encontrada");
+            Transacao transacao = new Transacao(null, contaRepository.getReferenceById(contaDestinoId),
+                    Transacao.TipoTransacao.DEPOSITO, decimal, descricao);
+            transacao.setRealizadaEm(RelogioTransacoes.agora());
+            transacao.setSaldoDestinoApos(saldoAposAtualizacao(contaDestinoId));
+            return transacaoRepository.save(transacao);
+        }
+
+        Conta contaDestino = carregarConta(contaDestinoId)
                 .orElseThrow(() -> new RuntimeException("Conta destino não encontrada"));
 
         // Cria a transação
         Transacao transacao = new Transacao(null, contaDestino, Transacao.TipoTransacao.DEPOSITO, valor, descricao);
-        transacao.setRealizadaEm(LocalDateTime.now());
+        transacao.setRealizadaEm(RelogioTransacoes.agora());
 
         // Processa a transação
         transacao.processar();
@@ -186,22 +277,45 @@ public class TransacaoService {
      */
     @Transactional(rollbackFor = Exception.class)
     public Transacao realizarSaque(UUID contaOrigemId, BigDecimal valor, String descricao) {
+        return realizarSaque(contaOrigemId, dinheiro(valor), descricao);
+    }
+
+    /**
+     * Realiza saque, com o valor já lido em centavos
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Transacao realizarSaque(UUID contaOrigemId, Dinheiro valor, String descricao) {
         // Validações
-        if (valor.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!valor.isPositivo()) {
             throw new RuntimeException("Valor deve ser maior que zero");
         }
 
-        Conta contaOrigem = contaRepository.findById(contaOrigemId)
+        if (modoConcorrencia == ModoConcorrencia.LEDGER) {
+            return ledger().aguardar(ledger().sacar(contaOrigemId, valor, descricao));
+        }
+
+        if (modoConcorrencia == ModoConcorrencia.ATOMICO) {
+            BigDecimal decimal = valor.paraBigDecimal();
+            debitarAtomico(contaOrigemId, decimal, "Saldo insuficiente", "Conta origem não encontrada");
+            Transacao transacao = new Transacao(contaRepository.getReferenceById(contaOrigemId), null,
+                    Transacao.TipoTransacao.SAQUE, decimal, descricao);
+            transacao.setRealizadaEm(RelogioTransacoes.agora());
+            transacao.setSaldoOrigemApos(saldoAposAtualizacao(contaOrigemId));
+            return transacaoRepository.save(transacao);
+        }
+
+        Conta contaOrigem = carregarConta(contaOrigemId)
                 .orElseThrow(() -> new RuntimeException("Conta origem não encontrada"));
 
         // Valida saldo
         if (!contaOrigem.temSaldoSuficiente(valor)) {
             throw new RuntimeException("Saldo insuficiente");
         }
+        saldoFracionadoService.consolidarSeNecessario(contaOrigem, valor);
 
         // Cria a transação
         Transacao transacao = new Transacao(contaOrigem, null, Transacao.TipoTransacao.SAQUE, valor, descricao);
-        transacao.setRealizadaEm(LocalDateTime.now());
+        transacao.setRealizadaEm(RelogioTransacoes.agora());
 
         // Processa a transação
         transacao.processar();
@@ -218,15 +332,127 @@ public class TransacaoService {
         return transacaoSalva;
     }
 
+    /**
+     * Transferência com UPDATEs condicionais, sem carregar as entidades Conta.
+     * Os UPDATEs seguem a ordem canônica de ID para não gerar deadlock; se o débito
+     * falhar depois do crédito, a exceção desfaz o crédito no rollback.
+     */
+    private Transacao transferirComUpdateCondicional(UUID contaOrigemId, UUID contaDestinoId, Dinheiro quantia, String descricao) {
+        BigDecimal valor = quantia.paraBigDecimal();
+        if (OrdemUuid.comparar(contaOrigemId, contaDestinoId) < 0) {
+            debitarAtomico(contaOrigemId, valor, "Saldo insuficiente na conta origem", "Conta origem não encontrada");
+            creditarAtomico(contaDestinoId, valor, "Conta destino não encontrada");
+        } else {
+            creditarAtomico(contaDestinoId, valor, "Conta destino não encontrada");
+            debitarAtomico(contaOrigemId, valor, "Saldo insuficiente na conta origem", "Conta origem não encontrada");
+        }
+
+        Transacao transacao = new Transacao(contaRepository.getReferenceById(contaOrigemId),
+                contaRepository.getReferenceById(contaDestinoId), Transacao.TipoTransacao.TRANSFERENCIA, valor, descricao);
+        transacao.setRealizadaEm(RelogioTransacoes.agora());
+        transacao.setSaldoOrigemApos(saldoAposAtualizacao(contaOrigemId));
+        transacao.setSaldoDestinoApos(saldoAposAtualizacao(contaDestinoId));
+        return transacaoRepository.save(transacao);
+    }
+
+    /**
+     * Saldo da conta depois do UPDATE atômico desta transação, que mantém a linha
+     * bloqueada até o commit; nulo para conta quente (ver {@link Transacao#saldoApos})
+     */
+    private BigDecimal saldoAposAtualizacao(UUID contaId) {
+        if (saldoFracionadoService.isQuente(contaId)) {
+            return null;
+        }
+        return contaRepository.findSaldoLinhaById(contaId).orElse(null);
+    }
+
+    /**
+     * Debita com UPDATE condicional; a contagem de linhas indica se havia saldo.
+     * A consulta de existência só ocorre no caminho de falha.
+     */
+    private void debitarAtomico(UUID contaId, BigDecimal valor, String mensagemSaldo, String mensagemNaoEncontrada) {
+        if (contaRepository.debitarSeSaldoSuficiente(contaId, valor, LocalDateTime.now()) == 1) {
+            return;
+        }
+        // Conta quente: consolida os slots na linha e tenta mais uma vez
+        if (saldoFracionadoService.isQuente(contaId)
+                && saldoFracionadoService.consolidar(contaId).signum() > 0
+                && contaRepository.debitarSeSaldoSuficiente(contaId, valor, LocalDateTime.now()) == 1) {
+            return;
+        }
+        throw new RuntimeException(contaRepository.existsById(contaId) ? mensagemSaldo : mensagemNaoEncontrada);
+    }
+
+    /**
+     * Credita com UPDATE único (em um slot, se a conta for quente)
+     */
+    private void creditarAtomico(UUID contaId, BigDecimal valor, String mensagemNaoEncontrada) {
+        if (saldoFracionadoService.isQuente(contaId)) {
+            saldoFracionadoService.creditar(contaId, valor, mensagemNaoEncontrada);
+            return;
+        }
+        if (contaRepository.creditarSaldo(contaId, valor, LocalDateTime.now()) == 0) {
+            throw new RuntimeException(mensagemNaoEncontrada);
+        }
+    }
+
+    /**
+     * Valor recebido como BigDecimal, em centavos; nulo é recusado como valor não positivo
+     */
+    private static Dinheiro dinheiro(BigDecimal valor) {
+        return valor != null ? Dinheiro.de(valor) : Dinheiro.ZERO;
+    }
+
+    /**
+     * Ledger em memória; existe apenas quando o modo LEDGER está configurado
+     */
+    private LedgerEngine ledger() {
+        if (ledgerEngine == null) {
+            throw new RuntimeException("Ledger não configurado");
+        }
+        return ledgerEngine;
+    }
+
+    /**
+     * Carrega uma conta para alteração de saldo, com lock de escrita quando configurado
+     */
+    private Optional<Conta> carregarConta(UUID contaId) {
+        if (modoConcorrencia == ModoConcorrencia.NENHUM) {
+            return contaRepository.findById(contaId);
+        }
+        return Optional.ofNullable(bloquearContas(contaId).get(contaId));
+    }
+
+    /**
+     * Bloqueia as contas com um único SELECT ... FOR UPDATE ordenado por ID.
+     * A ordem canônica (a mesma do PostgreSQL) evita deadlock entre transferências
+     * em sentidos opostos e com as transferências em lote.
+     */
+    private Map<UUID, Conta> bloquearContas(UUID... contaIds) {
+        if (modoConcorrencia == ModoConcorrencia.PESSIMISTA) {
+            contaRepository.definirLockTimeout(lockTimeoutMs + "ms");
+        }
+
+        List<UUID> ids = Arrays.asList(contaIds);
+        try {
+            List<Conta> contas = modoConcorrencia == ModoConcorrencia.NOWAIT
+                    ? contaRepository.findAllByIdForUpdateNowait(ids)
+                    : contaRepository.findAllByIdForUpdate(ids);
+            return contas.stream().collect(Collectors.toMap(Conta::getId, Function.identity()));
+        } catch (PessimisticLockingFailureException e) {
+            throw new RuntimeException("Conta em uso por outra operação, tente novamente");
+        }
+    }
+
     /**
      * Validações para transferência
      */
-    private void validarTransferencia(UUID contaOrigemId, UUID contaDestinoId, BigDecimal valor) {
+    private void validarTransferencia(UUID contaOrigemId, UUID contaDestinoId, Dinheiro valor) {
         if (contaOrigemId == null || contaDestinoId == null) {
             throw new RuntimeException("Conta origem e destino são obrigatórias");
         }
 
-        if (valor == null || valor.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!valor.isPositivo()) {
             throw new RuntimeException("Valor deve ser maior que zero");
         }
 
@@ -272,7 +498,7 @@ public class TransacaoService {
      */
     @Transactional(readOnly = true)
     public List<Transacao> listarPorTipo(Transacao.TipoTransacao tipo) {
-        return transacaoRepository.findByTipoAndRealizadaEmBetween(tipo, null, null);
+        return transacaoRepository.findByTipo(tipo);
     }
 
     /**
@@ -307,6 +533,28 @@ public class TransacaoService {
         return transacaoRepository.findUltimasTransacoesByContaId(contaId);
     }
 
+    /**
+     * Obtém uma página do extrato da conta (paginação por cursor em realizada_em e id).
+     * Sem cursor retorna a primeira página; o tamanho é limitado ao máximo configurado.
+     */
+    @Transactional(readOnly = true)
+    public ExtratoPagina obterExtratoPaginado(UUID contaId, String cursor, Integer tamanho) {
+        int limite = tamanho == null ? tamanhoPaginaExtrato : Math.max(1, Math.min(tamanho, tamanhoMaximoExtrato));
+
+        // Busca um item a mais para saber se há página seguinte
+        List<Transacao> transacoes;
+        if (cursor == null || cursor.isBlank()) {
+            transacoes = cacheExtratoService != null
+                    ? cacheExtratoService.primeiraPagina(contaId, limite + 1)
+                    : transacaoRepository.findExtratoPrimeiraPagina(contaId, limite + 1);
+        } else {
+            CursorExtrato posicao = CursorExtrato.decodificar(cursor);
+            transacoes = transacaoRepository.findExtratoAposCursor(contaId, posicao.realizadaEm, posicao.id, limite + 1);
+        }
+
+        return paginar(transacoes, limite);
+    }
+
     /**
      * Obtém extrato por usuário
      */
@@ -320,7 +568,53 @@ public class TransacaoService {
      */
     @Transactional(readOnly = true)
     public List<Transacao> obterExtratoPorPeriodo(UUID contaId, LocalDateTime dataInicio, LocalDateTime dataFim) {
-        return transacaoRepository.findByContaIdAndTipo(contaId, null);
+        if (dataInicio.isAfter(dataFim)) {
+            throw new RuntimeException("Data inicial deve ser anterior à data final");
+        }
+        return transacaoRepository.findExtratoPorPeriodo(contaId, dataInicio, dataFim);
+    }
+
+    /**
+     * Busca transações pelo texto da descrição, da mais recente para a mais antiga, com
+     * conta e período opcionais e paginação por cursor como no extrato. O termo aceita a
+     * sintaxe de busca web do PostgreSQL: palavras, "frase exata", OR e -palavra.
+     */
+    @Transactional(readOnly = true)
+    public ExtratoPagina buscarPorTexto(String termo, UUID contaId, LocalDateTime dataInicio, LocalDateTime dataFim,
+                                        String cursor, Integer tamanho) {
+        if (termo == null || termo.isBlank()) {
+            throw new RuntimeException("Termo de busca é obrigatório");
+        }
+        if (termo.length() > TAMANHO_MAXIMO_TERMO_BUSCA) {
+            throw new RuntimeException("Termo de busca deve ter no máximo " + TAMANHO_MAXIMO_TERMO_BUSCA + " caracteres");
+        }
+        if (dataInicio != null && dataFim != null && dataInicio.isAfter(dataFim)) {
+            throw new RuntimeException("Data inicial deve ser anterior à data final");
+        }
+        int limite = tamanho == null ? tamanhoPaginaExtrato : Math.max(1, Math.min(tamanho, tamanhoMaximoExtrato));
+
+        LocalDateTime inicio = dataInicio != null ? dataInicio : BUSCA_DESDE;
+        // Sem cursor, começa logo depois do fim do período (realizada_em é gravada em microssegundos)
+        CursorExtrato posicao = cursor == null || cursor.isBlank()
+                ? new CursorExtrato(dataFim != null ? dataFim.plusNanos(1000) : BUSCA_ATE, new UUID(0, 0))
+                : CursorExtrato.decodificar(cursor);
+
+        List<Transacao> transacoes = contaId == null
+                ? transacaoRepository.buscarPorTexto(termo, inicio, posicao.realizadaEm, posicao.id, limite + 1)
+                : transacaoRepository.buscarPorTextoNaConta(termo, contaId, inicio, posicao.realizadaEm, posicao.id, limite + 1);
+        return paginar(transacoes, limite);
+    }
+
+    /**
+     * Página com até {@code limite} transações; a lista traz uma a mais quando há página seguinte
+     */
+    private static ExtratoPagina paginar(List<Transacao> transacoes, int limite) {
+        if (transacoes.size() <= limite) {
+            return new ExtratoPagina(transacoes, null);
+        }
+        List<Transacao> pagina = transacoes.subList(0, limite);
+        Transacao ultima = pagina.get(limite - 1);
+        return new ExtratoPagina(pagina, new CursorExtrato(ultima.getRealizadaEm(), ultima.getId()).codificar());
     }
 
     /**
@@ -386,4 +680,50 @@ public class TransacaoService {
     public Optional<Transacao> buscarComContas(UUID id) {
         return transacaoRepository.findByIdWithContas(id);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Modos de concorrência para alteração de saldo
+     */
+    public enum ModoConcorrencia {
+        /** Leitura simples, sem lock (comportamento legado) */
+        NENHUM,
+        /** SELECT ... FOR UPDATE com espera limitada por lock_timeout */
+        PESSIMISTA,
+        /** SELECT ... FOR UPDATE NOWAIT, falha imediatamente se a conta estiver bloqueada */
+        NOWAIT,
+        /** UPDATE condicional único por conta, sem carregar a entidade */
+        ATOMICO,
+        /** Saldos em memória no ledger particionado, gravados em lote (ver LedgerEngine) */
+        LEDGER
+    }
+
+    /**
+     * Posição (realizada_em, id) da última transação de uma página do extrato,
+     * trafegada como token opaco em Base64
+     */
+    private static final class CursorExtrato {
+        private final LocalDateTime realizadaEm;
+        private final UUID id;
+
+        private CursorExtrato(LocalDateTime realizadaEm, UUID id) {
+            this.realizadaEm = realizadaEm;
+            this.id = id;
+        }
+
+        private String codificar() {
+            String posicao = realizadaEm + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static CursorExtrato decodificar(String cursor) {
+            try {
+                String posicao = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separador = posicao.indexOf('|');
+                return new CursorExtrato(LocalDateTime.parse(posicao.substring(0, separador)),
+                        UUID.fromString(posicao.substring(separador + 1)));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Cursor de extrato inválido");
+            }
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.bancobr.service;
+
+import com.bancobr.dto.StatusTransferencia;
+import com.bancobr.ledger.LedgerEngine;
+import com.bancobr.model.Transacao;
+import com.bancobr.model.TransferenciaPendente;
+import com.bancobr.repository.TransferenciaPendenteRepository;
+import com.bancobr.util.EventoLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serviço de transferências assíncronas (POST /transacoes/transferencia?async=true).
+ *
+ * A transferência aceita é gravada em transferencias_pendentes (na transação da requisição,
+ * junto com a chave de idempotência, se houver) e devolvida com o ID. Um pool fixo de
+ * workers, próximo ao pool de conexões, reserva a pendente mais antiga
+ * (FOR UPDATE SKIP LOCKED, também entre instâncias) e executa
+ * {@link TransacaoService#realizarTransferenciaPorNumero} na mesma transação que marca a
+ * linha como concluída; uma recusa é gravada em seguida. Com
+ * {@code capacidade-fila} pendentes a transferência é recusada; a contagem é mantida em
+ * memória (somada ao submeter, subtraída ao reservar) e recontada na tabela pela manutenção.
+ *
+ * Uma reserva mais antiga que {@code reserva-timeout-ms} (worker ou instância interrompidos)
+ * volta à fila: a transferência dela não foi gravada, pois só a execução com a reserva atual
+ * conclui a linha. No modo LEDGER a transferência é gravada pelo shard, fora dessa
+ * transação: a linha é concluída com o resultado do ledger mesmo que a reserva tenha
+ * expirado, e uma reserva expirada é marcada como recusada em vez de executada de novo.
+ *
+ * A situação é consultada na tabela; as finalizadas são removidas após o tempo de retenção.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+public class TransferenciaAssincronaService {
+
+    private static final String METRICA = "bancobr.transferencias.assincronas";
+
+    private static final EventoLog RESERVA_FALHOU = EventoLog.warn("transacao", "transferencia.assincrona.reserva.falhou");
+    private static final EventoLog RESERVAS_EXPIRADAS = EventoLog.warn("transacao", "transferencia.assincrona.reservas.expiradas");
+    private static final EventoLog CONCLUSAO_NAO_REGISTRADA = EventoLog.warn("transacao", "transferencia.assincrona.conclusao.nao.registrada");
+
+    static final String ERRO_INTERROMPIDA = "Execução interrompida; consulte o extrato antes de repetir a transferência";
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private TransferenciaPendenteRepository transferenciaPendenteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    @Value("${bancobr.transacao.assincrona.workers:8}")
+    private int quantidadeWorkers = 8;
+
+    @Value("${bancobr.transacao.assincrona.capacidade-fila:10000}")
+    private int capacidadeFila = 10000;
+
+    @Value("${bancobr.transacao.assincrona.retencao-minutos:60}")
+    private long retencaoMinutos = 60;
+
+    @Value("${bancobr.transacao.assincrona.intervalo-ms:200}")
+    private long intervaloMs = 200;
+
+    @Value("${bancobr.transacao.assincrona.reserva-timeout-ms:300000}")
+    private long reservaTimeoutMs = 300000;
+
+    private List<Thread> workers;
+
+    private final Semaphore avisos = new Semaphore(0);
+
+    private volatile boolean executando;
+
+    private final AtomicLong pendentes = new AtomicLong();
+    private final AtomicInteger ativas = new AtomicInteger();
+
+    private Counter concluidas;
+    private Counter falhas;
+    private Counter rejeitadas;
+    private Timer tempoEspera;
+    private Timer tempoExecucao;
+
+    @PostConstruct
+    void iniciar() {
+        Gauge.builder(METRICA + ".fila", pendentes, AtomicLong::get)
+                .description("Transferências pendentes (contagem local, recontada na manutenção)")
+                .register(meterRegistry);
+        Gauge.builder(METRICA + ".ativas", ativas, AtomicInteger::get)
+                .description("Transferências em execução")
+                .register(meterRegistry);
+        concluidas = Counter.builder(METRICA).tag("resultado", "concluida").register(meterRegistry);
+        falhas = Counter.builder(METRICA).tag("resultado", "falhou").register(meterRegistry);
+        rejeitadas = Counter.builder(METRICA).tag("resultado", "rejeitada").register(meterRegistry);
+        tempoEspera = Timer.builder(METRICA + ".espera")
+                .description("Tempo na fila até o início da execução")
+                .register(meterRegistry);
+        tempoExecucao = Timer.builder(METRICA + ".execucao")
+                .description("Tempo de execução da transferência")
+                .register(meterRegistry);
+
+        executando = true;
+        workers = new ArrayList<>(quantidadeWorkers);
+        for (int i = 0; i < quantidadeWorkers; i++) {
+            Thread thread = new Thread(this::trabalhar, "transferencia-async-" + (i + 1));
+            thread.setDaemon(true);
+            workers.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Grava a transferência como pendente. Retorna vazio se a fila estiver cheia.
+     */
+    public Optional<StatusTransferencia> submeter(String usuario, String numeroContaOrigem, String numeroContaDestino,
+                                                  BigDecimal valor, String descricao) {
+        if (pendentes.incrementAndGet() > capacidadeFila) {
+            liberarVaga();
+            rejeitadas.increment();
+            return Optional.empty();
+        }
+
+        TransferenciaPendente transferencia;
+        try {
+            transferencia = transferenciaPendenteRepository.save(
+                    new TransferenciaPendente(usuario, numeroContaOrigem, numeroContaDestino, valor, descricao));
+        } catch (RuntimeException e) {
+            liberarVaga();
+            throw e;
+        }
+        avisarWorkerAposCommit();
+        return Optional.of(new StatusTransferencia(transferencia));
+    }
+
+    /**
+     * Busca a situação de uma transferência submetida pelo usuário
+     */
+    public Optional<StatusTransferencia> buscarStatus(UUID id, String usuario) {
+        return transferenciaPendenteRepository.findById(id)
+                .filter(transferencia -> transferencia.getUsuario().equals(usuario))
+                .map(StatusTransferencia::new);
+    }
+
+    /**
+     * Devolve à fila (ou, no modo LEDGER, recusa) as reservas expiradas, remove as
+     * transferências finalizadas há mais que o tempo de retenção e reconta a fila
+     */
+    @Scheduled(fixedDelayString = "${bancobr.transacao.assincrona.manutencao-ms:60000}")
+    public void manter() {
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime limiteReserva = agora.minus(Duration.ofMillis(reservaTimeoutMs));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int expiradas = ledgerEngine != null
+                    ? transferenciaPendenteRepository.encerrarReservasExpiradas(limiteReserva, ERRO_INTERROMPIDA, agora)
+                    : transferenciaPendenteRepository.liberarReservasExpiradas(limiteReserva, agora);
+            if (expiradas > 0) {
+                RESERVAS_EXPIRADAS.registrar()
+                        .addKeyValue("quantidade", expiradas)
+                        .addKeyValue("reexecutadas", ledgerEngine == null)
+                        .log();
+                avisarWorker();
+            }
+            transferenciaPendenteRepository.removerFinalizadasAntesDe(agora.minusMinutes(retencaoMinutos));
+            // Corrige a contagem local: submissões de outras instâncias e requisições desfeitas
+            pendentes.set(transferenciaPendenteRepository.countByEstado(TransferenciaPendente.Estado.PENDENTE));
+        });
+    }
+
+    /**
+     * Laço de um worker: reserva e executa pendentes; sem pendentes, espera um aviso de
+     * nova transferência ou o intervalo de consulta
+     */
+    private void trabalhar() {
+        while (executando) {
+            boolean executou;
+            try {
+                executou = processarProxima();
+            } catch (RuntimeException e) {
+                RESERVA_FALHOU.registrar()
+                        .addKeyValue("motivo", e.getMessage())
+                        .log();
+                executou = false;
+            }
+            if (!executou) {
+                try {
+                    avisos.tryAcquire(intervaloMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reserva e executa a próxima pendente; retorna false se não havia nenhuma livre
+     */
+    boolean processarProxima() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        UUID reserva = UUID.randomUUID();
+        Optional<TransferenciaPendente> reservada = transactionTemplate.execute(status ->
+                transferenciaPendenteRepository.reservarProxima(reserva, LocalDateTime.now()) == 0
+                        ? Optional.<TransferenciaPendente>empty()
+                        : transferenciaPendenteRepository.findByReserva(reserva));
+        if (reservada == null || reservada.isEmpty()) {
+            return false;
+        }
+        liberarVaga();
+        if (ledgerEngine != null) {
+            executarNoLedger(reservada.get(), reserva, transactionTemplate);
+        } else {
+            executar(reservada.get(), reserva, transactionTemplate);
+        }
+        return true;
+    }
+
+    private void executar(TransferenciaPendente transferencia, UUID reserva, TransactionTemplate transactionTemplate) {
+        tempoEspera.record(Duration.between(transferencia.getCriadaEm(), LocalDateTime.now()));
+        ativas.incrementAndGet();
+        long inicio = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Transacao transacao = transacaoService.realizarTransferenciaPorNumero(transferencia.getContaOrigem(),
+                        transferencia.getContaDestino(), transferencia.getValor(), transferencia.getDescricao());
+                if (transferenciaPendenteRepository.concluir(transferencia.getId(), reserva, transacao.getId(),
+                        LocalDateTime.now()) == 0) {
+                    // Reserva expirada e entregue a outro worker: desfaz esta execução
+                    throw new RuntimeException("Reserva da transferência expirada");
+                }
+            });
+            concluidas.increment();
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status ->
+                    transferenciaPendenteRepository.falhar(transferencia.getId(), reserva, e.getMessage(), LocalDateTime.now()));
+            falhas.increment();
+        } finally {
+            ativas.decrementAndGet();
+            tempoExecucao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * No modo LEDGER o shard grava a transferência fora de qualquer transação daqui: depois
+     * do resultado do ledger, a linha é concluída mesmo com a reserva expirada, e uma falha ao
+     * gravar a conclusão não vira recusa (o cliente repetiria uma transferência já feita)
+     */
+    private void executarNoLedger(TransferenciaPendente transferencia, UUID reserva, TransactionTemplate transactionTemplate) {
+        tempoEspera.record(Duration.between(transferencia.getCriadaEm(), LocalDateTime.now()));
+        ativas.incrementAndGet();
+        long inicio = System.nanoTime();
+        try {
+            Transacao transacao;
+            try {
+                transacao = transacaoService.realizarTransferenciaPorNumero(transferencia.getContaOrigem(),
+                        transferencia.getContaDestino(), transferencia.getValor(), transferencia.getDescricao());
+            } catch (RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status ->
+                        transferenciaPendenteRepository.falhar(transferencia.getId(), reserva, e.getMessage(), LocalDateTime.now()));
+                falhas.increment();
+                return;
+            }
+
+            concluidas.increment();
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        transferenciaPendenteRepository.registrarConclusao(transferencia.getId(), transacao.getId(),
+                                LocalDateTime.now()));
+            } catch (RuntimeException e) {
+                // A reserva expira e a linha é recusada com ERRO_INTERROMPIDA, que pede a consulta ao extrato
+                CONCLUSAO_NAO_REGISTRADA.registrar()
+                        .addKeyValue("transferencia", transferencia.getId())
+                        .addKeyValue("transacao", transacao.getId())
+                        .addKeyValue("motivo", e.getMessage())
+                        .log();
+            }
+        } finally {
+            ativas.decrementAndGet();
+            tempoExecucao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Devolve uma vaga da fila; a contagem local não fica negativa quando a pendente
+     * reservada foi submetida por outra instância
+     */
+    private void liberarVaga() {
+        pendentes.updateAndGet(atual -> Math.max(0, atual - 1));
+    }
+
+    /**
+     * Acorda um worker quando a linha ficar visível: após o commit da transação da
+     * requisição, ou já, sem transação
+     */
+    private void avisarWorkerAposCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            avisarWorker();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                avisarWorker();
+            }
+        });
+    }
+
+    /**
+     * Avisos acumulados com todos os workers ocupados só gerariam consultas vazias depois
+     */
+    private void avisarWorker() {
+        if (avisos.availablePermits() < quantidadeWorkers) {
+            avisos.release();
+        }
+    }
+
+    /**
+     * Para de reservar e aguarda as transferências em execução; as pendentes continuam
+     * na tabela para a próxima inicialização
+     */
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        executando = false;
+        avisos.release(workers.size());
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.bancobr.service;
+
+import com.bancobr.dto.TransacaoRequest;
+import com.bancobr.dto.TransferenciaLoteResultado;
+import com.bancobr.ledger.LedgerEngine;
+import com.bancobr.model.Conta;
+import com.bancobr.model.Dinheiro;
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.TransacaoRepository;
+import com.bancobr.util.RelogioTransacoes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço para transferências em lote
+ *
+ * Os itens são validados em conjunto (uma única consulta resolve todos os números
+ * de conta) e aplicados em blocos, cada bloco em sua própria transação. As inserções
+ * e atualizações de um bloco são enviadas com JDBC batching do Hibernate.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+public class TransferenciaLoteService {
+
+    private static final String DESCRICAO_PADRAO = "Transferência entre contas";
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SaldoFracionadoService saldoFracionadoService;
+
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    @Value("${bancobr.transacao.lote.tamanho-bloco:500}")
+    private int tamanhoBloco = 500;
+
+    @Value("${bancobr.transacao.lote.max-itens:10000}")
+    private int maxItens = 10000;
+
+    @Value("${bancobr.transacao.concorrencia.lock-timeout-ms:2000}")
+    private long lockTimeoutMs = 2000;
+
+    /**
+     * Realiza as transferências do lote e retorna o resultado de cada item, na ordem recebida
+     */
+    public List<TransferenciaLoteResultado> realizarTransferencias(List<TransacaoRequest> itens) {
+        if (itens == null || itens.isEmpty()) {
+            throw new RuntimeException("Lote vazio");
+        }
+        if (itens.size() > maxItens) {
+            throw new RuntimeException("Lote excede o limite de " + maxItens + " transferências");
+        }
+
+        List<TransferenciaLoteResultado> resultados = criarResultados(itens);
+        List<ItemLote> validos = validarItens(itens, resultados);
+
+        if (ledgerEngine != null) {
+            aplicarNoLedger(validos);
+            return resultados;
+        }
+
+        for (int inicio = 0; inicio < validos.size(); inicio += tamanhoBloco) {
+            List<ItemLote> bloco = validos.subList(inicio, Math.min(inicio + tamanhoBloco, validos.size()));
+            try {
+                aplicarBlocoEmTransacao(bloco);
+            } catch (PessimisticLockingFailureException e) {
+                falharBloco(bloco, "Conta em uso por outra operação, tente novamente");
+            } catch (RuntimeException e) {
+                falharBloco(bloco, "Falha ao processar bloco: " + e.getMessage());
+            }
+        }
+
+        return resultados;
+    }
+
+    /**
+     * Aplica todas as transferências em uma única transação (commit agrupado). Se a transação
+     * falhar, cada item é refeito sozinho em sua própria transação, para que um item com
+     * problema não derrube os demais.
+     */
+    public List<TransferenciaLoteResultado> realizarEmTransacaoUnica(List<TransacaoRequest> itens) {
+        List<TransferenciaLoteResultado> resultados = criarResultados(itens);
+        List<ItemLote> validos = validarItens(itens, resultados);
+
+        if (ledgerEngine != null) {
+            aplicarNoLedger(validos);
+            return resultados;
+        }
+        if (validos.isEmpty()) {
+            return resultados;
+        }
+
+        try {
+            aplicarBlocoEmTransacao(validos);
+        } catch (RuntimeException e) {
+            for (ItemLote item : validos) {
+                try {
+                    aplicarBlocoEmTransacao(List.of(item));
+                } catch (PessimisticLockingFailureException ex) {
+                    item.resultado.erro("Conta em uso por outra operação, tente novamente");
+                } catch (RuntimeException ex) {
+                    item.resultado.erro(ex.getMessage());
+                }
+            }
+        }
+        return resultados;
+    }
+
+    private List<TransferenciaLoteResultado> criarResultados(List<TransacaoRequest> itens) {
+        List<TransferenciaLoteResultado> resultados = new ArrayList<>(itens.size());
+        for (int i = 0; i < itens.size(); i++) {
+            resultados.add(new TransferenciaLoteResultado(i, itens.get(i)));
+        }
+        return resultados;
+    }
+
+    /**
+     * Validação em conjunto; retorna os itens válidos e marca os demais como erro
+     */
+    private List<ItemLote> validarItens(List<TransacaoRequest> itens, List<TransferenciaLoteResultado> resultados) {
+        Map<String, UUID> idsPorNumero = resolverContas(itens);
+
+        List<ItemLote> validos = new ArrayList<>();
+        for (int i = 0; i < itens.size(); i++) {
+            TransacaoRequest item = itens.get(i);
+            String erro = validar(item, idsPorNumero);
+            if (erro != null) {
+                resultados.get(i).erro(erro);
+                continue;
+            }
+            // Escala e faixa são conferidas aqui: um valor inválido recusa só o item, sem derrubar o bloco
+            Dinheiro valor;
+            try {
+                valor = Dinheiro.de(item.getValor());
+            } catch (RuntimeException e) {
+                resultados.get(i).erro(e.getMessage());
+                continue;
+            }
+            validos.add(new ItemLote(item, resultados.get(i), valor,
+                    idsPorNumero.get(item.getContaOrigem()), idsPorNumero.get(item.getContaDestino())));
+        }
+        return validos;
+    }
+
+    /**
+     * Aplica o bloco em uma transação e marca os itens aplicados como concluídos após o commit
+     */
+    private void aplicarBlocoEmTransacao(List<ItemLote> bloco) {
+        Map<ItemLote, Transacao> aplicados = new TransactionTemplate(transactionManager)
+                .execute(status -> aplicarBloco(bloco));
+        aplicados.forEach((item, transacao) -> item.resultado.sucesso(transacao));
+    }
+
+    /**
+     * Resolve todos os números de conta do lote com uma única consulta
+     */
+    private Map<String, UUID> resolverContas(List<TransacaoRequest> itens) {
+        Set<String> numeros = new HashSet<>();
+        for (TransacaoRequest item : itens) {
+            if (item.getContaOrigem() != null) {
+                numeros.add(item.getContaOrigem());
+            }
+            if (item.getContaDestino() != null) {
+                numeros.add(item.getContaDestino());
+            }
+        }
+        return contaRepository.findByNumeroContaIn(numeros).stream()
+                .collect(Collectors.toMap(ContaRepository.IdentificacaoConta::getNumeroConta,
+                        ContaRepository.IdentificacaoConta::getId));
+    }
+
+    /**
+     * Validações que não dependem de saldo; retorna a mensagem de erro ou null
+     */
+    private String validar(TransacaoRequest item, Map<String, UUID> idsPorNumero) {
+        if (item.getContaOrigem() == null || item.getContaDestino() == null) {
+            return "Conta origem e destino são obrigatórias";
+        }
+        if (item.getValor() == null || item.getValor().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Valor deve ser maior que zero";
+        }
+        if (item.getContaOrigem().equals(item.getContaDestino())) {
+            return "Não é possível transferir para a mesma conta";
+        }
+        if (!idsPorNumero.containsKey(item.getContaOrigem())) {
+            return "Conta origem não encontrada: " + item.getContaOrigem();
+        }
+        if (!idsPorNumero.containsKey(item.getContaDestino())) {
+            return "Conta destino não encontrada: " + item.getContaDestino();
+        }
+        return null;
+    }
+
+    /**
+     * Aplica um bloco dentro da transação corrente. As contas do bloco são bloqueadas
+     * de uma vez, em ordem de ID; itens sem saldo são recusados sem abortar o bloco.
+     *
+     * Destinos quentes que não são origem no bloco ficam fora do lock: os créditos deles
+     * são somados e lançados em um slot ao final, como em {@link TransacaoService}.
+     */
+    private Map<ItemLote, Transacao> aplicarBloco(List<ItemLote> bloco) {
+        Set<UUID> origemIds = new HashSet<>();
+        for (ItemLote item : bloco) {
+            origemIds.add(item.contaOrigemId);
+        }
+        Set<UUID> contaIds = new HashSet<>(origemIds);
+        Set<UUID> destinosQuentes = new HashSet<>();
+        for (ItemLote item : bloco) {
+            if (!origemIds.contains(item.contaDestinoId) && saldoFracionadoService.isQuente(item.contaDestinoId)) {
+                destinosQuentes.add(item.contaDestinoId);
+            } else {
+                contaIds.add(item.contaDestinoId);
+            }
+        }
+
+        contaRepository.definirLockTimeout(lockTimeoutMs + "ms");
+        Map<UUID, Conta> contas = contaRepository.findAllByIdForUpdate(contaIds).stream()
+                .collect(Collectors.toMap(Conta::getId, Function.identity()));
+
+        Map<ItemLote, Transacao> transacoes = new LinkedHashMap<>();
+        Map<UUID, Dinheiro> creditosQuentes = new LinkedHashMap<>();
+        for (ItemLote item : bloco) {
+            boolean destinoQuente = destinosQuentes.contains(item.contaDestinoId);
+            Conta contaOrigem = contas.get(item.contaOrigemId);
+            Conta contaDestino = destinoQuente
+                    ? contaRepository.getReferenceById(item.contaDestinoId)
+                    : contas.get(item.contaDestinoId);
+            if (contaOrigem == null || contaDestino == null) {
+                item.resultado.erro(contaOrigem == null ? "Conta origem não encontrada" : "Conta destino não encontrada");
+                continue;
+            }
+            if (!contaOrigem.temSaldoSuficiente(item.valor)) {
+                item.resultado.erro("Saldo insuficiente na conta origem");
+                continue;
+            }
+            saldoFracionadoService.consolidarSeNecessario(contaOrigem, item.valor);
+
+            String descricao = item.request.getDescricao();
+            if (descricao == null || descricao.trim().isEmpty()) {
+                descricao = DESCRICAO_PADRAO;
+            }
+            Transacao transacao = new Transacao(contaOrigem, contaDestino, Transacao.TipoTransacao.TRANSFERENCIA,
+                    item.valor, descricao);
+            // Contas já bloqueadas: o extrato segue a ordem em que os saldos após foram registrados
+            transacao.setRealizadaEm(RelogioTransacoes.agora());
+            if (destinoQuente) {
+                contaOrigem.debitar(item.valor);
+                transacao.setSaldoOrigemApos(Transacao.saldoApos(contaOrigem));
+                creditosQuentes.merge(item.contaDestinoId, item.valor, Dinheiro::somar);
+            } else {
+                transacao.processar();
+            }
+            transacoes.put(item, transacao);
+        }
+
+        creditosQuentes.forEach((contaId, valor) ->
+                saldoFracionadoService.creditar(contaId, valor.paraBigDecimal(), "Conta destino não encontrada"));
+
+        // INSERTs e UPDATEs (dirty checking das contas) saem em batch no flush do commit
+        transacaoRepository.saveAll(transacoes.values());
+        return transacoes;
+    }
+
+    /**
+     * Com o ledger ativo, envia todos os itens de uma vez e só então aguarda os resultados;
+     * os shards agrupam as gravações em seus próprios lotes
+     */
+    private void aplicarNoLedger(List<ItemLote> validos) {
+        List<CompletableFuture<Transacao>> futuros = new ArrayList<>(validos.size());
+        for (ItemLote item : validos) {
+            String descricao = item.request.getDescricao();
+            if (descricao == null || descricao.trim().isEmpty()) {
+                descricao = DESCRICAO_PADRAO;
+            }
+            try {
+                futuros.add(ledgerEngine.transferir(item.contaOrigemId, item.contaDestinoId, item.valor, descricao));
+            } catch (RuntimeException e) {
+                futuros.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        for (int i = 0; i < validos.size(); i++) {
+            ItemLote item = validos.get(i);
+            try {
+                item.resultado.sucesso(ledgerEngine.aguardar(futuros.get(i)));
+            } catch (RuntimeException e) {
+                item.resultado.erro(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Marca todos os itens do bloco como erro; nada do bloco foi aplicado
+     */
+    private void falharBloco(List<ItemLote> bloco, String erro) {
+        for (ItemLote item : bloco) {
+            item.resultado.erro(erro);
+        }
+    }
+
+    /**
+     * Item válido do lote, com o valor já lido em centavos e os IDs já resolvidos
+     */
+    private static class ItemLote {
+        private final TransacaoRequest request;
+        private final TransferenciaLoteResultado resultado;
+        private final Dinheiro valor;
+        private final UUID contaOrigemId;
+        private final UUID contaDestinoId;
+
+        private ItemLote(TransacaoRequest request, TransferenciaLoteResultado resultado, Dinheiro valor,
+                         UUID contaOrigemId, UUID contaDestinoId) {
+            this.request = request;
+            this.resultado = resultado;
+            this.valor = valor;
+            this.contaOrigemId = contaOrigemId;
+            this.contaDestinoId = contaDestinoId;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.bancobr.service;
 
+import com.bancobr.config.CacheConfig;
 import com.bancobr.model.Usuario;
 import com.bancobr.repository.UsuarioRepository;
 import com.bancobr.service.LogService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,6 +40,7 @@ public class UsuarioService {
     /**
      * Cria um novo usuário
      */
+    @CacheEvict(cacheNames = CacheConfig.USUARIOS_CONTAGEM, allEntries = true)
     public Usuario criarUsuario(Usuario usuario) {
         // Validações
         if (usuarioRepository.existsByEmail(usuario.getEmail())) {
@@ -61,6 +67,7 @@ public class UsuarioService {
     /**
      * Busca usuário por ID
      */
+    @Cacheable(cacheNames = CacheConfig.USUARIOS, key = "#id", unless = "#result == null")
     public Optional<Usuario> buscarPorId(UUID id) {
         return usuarioRepository.findById(id);
     }
@@ -68,6 +75,7 @@ public class UsuarioService {
     /**
      * Busca usuário por email
      */
+    @Cacheable(cacheNames = CacheConfig.USUARIOS_EMAIL, key = "#email", unless = "#result == null")
     public Optional<Usuario> buscarPorEmail(String email) {
         return usuarioRepository.findByEmailAndAtivoTrue(email);
     }
@@ -110,6 +118,15 @@ public class UsuarioService {
     /**
      * Atualiza dados do usuário
      */
+    @Caching(put = @CachePut(cacheNames = CacheConfig.USUARIOS, key = "#id"),
+             evict = {
+                     // Com troca de email a entrada do email anterior também sai
+                     @CacheEvict(cacheNames = CacheConfig.USUARIOS_EMAIL, key = "#result.email",
+                                 condition = "#usuarioAtualizado.email == null"),
+                     @CacheEvict(cacheNames = CacheConfig.USUARIOS_EMAIL, allEntries = true,
+                                 condition = "#usuarioAtualizado.email != null"),
+                     @CacheEvict(cacheNames = CacheConfig.USUARIOS_CONTAGEM, allEntries = true)
+             })
     public Usuario atualizarUsuario(UUID id, Usuario usuarioAtualizado) {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
@@ -146,6 +163,10 @@ public class UsuarioService {
     /**
      * Atualiza senha do usuário
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS_EMAIL, allEntries = true)
+    })
     public void atualizarSenha(UUID id, String novaSenha) {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
@@ -158,9 +179,27 @@ public class UsuarioService {
         logService.criarLog(usuario, "UPDATE", "usuarios", usuario.getId());
     }
 
+    /**
+     * Grava um hash de senha já calculado (correção do hash do admin)
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS, key = "#usuario.id"),
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS_EMAIL, key = "#usuario.email")
+    })
+    public Usuario definirSenhaHash(Usuario usuario, String senhaHash) {
+        usuario.setSenhaHash(senhaHash);
+        usuario.setAtualizadoEm(LocalDateTime.now());
+        return usuarioRepository.save(usuario);
+    }
+
     /**
      * Ativa/desativa usuário
      */
+    @Caching(put = @CachePut(cacheNames = CacheConfig.USUARIOS, key = "#id"),
+             evict = {
+                     @CacheEvict(cacheNames = CacheConfig.USUARIOS_EMAIL, key = "#result.email"),
+                     @CacheEvict(cacheNames = CacheConfig.USUARIOS_CONTAGEM, allEntries = true)
+             })
     public Usuario alterarStatus(UUID id, boolean ativo) {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
@@ -178,6 +217,11 @@ public class UsuarioService {
     /**
      * Remove usuário (soft delete)
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS_EMAIL, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS_CONTAGEM, allEntries = true)
+    })
     public void removerUsuario(UUID id) {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
@@ -223,6 +267,7 @@ public class UsuarioService {
     /**
      * Conta usuários por tipo
      */
+    @Cacheable(cacheNames = CacheConfig.USUARIOS_CONTAGEM, key = "'tipo:' + #tipo")
     public long contarPorTipo(Usuario.TipoUsuario tipo) {
         return usuarioRepository.countByTipo(tipo);
     }
@@ -230,6 +275,7 @@ public class UsuarioService {
     /**
      * Conta usuários ativos
      */
+    @Cacheable(cacheNames = CacheConfig.USUARIOS_CONTAGEM, key = "'ativos'")
     public long contarAtivos() {
         return usuarioRepository.countByAtivoTrue();
     }
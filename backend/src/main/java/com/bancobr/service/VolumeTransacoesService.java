@@ -0,0 +1,176 @@
+package com.bancobr.service;
+
+import com.bancobr.evento.TransacaoGravadaEvento;
+import com.bancobr.model.Dinheiro;
+import com.bancobr.model.Transacao;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Volume de transações (quantidade e valor) por minuto e por hora, separado por tipo,
+ * nas últimas 24 horas (GET /transacoes/volume), sem consulta ao banco.
+ *
+ * Cada transação gravada é somada após o commit ({@link TransacaoGravadaEvento}) ao
+ * minuto do commit, em um buffer circular de tamanho fixo: uma posição por minuto,
+ * reaproveitada quando o minuto sai da janela. A troca de minuto é um compareAndSet na
+ * posição e as somas são {@link LongAdder}, então a gravação não usa lock. As horas são
+ * somadas a partir dos minutos na leitura.
+ *
+ * Os números são desta instância e recomeçam do zero quando ela reinicia.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@Service
+@ConditionalOnProperty(name = "bancobr.transacoes.volume.habilitado", havingValue = "true", matchIfMissing = true)
+public class VolumeTransacoesService {
+
+    static final int MINUTOS_EXIBIDOS = 24 * 60;
+
+    /** Uma hora a mais que a janela, para que a hora mais antiga exibida esteja completa */
+    static final int POSICOES = MINUTOS_EXIBIDOS + 60;
+
+    private static final Transacao.TipoTransacao[] TIPOS = Transacao.TipoTransacao.values();
+
+    private final AtomicReferenceArray<Minuto> minutos = new AtomicReferenceArray<>(POSICOES);
+
+    /**
+     * Soma a transação gravada ao minuto corrente, após o commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoGravarTransacao(TransacaoGravadaEvento evento) {
+        registrar(evento.getTipo(), Dinheiro.de(evento.getValor()).getCentavos(), minutoAtual());
+    }
+
+    /**
+     * Volume por minuto das últimas 24 horas, do mais antigo ao atual
+     */
+    public List<Map<String, Object>> porMinuto() {
+        return porMinuto(minutoAtual());
+    }
+
+    /**
+     * Volume por hora das últimas 24 horas (a atual incompleta), da mais antiga à atual
+     */
+    public List<Map<String, Object>> porHora() {
+        return porHora(minutoAtual());
+    }
+
+    void registrar(Transacao.TipoTransacao tipo, long centavos, long minuto) {
+        Minuto atual = posicao(minuto);
+        if (atual != null) {
+            atual.quantidades[tipo.ordinal()].increment();
+            atual.centavos[tipo.ordinal()].add(centavos);
+        }
+    }
+
+    List<Map<String, Object>> porMinuto(long agora) {
+        List<Map<String, Object>> resultado = new ArrayList<>(MINUTOS_EXIBIDOS);
+        for (long minuto = agora - MINUTOS_EXIBIDOS + 1; minuto <= agora; minuto++) {
+            long[] quantidades = new long[TIPOS.length];
+            long[] centavos = new long[TIPOS.length];
+            somar(minuto, quantidades, centavos);
+            resultado.add(intervalo(minuto, quantidades, centavos));
+        }
+        return resultado;
+    }
+
+    List<Map<String, Object>> porHora(long agora) {
+        long horaAtual = Math.floorDiv(agora, 60);
+        List<Map<String, Object>> resultado = new ArrayList<>(24);
+        for (long hora = horaAtual - 23; hora <= horaAtual; hora++) {
+            long[] quantidades = new long[TIPOS.length];
+            long[] centavos = new long[TIPOS.length];
+            for (long minuto = hora * 60; minuto < (hora + 1) * 60 && minuto <= agora; minuto++) {
+                somar(minuto, quantidades, centavos);
+            }
+            resultado.add(intervalo(hora * 60, quantidades, centavos));
+        }
+        return resultado;
+    }
+
+    /**
+     * Posição do minuto no buffer, reiniciada se guardava um minuto mais antigo; nulo se
+     * o minuto já saiu da janela
+     */
+    private Minuto posicao(long minuto) {
+        int indice = (int) Math.floorMod(minuto, (long) POSICOES);
+        while (true) {
+            Minuto atual = minutos.get(indice);
+            if (atual != null && atual.minuto == minuto) {
+                return atual;
+            }
+            if (atual != null && atual.minuto > minuto) {
+                return null;
+            }
+            Minuto novo = new Minuto(minuto);
+            if (minutos.compareAndSet(indice, atual, novo)) {
+                return novo;
+            }
+        }
+    }
+
+    private void somar(long minuto, long[] quantidades, long[] centavos) {
+        Minuto atual = minutos.get((int) Math.floorMod(minuto, (long) POSICOES));
+        if (atual == null || atual.minuto != minuto) {
+            return;
+        }
+        for (int i = 0; i < TIPOS.length; i++) {
+            quantidades[i] += atual.quantidades[i].sum();
+            centavos[i] += atual.centavos[i].sum();
+        }
+    }
+
+    private static Map<String, Object> intervalo(long minuto, long[] quantidades, long[] centavos) {
+        Map<String, Object> intervalo = new LinkedHashMap<>();
+        intervalo.put("inicio", LocalDateTime.ofInstant(Instant.ofEpochSecond(minuto * 60), ZoneId.systemDefault()));
+        long quantidadeTotal = 0;
+        long centavosTotal = 0;
+        for (int i = 0; i < TIPOS.length; i++) {
+            intervalo.put(TIPOS[i].name(), volume(quantidades[i], centavos[i]));
+            quantidadeTotal += quantidades[i];
+            centavosTotal += centavos[i];
+        }
+        intervalo.put("total", volume(quantidadeTotal, centavosTotal));
+        return intervalo;
+    }
+
+    private static Map<String, Object> volume(long quantidade, long centavos) {
+        Map<String, Object> volume = new LinkedHashMap<>();
+        volume.put("quantidade", quantidade);
+        volume.put("valor", Dinheiro.deCentavos(centavos).paraBigDecimal());
+        return volume;
+    }
+
+    private static long minutoAtual() {
+        return Math.floorDiv(System.currentTimeMillis(), 60_000L);
+    }
+
+    /**
+     * Quantidade e valor em centavos de um minuto, por tipo de transação
+     */
+    private static final class Minuto {
+        private final long minuto;
+        private final LongAdder[] quantidades = new LongAdder[TIPOS.length];
+        private final LongAdder[] centavos = new LongAdder[TIPOS.length];
+
+        private Minuto(long minuto) {
+            this.minuto = minuto;
+            for (int i = 0; i < TIPOS.length; i++) {
+                quantidades[i] = new LongAdder();
+                centavos[i] = new LongAdder();
+            }
+        }
+    }
+}
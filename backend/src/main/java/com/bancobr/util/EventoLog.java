@@ -0,0 +1,109 @@
+package com.bancobr.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evento de log estruturado dos caminhos quentes (transferências, autenticação, filtro JWT).
+ *
+ * Cada evento tem nome fixo, nível e categoria; a categoria é o logger
+ * {@code bancobr.eventos.<categoria>}, cujo nível pode ser trocado em tempo de execução
+ * pelo endpoint {@code /actuator/loggers}. Os dados vão como pares chave/valor
+ * (SLF4J fluente), montados só quando o evento é registrado:
+ * <pre>
+ * TRANSFERENCIA_CONCLUIDA.registrar().addKeyValue("transacao", transacao.getId()).log();
+ * </pre>
+ *
+ * Com amostragem N, apenas uma a cada N ocorrências é registrada; com a categoria em
+ * TRACE todas são registradas. Emails não são registrados: use {@link #resumoEmail}.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+public final class EventoLog {
+
+    private static final String PREFIXO_CATEGORIA = "bancobr.eventos.";
+
+    private final Logger logger;
+    private final Level nivel;
+    private final String nome;
+    private final int amostragem;
+    private final AtomicLong ocorrencias = new AtomicLong();
+
+    private EventoLog(String categoria, Level nivel, String nome, int amostragem) {
+        if (amostragem < 1) {
+            throw new IllegalArgumentException("Amostragem deve ser maior que zero");
+        }
+        this.logger = LoggerFactory.getLogger(PREFIXO_CATEGORIA + categoria);
+        this.nivel = nivel;
+        this.nome = nome;
+        this.amostragem = amostragem;
+    }
+
+    public static EventoLog debug(String categoria, String nome) {
+        return new EventoLog(categoria, Level.DEBUG, nome, 1);
+    }
+
+    public static EventoLog info(String categoria, String nome) {
+        return new EventoLog(categoria, Level.INFO, nome, 1);
+    }
+
+    public static EventoLog warn(String categoria, String nome) {
+        return new EventoLog(categoria, Level.WARN, nome, 1);
+    }
+
+    /**
+     * Mesmo evento registrando uma a cada {@code n} ocorrências
+     */
+    public EventoLog amostrado(int n) {
+        return new EventoLog(logger.getName().substring(PREFIXO_CATEGORIA.length()), nivel, nome, n);
+    }
+
+    /**
+     * Builder do evento, ou um builder que descarta tudo se o nível da categoria estiver
+     * desligado ou a ocorrência ficar fora da amostragem
+     */
+    public LoggingEventBuilder registrar() {
+        if (!logger.isEnabledForLevel(nivel)) {
+            return NOPLoggingEventBuilder.singleton();
+        }
+        if (amostragem > 1 && !logger.isTraceEnabled()) {
+            if (ocorrencias.getAndIncrement() % amostragem != 0) {
+                return NOPLoggingEventBuilder.singleton();
+            }
+            return logger.atLevel(nivel).setMessage(nome).addKeyValue("amostragem", amostragem);
+        }
+        return logger.atLevel(nivel).setMessage(nome);
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Resumo do email para os eventos de log: os 12 primeiros dígitos hexadecimais do
+     * SHA-256 do email em minúsculas, que permitem correlacionar tentativas sem registrar o email
+     */
+    public static String resumoEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.bancobr.util;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Ordenação de UUIDs igual à do PostgreSQL (bytes sem sinal).
+ * Usada para que UPDATEs em várias contas sigam a mesma ordem dos locks FOR UPDATE.
+ */
+public final class OrdemUuid {
+
+    public static final Comparator<UUID> POSTGRES = OrdemUuid::comparar;
+
+    private OrdemUuid() {}
+
+    public static int comparar(UUID a, UUID b) {
+        int comparacao = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return comparacao != 0 ? comparacao : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,25 @@
+package com.bancobr.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Horário de realização das transações: o relógio local em microssegundos (precisão do
+ * PostgreSQL), estritamente crescente nesta instância. Lido com a conta já bloqueada, a
+ * ordem de realizada_em de uma conta é a ordem em que os saldos após foram calculados.
+ */
+public final class RelogioTransacoes {
+
+    private static final AtomicLong ULTIMO = new AtomicLong();
+
+    private RelogioTransacoes() {}
+
+    public static LocalDateTime agora() {
+        LocalDateTime relogio = LocalDateTime.now();
+        long micros = relogio.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + relogio.getNano() / 1000;
+        long proximo = ULTIMO.accumulateAndGet(micros, (anterior, atual) -> Math.max(anterior + 1, atual));
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(proximo, 1_000_000L),
+                (int) Math.floorMod(proximo, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+}
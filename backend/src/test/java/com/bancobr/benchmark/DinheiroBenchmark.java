@@ -0,0 +1,137 @@
+package com.bancobr.benchmark;
+
+import com.bancobr.model.Conta;
+import com.bancobr.model.Dinheiro;
+import com.bancobr.model.Transacao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks JMH do caminho de uma transferência como executado em produção: leitura do
+ * valor da requisição pelos controllers ({@link Dinheiro#de(Object)}), validação de saldo e
+ * débito/crédito em {@link Conta} e o processamento de {@link Transacao} feito pelo
+ * TransacaoService. As variantes {@code _BigDecimal} usam as sobrecargas com BigDecimal
+ * que ainda atendem o lote, o commit agrupado e a transferência assíncrona.
+ *
+ * Execução (com o GC profiler, que mostra bytes alocados por operação):
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.bancobr.benchmark.DinheiroBenchmark
+ * </pre>
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DinheiroBenchmark {
+
+    private Object valorJsonDecimal;
+    private Object valorJsonTexto;
+
+    private Conta conta;
+    private Dinheiro valor;
+    private BigDecimal valorBigDecimal;
+
+    private Transacao ida;
+    private Transacao volta;
+
+    @Setup
+    public void preparar() {
+        // Como o Jackson entrega o campo "valor" de um Map<String, Object>
+        valorJsonDecimal = 150.75;
+        valorJsonTexto = "150.75";
+
+        conta = conta("2000.00", "500.00");
+        valor = Dinheiro.deCentavos(15_075);
+        valorBigDecimal = valor.paraBigDecimal();
+
+        // Transferência e estorno entre as mesmas contas, para os saldos não variarem entre iterações
+        Conta origem = conta("2000.00", "500.00");
+        Conta destino = conta("1000.00", "0.00");
+        ida = new Transacao(origem, destino, Transacao.TipoTransacao.TRANSFERENCIA, valor, "Ida");
+        volta = new Transacao(destino, origem, Transacao.TipoTransacao.TRANSFERENCIA, valor, "Volta");
+    }
+
+    @Benchmark
+    public Dinheiro lerValorDecimal() {
+        return Dinheiro.de(valorJsonDecimal);
+    }
+
+    @Benchmark
+    public Dinheiro lerValorTexto() {
+        return Dinheiro.de(valorJsonTexto);
+    }
+
+    @Benchmark
+    public boolean validarSaldo() {
+        return conta.temSaldoSuficiente(valor);
+    }
+
+    @Benchmark
+    public boolean validarSaldo_BigDecimal() {
+        return conta.temSaldoSuficiente(valorBigDecimal);
+    }
+
+    /**
+     * Débito seguido do crédito do mesmo valor, para o saldo não variar entre iterações.
+     * O BigDecimal do saldo não é lido: na aplicação ele é criado uma vez, no flush.
+     */
+    @Benchmark
+    public boolean debitarCreditar() {
+        conta.debitar(valor);
+        conta.creditar(valor);
+        return conta.temSaldoSuficiente(valor);
+    }
+
+    @Benchmark
+    public boolean debitarCreditar_BigDecimal() {
+        conta.debitar(valorBigDecimal);
+        conta.creditar(valorBigDecimal);
+        return conta.temSaldoSuficiente(valor);
+    }
+
+    /**
+     * Transacao.processar() de uma transferência e do estorno: débito, crédito e saldos após
+     * (os BigDecimal dos saldos após são os mesmos que o flush grava nas contas)
+     */
+    @Benchmark
+    public BigDecimal processarTransferencia() {
+        ida.processar();
+        volta.processar();
+        return volta.getSaldoDestinoApos();
+    }
+
+    private static Conta conta(String saldo, String limiteCredito) {
+        Conta conta = new Conta();
+        conta.setSaldo(new BigDecimal(saldo));
+        conta.setLimiteCredito(new BigDecimal(limiteCredito));
+        return conta;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DinheiroBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
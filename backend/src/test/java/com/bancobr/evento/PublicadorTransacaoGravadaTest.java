@@ -0,0 +1,104 @@
+package com.bancobr.evento;
+
+import com.bancobr.model.Transacao;
+import com.bancobr.service.VolumeTransacoesService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes da entrega de {@link TransacaoGravadaEvento} aos serviços assinantes
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@SpringJUnitConfig({PublicadorTransacaoGravadaTest.Configuracao.class, PublicadorTransacaoGravada.class,
+        VolumeTransacoesService.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class PublicadorTransacaoGravadaTest {
+
+    @Autowired
+    private PublicadorTransacaoGravada publicador;
+
+    @Autowired
+    private VolumeTransacoesService volumeTransacoesService;
+
+    @Test
+    void aposInserir_DentroDeTransacao_DeveEntregarSomenteAposCommit() {
+        // Act
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            publicador.aposInserir(deposito());
+            assertEquals(0L, totalDaUltimaHora());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(1L, totalDaUltimaHora());
+    }
+
+    @Test
+    void aposInserir_Rollback_NaoDeveEntregar() {
+        // Act
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            publicador.aposInserir(deposito());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(0L, totalDaUltimaHora());
+    }
+
+    @Test
+    void aposInserir_SemTransacao_DeveEntregarNaHora() {
+        // Act
+        publicador.aposInserir(deposito());
+
+        // Assert
+        assertEquals(1L, totalDaUltimaHora());
+    }
+
+    private static Transacao deposito() {
+        return new Transacao(null, null, Transacao.TipoTransacao.DEPOSITO, new BigDecimal("10.00"), "Teste");
+    }
+
+    @SuppressWarnings("unchecked")
+    private long totalDaUltimaHora() {
+        List<Map<String, Object>> horas = volumeTransacoesService.porHora();
+        Map<String, Object> total = (Map<String, Object>) horas.get(horas.size() - 1).get("total");
+        return (Long) total.get("quantidade");
+    }
+
+    @Configuration
+    static class Configuracao {
+
+        /** Processa {@code @TransactionalEventListener}, como {@code @EnableTransactionManagement} na aplicação */
+        @Bean
+        TransactionalEventListenerFactory transactionalEventListenerFactory() {
+            return new TransactionalEventListenerFactory();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.bancobr.integration;
+
+import com.bancobr.model.Conta;
+import com.bancobr.model.Usuario;
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.TransacaoRepository;
+import com.bancobr.repository.UsuarioRepository;
+import com.bancobr.service.TransacaoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração de transferências concorrentes com lock pessimista.
+ * Executa transferências em sentidos opostos sobre poucas contas e verifica
+ * que o dinheiro total é conservado e que nenhuma transferência trava.
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "bancobr.transacao.concorrencia.modo=PESSIMISTA",
+        "bancobr.transacao.concorrencia.lock-timeout-ms=5000"
+})
+class TransferenciaConcorrenteIntegrationTest {
+
+    private static final int QUANTIDADE_CONTAS = 4;
+    private static final int QUANTIDADE_THREADS = 8;
+    private static final int TRANSFERENCIAS_POR_THREAD = 50;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    private final List<UUID> contaIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Limpa o banco antes de cada teste
+        transacaoRepository.deleteAll();
+        contaRepository.deleteAll();
+        usuarioRepository.deleteAll();
+
+        Usuario usuario = new Usuario();
+        usuario.setNome("João Silva");
+        usuario.setEmail("joao@email.com");
+        usuario.setCpf("12345678901");
+        usuario.setSenhaHash("senha123");
+        usuario.setTipo(Usuario.TipoUsuario.CLIENTE);
+        usuario.setAtivo(true);
+        usuario = usuarioRepository.save(usuario);
+
+        contaIds.clear();
+        for (int i = 0; i < QUANTIDADE_CONTAS; i++) {
+            Conta conta = new Conta();
+            conta.setUsuario(usuario);
+            conta.setAgencia("001");
+            conta.setNumeroConta("90000" + i);
+            conta.setTipo(Conta.TipoConta.CORRENTE);
+            conta.setSaldo(BigDecimal.valueOf(1000.00));
+            conta.setLimiteCredito(BigDecimal.ZERO);
+            contaIds.add(contaRepository.save(conta).getId());
+        }
+    }
+
+    @Test
+    void realizarTransferencia_Concorrentes_DeveConservarSaldoTotal() throws Exception {
+        // Arrange
+        BigDecimal saldoInicial = contaRepository.sumSaldoTotal();
+        AtomicInteger concluidas = new AtomicInteger();
+        AtomicInteger recusadas = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(QUANTIDADE_THREADS);
+
+        // Act
+        long inicio = System.nanoTime();
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < QUANTIDADE_THREADS; t++) {
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERENCIAS_POR_THREAD; i++) {
+                    int origem = ThreadLocalRandom.current().nextInt(QUANTIDADE_CONTAS);
+                    int destino = (origem + 1 + ThreadLocalRandom.current().nextInt(QUANTIDADE_CONTAS - 1)) % QUANTIDADE_CONTAS;
+                    BigDecimal valor = BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(1, 50));
+                    try {
+                        transacaoService.realizarTransferencia(contaIds.get(origem), contaIds.get(destino), valor, "Concorrência");
+                        concluidas.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // Saldo insuficiente é um resultado válido; qualquer outra falha é erro
+                        if (!e.getMessage().startsWith("Saldo insuficiente")) {
+                            throw e;
+                        }
+                        recusadas.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+        // Assert
+        assertEquals(0, saldoInicial.compareTo(contaRepository.sumSaldoTotal()));
+        assertEquals(concluidas.get(), transacaoRepository.count());
+        assertEquals(QUANTIDADE_THREADS * TRANSFERENCIAS_POR_THREAD, concluidas.get() + recusadas.get());
+
+        System.out.printf("Transferências concorrentes: %d concluídas, %d recusadas, %.1f transferências/s%n",
+                concluidas.get(), recusadas.get(), concluidas.get() / segundos);
+    }
+}
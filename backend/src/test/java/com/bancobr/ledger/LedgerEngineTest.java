@@ -0,0 +1,311 @@
+package com.bancobr.ledger;
+
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.ContaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para LedgerEngine, com a persistência simulada em memória
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class LedgerEngineTest {
+
+    private static final int QUANTIDADE_CONTAS = 8;
+    private static final long SALDO_INICIAL = 100_000;
+
+    @Mock
+    private LedgerPersistencia persistencia;
+
+    @InjectMocks
+    private LedgerEngine ledgerEngine;
+
+    private final List<UUID> contaIds = new ArrayList<>();
+    private final Map<UUID, Long> saldosGravados = new ConcurrentHashMap<>();
+    private final AtomicBoolean falharGravacao = new AtomicBoolean();
+    private final Queue<ComandoLedger> comandosGravados = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        List<ContaRepository.SaldoConta> saldos = new ArrayList<>();
+        for (int i = 0; i < QUANTIDADE_CONTAS; i++) {
+            UUID contaId = UUID.randomUUID();
+            contaIds.add(contaId);
+            saldosGravados.put(contaId, SALDO_INICIAL);
+            saldos.add(saldoConta(contaId, BigDecimal.valueOf(SALDO_INICIAL, 2)));
+        }
+        when(persistencia.carregarSaldos()).thenReturn(saldos);
+
+        // Simula a gravação do lote aplicando as variações de saldo
+        lenient().doAnswer(invocation -> {
+            if (falharGravacao.get()) {
+                throw new RuntimeException("banco indisponível");
+            }
+            List<ComandoLedger> lote = invocation.getArgument(0);
+            for (ComandoLedger comando : lote) {
+                switch (comando.tipo) {
+                    case TRANSFERENCIA, CREDITO_TRANSFERENCIA -> {
+                        saldosGravados.merge(comando.contaOrigem, -comando.centavos, Long::sum);
+                        saldosGravados.merge(comando.contaDestino, comando.centavos, Long::sum);
+                    }
+                    case DEPOSITO -> saldosGravados.merge(comando.contaDestino, comando.centavos, Long::sum);
+                    case SAQUE -> saldosGravados.merge(comando.contaOrigem, -comando.centavos, Long::sum);
+                    default -> saldosGravados.merge(comando.contaOrigem, comando.delta, Long::sum);
+                }
+                comando.transacao = new Transacao();
+                comando.transacao.setId(UUID.randomUUID());
+                comandosGravados.add(comando);
+            }
+            return null;
+        }).when(persistencia).persistir(anyList());
+
+        ledgerEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerEngine.stop();
+    }
+
+    @Test
+    void transferir_Concorrentes_DeveConservarSaldoTotal() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<CompletableFuture<Transacao>>>> produtores = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            produtores.add(executor.submit(() -> {
+                List<CompletableFuture<Transacao>> futuros = new ArrayList<>();
+                for (int i = 0; i < 500; i++) {
+                    int origem = ThreadLocalRandom.current().nextInt(QUANTIDADE_CONTAS);
+                    int destino = (origem + 1 + ThreadLocalRandom.current().nextInt(QUANTIDADE_CONTAS - 1)) % QUANTIDADE_CONTAS;
+                    BigDecimal valor = BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(1, 50_000), 2);
+                    futuros.add(ledgerEngine.transferir(contaIds.get(origem), contaIds.get(destino), valor, "Concorrência"));
+                }
+                return futuros;
+            }));
+        }
+
+        int concluidas = 0;
+        int recusadas = 0;
+        for (Future<List<CompletableFuture<Transacao>>> produtor : produtores) {
+            for (CompletableFuture<Transacao> futuro : produtor.get(30, TimeUnit.SECONDS)) {
+                try {
+                    assertNotNull(ledgerEngine.aguardar(futuro).getId());
+                    concluidas++;
+                } catch (RuntimeException e) {
+                    assertEquals("Saldo insuficiente na conta origem", e.getMessage());
+                    recusadas++;
+                }
+            }
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(4000, concluidas + recusadas);
+        assertEquals(SALDO_INICIAL * QUANTIDADE_CONTAS, saldosGravados.values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(saldosGravados.values().stream().allMatch(saldo -> saldo >= 0));
+    }
+
+    @Test
+    void transferir_ComSaldoInsuficiente_DeveLancarExcecao() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            ledgerEngine.aguardar(ledgerEngine.transferir(contaIds.get(0), contaIds.get(1),
+                    BigDecimal.valueOf(SALDO_INICIAL + 1, 2), "Sem saldo"));
+        });
+
+        assertEquals("Saldo insuficiente na conta origem", exception.getMessage());
+        assertEquals(SALDO_INICIAL, saldosGravados.get(contaIds.get(0)));
+    }
+
+    @Test
+    void transferir_ParaContaInexistenteEmOutroShard_DeveEstornarDebito() {
+        // Arrange
+        UUID origem = contaIds.get(0);
+        UUID inexistente = idEmOutroShard(origem);
+        BigDecimal saldoTotal = BigDecimal.valueOf(SALDO_INICIAL, 2);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            ledgerEngine.aguardar(ledgerEngine.transferir(origem, inexistente, saldoTotal, "Destino inexistente"));
+        });
+        assertEquals("Conta destino não encontrada", exception.getMessage());
+
+        // O saldo debitado voltou à origem
+        ledgerEngine.aguardar(ledgerEngine.sacar(origem, saldoTotal, "Saque total"));
+        assertEquals(0L, saldosGravados.get(origem));
+    }
+
+    @Test
+    void transferir_EntreShards_DeveRegistrarOMomentoDoDebito() throws Exception {
+        // Arrange: o shard do destino fica parado ao carregar a conta, depois do débito
+        UUID origem = contaIds.get(0);
+        UUID destino = idEmOutroShard(origem);
+        CountDownLatch creditoIniciado = new CountDownLatch(1);
+        CountDownLatch liberarCredito = new CountDownLatch(1);
+        when(persistencia.buscarSaldo(destino)).thenAnswer(invocation -> {
+            creditoIniciado.countDown();
+            liberarCredito.await(10, TimeUnit.SECONDS);
+            return Optional.of(saldoConta(destino, BigDecimal.ZERO));
+        });
+
+        // Act
+        CompletableFuture<Transacao> transferencia = ledgerEngine.transferir(origem, destino, BigDecimal.valueOf(10.00), "Entre shards");
+        assertTrue(creditoIniciado.await(10, TimeUnit.SECONDS));
+        ledgerEngine.aguardar(ledgerEngine.sacar(origem, BigDecimal.valueOf(5.00), "Saque"));
+        liberarCredito.countDown();
+        ledgerEngine.aguardar(transferencia);
+
+        // Assert: no extrato da origem a transferência vem antes do saque, como nos saldos após
+        ComandoLedger gravadaTransferencia = gravado(ComandoLedger.Tipo.CREDITO_TRANSFERENCIA);
+        ComandoLedger gravadoSaque = gravado(ComandoLedger.Tipo.SAQUE);
+        assertTrue(gravadaTransferencia.realizadaEm.isBefore(gravadoSaque.realizadaEm));
+        assertEquals(SALDO_INICIAL - 1_000, gravadaTransferencia.saldoOrigemApos);
+        assertEquals(SALDO_INICIAL - 1_500, gravadoSaque.saldoOrigemApos);
+        assertEquals(1_000L, gravadaTransferencia.saldoDestinoApos);
+    }
+
+    @Test
+    void depositar_ComFalhaNaGravacao_DeveDesfazerEmMemoria() {
+        // Arrange
+        UUID conta = contaIds.get(0);
+        falharGravacao.set(true);
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> {
+            ledgerEngine.aguardar(ledgerEngine.depositar(conta, BigDecimal.valueOf(500.00), "Depósito"));
+        });
+
+        falharGravacao.set(false);
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            ledgerEngine.aguardar(ledgerEngine.sacar(conta, BigDecimal.valueOf(SALDO_INICIAL + 1, 2), "Saque"));
+        });
+        assertEquals("Saldo insuficiente", exception.getMessage());
+    }
+
+    @Test
+    void definirSaldo_DeveGravarAVariacao() {
+        // Arrange
+        UUID conta = contaIds.get(0);
+
+        // Act
+        ledgerEngine.aguardar(ledgerEngine.definirSaldo(conta, BigDecimal.valueOf(250.00)));
+
+        // Assert
+        assertEquals(25_000L, saldosGravados.get(conta));
+    }
+
+    @Test
+    void transferir_ComMaisDeDuasCasasDecimais_DeveLancarExcecao() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            ledgerEngine.transferir(contaIds.get(0), contaIds.get(1), new BigDecimal("1.001"), "Valor inválido");
+        });
+
+        assertEquals("Valor deve ter no máximo duas casas decimais", exception.getMessage());
+    }
+
+    @Test
+    void filaMpsc_ComVariosProdutores_DeveEntregarCadaElementoUmaVez() throws Exception {
+        // Arrange
+        FilaMpsc<Integer> fila = new FilaMpsc<>(1024);
+        int produtores = 4;
+        int porProdutor = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(produtores);
+
+        // Act
+        for (int p = 0; p < produtores; p++) {
+            int base = p * porProdutor;
+            executor.submit(() -> {
+                for (int i = 0; i < porProdutor; i++) {
+                    while (!fila.oferecer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+
+        boolean[] recebidos = new boolean[produtores * porProdutor];
+        int total = 0;
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (total < recebidos.length && System.nanoTime() < limite) {
+            Integer elemento = fila.consumir();
+            if (elemento != null) {
+                assertFalse(recebidos[elemento]);
+                recebidos[elemento] = true;
+                total++;
+            }
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(recebidos.length, total);
+        assertTrue(fila.vazia());
+    }
+
+    private ComandoLedger gravado(ComandoLedger.Tipo tipo) {
+        return comandosGravados.stream()
+                .filter(comando -> comando.tipo == tipo)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private UUID idEmOutroShard(UUID contaId) {
+        UUID id;
+        do {
+            id = UUID.randomUUID();
+        } while (ledgerEngine.shardDe(id) == ledgerEngine.shardDe(contaId));
+        return id;
+    }
+
+    private ContaRepository.SaldoConta saldoConta(UUID id, BigDecimal saldo) {
+        return new ContaRepository.SaldoConta() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public BigDecimal getSaldo() {
+                return saldo;
+            }
+
+            @Override
+            public BigDecimal getLimiteCredito() {
+                return BigDecimal.ZERO;
+            }
+        };
+    }
+}
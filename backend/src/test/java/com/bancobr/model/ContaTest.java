@@ -0,0 +1,63 @@
+package com.bancobr.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o saldo em centavos de Conta
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+class ContaTest {
+
+    private Conta conta;
+
+    @BeforeEach
+    void setUp() {
+        conta = new Conta();
+        conta.setSaldo(new BigDecimal("100.00"));
+        conta.setLimiteCredito(new BigDecimal("50.00"));
+    }
+
+    @Test
+    void debitarECreditar_DeveAlterarOSaldoLidoPeloHibernate() {
+        // Act
+        conta.debitar(Dinheiro.deCentavos(12_050));
+        conta.creditar(Dinheiro.deCentavos(25));
+
+        // Assert
+        assertEquals(new BigDecimal("-20.25"), conta.getSaldoColuna());
+        assertEquals(new BigDecimal("-20.25"), conta.getSaldo());
+        assertEquals(new BigDecimal("29.75"), conta.getSaldoDisponivel());
+    }
+
+    @Test
+    void debitar_AlemDoLimite_DeveLancarExcecaoSemAlterarSaldo() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> conta.debitar(Dinheiro.deCentavos(15_001)));
+        assertEquals("Saldo insuficiente", exception.getMessage());
+        assertEquals(new BigDecimal("100.00"), conta.getSaldoLinha());
+    }
+
+    @Test
+    void temSaldoSuficiente_ContaQuente_DeveContarOsSlotsSoNoTotal() {
+        // Arrange
+        conta.setSaldoSlotsColuna(new BigDecimal("30.00"));
+
+        // Act & Assert
+        assertTrue(conta.temSaldoSuficiente(Dinheiro.deCentavos(18_000)));
+        assertFalse(conta.temSaldoSuficiente(Dinheiro.deCentavos(18_001)));
+        assertFalse(conta.temSaldoNaLinha(Dinheiro.deCentavos(15_001)));
+        assertEquals(new BigDecimal("130.00"), conta.getSaldo());
+
+        conta.incorporarSlots(new BigDecimal("30.00"));
+        assertEquals(new BigDecimal("130.00"), conta.getSaldoColuna());
+        assertEquals(BigDecimal.ZERO, conta.getSaldoSlotsColuna());
+    }
+}
@@ -0,0 +1,81 @@
+package com.bancobr.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para Dinheiro
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+class DinheiroTest {
+
+    @Test
+    void de_ComTextoValido_DeveConverterParaCentavos() {
+        // Act & Assert
+        assertEquals(15075, Dinheiro.de("150.75").getCentavos());
+        assertEquals(15070, Dinheiro.de("150.7").getCentavos());
+        assertEquals(15000, Dinheiro.de("150").getCentavos());
+        assertEquals(15000, Dinheiro.de("150.000").getCentavos());
+        assertEquals(50, Dinheiro.de(".5").getCentavos());
+        assertEquals(-1050, Dinheiro.de("-10.50").getCentavos());
+    }
+
+    @Test
+    void de_ComValoresDoJson_DeveConverterParaCentavos() {
+        // Act & Assert
+        assertEquals(15075, Dinheiro.de((Object) 150.75).getCentavos());
+        assertEquals(50000, Dinheiro.de((Object) 500).getCentavos());
+        assertEquals(1_000_000_000, Dinheiro.de((Object) 1.0E7).getCentavos());
+        assertEquals(15075, Dinheiro.de((Object) " 150.75 ").getCentavos());
+        assertEquals(15075, Dinheiro.de((Object) new BigDecimal("150.75")).getCentavos());
+    }
+
+    @Test
+    void de_ComMaisDeDuasCasasDecimais_DeveLancarExcecao() {
+        // Act & Assert
+        RuntimeException texto = assertThrows(RuntimeException.class, () -> Dinheiro.de("10.005"));
+        RuntimeException decimal = assertThrows(RuntimeException.class, () -> Dinheiro.de(new BigDecimal("10.005")));
+        assertEquals("Valor deve ter no máximo duas casas decimais", texto.getMessage());
+        assertEquals("Valor deve ter no máximo duas casas decimais", decimal.getMessage());
+    }
+
+    @Test
+    void de_ComTextoInvalido_DeveLancarExcecao() {
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> Dinheiro.de("abc"));
+        assertThrows(RuntimeException.class, () -> Dinheiro.de("1.2.3"));
+        assertThrows(RuntimeException.class, () -> Dinheiro.de("-"));
+        assertThrows(RuntimeException.class, () -> Dinheiro.de("."));
+        RuntimeException nulo = assertThrows(RuntimeException.class, () -> Dinheiro.de((Object) null));
+        assertEquals("Valor é obrigatório", nulo.getMessage());
+    }
+
+    @Test
+    void somar_ComOverflow_DeveLancarExcecao() {
+        // Arrange
+        Dinheiro maximo = Dinheiro.deCentavos(Long.MAX_VALUE);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> maximo.somar(Dinheiro.deCentavos(1)));
+        assertEquals("Valor fora do limite permitido", exception.getMessage());
+        assertThrows(RuntimeException.class, () -> Dinheiro.de("99999999999999999999"));
+        assertThrows(RuntimeException.class, () -> Dinheiro.deCentavos(Long.MIN_VALUE).negar());
+    }
+
+    @Test
+    void paraBigDecimal_DeveManterDuasCasasDecimais() {
+        // Arrange
+        Dinheiro valor = Dinheiro.de("2000").subtrair(Dinheiro.de("150.75"));
+
+        // Act & Assert
+        assertEquals(new BigDecimal("1849.25"), valor.paraBigDecimal());
+        assertEquals("1849.25", valor.toString());
+        assertEquals("-0.05", Dinheiro.deCentavos(-5).toString());
+        assertEquals(Dinheiro.de("0.10"), Dinheiro.deCentavos(10));
+    }
+}
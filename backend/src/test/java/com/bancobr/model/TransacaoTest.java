@@ -0,0 +1,58 @@
+package com.bancobr.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o preenchimento dos donos das contas em Transacao
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+class TransacaoTest {
+
+    @Test
+    void preencherUsuarios_ComContasCarregadas_DeveGravarOsDonos() {
+        // Arrange
+        Conta contaOrigem = contaDe(UUID.randomUUID());
+        Conta contaDestino = contaDe(UUID.randomUUID());
+        Transacao transacao = new Transacao(contaOrigem, contaDestino, Transacao.TipoTransacao.TRANSFERENCIA,
+                BigDecimal.TEN, "Aluguel");
+
+        // Act
+        transacao.preencherUsuarios();
+
+        // Assert
+        assertEquals(contaOrigem.getUsuario().getId(), transacao.getUsuarioOrigem());
+        assertEquals(contaDestino.getUsuario().getId(), transacao.getUsuarioDestino());
+    }
+
+    @Test
+    void preencherUsuarios_ComDonoJaInformado_DeveManterOValor() {
+        // Arrange
+        UUID donoInformado = UUID.randomUUID();
+        Transacao transacao = new Transacao(null, contaDe(UUID.randomUUID()), Transacao.TipoTransacao.DEPOSITO,
+                BigDecimal.TEN, null);
+        transacao.setUsuarioDestino(donoInformado);
+
+        // Act
+        transacao.preencherUsuarios();
+
+        // Assert
+        assertNull(transacao.getUsuarioOrigem());
+        assertEquals(donoInformado, transacao.getUsuarioDestino());
+    }
+
+    private static Conta contaDe(UUID usuarioId) {
+        Usuario usuario = new Usuario();
+        usuario.setId(usuarioId);
+        Conta conta = new Conta();
+        conta.setId(UUID.randomUUID());
+        conta.setUsuario(usuario);
+        return conta;
+    }
+}
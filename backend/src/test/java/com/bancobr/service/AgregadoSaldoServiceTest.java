@@ -0,0 +1,264 @@
+package com.bancobr.service;
+
+import com.bancobr.evento.TransacaoGravadaEvento;
+import com.bancobr.model.Conta;
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.AgregadoSaldoRepository;
+import com.bancobr.repository.ContaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para AgregadoSaldoService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class AgregadoSaldoServiceTest {
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @Mock
+    private AgregadoSaldoRepository agregadoSaldoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AgregadoSaldoService agregadoSaldoService;
+
+    private Conta correnteAgencia1;
+    private Conta poupancaAgencia1;
+    private Conta correnteAgencia2;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        correnteAgencia1 = conta("0001", Conta.TipoConta.CORRENTE);
+        poupancaAgencia1 = conta("0001", Conta.TipoConta.POUPANCA);
+        correnteAgencia2 = conta("0002", Conta.TipoConta.CORRENTE);
+    }
+
+    @Test
+    void inicializar_DeveLerABaseDoBancoEGravar() {
+        // Arrange
+        when(contaRepository.agregarPorAgenciaETipo()).thenReturn(List.of(
+                agregado("0001", Conta.TipoConta.CORRENTE, "100.00", 2),
+                agregado("0002", Conta.TipoConta.CORRENTE, "50.50", 1)));
+
+        // Act
+        agregadoSaldoService.inicializar();
+
+        // Assert
+        assertEquals(new BigDecimal("150.50"), agregadoSaldoService.saldoTotal());
+        assertEquals(new BigDecimal("50.50"), agregadoSaldoService.saldoPorAgencia("0002"));
+        verify(agregadoSaldoRepository).fixarSnapshot();
+        verify(agregadoSaldoRepository, never()).findAll();
+        verify(agregadoSaldoRepository).gravar(eq("0001"), eq("CORRENTE"), eq(new BigDecimal("100.00")), eq(2L), any());
+        verify(agregadoSaldoRepository).gravar(eq("0002"), eq("CORRENTE"), eq(new BigDecimal("50.50")), eq(1L), any());
+    }
+
+    @Test
+    void aoGravarTransacao_TransferenciaEntreAgencias_DeveMoverSaldo() {
+        // Arrange
+        inicializarCom(agregado("0001", Conta.TipoConta.CORRENTE, "100.00", 1),
+                agregado("0002", Conta.TipoConta.CORRENTE, "0.00", 1));
+        Transacao transferencia = transacao(correnteAgencia1, correnteAgencia2, "40.00");
+
+        // Act
+        agregadoSaldoService.aoGravarTransacao(TransacaoGravadaEvento.de(transferencia));
+
+        // Assert
+        assertEquals(new BigDecimal("60.00"), agregadoSaldoService.saldoPorAgencia("0001"));
+        assertEquals(new BigDecimal("40.00"), agregadoSaldoService.saldoPorAgencia("0002"));
+        assertEquals(new BigDecimal("100.00"), agregadoSaldoService.saldoTotal());
+    }
+
+    @Test
+    void ajustar_DentroDeTransacao_DeveAlterarSomenteAposCommit() {
+        // Arrange
+        inicializarCom(agregado("0001", Conta.TipoConta.CORRENTE, "100.00", 1));
+
+        // Act
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            agregadoSaldoService.ajustar(correnteAgencia1, new BigDecimal("15.00"));
+            assertEquals(new BigDecimal("100.00"), agregadoSaldoService.saldoTotal());
+            List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+            sincronizacoes.forEach(TransactionSynchronization::afterCommit);
+            sincronizacoes.forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(new BigDecimal("115.00"), agregadoSaldoService.saldoTotal());
+    }
+
+    @Test
+    void registrar_DepositoEAjustes_DeveAlterarTotalETipo() {
+        // Arrange
+        inicializarCom(agregado("0001", Conta.TipoConta.CORRENTE, "100.00", 1));
+        poupancaAgencia1.setSaldo(BigDecimal.ZERO);
+
+        // Act
+        agregadoSaldoService.registrarCriacao(poupancaAgencia1);
+        agregadoSaldoService.aoGravarTransacao(TransacaoGravadaEvento.de(transacao(null, poupancaAgencia1, "25.00")));
+        agregadoSaldoService.ajustar(correnteAgencia1, new BigDecimal("-10.00"));
+
+        // Assert
+        assertEquals(new BigDecimal("115.00"), agregadoSaldoService.saldoTotal());
+        assertEquals(new BigDecimal("25.00"), agregadoSaldoService.saldoPorTipo(Conta.TipoConta.POUPANCA));
+        assertEquals(new BigDecimal("90.00"), agregadoSaldoService.saldoPorTipo(Conta.TipoConta.CORRENTE));
+    }
+
+    @Test
+    void reconciliar_ComDiferenca_DeveAssumirValoresDoBanco() {
+        // Arrange
+        inicializarCom(agregado("0001", Conta.TipoConta.CORRENTE, "100.00", 1),
+                agregado("0002", Conta.TipoConta.CORRENTE, "20.00", 1));
+        when(contaRepository.agregarPorAgenciaETipo()).thenReturn(List.of(
+                agregado("0001", Conta.TipoConta.CORRENTE, "75.25", 1)));
+
+        // Act
+        agregadoSaldoService.reconciliar();
+
+        // Assert
+        assertEquals(new BigDecimal("75.25"), agregadoSaldoService.saldoTotal());
+        assertEquals(new BigDecimal("0.00"), agregadoSaldoService.saldoPorAgencia("0002"));
+        verify(agregadoSaldoRepository).gravar(eq("0002"), eq("CORRENTE"), eq(new BigDecimal("0.00")), eq(0L), any());
+    }
+
+    @Test
+    void reconciliar_CommitEmAndamento_DeveEsperarENaoContarEmDobro() throws Exception {
+        // Arrange
+        inicializarCom(agregado("0001", Conta.TipoConta.CORRENTE, "100.00", 1));
+        CountDownLatch variacaoRegistrada = new CountDownLatch(1);
+        CountDownLatch commitar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> transacao = executor.submit(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                agregadoSaldoService.ajustar(correnteAgencia1, new BigDecimal("30.00"));
+                variacaoRegistrada.countDown();
+                commitar.await();
+                List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+                sincronizacoes.forEach(TransactionSynchronization::afterCommit);
+                sincronizacoes.forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            return null;
+        });
+        assertTrue(variacaoRegistrada.await(5, TimeUnit.SECONDS));
+        // O snapshot é fixado depois do commit, que já entra na base lida
+        when(contaRepository.agregarPorAgenciaETipo()).thenReturn(List.of(
+                agregado("0001", Conta.TipoConta.CORRENTE, "130.00", 1)));
+        ReflectionTestUtils.setField(agregadoSaldoService, "esperaCorteMs", 5000L);
+
+        // Act
+        Future<?> reconciliacao = executor.submit(() -> agregadoSaldoService.reconciliar());
+        Thread.sleep(100);
+        verify(agregadoSaldoRepository, times(1)).fixarSnapshot();
+        commitar.countDown();
+        transacao.get(5, TimeUnit.SECONDS);
+        reconciliacao.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        verify(agregadoSaldoRepository, times(2)).fixarSnapshot();
+        assertEquals(new BigDecimal("130.00"), agregadoSaldoService.saldoTotal());
+    }
+
+    @Test
+    void reconciliar_CommitDepoisDoSnapshot_DeveSomarABase() {
+        // Arrange
+        inicializarCom(agregado("0001", Conta.TipoConta.CORRENTE, "100.00", 1));
+        when(contaRepository.agregarPorAgenciaETipo()).thenAnswer(invocacao -> {
+            // Confirmada durante a leitura da base, fora do snapshot
+            agregadoSaldoService.ajustar(correnteAgencia1, new BigDecimal("5.00"));
+            return List.of(agregado("0001", Conta.TipoConta.CORRENTE, "100.00", 1));
+        });
+
+        // Act
+        agregadoSaldoService.reconciliar();
+
+        // Assert
+        assertEquals(new BigDecimal("105.00"), agregadoSaldoService.saldoTotal());
+    }
+
+    private void inicializarCom(ContaRepository.AgregadoContas... doBanco) {
+        when(contaRepository.agregarPorAgenciaETipo()).thenReturn(List.of(doBanco));
+        agregadoSaldoService.inicializar();
+        for (Conta conta : List.of(correnteAgencia1, poupancaAgencia1, correnteAgencia2)) {
+            lenient().when(contaRepository.findAgrupamentoById(conta.getId()))
+                    .thenReturn(Optional.of(agregado(conta.getAgencia(), conta.getTipo(), "0", 0)));
+        }
+    }
+
+    private static Conta conta(String agencia, Conta.TipoConta tipo) {
+        Conta conta = new Conta();
+        conta.setId(UUID.randomUUID());
+        conta.setAgencia(agencia);
+        conta.setTipo(tipo);
+        return conta;
+    }
+
+    private static Transacao transacao(Conta origem, Conta destino, String valor) {
+        Transacao transacao = new Transacao(origem, destino,
+                origem == null ? Transacao.TipoTransacao.DEPOSITO : Transacao.TipoTransacao.TRANSFERENCIA,
+                new BigDecimal(valor), "Teste");
+        transacao.setId(UUID.randomUUID());
+        return transacao;
+    }
+
+    private static ContaRepository.AgregadoContas agregado(String agencia, Conta.TipoConta tipo, String saldo, long contas) {
+        return new ContaRepository.AgregadoContas() {
+            @Override
+            public String getAgencia() {
+                return agencia;
+            }
+
+            @Override
+            public Conta.TipoConta getTipo() {
+                return tipo;
+            }
+
+            @Override
+            public BigDecimal getSaldo() {
+                return new BigDecimal(saldo);
+            }
+
+            @Override
+            public long getContas() {
+                return contas;
+            }
+        };
+    }
+}
@@ -0,0 +1,168 @@
+package com.bancobr.service;
+
+import com.bancobr.evento.TransacaoGravadaEvento;
+import com.bancobr.model.Conta;
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.TransacaoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para CacheExtratoService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheExtratoServiceTest {
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private CacheExtratoService cacheExtratoService;
+
+    private Conta conta;
+    private Conta outraConta;
+    private LocalDateTime agora;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cacheExtratoService, "entradas", 2);
+        cacheExtratoService.inicializar();
+
+        conta = new Conta();
+        conta.setId(UUID.randomUUID());
+        outraConta = new Conta();
+        outraConta.setId(UUID.randomUUID());
+        agora = LocalDateTime.of(2026, 1, 31, 12, 0);
+    }
+
+    @Test
+    void primeiraPagina_ChamadasRepetidas_DeveConsultarOBancoUmaVez() {
+        // Arrange
+        Transacao recente = transacao(conta, outraConta, agora);
+        when(transacaoRepository.findExtratoPrimeiraPagina(conta.getId(), 3)).thenReturn(List.of(recente));
+
+        // Act
+        cacheExtratoService.primeiraPagina(conta.getId(), 3);
+        List<Transacao> resultado = cacheExtratoService.primeiraPagina(conta.getId(), 2);
+
+        // Assert
+        assertEquals(1, resultado.size());
+        assertEquals(recente.getId(), resultado.get(0).getId());
+        assertEquals(outraConta.getId(), resultado.get(0).getContaDestino().getId());
+        verify(transacaoRepository, times(1)).findExtratoPrimeiraPagina(conta.getId(), 3);
+        assertEquals(0.5, meterRegistry.get("bancobr.extrato.cache.taxa-acerto").gauge().value());
+    }
+
+    @Test
+    void primeiraPagina_AcimaDaCapacidade_DeveConsultarOBanco() {
+        // Arrange
+        when(transacaoRepository.findExtratoPrimeiraPagina(conta.getId(), 10)).thenReturn(List.of());
+
+        // Act
+        cacheExtratoService.primeiraPagina(conta.getId(), 10);
+        cacheExtratoService.primeiraPagina(conta.getId(), 10);
+
+        // Assert
+        verify(transacaoRepository, times(2)).findExtratoPrimeiraPagina(conta.getId(), 10);
+    }
+
+    @Test
+    void aoGravarTransacao_DeveIncluirNasDuasContasSemReler() {
+        // Arrange
+        Transacao antiga = transacao(conta, outraConta, agora.minusHours(2));
+        when(transacaoRepository.findExtratoPrimeiraPagina(conta.getId(), 3)).thenReturn(List.of(antiga));
+        when(transacaoRepository.findExtratoPrimeiraPagina(outraConta.getId(), 3)).thenReturn(List.of(antiga));
+        cacheExtratoService.primeiraPagina(conta.getId(), 3);
+        cacheExtratoService.primeiraPagina(outraConta.getId(), 3);
+        Transacao nova = transacao(outraConta, conta, agora);
+
+        // Act
+        cacheExtratoService.aoGravarTransacao(TransacaoGravadaEvento.de(nova));
+
+        // Assert
+        List<Transacao> daConta = cacheExtratoService.primeiraPagina(conta.getId(), 3);
+        List<Transacao> daOutraConta = cacheExtratoService.primeiraPagina(outraConta.getId(), 3);
+        assertEquals(List.of(nova.getId(), antiga.getId()), daConta.stream().map(Transacao::getId).toList());
+        assertEquals(List.of(nova.getId(), antiga.getId()), daOutraConta.stream().map(Transacao::getId).toList());
+        verify(transacaoRepository, times(1)).findExtratoPrimeiraPagina(conta.getId(), 3);
+    }
+
+    @Test
+    void primeiraPagina_AposValidade_DeveRelerMesmoComInclusoes() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(cacheExtratoService, "validadeSegundos", 1);
+        cacheExtratoService.inicializar();
+        when(transacaoRepository.findExtratoPrimeiraPagina(conta.getId(), 3)).thenReturn(List.of());
+        cacheExtratoService.primeiraPagina(conta.getId(), 3);
+
+        // Act
+        Thread.sleep(600);
+        cacheExtratoService.aoGravarTransacao(TransacaoGravadaEvento.de(transacao(null, conta, agora)));
+        Thread.sleep(600);
+        cacheExtratoService.primeiraPagina(conta.getId(), 3);
+
+        // Assert
+        verify(transacaoRepository, times(2)).findExtratoPrimeiraPagina(conta.getId(), 3);
+    }
+
+    @Test
+    void aoGravarTransacao_ForaDeOrdemEComPaginaCheia_DeveManterOrdemECapacidade() {
+        // Arrange
+        Transacao t1 = transacao(conta, outraConta, agora);
+        Transacao t2 = transacao(conta, outraConta, agora.minusMinutes(10));
+        Transacao t3 = transacao(conta, outraConta, agora.minusMinutes(20));
+        when(transacaoRepository.findExtratoPrimeiraPagina(conta.getId(), 3)).thenReturn(List.of(t1, t2, t3));
+        cacheExtratoService.primeiraPagina(conta.getId(), 3);
+        Transacao intermediaria = transacao(null, conta, agora.minusMinutes(5));
+        Transacao maisAntiga = transacao(null, conta, agora.minusHours(1));
+
+        // Act
+        cacheExtratoService.aoGravarTransacao(TransacaoGravadaEvento.de(intermediaria));
+        cacheExtratoService.aoGravarTransacao(TransacaoGravadaEvento.de(intermediaria));
+        cacheExtratoService.aoGravarTransacao(TransacaoGravadaEvento.de(maisAntiga));
+
+        // Assert
+        List<Transacao> resultado = cacheExtratoService.primeiraPagina(conta.getId(), 3);
+        assertEquals(List.of(t1.getId(), intermediaria.getId(), t2.getId()),
+                resultado.stream().map(Transacao::getId).toList());
+    }
+
+    @Test
+    void aoGravarTransacao_ContaForaDoCache_NaoDeveCarregar() {
+        // Act
+        cacheExtratoService.aoGravarTransacao(TransacaoGravadaEvento.de(transacao(conta, outraConta, agora)));
+
+        // Assert
+        verifyNoInteractions(transacaoRepository);
+    }
+
+    private Transacao transacao(Conta origem, Conta destino, LocalDateTime realizadaEm) {
+        Transacao transacao = new Transacao(origem, destino, Transacao.TipoTransacao.TRANSFERENCIA,
+                new BigDecimal("10.00"), "Teste");
+        transacao.setId(UUID.randomUUID());
+        transacao.setRealizadaEm(realizadaEm);
+        return transacao;
+    }
+}
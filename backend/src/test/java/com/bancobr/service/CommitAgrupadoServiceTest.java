@@ -0,0 +1,225 @@
+package com.bancobr.service;
+
+import com.bancobr.dto.TransacaoRequest;
+import com.bancobr.dto.TransferenciaLoteResultado;
+import com.bancobr.model.Transacao;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.BlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para CommitAgrupadoService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class CommitAgrupadoServiceTest {
+
+    @Mock
+    private TransferenciaLoteService transferenciaLoteService;
+
+    @Mock
+    private TransacaoService transacaoService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private CommitAgrupadoService commitAgrupadoService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        commitAgrupadoService.encerrar();
+    }
+
+    @Test
+    void transferir_Concorrentes_DeveAplicarEmUmGrupoComResultadoPorChamador() throws Exception {
+        // Arrange: o grupo fecha ao atingir 3 itens, bem antes do fim da janela
+        ReflectionTestUtils.setField(commitAgrupadoService, "janelaMs", 10_000L);
+        ReflectionTestUtils.setField(commitAgrupadoService, "maxItens", 3);
+        ReflectionTestUtils.setField(commitAgrupadoService, "quantidadeDespachantes", 1);
+        commitAgrupadoService.iniciar();
+
+        when(transferenciaLoteService.realizarEmTransacaoUnica(anyList())).thenAnswer(invocation -> {
+            List<TransacaoRequest> itens = invocation.getArgument(0);
+            List<TransferenciaLoteResultado> resultados = new ArrayList<>();
+            for (int i = 0; i < itens.size(); i++) {
+                TransferenciaLoteResultado resultado = new TransferenciaLoteResultado(i, itens.get(i));
+                if (itens.get(i).getContaOrigem().equals("222222")) {
+                    resultado.erro("Saldo insuficiente na conta origem");
+                } else {
+                    Transacao transacao = new Transacao();
+                    transacao.setId(UUID.randomUUID());
+                    transacao.setDescricao(itens.get(i).getDescricao());
+                    resultado.sucesso(transacao);
+                }
+                resultados.add(resultado);
+            }
+            return resultados;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        // Act
+        Future<Transacao> primeira = executor.submit(() ->
+                commitAgrupadoService.transferir("cliente", "111111", "222222", BigDecimal.TEN, "Primeira"));
+        Future<Transacao> segunda = executor.submit(() ->
+                commitAgrupadoService.transferir("cliente", "111111", "333333", BigDecimal.TEN, "Segunda"));
+        Future<Transacao> semSaldo = executor.submit(() ->
+                commitAgrupadoService.transferir("cliente", "222222", "111111", BigDecimal.TEN, "Sem saldo"));
+
+        // Assert
+        assertEquals("Primeira", primeira.get(5, TimeUnit.SECONDS).getDescricao());
+        assertEquals("Segunda", segunda.get(5, TimeUnit.SECONDS).getDescricao());
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> semSaldo.get(5, TimeUnit.SECONDS));
+        assertEquals("Saldo insuficiente na conta origem", exception.getCause().getMessage());
+        verify(transferenciaLoteService, times(1)).realizarEmTransacaoUnica(anyList());
+        executor.shutdown();
+    }
+
+    @Test
+    void transferir_DentroDeTransacaoAberta_DeveExecutarDiretamente() {
+        // Arrange
+        commitAgrupadoService.iniciar();
+        Transacao transacao = new Transacao();
+        when(transacaoService.realizarTransferenciaPorNumero("111111", "222222", BigDecimal.TEN, "Direta"))
+                .thenReturn(transacao);
+
+        // Act
+        Transacao resultado;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            resultado = commitAgrupadoService.transferir("cliente", "111111", "222222", BigDecimal.TEN, "Direta");
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        // Assert
+        assertSame(transacao, resultado);
+        verifyNoInteractions(transferenciaLoteService);
+    }
+
+    @Test
+    void transferir_TempoEsgotadoNaFila_NaoDeveAplicarOPedidoCancelado() throws Exception {
+        // Arrange: o despachante pega o primeiro pedido e espera o segundo pela janela longa
+        ReflectionTestUtils.setField(commitAgrupadoService, "janelaMs", 10_000L);
+        ReflectionTestUtils.setField(commitAgrupadoService, "maxItens", 2);
+        ReflectionTestUtils.setField(commitAgrupadoService, "quantidadeDespachantes", 1);
+        ReflectionTestUtils.setField(commitAgrupadoService, "timeoutMs", 300L);
+        commitAgrupadoService.iniciar();
+
+        List<List<TransacaoRequest>> grupos = new ArrayList<>();
+        when(transferenciaLoteService.realizarEmTransacaoUnica(anyList())).thenAnswer(invocation -> {
+            List<TransacaoRequest> itens = invocation.getArgument(0);
+            grupos.add(new ArrayList<>(itens));
+            List<TransferenciaLoteResultado> resultados = new ArrayList<>();
+            for (int i = 0; i < itens.size(); i++) {
+                TransferenciaLoteResultado resultado = new TransferenciaLoteResultado(i, itens.get(i));
+                resultado.sucesso(new Transacao());
+                resultados.add(resultado);
+            }
+            return resultados;
+        });
+
+        // Act
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                commitAgrupadoService.transferir("cliente", "111111", "222222", BigDecimal.TEN, "Expirada"));
+        commitAgrupadoService.transferir("cliente", "111111", "333333", BigDecimal.TEN, "Seguinte");
+
+        // Assert
+        assertEquals("Tempo esgotado aguardando o commit da transferência; a transferência não foi realizada",
+                exception.getMessage());
+        assertEquals(1, grupos.size());
+        assertEquals(1, grupos.get(0).size());
+        assertEquals("Seguinte", grupos.get(0).get(0).getDescricao());
+    }
+
+    @Test
+    void transferir_TempoEsgotadoDuranteAplicacao_DeveInformarIdParaConsulta() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(commitAgrupadoService, "janelaMs", 0L);
+        ReflectionTestUtils.setField(commitAgrupadoService, "quantidadeDespachantes", 1);
+        ReflectionTestUtils.setField(commitAgrupadoService, "timeoutMs", 200L);
+        commitAgrupadoService.iniciar();
+
+        CountDownLatch liberar = new CountDownLatch(1);
+        UUID transacaoId = UUID.randomUUID();
+        when(transferenciaLoteService.realizarEmTransacaoUnica(anyList())).thenAnswer(invocation -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            List<TransacaoRequest> itens = invocation.getArgument(0);
+            TransferenciaLoteResultado resultado = new TransferenciaLoteResultado(0, itens.get(0));
+            Transacao transacao = new Transacao();
+            transacao.setId(transacaoId);
+            resultado.sucesso(transacao);
+            return List.of(resultado);
+        });
+
+        // Act
+        CommitAgrupadoService.CommitPendenteException exception = assertThrows(CommitAgrupadoService.CommitPendenteException.class,
+                () -> commitAgrupadoService.transferir("cliente", "111111", "222222", BigDecimal.TEN, "Lenta"));
+        Map<String, Object> pendente = commitAgrupadoService.buscarResultado(exception.getId(), "cliente").orElseThrow();
+        liberar.countDown();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Map<String, Object> concluido = pendente;
+        while ("PENDENTE".equals(concluido.get("status")) && System.nanoTime() < limite) {
+            Thread.sleep(10);
+            concluido = commitAgrupadoService.buscarResultado(exception.getId(), "cliente").orElseThrow();
+        }
+
+        // Assert
+        assertEquals("PENDENTE", pendente.get("status"));
+        assertEquals("SUCESSO", concluido.get("status"));
+        assertEquals(transacaoId, concluido.get("transacaoId"));
+        assertTrue(commitAgrupadoService.buscarResultado(exception.getId(), "outro").isEmpty());
+    }
+
+    @Test
+    void encerrar_ComPedidosNaFila_DeveConcluirOsFuturosComErro() throws Exception {
+        // Arrange: sem despachantes o pedido fica na fila
+        ReflectionTestUtils.setField(commitAgrupadoService, "quantidadeDespachantes", 0);
+        ReflectionTestUtils.setField(commitAgrupadoService, "timeoutMs", 5_000L);
+        commitAgrupadoService.iniciar();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Transacao> pedido = executor.submit(() ->
+                commitAgrupadoService.transferir("cliente", "111111", "222222", BigDecimal.TEN, "Na fila"));
+        BlockingQueue<?> fila = (BlockingQueue<?>) ReflectionTestUtils.getField(commitAgrupadoService, "fila");
+        while (fila.isEmpty()) {
+            Thread.sleep(5);
+        }
+
+        // Act
+        commitAgrupadoService.encerrar();
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> pedido.get(1, TimeUnit.SECONDS));
+        assertEquals("Commit agrupado encerrado; a transferência não foi realizada", exception.getCause().getMessage());
+        verifyNoInteractions(transferenciaLoteService);
+        executor.shutdown();
+    }
+}
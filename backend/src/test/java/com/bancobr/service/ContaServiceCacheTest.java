@@ -0,0 +1,114 @@
+package com.bancobr.service;
+
+import com.bancobr.config.CacheConfig;
+import com.bancobr.model.Conta;
+import com.bancobr.model.Usuario;
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes do cache de ContaService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@SpringJUnitConfig({CacheConfig.class, ContaService.class})
+class ContaServiceCacheTest {
+
+    @MockBean
+    private ContaRepository contaRepository;
+
+    @MockBean
+    private UsuarioRepository usuarioRepository;
+
+    @MockBean
+    private LogService logService;
+
+    @MockBean
+    private SaldoFracionadoService saldoFracionadoService;
+
+    @MockBean
+    private ResolucaoContaService resolucaoContaService;
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Usuario usuario;
+    private Conta conta;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+
+        usuario = new Usuario();
+        usuario.setId(UUID.randomUUID());
+
+        conta = new Conta();
+        conta.setId(UUID.randomUUID());
+        conta.setUsuario(usuario);
+        conta.setAgencia("001");
+        conta.setNumeroConta("123456");
+        conta.setTipo(Conta.TipoConta.CORRENTE);
+        conta.setSaldo(new BigDecimal("1000.00"));
+        conta.setLimiteCredito(BigDecimal.ZERO);
+    }
+
+    @Test
+    void buscarPorIdEListarPorUsuario_NaoDevemGuardarSaldo() {
+        // Arrange
+        Conta aposTransferencia = new Conta();
+        aposTransferencia.setId(conta.getId());
+        aposTransferencia.setUsuario(usuario);
+        aposTransferencia.setSaldo(new BigDecimal("900.00"));
+        aposTransferencia.setLimiteCredito(BigDecimal.ZERO);
+        when(contaRepository.findById(conta.getId())).thenReturn(Optional.of(conta), Optional.of(aposTransferencia));
+        when(contaRepository.findByUsuarioId(usuario.getId())).thenReturn(List.of(conta), List.of(aposTransferencia));
+
+        // Act
+        contaService.buscarPorId(conta.getId());
+        Conta atual = contaService.buscarPorId(conta.getId()).orElseThrow();
+        contaService.listarPorUsuario(usuario.getId());
+        List<Conta> contas = contaService.listarPorUsuario(usuario.getId());
+
+        // Assert
+        assertEquals(new BigDecimal("900.00"), atual.getSaldo());
+        assertEquals(new BigDecimal("900.00"), contas.get(0).getSaldo());
+        verify(contaRepository, times(2)).findById(conta.getId());
+        verify(contaRepository, times(2)).findByUsuarioId(usuario.getId());
+    }
+
+    @Test
+    void contarPorUsuario_CriacaoDeConta_DeveRecalcular() {
+        // Arrange
+        when(contaRepository.countByUsuarioId(usuario.getId())).thenReturn(1L, 2L);
+        when(usuarioRepository.findById(usuario.getId())).thenReturn(Optional.of(usuario));
+        when(contaRepository.save(any(Conta.class))).thenAnswer(invocacao -> invocacao.getArgument(0));
+
+        // Act
+        assertEquals(1L, contaService.contarPorUsuario(usuario.getId()));
+        assertEquals(1L, contaService.contarPorUsuario(usuario.getId()));
+        contaService.criarConta(usuario.getId(), "001", "654321", Conta.TipoConta.POUPANCA, (BigDecimal) null);
+
+        // Assert
+        assertEquals(2L, contaService.contarPorUsuario(usuario.getId()));
+        verify(contaRepository, times(2)).countByUsuarioId(usuario.getId());
+    }
+}
@@ -40,6 +40,12 @@ class ContaServiceTest {
     @Mock
     private LogService logService;
 
+    @Mock
+    private SaldoFracionadoService saldoFracionadoService;
+
+    @Mock
+    private ResolucaoContaService resolucaoContaService;
+
     @InjectMocks
     private ContaService contaService;
 
@@ -101,6 +107,7 @@ class ContaServiceTest {
         verify(usuarioRepository).findById(usuarioId);
         verify(contaRepository).existsByNumeroConta(numeroConta);
         verify(contaRepository).save(any(Conta.class));
+        verify(resolucaoContaService).invalidar(numeroConta);
         verify(logService).criarLog(usuario, "INSERT", "contas", resultado.getId());
     }
 
@@ -199,7 +206,7 @@ class ContaServiceTest {
         BigDecimal valor = BigDecimal.valueOf(500.00);
         BigDecimal saldoInicial = conta.getSaldo();
         
-        when(contaRepository.findById(contaId)).thenReturn(Optional.of(conta));
+        when(contaRepository.findAllByIdForUpdate(List.of(contaId))).thenReturn(List.of(conta));
         when(contaRepository.save(any(Conta.class))).thenReturn(conta);
         when(logService.criarLog(any(Usuario.class), anyString(), anyString(), any(UUID.class)))
                 .thenReturn(null);
@@ -210,22 +217,23 @@ class ContaServiceTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(saldoInicial.add(valor), conta.getSaldo());
-        verify(contaRepository).findById(contaId);
+        verify(contaRepository).findAllByIdForUpdate(List.of(contaId));
         verify(contaRepository).save(conta);
+        verify(contaRepository).marcarSaldoAjustado(eq(contaId), any(LocalDateTime.class));
         verify(logService).criarLog(usuario, "UPDATE", "contas", conta.getId());
     }
 
     @Test
     void creditar_ComContaInexistente_DeveLancarExcecao() {
         // Arrange
-        when(contaRepository.findById(contaId)).thenReturn(Optional.empty());
+        when(contaRepository.findAllByIdForUpdate(List.of(contaId))).thenReturn(List.of());
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> contaService.creditar(contaId, BigDecimal.valueOf(500.00)));
         
         assertEquals("Conta não encontrada", exception.getMessage());
-        verify(contaRepository).findById(contaId);
+        verify(contaRepository).findAllByIdForUpdate(List.of(contaId));
         verify(contaRepository, never()).save(any(Conta.class));
     }
 
@@ -235,7 +243,7 @@ class ContaServiceTest {
         BigDecimal valor = BigDecimal.valueOf(500.00);
         BigDecimal saldoInicial = conta.getSaldo();
         
-        when(contaRepository.findById(contaId)).thenReturn(Optional.of(conta));
+        when(contaRepository.findAllByIdForUpdate(List.of(contaId))).thenReturn(List.of(conta));
         when(contaRepository.save(any(Conta.class))).thenReturn(conta);
         when(logService.criarLog(any(Usuario.class), anyString(), anyString(), any(UUID.class)))
                 .thenReturn(null);
@@ -246,8 +254,9 @@ class ContaServiceTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(saldoInicial.subtract(valor), conta.getSaldo());
-        verify(contaRepository).findById(contaId);
+        verify(contaRepository).findAllByIdForUpdate(List.of(contaId));
         verify(contaRepository).save(conta);
+        verify(contaRepository).marcarSaldoAjustado(eq(contaId), any(LocalDateTime.class));
         verify(logService).criarLog(usuario, "UPDATE", "contas", conta.getId());
     }
 
@@ -255,28 +264,28 @@ class ContaServiceTest {
     void debitar_ComSaldoInsuficiente_DeveLancarExcecao() {
         // Arrange
         BigDecimal valor = BigDecimal.valueOf(2000.00); // Maior que o saldo
-        when(contaRepository.findById(contaId)).thenReturn(Optional.of(conta));
+        when(contaRepository.findAllByIdForUpdate(List.of(contaId))).thenReturn(List.of(conta));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> contaService.debitar(contaId, valor));
         
         assertEquals("Saldo insuficiente", exception.getMessage());
-        verify(contaRepository).findById(contaId);
+        verify(contaRepository).findAllByIdForUpdate(List.of(contaId));
         verify(contaRepository, never()).save(any(Conta.class));
     }
 
     @Test
     void debitar_ComContaInexistente_DeveLancarExcecao() {
         // Arrange
-        when(contaRepository.findById(contaId)).thenReturn(Optional.empty());
+        when(contaRepository.findAllByIdForUpdate(List.of(contaId))).thenReturn(List.of());
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> contaService.debitar(contaId, BigDecimal.valueOf(500.00)));
         
         assertEquals("Conta não encontrada", exception.getMessage());
-        verify(contaRepository).findById(contaId);
+        verify(contaRepository).findAllByIdForUpdate(List.of(contaId));
         verify(contaRepository, never()).save(any(Conta.class));
     }
 
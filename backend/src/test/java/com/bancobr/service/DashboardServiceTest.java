@@ -0,0 +1,94 @@
+package com.bancobr.service;
+
+import com.bancobr.model.Conta;
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.TransacaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para DashboardService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+
+    @InjectMocks
+    private DashboardService dashboardService;
+
+    private UUID usuarioId;
+
+    @BeforeEach
+    void setUp() {
+        usuarioId = UUID.randomUUID();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dashboardContas_DeveUsarApenasConsultasAgregadasELimitadas() {
+        // Arrange
+        Conta conta = new Conta();
+        conta.setId(UUID.randomUUID());
+        Transacao deposito = new Transacao(null, conta, Transacao.TipoTransacao.DEPOSITO, new BigDecimal("80.00"), null);
+        deposito.setId(UUID.randomUUID());
+        deposito.setRealizadaEm(LocalDateTime.now());
+        when(contaRepository.sumSaldoByUsuarioId(usuarioId)).thenReturn(new BigDecimal("1500.00"));
+        when(contaRepository.countByUsuarioId(usuarioId)).thenReturn(2L);
+        when(transacaoRepository.countByUsuarioIdDesde(usuarioId, LocalDate.now().atStartOfDay())).thenReturn(3L);
+        when(transacaoRepository.findUltimasByUsuarioId(usuarioId, 5)).thenReturn(List.of(deposito));
+
+        // Act
+        Map<String, Object> dashboard = dashboardService.dashboardContas(usuarioId);
+
+        // Assert
+        assertEquals(new BigDecimal("1500.00"), dashboard.get("saldoTotal"));
+        assertEquals(2L, dashboard.get("contasAtivas"));
+        assertEquals(3L, dashboard.get("transacoesHoje"));
+        List<Map<String, Object>> ultimas = (List<Map<String, Object>>) dashboard.get("ultimasTransacoes");
+        assertEquals(1, ultimas.size());
+        assertEquals(deposito.getId().toString(), ultimas.get(0).get("id"));
+        assertEquals("DEPOSITO", ultimas.get(0).get("tipo"));
+        assertNull(ultimas.get(0).get("descricao"));
+        verify(transacaoRepository, never()).findByUsuarioId(any());
+        verify(contaRepository, never()).findByUsuarioId(any());
+    }
+
+    @Test
+    void dashboardContas_UsuarioSemContas_DeveRetornarSaldoZero() {
+        // Arrange
+        when(contaRepository.sumSaldoByUsuarioId(usuarioId)).thenReturn(null);
+        when(transacaoRepository.findUltimasByUsuarioId(usuarioId, 5)).thenReturn(List.of());
+
+        // Act
+        Map<String, Object> dashboard = dashboardService.dashboardContas(usuarioId);
+
+        // Assert
+        assertEquals(BigDecimal.ZERO, dashboard.get("saldoTotal"));
+        assertEquals(0L, dashboard.get("contasAtivas"));
+        assertEquals(List.of(), dashboard.get("ultimasTransacoes"));
+    }
+}
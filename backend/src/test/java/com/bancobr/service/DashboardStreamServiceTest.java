@@ -0,0 +1,160 @@
+package com.bancobr.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para DashboardStreamService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class DashboardStreamServiceTest {
+
+    @Mock
+    private UsuarioService usuarioService;
+
+    @Mock
+    private ContaService contaService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    @InjectMocks
+    private DashboardStreamService dashboardStreamService;
+
+    @BeforeEach
+    void setUp() {
+        dashboardStreamService.inicializar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardStreamService.encerrar();
+    }
+
+    @Test
+    void publicar_SemAssinantes_NaoDeveCalcular() {
+        // Act
+        dashboardStreamService.publicar();
+
+        // Assert
+        verifyNoInteractions(usuarioService, contaService);
+    }
+
+    @Test
+    void publicar_VariosAssinantes_DeveCalcularUmaVezPorIntervalo() throws Exception {
+        // Arrange
+        when(usuarioService.contarAtivos()).thenReturn(10L);
+        when(contaService.somarSaldoTotal()).thenReturn(new BigDecimal("1000.00"));
+        for (int i = 0; i < 5; i++) {
+            dashboardStreamService.assinar();
+        }
+
+        // Act
+        dashboardStreamService.publicar();
+
+        // Assert
+        assertEquals(5, dashboardStreamService.totalAssinantes());
+        verify(usuarioService, times(1)).contarAtivos();
+        verify(contaService, times(1)).somarSaldoTotal();
+        verify(objectMapper, times(1)).writeValueAsString(any());
+    }
+
+    @Test
+    void publicar_SegundoIntervalo_DeveEnviarVariacoes() throws Exception {
+        // Arrange
+        when(usuarioService.contarAtivos()).thenReturn(10L, 12L);
+        when(contaService.somarSaldoTotal()).thenReturn(new BigDecimal("1000.00"), new BigDecimal("1250.50"));
+        dashboardStreamService.assinar();
+        dashboardStreamService.publicar();
+
+        dashboardStreamService.aoGravarTransacao(null);
+        dashboardStreamService.aoGravarTransacao(null);
+
+        // Act
+        dashboardStreamService.publicar();
+
+        // Assert
+        ArgumentCaptor<Object> eventos = ArgumentCaptor.forClass(Object.class);
+        verify(objectMapper, times(2)).writeValueAsString(eventos.capture());
+        List<Object> enviados = eventos.getAllValues();
+        Map<?, ?> primeiro = (Map<?, ?>) enviados.get(0);
+        Map<?, ?> segundo = (Map<?, ?>) enviados.get(1);
+        assertNull(primeiro.get("transacoesPorSegundo"));
+        assertEquals(2L, segundo.get("variacaoUsuarios"));
+        assertEquals(new BigDecimal("250.50"), segundo.get("variacaoSaldo"));
+        assertTrue(((BigDecimal) segundo.get("transacoesPorSegundo")).signum() > 0);
+    }
+
+    @Test
+    void assinar_LimiteAtingido_DeveRecusar() {
+        // Arrange
+        ReflectionTestUtils.setField(dashboardStreamService, "maxAssinantes", 1);
+        dashboardStreamService.assinar();
+
+        // Act & Assert
+        assertTrue(dashboardStreamService.assinar().isEmpty());
+        assertEquals(1, dashboardStreamService.totalAssinantes());
+    }
+
+    @Test
+    void publicar_AssinanteLento_NaoDeveBloquearEDeveSairDaLista() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(dashboardStreamService, "threadsEnvio", 1);
+        ReflectionTestUtils.setField(dashboardStreamService, "timeoutEnvioMs", 50L);
+        dashboardStreamService.encerrar();
+        dashboardStreamService.inicializar();
+        when(usuarioService.contarAtivos()).thenReturn(10L);
+        when(contaService.somarSaldoTotal()).thenReturn(new BigDecimal("1000.00"));
+        CountDownLatch enviando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        doReturn(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                enviando.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).when(dashboardStreamService).novoEmitter();
+        dashboardStreamService.assinar();
+
+        // Act
+        dashboardStreamService.publicar();
+        assertTrue(enviando.await(5, TimeUnit.SECONDS));
+        dashboardStreamService.publicar();
+        int durantePrimeiroEnvio = dashboardStreamService.totalAssinantes();
+        Thread.sleep(100);
+        dashboardStreamService.publicar();
+        liberar.countDown();
+
+        // Assert
+        assertEquals(1, durantePrimeiroEnvio);
+        assertEquals(0, dashboardStreamService.totalAssinantes());
+    }
+}
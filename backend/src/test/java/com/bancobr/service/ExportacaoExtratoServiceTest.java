@@ -0,0 +1,158 @@
+package com.bancobr.service;
+
+import com.bancobr.model.Conta;
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.TransacaoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para ExportacaoExtratoService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ExportacaoExtratoServiceTest {
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private ExportacaoExtratoService exportacaoExtratoService;
+
+    private UUID contaId;
+    private Conta conta;
+    private Conta outraConta;
+
+    @BeforeEach
+    void setUp() {
+        contaId = UUID.randomUUID();
+        conta = new Conta();
+        conta.setId(contaId);
+        outraConta = new Conta();
+        outraConta.setId(UUID.randomUUID());
+
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        exportacaoExtratoService.inicializar();
+    }
+
+    @Test
+    void exportar_Ndjson_DeveEscreverUmObjetoPorLinha() throws Exception {
+        // Arrange
+        Transacao deposito = transacao(null, conta, Transacao.TipoTransacao.DEPOSITO, "100.00", "Depósito inicial");
+        deposito.setSaldoDestinoApos(new BigDecimal("100.00"));
+        Transacao transferencia = transacao(conta, outraConta, Transacao.TipoTransacao.TRANSFERENCIA, "25.50", "Aluguel");
+        Stream<Transacao> transacoes = Stream.of(deposito, transferencia);
+        AtomicBoolean fechado = new AtomicBoolean();
+        when(transacaoRepository.streamExtratoByContaId(contaId)).thenReturn(transacoes.onClose(() -> fechado.set(true)));
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        // Act
+        exportacaoExtratoService.exportar(contaId, ExportacaoExtratoService.Formato.NDJSON, saida);
+
+        // Assert
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, linhas.length);
+        JsonNode primeira = objectMapper.readTree(linhas[0]);
+        assertEquals(deposito.getId().toString(), primeira.get("id").asText());
+        assertEquals("DEPOSITO", primeira.get("tipo").asText());
+        assertTrue(linhas[0].contains("\"valor\":100.00"));
+        assertTrue(primeira.get("contaOrigem").isNull());
+        assertEquals(contaId.toString(), primeira.get("contaDestino").asText());
+        assertTrue(linhas[0].contains("\"saldoApos\":100.00"));
+        JsonNode segunda = objectMapper.readTree(linhas[1]);
+        assertEquals(outraConta.getId().toString(), segunda.get("contaDestino").asText());
+        assertTrue(fechado.get());
+        verify(entityManager).detach(deposito);
+        verify(entityManager).detach(transferencia);
+    }
+
+    @Test
+    void exportar_Csv_DeveEscreverCabecalhoEAspasQuandoNecessario() throws Exception {
+        // Arrange
+        Transacao transacao = transacao(conta, outraConta, Transacao.TipoTransacao.SAQUE, "10.00", "Pizza, \"grande\"");
+        transacao.setSaldoOrigemApos(new BigDecimal("90.00"));
+        transacao.setSaldoDestinoApos(new BigDecimal("510.00"));
+        when(transacaoRepository.streamExtratoByContaId(contaId)).thenReturn(Stream.of(transacao));
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        // Act
+        exportacaoExtratoService.exportar(contaId, ExportacaoExtratoService.Formato.CSV, saida);
+
+        // Assert
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("id,realizada_em,tipo,valor,descricao,conta_origem,conta_destino,saldo_apos", linhas[0]);
+        assertEquals(transacao.getId() + "," + transacao.getRealizadaEm() + ",SAQUE,10.00,\"Pizza, \"\"grande\"\"\","
+                + contaId + "," + outraConta.getId() + ",90.00", linhas[1]);
+    }
+
+    @Test
+    void preparar_ComLimiteAtingido_DeveRetornarVazioAteLiberarVaga() throws Exception {
+        // Arrange
+        when(transacaoRepository.streamExtratoByContaId(contaId)).thenAnswer(invocation -> Stream.empty());
+        Optional<StreamingResponseBody> primeira = Optional.empty();
+        for (int i = 0; i < 4; i++) {
+            primeira = exportacaoExtratoService.preparar(contaId, ExportacaoExtratoService.Formato.CSV);
+            assertTrue(primeira.isPresent());
+        }
+
+        // Act
+        Optional<StreamingResponseBody> excedente = exportacaoExtratoService.preparar(contaId, ExportacaoExtratoService.Formato.CSV);
+        primeira.get().writeTo(new ByteArrayOutputStream());
+        Optional<StreamingResponseBody> aposLiberar = exportacaoExtratoService.preparar(contaId, ExportacaoExtratoService.Formato.CSV);
+
+        // Assert
+        assertTrue(excedente.isEmpty());
+        assertTrue(aposLiberar.isPresent());
+    }
+
+    @Test
+    void formato_ComValorInvalido_DeveLancarExcecao() {
+        // Act & Assert
+        assertEquals(ExportacaoExtratoService.Formato.CSV, ExportacaoExtratoService.Formato.de("CSV"));
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> ExportacaoExtratoService.Formato.de("xml"));
+        assertEquals("Formato de exportação inválido: use csv ou ndjson", exception.getMessage());
+    }
+
+    private Transacao transacao(Conta origem, Conta destino, Transacao.TipoTransacao tipo, String valor, String descricao) {
+        Transacao transacao = new Transacao(origem, destino, tipo, new BigDecimal(valor), descricao);
+        transacao.setId(UUID.randomUUID());
+        transacao.setRealizadaEm(LocalDateTime.of(2024, 3, 15, 10, 30));
+        return transacao;
+    }
+}
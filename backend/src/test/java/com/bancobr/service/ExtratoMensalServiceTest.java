@@ -0,0 +1,250 @@
+package com.bancobr.service;
+
+import com.bancobr.model.Conta;
+import com.bancobr.model.Transacao;
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.TransacaoRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para ExtratoMensalService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ExtratoMensalServiceTest {
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+
+    @Mock
+    private SaldoDiarioService saldoDiarioService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ExtratoMensalService extratoMensalService;
+
+    @TempDir
+    Path diretorio;
+
+    private YearMonth mes;
+    private Conta conta;
+    private Conta outraConta;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(extratoMensalService, "diretorio", diretorio.toString());
+        ReflectionTestUtils.setField(extratoMensalService, "contasPorTarefa", 1);
+        extratoMensalService.inicializar();
+
+        mes = YearMonth.now().minusMonths(1);
+        conta = new Conta();
+        conta.setId(UUID.randomUUID());
+        outraConta = new Conta();
+        outraConta.setId(UUID.randomUUID());
+
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        extratoMensalService.encerrar();
+    }
+
+    @Test
+    void iniciar_DeveGerarArquivoComSaldoInicialCorrenteEFinal() throws Exception {
+        // Arrange
+        LocalDateTime inicio = mes.atDay(1).atStartOfDay();
+        LocalDateTime fim = mes.plusMonths(1).atDay(1).atStartOfDay();
+        Transacao deposito = transacao(null, conta, Transacao.TipoTransacao.DEPOSITO, "100.00", "Salário", inicio.plusDays(4));
+        Transacao transferencia = transacao(conta, outraConta, Transacao.TipoTransacao.TRANSFERENCIA, "30.00", "Aluguel, junho",
+                inicio.plusDays(9));
+        when(contaRepository.findIdsCriadasAntesDe(fim)).thenReturn(List.of(conta.getId(), outraConta.getId()));
+        when(saldoDiarioService.saldoEm(conta.getId(), mes.atDay(1).minusDays(1))).thenReturn(new BigDecimal("50.00"));
+        when(saldoDiarioService.saldoEm(outraConta.getId(), mes.atDay(1).minusDays(1))).thenReturn(BigDecimal.ZERO);
+        when(transacaoRepository.streamExtratoPorPeriodo(conta.getId(), inicio, fim))
+                .thenReturn(Stream.of(deposito, transferencia));
+        when(transacaoRepository.streamExtratoPorPeriodo(outraConta.getId(), inicio, fim))
+                .thenReturn(Stream.of(transferencia));
+
+        // Act
+        assertTrue(extratoMensalService.iniciar(mes));
+        int gerados = extratoMensalService.execucaoAtual().join();
+
+        // Assert
+        assertEquals(2, gerados);
+        List<String> linhas = ler(extratoMensalService.arquivo(conta.getId(), mes).orElseThrow());
+        assertEquals(5, linhas.size());
+        assertEquals("id,realizada_em,tipo,valor,descricao,conta_origem,conta_destino,saldo", linhas.get(0));
+        assertEquals("," + inicio + ",SALDO_INICIAL,,,,,50.00", linhas.get(1));
+        assertTrue(linhas.get(2).endsWith(",DEPOSITO,100.00,Salário,," + conta.getId() + ",150.00"));
+        assertTrue(linhas.get(3).endsWith(",\"Aluguel, junho\"," + conta.getId() + "," + outraConta.getId() + ",120.00"));
+        assertEquals("," + fim + ",SALDO_FINAL,,,,,120.00", linhas.get(4));
+
+        List<String> daOutraConta = ler(extratoMensalService.arquivo(outraConta.getId(), mes).orElseThrow());
+        assertEquals("," + fim + ",SALDO_FINAL,,,,,30.00", daOutraConta.get(3));
+        verify(entityManager, times(3)).detach(any(Transacao.class));
+    }
+
+    @Test
+    void iniciar_ComSaldoAposGravado_DeveUsarOSaldoRegistrado() throws Exception {
+        // Arrange: ajuste de saldo sem transação entre o depósito e a transferência
+        LocalDateTime inicio = mes.atDay(1).atStartOfDay();
+        LocalDateTime fim = mes.plusMonths(1).atDay(1).atStartOfDay();
+        Transacao deposito = transacao(null, conta, Transacao.TipoTransacao.DEPOSITO, "100.00", "Salário", inicio.plusDays(4));
+        deposito.setSaldoDestinoApos(new BigDecimal("150.00"));
+        Transacao transferencia = transacao(conta, outraConta, Transacao.TipoTransacao.TRANSFERENCIA, "30.00", "Aluguel",
+                inicio.plusDays(9));
+        transferencia.setSaldoOrigemApos(new BigDecimal("170.00"));
+        Transacao saque = transacao(conta, null, Transacao.TipoTransacao.SAQUE, "20.00", "Saque", inicio.plusDays(12));
+        when(contaRepository.findIdsCriadasAntesDe(fim)).thenReturn(List.of(conta.getId()));
+        when(saldoDiarioService.saldoEm(conta.getId(), mes.atDay(1).minusDays(1))).thenReturn(new BigDecimal("50.00"));
+        when(transacaoRepository.streamExtratoPorPeriodo(conta.getId(), inicio, fim))
+                .thenReturn(Stream.of(deposito, transferencia, saque));
+
+        // Act
+        assertTrue(extratoMensalService.iniciar(mes));
+        extratoMensalService.execucaoAtual().join();
+
+        // Assert
+        List<String> linhas = ler(extratoMensalService.arquivo(conta.getId(), mes).orElseThrow());
+        assertTrue(linhas.get(2).endsWith(",150.00"));
+        assertTrue(linhas.get(3).endsWith(",170.00"));
+        assertTrue(linhas.get(4).endsWith(",150.00"));
+        assertEquals("," + fim + ",SALDO_FINAL,,,,,150.00", linhas.get(5));
+    }
+
+    @Test
+    void iniciar_FalhaEmUmaConta_DeveGerarAsDemaisSemDeixarArquivoTemporario() throws Exception {
+        // Arrange
+        when(contaRepository.findIdsCriadasAntesDe(any())).thenReturn(List.of(conta.getId(), outraConta.getId()));
+        when(saldoDiarioService.saldoEm(eq(conta.getId()), any())).thenReturn(BigDecimal.ZERO);
+        when(saldoDiarioService.saldoEm(eq(outraConta.getId()), any())).thenReturn(BigDecimal.ZERO);
+        when(transacaoRepository.streamExtratoPorPeriodo(eq(conta.getId()), any(), any()))
+                .thenThrow(new RuntimeException("Conexão perdida"));
+        when(transacaoRepository.streamExtratoPorPeriodo(eq(outraConta.getId()), any(), any()))
+                .thenReturn(Stream.empty());
+
+        // Act
+        extratoMensalService.iniciar(mes);
+        int gerados = extratoMensalService.execucaoAtual().join();
+
+        // Assert
+        assertEquals(1, gerados);
+        assertTrue(extratoMensalService.arquivo(conta.getId(), mes).isEmpty());
+        assertTrue(extratoMensalService.arquivo(outraConta.getId(), mes).isPresent());
+        try (Stream<Path> arquivos = Files.list(diretorio.resolve(mes.toString()))) {
+            assertEquals(1, arquivos.count());
+        }
+    }
+
+    @Test
+    void iniciar_MesNaoEncerrado_DeveLancarExcecao() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> extratoMensalService.iniciar(YearMonth.now()));
+        assertEquals("Mês ainda não encerrado", exception.getMessage());
+        verifyNoInteractions(contaRepository);
+    }
+
+    @Test
+    void enviar_SemSendfile_DeveTransferirOArquivoParaAResposta() throws Exception {
+        // Arrange
+        Path arquivo = diretorio.resolve("extrato.csv.gz");
+        byte[] conteudo = "conteúdo do extrato".getBytes(StandardCharsets.UTF_8);
+        Files.write(arquivo, conteudo);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        extratoMensalService.enviar(arquivo, new MockHttpServletRequest(), response);
+
+        // Assert
+        assertArrayEquals(conteudo, response.getContentAsByteArray());
+        assertEquals(conteudo.length, response.getContentLength());
+    }
+
+    @Test
+    void enviar_ComSendfile_DeveDelegarAoContainerSemEscreverNaResposta() throws Exception {
+        // Arrange
+        Path arquivo = diretorio.resolve("extrato.csv.gz");
+        Files.write(arquivo, new byte[1024]);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        extratoMensalService.enviar(arquivo, request, response);
+
+        // Assert
+        assertEquals(arquivo.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(0L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(1024L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(1024, response.getContentLength());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void arquivo_NaoGerado_DeveRetornarVazio() {
+        // Act
+        Optional<Path> arquivo = extratoMensalService.arquivo(conta.getId(), mes);
+
+        // Assert
+        assertTrue(arquivo.isEmpty());
+    }
+
+    private List<String> ler(Path arquivo) throws IOException {
+        byte[] compactado = Files.readAllBytes(arquivo);
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(compactado))) {
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+
+    private Transacao transacao(Conta origem, Conta destino, Transacao.TipoTransacao tipo, String valor,
+                                String descricao, LocalDateTime realizadaEm) {
+        Transacao transacao = new Transacao(origem, destino, tipo, new BigDecimal(valor), descricao);
+        transacao.setId(UUID.randomUUID());
+        transacao.setRealizadaEm(realizadaEm);
+        return transacao;
+    }
+}
@@ -0,0 +1,201 @@
+package com.bancobr.service;
+
+import com.bancobr.ledger.LedgerEngine;
+import com.bancobr.model.IdempotenciaChave;
+import com.bancobr.repository.IdempotenciaChaveRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para IdempotenciaService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotenciaServiceTest {
+
+    private static final String USUARIO = "cliente@email.com";
+    private static final String CHAVE = "9b6f2a40-retry";
+
+    @Mock
+    private IdempotenciaChaveRepository idempotenciaChaveRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private IdempotenciaService idempotenciaService;
+
+    private final Map<String, Object> requisicao = Map.of("contaDestinoId", "a1b2", "valor", 100);
+    private final AtomicInteger execucoes = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotenciaService.inicializar();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void executar_PrimeiraVez_DeveExecutarERegistrarResposta() {
+        // Arrange
+        when(idempotenciaChaveRepository.reservar(eq(USUARIO), eq(CHAVE), eq("DEPOSITO"), anyString(), any(), any()))
+                .thenReturn(1);
+
+        // Act
+        ResponseEntity<?> resposta = idempotenciaService.executar(USUARIO, CHAVE, "DEPOSITO", requisicao, acaoComSucesso());
+
+        // Assert
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals("{\"id\":1}", resposta.getBody());
+        assertEquals(1, execucoes.get());
+        verify(idempotenciaChaveRepository).concluir(USUARIO, CHAVE, 200, "{\"id\":1}");
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void executar_RepeticaoRecente_DeveResponderDaMemoriaSemIrAoBanco() {
+        // Arrange
+        when(idempotenciaChaveRepository.reservar(anyString(), anyString(), anyString(), anyString(), any(), any()))
+                .thenReturn(1);
+        idempotenciaService.executar(USUARIO, CHAVE, "DEPOSITO", requisicao, acaoComSucesso());
+
+        // Act
+        ResponseEntity<?> repetida = idempotenciaService.executar(USUARIO, CHAVE, "DEPOSITO", requisicao, acaoComSucesso());
+
+        // Assert
+        assertEquals(HttpStatus.OK, repetida.getStatusCode());
+        assertEquals("{\"id\":1}", repetida.getBody());
+        assertEquals("true", repetida.getHeaders().getFirst(IdempotenciaService.HEADER_REPETIDA));
+        assertEquals(1, execucoes.get());
+        verify(idempotenciaChaveRepository, times(1)).reservar(anyString(), anyString(), anyString(), anyString(), any(), any());
+        verify(idempotenciaChaveRepository, never()).findByUsuarioAndChave(anyString(), anyString());
+    }
+
+    @Test
+    void executar_ChaveJaRegistradaNoBanco_DeveDevolverRespostaRegistrada() {
+        // Arrange
+        AtomicReference<String> hash = new AtomicReference<>();
+        when(idempotenciaChaveRepository.reservar(eq(USUARIO), eq(CHAVE), eq("DEPOSITO"), anyString(), any(), any()))
+                .thenAnswer(invocation -> {
+                    hash.set(invocation.getArgument(3));
+                    return 0;
+                });
+        when(idempotenciaChaveRepository.findByUsuarioAndChave(USUARIO, CHAVE))
+                .thenAnswer(invocation -> Optional.of(chaveRegistrada(hash.get(), 200, "{\"id\":7}")));
+
+        // Act
+        ResponseEntity<?> resposta = idempotenciaService.executar(USUARIO, CHAVE, "DEPOSITO", requisicao, acaoComSucesso());
+
+        // Assert
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals("{\"id\":7}", resposta.getBody());
+        assertEquals(0, execucoes.get());
+        verify(idempotenciaChaveRepository, never()).concluir(anyString(), anyString(), anyInt(), anyString());
+    }
+
+    @Test
+    void executar_MesmaChaveComOutraRequisicao_DeveRetornar422() {
+        // Arrange
+        when(idempotenciaChaveRepository.reservar(anyString(), anyString(), anyString(), anyString(), any(), any()))
+                .thenReturn(1);
+        idempotenciaService.executar(USUARIO, CHAVE, "DEPOSITO", requisicao, acaoComSucesso());
+
+        // Act
+        ResponseEntity<?> resposta = idempotenciaService.executar(USUARIO, CHAVE, "DEPOSITO",
+                Map.of("contaDestinoId", "a1b2", "valor", 200), acaoComSucesso());
+
+        // Assert
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, resposta.getStatusCode());
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void executar_ComRespostaDeErro_DeveDesfazerReservaEPermitirNovaTentativa() {
+        // Arrange
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        when(idempotenciaChaveRepository.reservar(anyString(), anyString(), anyString(), anyString(), any(), any()))
+                .thenReturn(1);
+        Supplier<ResponseEntity<?>> acaoComErro = () -> {
+            execucoes.incrementAndGet();
+            return ResponseEntity.badRequest().body(Map.of("error", "Saldo insuficiente"));
+        };
+
+        // Act
+        ResponseEntity<?> resposta = idempotenciaService.executar(USUARIO, CHAVE, "SAQUE", requisicao, acaoComErro);
+        idempotenciaService.executar(USUARIO, CHAVE, "SAQUE", requisicao, acaoComErro);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, resposta.getStatusCode());
+        assertEquals(2, execucoes.get());
+        assertTrue(status.isRollbackOnly());
+        verify(idempotenciaChaveRepository, never()).concluir(anyString(), anyString(), anyInt(), anyString());
+    }
+
+    @Test
+    void executar_ComChaveEmBranco_DeveRetornar400() {
+        // Act
+        ResponseEntity<?> resposta = idempotenciaService.executar(USUARIO, " ", "SAQUE", requisicao, acaoComSucesso());
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, resposta.getStatusCode());
+        assertEquals(0, execucoes.get());
+        verifyNoInteractions(idempotenciaChaveRepository);
+    }
+
+    @Test
+    void aceitaChave_NoModoLedger_DeveAceitarApenasTransferenciaAssincrona() {
+        // Arrange
+        ReflectionTestUtils.setField(idempotenciaService, "ledgerEngine", mock(LedgerEngine.class));
+
+        // Act & Assert
+        assertFalse(idempotenciaService.aceitaChave(false));
+        assertTrue(idempotenciaService.aceitaChave(true));
+    }
+
+    @Test
+    void aceitaChave_ForaDoModoLedger_DeveAceitar() {
+        // Act & Assert
+        assertTrue(idempotenciaService.aceitaChave(false));
+        assertTrue(idempotenciaService.aceitaChave(true));
+    }
+
+    private Supplier<ResponseEntity<?>> acaoComSucesso() {
+        return () -> ResponseEntity.ok(Map.of("id", execucoes.incrementAndGet()));
+    }
+
+    private IdempotenciaChave chaveRegistrada(String hash, int statusHttp, String resposta) {
+        IdempotenciaChave idempotenciaChave = new IdempotenciaChave();
+        idempotenciaChave.setUsuario(USUARIO);
+        idempotenciaChave.setChave(CHAVE);
+        idempotenciaChave.setHashRequisicao(hash);
+        idempotenciaChave.setStatusHttp(statusHttp);
+        idempotenciaChave.setResposta(resposta);
+        return idempotenciaChave;
+    }
+}
@@ -0,0 +1,132 @@
+package com.bancobr.service;
+
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.TransacaoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para PreenchimentoSaldoAposService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class PreenchimentoSaldoAposServiceTest {
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PreenchimentoSaldoAposService preenchimentoSaldoAposService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(preenchimentoSaldoAposService, "contasPorBloco", 2);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        preenchimentoSaldoAposService.inicializar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        preenchimentoSaldoAposService.encerrar();
+    }
+
+    @Test
+    void iniciar_DevePreencherTodasAsContasEmBlocos() throws Exception {
+        // Arrange
+        List<UUID> contaIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        when(contaRepository.findAllIds()).thenReturn(contaIds);
+        when(transacaoRepository.preencherSaldosApos(any(UUID.class))).thenReturn(3);
+        when(transacaoRepository.preencherSaldosApos(contaIds.get(2))).thenThrow(new RuntimeException("Falha"));
+
+        // Act
+        assertTrue(preenchimentoSaldoAposService.iniciar());
+        Map<String, Object> status = aguardarConclusao();
+
+        // Assert
+        assertEquals(5, status.get("totalContas"));
+        assertEquals(5L, status.get("contasProcessadas"));
+        assertEquals(1L, status.get("contasComFalha"));
+        assertEquals(12L, status.get("transacoesAtualizadas"));
+        contaIds.forEach(contaId -> verify(transacaoRepository).preencherSaldosApos(contaId));
+    }
+
+    @Test
+    void iniciar_ComContaQuente_DeveIgnorarAConta() throws Exception {
+        // Arrange
+        UUID fria = UUID.randomUUID();
+        UUID quente = UUID.randomUUID();
+        when(contaRepository.findAllIds()).thenReturn(List.of(fria, quente));
+        when(contaRepository.findIdsContasQuentes()).thenReturn(List.of(quente));
+        when(transacaoRepository.preencherSaldosApos(fria)).thenReturn(2);
+
+        // Act
+        assertTrue(preenchimentoSaldoAposService.iniciar());
+        Map<String, Object> status = aguardarConclusao();
+
+        // Assert
+        assertEquals(1, status.get("totalContas"));
+        assertEquals(1, status.get("contasQuentesIgnoradas"));
+        assertEquals(2L, status.get("transacoesAtualizadas"));
+        verify(transacaoRepository, never()).preencherSaldosApos(quente);
+    }
+
+    @Test
+    void iniciar_ComPreenchimentoEmAndamento_DeveRetornarFalse() throws Exception {
+        // Arrange
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(contaRepository.findAllIds()).thenReturn(List.of(UUID.randomUUID()));
+        when(transacaoRepository.preencherSaldosApos(any(UUID.class))).thenAnswer(invocation -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return 0;
+        });
+
+        // Act
+        boolean primeiro = preenchimentoSaldoAposService.iniciar();
+        boolean segundo = preenchimentoSaldoAposService.iniciar();
+        liberar.countDown();
+        aguardarConclusao();
+        boolean aposConcluir = preenchimentoSaldoAposService.iniciar();
+
+        // Assert
+        assertTrue(primeiro);
+        assertFalse(segundo);
+        assertTrue(aposConcluir);
+    }
+
+    private Map<String, Object> aguardarConclusao() throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Map<String, Object> status = preenchimentoSaldoAposService.status();
+        while (Boolean.TRUE.equals(status.get("emAndamento")) && System.nanoTime() < limite) {
+            Thread.sleep(10);
+            status = preenchimentoSaldoAposService.status();
+        }
+        assertEquals(false, status.get("emAndamento"));
+        return status;
+    }
+}
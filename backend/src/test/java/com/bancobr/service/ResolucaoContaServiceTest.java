@@ -0,0 +1,100 @@
+package com.bancobr.service;
+
+import com.bancobr.repository.ContaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para ResolucaoContaService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ResolucaoContaServiceTest {
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private ResolucaoContaService resolucaoContaService;
+
+    @BeforeEach
+    void setUp() {
+        resolucaoContaService.inicializar();
+    }
+
+    @Test
+    void resolver_ChamadasRepetidas_DeveConsultarOBancoUmaVez() {
+        // Arrange
+        UUID contaId = UUID.randomUUID();
+        when(contaRepository.findIdByNumeroConta("123456")).thenReturn(Optional.of(contaId));
+
+        // Act
+        resolucaoContaService.resolver("123456");
+        Optional<UUID> resultado = resolucaoContaService.resolver("123456");
+
+        // Assert
+        assertEquals(Optional.of(contaId), resultado);
+        verify(contaRepository, times(1)).findIdByNumeroConta("123456");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", ResolucaoContaService.NOME_CACHE)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(0.5, meterRegistry.get("bancobr.contas.resolucao.taxa-acerto").gauge().value());
+    }
+
+    @Test
+    void resolver_NumeroInexistente_DeveGuardarEntradaNegativa() {
+        // Arrange
+        when(contaRepository.findIdByNumeroConta("999999")).thenReturn(Optional.empty());
+
+        // Act
+        resolucaoContaService.resolver("999999");
+        Optional<UUID> resultado = resolucaoContaService.resolver("999999");
+
+        // Assert
+        assertTrue(resultado.isEmpty());
+        verify(contaRepository, times(1)).findIdByNumeroConta("999999");
+    }
+
+    @Test
+    void invalidar_DentroDeTransacao_DeveRemoverAposCommit() {
+        // Arrange
+        UUID contaId = UUID.randomUUID();
+        when(contaRepository.findIdByNumeroConta("654321"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(contaId));
+        resolucaoContaService.resolver("654321");
+
+        // Act
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            resolucaoContaService.invalidar("654321");
+            assertTrue(resolucaoContaService.resolver("654321").isEmpty());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(Optional.of(contaId), resolucaoContaService.resolver("654321"));
+        verify(contaRepository, times(2)).findIdByNumeroConta("654321");
+    }
+}
@@ -0,0 +1,157 @@
+package com.bancobr.service;
+
+import com.bancobr.model.Conta;
+import com.bancobr.model.SaldoDiario;
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.SaldoDiarioRepository;
+import com.bancobr.repository.TransacaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para SaldoDiarioService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class SaldoDiarioServiceTest {
+
+    @Mock
+    private SaldoDiarioRepository saldoDiarioRepository;
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SaldoDiarioService saldoDiarioService;
+
+    private UUID contaId;
+    private Conta conta;
+
+    @BeforeEach
+    void setUp() {
+        contaId = UUID.randomUUID();
+        conta = new Conta();
+        conta.setId(contaId);
+        conta.setSaldo(new BigDecimal("1000.00"));
+
+        lenient().when(contaRepository.findById(contaId)).thenReturn(Optional.of(conta));
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void saldoEm_ComSnapshotDoDia_DeveRetornarSnapshotSemConsultarTransacoes() {
+        // Arrange
+        LocalDate data = LocalDate.now().minusDays(10);
+        when(saldoDiarioRepository.findFirstByContaIdAndDataLessThanEqualOrderByDataDesc(contaId, data))
+                .thenReturn(Optional.of(new SaldoDiario(contaId, data, new BigDecimal("750.00"))));
+
+        // Act
+        BigDecimal saldo = saldoDiarioService.saldoEm(contaId, data);
+
+        // Assert
+        assertEquals(new BigDecimal("750.00"), saldo);
+        verifyNoInteractions(transacaoRepository);
+    }
+
+    @Test
+    void saldoEm_ComSnapshotAnterior_DeveSomarMovimentoDosDiasSeguintes() {
+        // Arrange
+        LocalDate data = LocalDate.now().minusDays(10);
+        LocalDate dataSnapshot = data.minusDays(3);
+        when(saldoDiarioRepository.findFirstByContaIdAndDataLessThanEqualOrderByDataDesc(contaId, data))
+                .thenReturn(Optional.of(new SaldoDiario(contaId, dataSnapshot, new BigDecimal("750.00"))));
+        when(transacaoRepository.somarMovimentoEntre(contaId, dataSnapshot.plusDays(1).atStartOfDay(),
+                data.plusDays(1).atStartOfDay())).thenReturn(new BigDecimal("-50.25"));
+
+        // Act
+        BigDecimal saldo = saldoDiarioService.saldoEm(contaId, data);
+
+        // Assert
+        assertEquals(new BigDecimal("699.75"), saldo);
+    }
+
+    @Test
+    void saldoEm_SemSnapshotAnterior_DeveDesfazerMovimentoPosteriorNoSaldoAtual() {
+        // Arrange
+        LocalDate data = LocalDate.now().minusDays(10);
+        when(saldoDiarioRepository.findFirstByContaIdAndDataLessThanEqualOrderByDataDesc(contaId, data))
+                .thenReturn(Optional.empty());
+        when(transacaoRepository.somarMovimentoDesde(contaId, data.plusDays(1).atStartOfDay()))
+                .thenReturn(new BigDecimal("200.00"));
+
+        // Act
+        BigDecimal saldo = saldoDiarioService.saldoEm(contaId, data);
+
+        // Assert
+        assertEquals(new BigDecimal("800.00"), saldo);
+    }
+
+    @Test
+    void saldoEm_Hoje_DeveRetornarSaldoAtual() {
+        // Act
+        BigDecimal saldo = saldoDiarioService.saldoEm(contaId, LocalDate.now());
+
+        // Assert
+        assertEquals(new BigDecimal("1000.00"), saldo);
+        verifyNoInteractions(saldoDiarioRepository, transacaoRepository);
+    }
+
+    @Test
+    void saldoEm_ComDataFutura_DeveLancarExcecao() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> saldoDiarioService.saldoEm(contaId, LocalDate.now().plusDays(1)));
+        assertEquals("Data não pode ser futura", exception.getMessage());
+    }
+
+    @Test
+    void saldoEm_ContaInexistente_DeveLancarExcecao() {
+        // Arrange
+        UUID outraConta = UUID.randomUUID();
+        when(contaRepository.findById(outraConta)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> saldoDiarioService.saldoEm(outraConta, LocalDate.now().minusDays(1)));
+        assertEquals("Conta não encontrada", exception.getMessage());
+    }
+
+    @Test
+    void gerarSnapshots_DeveUsarInicioDoDiaSeguinteComoCorte() {
+        // Arrange
+        LocalDate data = LocalDate.of(2026, 1, 31);
+        when(saldoDiarioRepository.gerarSnapshots(eq(data), eq(LocalDate.of(2026, 2, 1).atStartOfDay()), any()))
+                .thenReturn(42);
+
+        // Act
+        int gravados = saldoDiarioService.gerarSnapshots(data);
+
+        // Assert
+        assertEquals(42, gravados);
+        verify(transactionManager).commit(any());
+    }
+}
@@ -0,0 +1,197 @@
+package com.bancobr.service;
+
+import com.bancobr.model.Conta;
+import com.bancobr.repository.ContaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para SaldoFracionadoService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class SaldoFracionadoServiceTest {
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @InjectMocks
+    private SaldoFracionadoService saldoFracionadoService;
+
+    private UUID contaQuenteId;
+    private Conta contaQuente;
+
+    @BeforeEach
+    void setUp() {
+        contaQuenteId = UUID.randomUUID();
+
+        contaQuente = new Conta();
+        contaQuente.setId(contaQuenteId);
+        contaQuente.setNumeroConta("777777");
+        contaQuente.setSaldo(BigDecimal.valueOf(100.00));
+        contaQuente.setLimiteCredito(BigDecimal.ZERO);
+        contaQuente.setQuente(true);
+        // Como na carga pelo Hibernate (AcessoColunaCentavos)
+        ReflectionTestUtils.invokeMethod(contaQuente, "setSaldoSlotsColuna", BigDecimal.valueOf(500.00));
+
+        when(contaRepository.findIdsContasQuentes()).thenReturn(List.of(contaQuenteId));
+        saldoFracionadoService.recarregarContasQuentes();
+    }
+
+    @Test
+    void creditar_ContaQuente_DeveCreditarUmSlot() {
+        // Arrange
+        BigDecimal valor = BigDecimal.valueOf(50.00);
+        when(contaRepository.creditarSlot(eq(contaQuenteId), anyInt(), eq(valor))).thenReturn(1);
+
+        // Act
+        saldoFracionadoService.creditar(contaQuenteId, valor, "Conta destino não encontrada");
+
+        // Assert
+        verify(contaRepository).creditarSlot(eq(contaQuenteId), intThat(slot -> slot >= 0 && slot < 16), eq(valor));
+        verify(contaRepository, never()).creditarSaldo(any(), any(), any());
+    }
+
+    @Test
+    void creditar_ContaQuenteSemSlot_DeveCreditarALinhaDaConta() {
+        // Arrange
+        BigDecimal valor = BigDecimal.valueOf(50.00);
+        when(contaRepository.creditarSlot(eq(contaQuenteId), anyInt(), eq(valor))).thenReturn(0);
+        when(contaRepository.creditarSaldo(eq(contaQuenteId), eq(valor), any(LocalDateTime.class))).thenReturn(1);
+
+        // Act
+        saldoFracionadoService.creditar(contaQuenteId, valor, "Conta destino não encontrada");
+
+        // Assert
+        verify(contaRepository).creditarSaldo(eq(contaQuenteId), eq(valor), any(LocalDateTime.class));
+    }
+
+    @Test
+    void creditar_ContaComumInexistente_DeveLancarExcecao() {
+        // Arrange
+        UUID contaId = UUID.randomUUID();
+        when(contaRepository.creditarSaldo(eq(contaId), any(), any(LocalDateTime.class))).thenReturn(0);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            saldoFracionadoService.creditar(contaId, BigDecimal.TEN, "Conta destino não encontrada");
+        });
+
+        assertEquals("Conta destino não encontrada", exception.getMessage());
+        verify(contaRepository, never()).creditarSlot(any(), anyInt(), any());
+    }
+
+    @Test
+    void getSaldo_ContaQuente_DeveSomarOsSlots() {
+        // Assert
+        assertEquals(0, BigDecimal.valueOf(600.00).compareTo(contaQuente.getSaldo()));
+        assertEquals(0, BigDecimal.valueOf(100.00).compareTo(contaQuente.getSaldoLinha()));
+        assertTrue(contaQuente.temSaldoSuficiente(BigDecimal.valueOf(300.00)));
+    }
+
+    @Test
+    void consolidarSeNecessario_ComLinhaInsuficiente_DeveIncorporarOsSlots() {
+        // Arrange
+        BigDecimal valor = BigDecimal.valueOf(300.00);
+        when(contaRepository.zerarSlots(contaQuenteId)).thenReturn(BigDecimal.valueOf(520.00));
+
+        // Act
+        saldoFracionadoService.consolidarSeNecessario(contaQuente, valor);
+        contaQuente.debitar(valor);
+
+        // Assert
+        assertEquals(0, BigDecimal.valueOf(320.00).compareTo(contaQuente.getSaldo()));
+        assertEquals(0, BigDecimal.valueOf(320.00).compareTo(contaQuente.getSaldoLinha()));
+    }
+
+    @Test
+    void consolidarSeNecessario_ComLinhaSuficiente_NaoDeveTocarOsSlots() {
+        // Act
+        saldoFracionadoService.consolidarSeNecessario(contaQuente, BigDecimal.valueOf(80.00));
+
+        // Assert
+        verify(contaRepository, never()).zerarSlots(any());
+    }
+
+    @Test
+    void consolidar_DeveBloquearALinhaAntesDosSlots() {
+        // Arrange
+        when(contaRepository.bloquearLinha(contaQuenteId)).thenReturn(Optional.of(contaQuenteId));
+        when(contaRepository.zerarSlots(contaQuenteId)).thenReturn(BigDecimal.valueOf(500.00));
+
+        // Act
+        BigDecimal movido = saldoFracionadoService.consolidar(contaQuenteId);
+
+        // Assert
+        assertEquals(0, BigDecimal.valueOf(500.00).compareTo(movido));
+        InOrder ordem = inOrder(contaRepository);
+        ordem.verify(contaRepository).bloquearLinha(contaQuenteId);
+        ordem.verify(contaRepository).zerarSlots(contaQuenteId);
+        ordem.verify(contaRepository).creditarSaldo(eq(contaQuenteId), eq(BigDecimal.valueOf(500.00)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void consolidar_ContaInexistente_NaoDeveTocarOsSlots() {
+        // Arrange
+        when(contaRepository.bloquearLinha(contaQuenteId)).thenReturn(Optional.empty());
+
+        // Act
+        BigDecimal movido = saldoFracionadoService.consolidar(contaQuenteId);
+
+        // Assert
+        assertEquals(0, movido.signum());
+        verify(contaRepository, never()).zerarSlots(any());
+    }
+
+    @Test
+    void isQuente_NaoDeveConsultarOBanco() {
+        // Act
+        boolean quente = saldoFracionadoService.isQuente(contaQuenteId);
+        boolean comum = saldoFracionadoService.isQuente(UUID.randomUUID());
+
+        // Assert
+        assertTrue(quente);
+        assertFalse(comum);
+        verify(contaRepository, times(1)).findIdsContasQuentes();
+    }
+
+    @Test
+    void debitar_ContaQuenteSemConsolidar_DeveLancarExcecao() {
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> contaQuente.debitar(BigDecimal.valueOf(300.00)));
+    }
+
+    @Test
+    void definirQuente_ComFalse_DeveDevolverSlotsParaALinha() {
+        // Arrange
+        when(contaRepository.findAllByIdForUpdate(List.of(contaQuenteId))).thenReturn(List.of(contaQuente));
+        when(contaRepository.removerSlots(contaQuenteId)).thenReturn(BigDecimal.valueOf(500.00));
+        when(contaRepository.save(contaQuente)).thenReturn(contaQuente);
+
+        // Act
+        Conta resultado = saldoFracionadoService.definirQuente(contaQuenteId, false);
+
+        // Assert
+        assertFalse(resultado.isQuente());
+        assertEquals(0, BigDecimal.valueOf(600.00).compareTo(resultado.getSaldoLinha()));
+        assertFalse(saldoFracionadoService.isQuente(contaQuenteId));
+    }
+}
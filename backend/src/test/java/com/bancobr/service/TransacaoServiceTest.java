@@ -1,6 +1,9 @@
 package com.bancobr.service;
 
+import com.bancobr.dto.ExtratoPagina;
+import com.bancobr.ledger.LedgerEngine;
 import com.bancobr.model.Conta;
+import com.bancobr.model.Dinheiro;
 import com.bancobr.model.Transacao;
 import com.bancobr.model.Usuario;
 import com.bancobr.repository.ContaRepository;
@@ -9,9 +12,12 @@ import com.bancobr.repository.UsuarioRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -19,6 +25,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -45,6 +52,12 @@ class TransacaoServiceTest {
     @Mock
     private LogService logService;
 
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @Mock
+    private SaldoFracionadoService saldoFracionadoService;
+
     @InjectMocks
     private TransacaoService transacaoService;
 
@@ -85,8 +98,8 @@ class TransacaoServiceTest {
         contaOrigem.setAgencia("001");
         contaOrigem.setNumeroConta("123456");
         contaOrigem.setTipo(Conta.TipoConta.CORRENTE);
-        contaOrigem.setSaldo(BigDecimal.valueOf(2000.00));
-        contaOrigem.setLimiteCredito(BigDecimal.valueOf(500.00));
+        contaOrigem.setSaldo(new BigDecimal("2000.00"));
+        contaOrigem.setLimiteCredito(new BigDecimal("500.00"));
 
         contaDestino = new Conta();
         contaDestino.setId(contaDestinoId);
@@ -94,15 +107,15 @@ class TransacaoServiceTest {
         contaDestino.setAgencia("002");
         contaDestino.setNumeroConta("654321");
         contaDestino.setTipo(Conta.TipoConta.CORRENTE);
-        contaDestino.setSaldo(BigDecimal.valueOf(1000.00));
-        contaDestino.setLimiteCredito(BigDecimal.valueOf(300.00));
+        contaDestino.setSaldo(new BigDecimal("1000.00"));
+        contaDestino.setLimiteCredito(new BigDecimal("300.00"));
 
         transacao = new Transacao();
         transacao.setId(transacaoId);
         transacao.setContaOrigem(contaOrigem);
         transacao.setContaDestino(contaDestino);
         transacao.setTipo(Transacao.TipoTransacao.TRANSFERENCIA);
-        transacao.setValor(BigDecimal.valueOf(500.00));
+        transacao.setValor(new BigDecimal("500.00"));
         transacao.setDescricao("Transferência teste");
         transacao.setRealizadaEm(LocalDateTime.now());
     }
@@ -110,7 +123,7 @@ class TransacaoServiceTest {
     @Test
     void realizarTransferencia_ComDadosValidos_DeveRealizarTransferencia() {
         // Arrange
-        BigDecimal valor = BigDecimal.valueOf(500.00);
+        BigDecimal valor = new BigDecimal("500.00");
         String descricao = "Transferência teste";
         
         when(contaRepository.findById(contaOrigemId)).thenReturn(Optional.of(contaOrigem));
@@ -132,8 +145,8 @@ class TransacaoServiceTest {
         assertNotNull(resultado.getRealizadaEm());
 
         // Verifica se os saldos foram atualizados
-        assertEquals(BigDecimal.valueOf(1500.00), contaOrigem.getSaldo()); // 2000 - 500
-        assertEquals(BigDecimal.valueOf(1500.00), contaDestino.getSaldo()); // 1000 + 500
+        assertEquals(new BigDecimal("1500.00"), contaOrigem.getSaldo()); // 2000 - 500
+        assertEquals(new BigDecimal("1500.00"), contaDestino.getSaldo()); // 1000 + 500
 
         verify(contaRepository).findById(contaOrigemId);
         verify(contaRepository).findById(contaDestinoId);
@@ -149,7 +162,7 @@ class TransacaoServiceTest {
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
-            () -> transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, BigDecimal.valueOf(500.00), "Teste"));
+            () -> transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, new BigDecimal("500.00"), "Teste"));
         
         assertEquals("Conta origem não encontrada", exception.getMessage());
         verify(contaRepository).findById(contaOrigemId);
@@ -165,7 +178,7 @@ class TransacaoServiceTest {
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
-            () -> transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, BigDecimal.valueOf(500.00), "Teste"));
+            () -> transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, new BigDecimal("500.00"), "Teste"));
         
         assertEquals("Conta destino não encontrada", exception.getMessage());
         verify(contaRepository).findById(contaOrigemId);
@@ -176,7 +189,7 @@ class TransacaoServiceTest {
     @Test
     void realizarTransferencia_ComSaldoInsuficiente_DeveLancarExcecao() {
         // Arrange
-        BigDecimal valor = BigDecimal.valueOf(3000.00); // Maior que o saldo
+        BigDecimal valor = new BigDecimal("3000.00"); // Maior que o saldo
         when(contaRepository.findById(contaOrigemId)).thenReturn(Optional.of(contaOrigem));
         when(contaRepository.findById(contaDestinoId)).thenReturn(Optional.of(contaDestino));
 
@@ -198,7 +211,7 @@ class TransacaoServiceTest {
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
-            () -> transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, BigDecimal.valueOf(500.00), "Teste"));
+            () -> transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, new BigDecimal("500.00"), "Teste"));
         
         assertEquals("Não é possível transferir para a mesma conta", exception.getMessage());
         verify(contaRepository).findById(contaOrigemId);
@@ -206,10 +219,173 @@ class TransacaoServiceTest {
         verify(transacaoRepository, never()).save(any(Transacao.class));
     }
 
+    @Test
+    void realizarTransferencia_ComLockPessimista_DeveBloquearAsDuasContasEmUmaConsulta() {
+        // Arrange
+        ReflectionTestUtils.setField(transacaoService, "modoConcorrencia", TransacaoService.ModoConcorrencia.PESSIMISTA);
+        when(contaRepository.findAllByIdForUpdate(anyCollection())).thenReturn(Arrays.asList(contaOrigem, contaDestino));
+        when(transacaoRepository.save(any(Transacao.class))).thenReturn(transacao);
+
+        // Act
+        transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, new BigDecimal("100.00"), "Teste");
+
+        // Assert - lock_timeout definido antes do FOR UPDATE, que traz as duas contas de uma vez
+        InOrder ordem = inOrder(contaRepository);
+        ordem.verify(contaRepository).definirLockTimeout("2000ms");
+        ordem.verify(contaRepository).findAllByIdForUpdate(argThat(ids -> ids.containsAll(Arrays.asList(contaOrigemId, contaDestinoId))));
+        verify(contaRepository, never()).findById(any(UUID.class));
+        assertEquals(0, new BigDecimal("1900.00").compareTo(contaOrigem.getSaldo()));
+        assertEquals(0, new BigDecimal("1100.00").compareTo(contaDestino.getSaldo()));
+    }
+
+    @Test
+    void realizarTransferencia_ComLockNowaitOcupado_DeveLancarExcecao() {
+        // Arrange
+        ReflectionTestUtils.setField(transacaoService, "modoConcorrencia", TransacaoService.ModoConcorrencia.NOWAIT);
+        when(contaRepository.findAllByIdForUpdateNowait(anyCollection()))
+                .thenThrow(new CannotAcquireLockException("could not obtain lock"));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, new BigDecimal("100.00"), "Teste"));
+
+        assertEquals("Conta em uso por outra operação, tente novamente", exception.getMessage());
+        verify(contaRepository, never()).definirLockTimeout(anyString());
+        verify(transacaoRepository, never()).save(any(Transacao.class));
+    }
+
+    @Test
+    void realizarTransferencia_ComUpdateCondicional_NaoDeveCarregarContas() {
+        // Arrange
+        ReflectionTestUtils.setField(transacaoService, "modoConcorrencia", TransacaoService.ModoConcorrencia.ATOMICO);
+        BigDecimal valor = new BigDecimal("500.00");
+        when(contaRepository.debitarSeSaldoSuficiente(eq(contaOrigemId), eq(valor), any(LocalDateTime.class))).thenReturn(1);
+        when(contaRepository.creditarSaldo(eq(contaDestinoId), eq(valor), any(LocalDateTime.class))).thenReturn(1);
+        when(contaRepository.getReferenceById(contaOrigemId)).thenReturn(contaOrigem);
+        when(contaRepository.getReferenceById(contaDestinoId)).thenReturn(contaDestino);
+        when(transacaoRepository.save(any(Transacao.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Transacao resultado = transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, valor, "Teste");
+
+        // Assert
+        assertEquals(Transacao.TipoTransacao.TRANSFERENCIA, resultado.getTipo());
+        assertEquals(contaOrigem, resultado.getContaOrigem());
+        assertEquals(contaDestino, resultado.getContaDestino());
+        verify(contaRepository, never()).findById(any(UUID.class));
+        verify(contaRepository, never()).save(any(Conta.class));
+        verify(contaRepository, never()).existsById(any(UUID.class));
+    }
+
+    @Test
+    void realizarTransferencia_DeveRegistrarSaldosAposDasContas() {
+        // Arrange
+        BigDecimal valor = new BigDecimal("500.00");
+        when(contaRepository.findById(contaOrigemId)).thenReturn(Optional.of(contaOrigem));
+        when(contaRepository.findById(contaDestinoId)).thenReturn(Optional.of(contaDestino));
+        when(transacaoRepository.save(any(Transacao.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Transacao resultado = transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, valor, "Teste");
+
+        // Assert
+        assertEquals(new BigDecimal("1500.00"), resultado.getSaldoOrigemApos());
+        assertEquals(new BigDecimal("1500.00"), resultado.getSaldoDestinoApos());
+    }
+
+    @Test
+    void realizarTransferencia_ComUpdateCondicional_DeveRegistrarSaldosAposLidosDoBanco() {
+        // Arrange
+        ReflectionTestUtils.setField(transacaoService, "modoConcorrencia", TransacaoService.ModoConcorrencia.ATOMICO);
+        BigDecimal valor = new BigDecimal("500.00");
+        when(contaRepository.debitarSeSaldoSuficiente(eq(contaOrigemId), eq(valor), any(LocalDateTime.class))).thenReturn(1);
+        when(contaRepository.findSaldoLinhaById(contaOrigemId)).thenReturn(Optional.of(new BigDecimal("1500.00")));
+        when(saldoFracionadoService.isQuente(contaDestinoId)).thenReturn(true);
+        when(transacaoRepository.save(any(Transacao.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Transacao resultado = transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, valor, "Teste");
+
+        // Assert
+        assertEquals(new BigDecimal("1500.00"), resultado.getSaldoOrigemApos());
+        assertNull(resultado.getSaldoDestinoApos());
+        verify(contaRepository, never()).findSaldoLinhaById(contaDestinoId);
+    }
+
+    @Test
+    void realizarTransferencia_ComUpdateCondicionalSemSaldo_DeveLancarExcecao() {
+        // Arrange
+        ReflectionTestUtils.setField(transacaoService, "modoConcorrencia", TransacaoService.ModoConcorrencia.ATOMICO);
+        BigDecimal valor = new BigDecimal("3000.00");
+        lenient().when(contaRepository.creditarSaldo(eq(contaDestinoId), eq(valor), any(LocalDateTime.class))).thenReturn(1);
+        when(contaRepository.debitarSeSaldoSuficiente(eq(contaOrigemId), eq(valor), any(LocalDateTime.class))).thenReturn(0);
+        when(contaRepository.existsById(contaOrigemId)).thenReturn(true);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, valor, "Teste"));
+
+        assertEquals("Saldo insuficiente na conta origem", exception.getMessage());
+        verify(transacaoRepository, never()).save(any(Transacao.class));
+    }
+
+    @Test
+    void realizarSaque_ComUpdateCondicionalContaInexistente_DeveLancarExcecao() {
+        // Arrange
+        ReflectionTestUtils.setField(transacaoService, "modoConcorrencia", TransacaoService.ModoConcorrencia.ATOMICO);
+        BigDecimal valor = new BigDecimal("100.00");
+        when(contaRepository.debitarSeSaldoSuficiente(eq(contaOrigemId), eq(valor), any(LocalDateTime.class))).thenReturn(0);
+        when(contaRepository.existsById(contaOrigemId)).thenReturn(false);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> transacaoService.realizarSaque(contaOrigemId, valor, "Teste"));
+
+        assertEquals("Conta origem não encontrada", exception.getMessage());
+        verify(transacaoRepository, never()).save(any(Transacao.class));
+    }
+
+    @Test
+    void realizarTransferencia_ComLedger_DeveDelegarSemAcessarContas() {
+        // Arrange
+        ReflectionTestUtils.setField(transacaoService, "modoConcorrencia", TransacaoService.ModoConcorrencia.LEDGER);
+        BigDecimal valor = new BigDecimal("100.00");
+        CompletableFuture<Transacao> futuro = CompletableFuture.completedFuture(transacao);
+        when(ledgerEngine.transferir(contaOrigemId, contaDestinoId, Dinheiro.de(valor), "Teste")).thenReturn(futuro);
+        when(ledgerEngine.aguardar(futuro)).thenReturn(transacao);
+
+        // Act
+        Transacao resultado = transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, valor, "Teste");
+
+        // Assert
+        assertEquals(transacao, resultado);
+        verifyNoInteractions(contaRepository, transacaoRepository);
+    }
+
+    @Test
+    void realizarTransferencia_ParaContaQuente_DeveBloquearApenasAOrigem() {
+        // Arrange
+        ReflectionTestUtils.setField(transacaoService, "modoConcorrencia", TransacaoService.ModoConcorrencia.PESSIMISTA);
+        BigDecimal valor = new BigDecimal("100.00");
+        when(saldoFracionadoService.isQuente(contaDestinoId)).thenReturn(true);
+        when(contaRepository.findAllByIdForUpdate(List.of(contaOrigemId))).thenReturn(List.of(contaOrigem));
+        when(contaRepository.getReferenceById(contaDestinoId)).thenReturn(contaDestino);
+        when(transacaoRepository.save(any(Transacao.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        transacaoService.realizarTransferencia(contaOrigemId, contaDestinoId, valor, "Teste");
+
+        // Assert
+        assertEquals(new BigDecimal("1900.00"), contaOrigem.getSaldo());
+        assertEquals(new BigDecimal("1000.00"), contaDestino.getSaldo());
+        verify(saldoFracionadoService).creditar(contaDestinoId, valor, "Conta destino não encontrada");
+        verify(contaRepository, never()).save(contaDestino);
+    }
+
     @Test
     void realizarDeposito_ComDadosValidos_DeveRealizarDeposito() {
         // Arrange
-        BigDecimal valor = BigDecimal.valueOf(500.00);
+        BigDecimal valor = new BigDecimal("500.00");
         String descricao = "Depósito teste";
         
         Transacao transacaoDeposito = new Transacao();
@@ -240,7 +416,7 @@ class TransacaoServiceTest {
         assertNotNull(resultado.getRealizadaEm());
 
         // Verifica se o saldo foi atualizado
-        assertEquals(BigDecimal.valueOf(1500.00), contaDestino.getSaldo()); // 1000 + 500
+        assertEquals(new BigDecimal("1500.00"), contaDestino.getSaldo()); // 1000 + 500
 
         verify(contaRepository).findById(contaDestinoId);
         verify(transacaoRepository).save(any(Transacao.class));
@@ -251,7 +427,7 @@ class TransacaoServiceTest {
     @Test
     void realizarDeposito_ComValorInvalido_DeveLancarExcecao() {
         // Arrange
-        BigDecimal valor = BigDecimal.valueOf(-100.00); // Valor negativo
+        BigDecimal valor = new BigDecimal("-100.00"); // Valor negativo
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
@@ -265,7 +441,7 @@ class TransacaoServiceTest {
     @Test
     void realizarSaque_ComSaldoSuficiente_DeveRealizarSaque() {
         // Arrange
-        BigDecimal valor = BigDecimal.valueOf(500.00);
+        BigDecimal valor = new BigDecimal("500.00");
         String descricao = "Saque teste";
         
         Transacao transacaoSaque = new Transacao();
@@ -296,7 +472,7 @@ class TransacaoServiceTest {
         assertNotNull(resultado.getRealizadaEm());
 
         // Verifica se o saldo foi atualizado
-        assertEquals(BigDecimal.valueOf(1500.00), contaOrigem.getSaldo()); // 2000 - 500
+        assertEquals(new BigDecimal("1500.00"), contaOrigem.getSaldo()); // 2000 - 500
 
         verify(contaRepository).findById(contaOrigemId);
         verify(transacaoRepository).save(any(Transacao.class));
@@ -307,7 +483,7 @@ class TransacaoServiceTest {
     @Test
     void realizarSaque_ComSaldoInsuficiente_DeveLancarExcecao() {
         // Arrange
-        BigDecimal valor = BigDecimal.valueOf(3000.00); // Maior que o saldo
+        BigDecimal valor = new BigDecimal("3000.00"); // Maior que o saldo
         when(contaRepository.findById(contaOrigemId)).thenReturn(Optional.of(contaOrigem));
 
         // Act & Assert
@@ -382,8 +558,7 @@ class TransacaoServiceTest {
     void listarPorTipo_ComTipoValido_DeveRetornarLista() {
         // Arrange
         List<Transacao> transacoes = Arrays.asList(transacao);
-        when(transacaoRepository.findByTipoAndRealizadaEmBetween(Transacao.TipoTransacao.TRANSFERENCIA, null, null))
-                .thenReturn(transacoes);
+        when(transacaoRepository.findByTipo(Transacao.TipoTransacao.TRANSFERENCIA)).thenReturn(transacoes);
 
         // Act
         List<Transacao> resultado = transacaoService.listarPorTipo(Transacao.TipoTransacao.TRANSFERENCIA);
@@ -392,7 +567,36 @@ class TransacaoServiceTest {
         assertNotNull(resultado);
         assertEquals(1, resultado.size());
         assertEquals(transacao, resultado.get(0));
-        verify(transacaoRepository).findByTipoAndRealizadaEmBetween(Transacao.TipoTransacao.TRANSFERENCIA, null, null);
+        verify(transacaoRepository).findByTipo(Transacao.TipoTransacao.TRANSFERENCIA);
+    }
+
+    @Test
+    void obterExtratoPorPeriodo_ComPeriodoValido_DeveConsultarApenasOIntervalo() {
+        // Arrange
+        LocalDateTime inicio = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime fim = LocalDateTime.of(2024, 3, 31, 23, 59, 59);
+        when(transacaoRepository.findExtratoPorPeriodo(contaOrigemId, inicio, fim)).thenReturn(Arrays.asList(transacao));
+
+        // Act
+        List<Transacao> resultado = transacaoService.obterExtratoPorPeriodo(contaOrigemId, inicio, fim);
+
+        // Assert
+        assertEquals(1, resultado.size());
+        verify(transacaoRepository).findExtratoPorPeriodo(contaOrigemId, inicio, fim);
+        verify(transacaoRepository, never()).findByContaIdAndTipo(any(), any());
+    }
+
+    @Test
+    void obterExtratoPorPeriodo_ComInicioAposFim_DeveLancarExcecao() {
+        // Arrange
+        LocalDateTime inicio = LocalDateTime.of(2024, 4, 1, 0, 0);
+        LocalDateTime fim = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> transacaoService.obterExtratoPorPeriodo(contaOrigemId, inicio, fim));
+        assertEquals("Data inicial deve ser anterior à data final", exception.getMessage());
+        verify(transacaoRepository, never()).findExtratoPorPeriodo(any(), any(), any());
     }
 
     @Test
@@ -411,6 +615,102 @@ class TransacaoServiceTest {
         verify(transacaoRepository).findUltimasTransacoesByContaId(contaOrigemId);
     }
 
+    @Test
+    void obterExtratoPaginado_ComMaisItensQueOTamanho_DeveRetornarCursorDaUltimaTransacao() {
+        // Arrange
+        LocalDateTime agora = LocalDateTime.of(2024, 5, 10, 14, 30, 15, 123456000);
+        List<Transacao> transacoes = Arrays.asList(
+                transacaoEm(agora), transacaoEm(agora.minusMinutes(1)), transacaoEm(agora.minusMinutes(2)));
+        when(transacaoRepository.findExtratoPrimeiraPagina(contaOrigemId, 3)).thenReturn(transacoes);
+        when(transacaoRepository.findExtratoAposCursor(eq(contaOrigemId), any(), any(), eq(3)))
+                .thenReturn(List.of(transacoes.get(2)));
+
+        // Act
+        ExtratoPagina primeira = transacaoService.obterExtratoPaginado(contaOrigemId, null, 2);
+        ExtratoPagina segunda = transacaoService.obterExtratoPaginado(contaOrigemId, primeira.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(2, primeira.getTransacoes().size());
+        assertNotNull(primeira.getNextCursor());
+        assertEquals(1, segunda.getTransacoes().size());
+        assertNull(segunda.getNextCursor());
+        verify(transacaoRepository).findExtratoAposCursor(contaOrigemId, agora.minusMinutes(1), transacoes.get(1).getId(), 3);
+    }
+
+    @Test
+    void obterExtratoPaginado_ComTamanhoAcimaDoMaximo_DeveLimitar() {
+        // Arrange
+        when(transacaoRepository.findExtratoPrimeiraPagina(contaOrigemId, 201)).thenReturn(List.of(transacao));
+
+        // Act
+        ExtratoPagina resultado = transacaoService.obterExtratoPaginado(contaOrigemId, "", 10_000);
+
+        // Assert
+        assertEquals(1, resultado.getTransacoes().size());
+        assertNull(resultado.getNextCursor());
+        verify(transacaoRepository).findExtratoPrimeiraPagina(contaOrigemId, 201);
+    }
+
+    @Test
+    void buscarPorTexto_SemContaNemCursor_DeveBuscarAteOFimDoPeriodo() {
+        // Arrange
+        LocalDateTime inicio = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime fim = LocalDateTime.of(2024, 3, 31, 23, 59, 59);
+        LocalDateTime agora = LocalDateTime.of(2024, 3, 20, 10, 0);
+        List<Transacao> transacoes = Arrays.asList(transacaoEm(agora), transacaoEm(agora.minusDays(1)));
+        when(transacaoRepository.buscarPorTexto("aluguel", inicio, fim.plusNanos(1000), new UUID(0, 0), 2))
+                .thenReturn(transacoes);
+
+        // Act
+        ExtratoPagina resultado = transacaoService.buscarPorTexto("aluguel", null, inicio, fim, null, 1);
+
+        // Assert
+        assertEquals(1, resultado.getTransacoes().size());
+        assertNotNull(resultado.getNextCursor());
+        verify(transacaoRepository, never()).buscarPorTextoNaConta(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void buscarPorTexto_ComContaECursor_DeveContinuarAposOCursor() {
+        // Arrange
+        LocalDateTime agora = LocalDateTime.of(2024, 3, 20, 10, 0);
+        Transacao primeira = transacaoEm(agora);
+        Transacao segunda = transacaoEm(agora.minusDays(1));
+        when(transacaoRepository.buscarPorTextoNaConta(eq("\"conta de luz\""), eq(contaOrigemId), any(), any(), any(), eq(2)))
+                .thenReturn(Arrays.asList(primeira, segunda))
+                .thenReturn(List.of(segunda));
+
+        // Act
+        ExtratoPagina pagina = transacaoService.buscarPorTexto("\"conta de luz\"", contaOrigemId, null, null, null, 1);
+        ExtratoPagina seguinte = transacaoService.buscarPorTexto("\"conta de luz\"", contaOrigemId, null, null,
+                pagina.getNextCursor(), 1);
+
+        // Assert
+        assertEquals(primeira.getId(), pagina.getTransacoes().get(0).getId());
+        assertEquals(segunda.getId(), seguinte.getTransacoes().get(0).getId());
+        assertNull(seguinte.getNextCursor());
+        verify(transacaoRepository).buscarPorTextoNaConta(eq("\"conta de luz\""), eq(contaOrigemId), any(),
+                eq(agora), eq(primeira.getId()), eq(2));
+    }
+
+    @Test
+    void buscarPorTexto_SemTermo_DeveLancarExcecao() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> transacaoService.buscarPorTexto("  ", null, null, null, null, null));
+        assertEquals("Termo de busca é obrigatório", exception.getMessage());
+        verifyNoInteractions(transacaoRepository);
+    }
+
+    @Test
+    void obterExtratoPaginado_ComCursorInvalido_DeveLancarExcecao() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> transacaoService.obterExtratoPaginado(contaOrigemId, "nao-e-um-cursor", null));
+        assertEquals("Cursor de extrato inválido", exception.getMessage());
+        verifyNoInteractions(transacaoRepository);
+    }
+
     @Test
     void contarPorTipo_ComTipoValido_DeveRetornarQuantidade() {
         // Arrange
@@ -452,4 +752,12 @@ class TransacaoServiceTest {
         assertEquals(transacao, resultado.get());
         verify(transacaoRepository).findByIdWithContas(transacaoId);
     }
-} 
\ No newline at end of file
+
+    private Transacao transacaoEm(LocalDateTime realizadaEm) {
+        Transacao item = new Transacao(contaOrigem, contaDestino, Transacao.TipoTransacao.TRANSFERENCIA,
+                BigDecimal.TEN, "Extrato");
+        item.setId(UUID.randomUUID());
+        item.setRealizadaEm(realizadaEm);
+        return item;
+    }
+}
@@ -0,0 +1,291 @@
+package com.bancobr.service;
+
+import com.bancobr.dto.StatusTransferencia;
+import com.bancobr.ledger.LedgerEngine;
+import com.bancobr.model.Transacao;
+import com.bancobr.model.TransferenciaPendente;
+import com.bancobr.repository.TransferenciaPendenteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para TransferenciaAssincronaService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class TransferenciaAssincronaServiceTest {
+
+    private static final String USUARIO = "cliente@email.com";
+
+    @Mock
+    private TransacaoService transacaoService;
+
+    @Mock
+    private TransferenciaPendenteRepository transferenciaPendenteRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private TransferenciaAssincronaService transferenciaAssincronaService;
+
+    @BeforeEach
+    void setUp() {
+        // Sem workers: os testes executam as pendentes com processarProxima()
+        ReflectionTestUtils.setField(transferenciaAssincronaService, "quantidadeWorkers", 0);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        transferenciaAssincronaService.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        transferenciaAssincronaService.encerrar();
+    }
+
+    @Test
+    void submeter_ComFilaLivre_DeveGravarPendenteERetornarId() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(transferenciaPendenteRepository.save(any(TransferenciaPendente.class))).thenAnswer(invocation -> {
+            TransferenciaPendente transferencia = invocation.getArgument(0);
+            transferencia.setId(id);
+            return transferencia;
+        });
+
+        // Act
+        StatusTransferencia status = transferenciaAssincronaService.submeter(USUARIO, "111111", "222222",
+                BigDecimal.valueOf(50.00), "Aluguel").orElseThrow();
+
+        // Assert
+        assertEquals(id, status.getId());
+        assertEquals(TransferenciaPendente.Estado.PENDENTE, status.getEstado());
+        ArgumentCaptor<TransferenciaPendente> gravada = ArgumentCaptor.forClass(TransferenciaPendente.class);
+        verify(transferenciaPendenteRepository).save(gravada.capture());
+        assertEquals(USUARIO, gravada.getValue().getUsuario());
+        assertEquals("Aluguel", gravada.getValue().getDescricao());
+    }
+
+    @Test
+    void submeter_ComFilaCheia_DeveRecusar() {
+        // Arrange
+        ReflectionTestUtils.setField(transferenciaAssincronaService, "capacidadeFila", 2);
+        when(transferenciaPendenteRepository.save(any(TransferenciaPendente.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        transferenciaAssincronaService.submeter(USUARIO, "111111", "222222", BigDecimal.TEN, null);
+        transferenciaAssincronaService.submeter(USUARIO, "111111", "222222", BigDecimal.TEN, null);
+
+        // Act
+        Optional<StatusTransferencia> recusada = transferenciaAssincronaService.submeter(USUARIO, "111111", "222222",
+                BigDecimal.TEN, null);
+
+        // Assert
+        assertTrue(recusada.isEmpty());
+        verify(transferenciaPendenteRepository, times(2)).save(any());
+        verify(transferenciaPendenteRepository, never()).countByEstado(any());
+        assertEquals(1.0, meterRegistry.get("bancobr.transferencias.assincronas").tag("resultado", "rejeitada").counter().count());
+    }
+
+    @Test
+    void submeter_AposManutencao_DeveUsarAContagemDaTabela() {
+        // Arrange
+        ReflectionTestUtils.setField(transferenciaAssincronaService, "capacidadeFila", 2);
+        when(transferenciaPendenteRepository.countByEstado(TransferenciaPendente.Estado.PENDENTE)).thenReturn(2L);
+        transferenciaAssincronaService.manter();
+
+        // Act
+        Optional<StatusTransferencia> recusada = transferenciaAssincronaService.submeter(USUARIO, "111111", "222222",
+                BigDecimal.TEN, null);
+
+        // Assert
+        assertTrue(recusada.isEmpty());
+        assertEquals(2.0, meterRegistry.get("bancobr.transferencias.assincronas.fila").gauge().value());
+    }
+
+    @Test
+    void processarProxima_ComTransferenciaValida_DeveConcluirComIdDaTransacao() {
+        // Arrange
+        TransferenciaPendente pendente = pendente("Aluguel");
+        Transacao transacao = new Transacao();
+        transacao.setId(UUID.randomUUID());
+        ArgumentCaptor<UUID> reserva = ArgumentCaptor.forClass(UUID.class);
+        when(transferenciaPendenteRepository.reservarProxima(reserva.capture(), any(LocalDateTime.class))).thenReturn(1);
+        when(transferenciaPendenteRepository.findByReserva(any(UUID.class))).thenReturn(Optional.of(pendente));
+        when(transacaoService.realizarTransferenciaPorNumero("111111", "222222", BigDecimal.valueOf(50.00), "Aluguel"))
+                .thenReturn(transacao);
+        when(transferenciaPendenteRepository.concluir(eq(pendente.getId()), any(UUID.class), eq(transacao.getId()),
+                any(LocalDateTime.class))).thenReturn(1);
+
+        // Act
+        boolean executou = transferenciaAssincronaService.processarProxima();
+
+        // Assert
+        assertTrue(executou);
+        verify(transferenciaPendenteRepository).concluir(eq(pendente.getId()), eq(reserva.getValue()), eq(transacao.getId()),
+                any(LocalDateTime.class));
+        verify(transferenciaPendenteRepository, never()).falhar(any(), any(), any(), any());
+        assertEquals(1.0, meterRegistry.get("bancobr.transferencias.assincronas").tag("resultado", "concluida").counter().count());
+    }
+
+    @Test
+    void processarProxima_ComFalhaNaTransferencia_DeveRegistrarErro() {
+        // Arrange
+        TransferenciaPendente pendente = pendente(null);
+        when(transferenciaPendenteRepository.reservarProxima(any(UUID.class), any(LocalDateTime.class))).thenReturn(1);
+        when(transferenciaPendenteRepository.findByReserva(any(UUID.class))).thenReturn(Optional.of(pendente));
+        when(transacaoService.realizarTransferenciaPorNumero(anyString(), anyString(), any(BigDecimal.class), any()))
+                .thenThrow(new RuntimeException("Saldo insuficiente na conta origem"));
+
+        // Act
+        transferenciaAssincronaService.processarProxima();
+
+        // Assert
+        verify(transferenciaPendenteRepository).falhar(eq(pendente.getId()), any(UUID.class),
+                eq("Saldo insuficiente na conta origem"), any(LocalDateTime.class));
+        verify(transferenciaPendenteRepository, never()).concluir(any(), any(), any(), any());
+    }
+
+    @Test
+    void processarProxima_ComReservaExpirada_DeveDesfazerAExecucao() {
+        // Arrange
+        TransferenciaPendente pendente = pendente(null);
+        Transacao transacao = new Transacao();
+        transacao.setId(UUID.randomUUID());
+        when(transferenciaPendenteRepository.reservarProxima(any(UUID.class), any(LocalDateTime.class))).thenReturn(1);
+        when(transferenciaPendenteRepository.findByReserva(any(UUID.class))).thenReturn(Optional.of(pendente));
+        when(transacaoService.realizarTransferenciaPorNumero(anyString(), anyString(), any(BigDecimal.class), any()))
+                .thenReturn(transacao);
+        when(transferenciaPendenteRepository.concluir(any(), any(), any(), any())).thenReturn(0);
+
+        // Act
+        transferenciaAssincronaService.processarProxima();
+
+        // Assert
+        verify(transactionManager).rollback(any());
+        verify(transferenciaPendenteRepository).falhar(eq(pendente.getId()), any(UUID.class),
+                eq("Reserva da transferência expirada"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void processarProxima_NoModoLedgerComReservaExpirada_DeveRegistrarConclusao() {
+        // Arrange
+        ReflectionTestUtils.setField(transferenciaAssincronaService, "ledgerEngine", mock(LedgerEngine.class));
+        TransferenciaPendente pendente = pendente(null);
+        Transacao transacao = new Transacao();
+        transacao.setId(UUID.randomUUID());
+        when(transferenciaPendenteRepository.reservarProxima(any(UUID.class), any(LocalDateTime.class))).thenReturn(1);
+        when(transferenciaPendenteRepository.findByReserva(any(UUID.class))).thenReturn(Optional.of(pendente));
+        when(transacaoService.realizarTransferenciaPorNumero(anyString(), anyString(), any(BigDecimal.class), any()))
+                .thenReturn(transacao);
+
+        // Act
+        transferenciaAssincronaService.processarProxima();
+
+        // Assert
+        verify(transferenciaPendenteRepository).registrarConclusao(eq(pendente.getId()), eq(transacao.getId()),
+                any(LocalDateTime.class));
+        verify(transferenciaPendenteRepository, never()).concluir(any(), any(), any(), any());
+        verify(transferenciaPendenteRepository, never()).falhar(any(), any(), any(), any());
+        assertEquals(1.0, meterRegistry.get("bancobr.transferencias.assincronas").tag("resultado", "concluida").counter().count());
+    }
+
+    @Test
+    void processarProxima_NoModoLedgerComFalhaAoRegistrar_NaoDeveRecusar() {
+        // Arrange
+        ReflectionTestUtils.setField(transferenciaAssincronaService, "ledgerEngine", mock(LedgerEngine.class));
+        TransferenciaPendente pendente = pendente(null);
+        Transacao transacao = new Transacao();
+        transacao.setId(UUID.randomUUID());
+        when(transferenciaPendenteRepository.reservarProxima(any(UUID.class), any(LocalDateTime.class))).thenReturn(1);
+        when(transferenciaPendenteRepository.findByReserva(any(UUID.class))).thenReturn(Optional.of(pendente));
+        when(transacaoService.realizarTransferenciaPorNumero(anyString(), anyString(), any(BigDecimal.class), any()))
+                .thenReturn(transacao);
+        when(transferenciaPendenteRepository.registrarConclusao(any(), any(), any()))
+                .thenThrow(new RuntimeException("conexão encerrada"));
+
+        // Act
+        transferenciaAssincronaService.processarProxima();
+
+        // Assert
+        verify(transferenciaPendenteRepository, never()).falhar(any(), any(), any(), any());
+        assertEquals(0.0, meterRegistry.get("bancobr.transferencias.assincronas").tag("resultado", "falhou").counter().count());
+    }
+
+    @Test
+    void processarProxima_SemPendentes_DeveRetornarFalse() {
+        // Arrange
+        when(transferenciaPendenteRepository.reservarProxima(any(UUID.class), any(LocalDateTime.class))).thenReturn(0);
+
+        // Act & Assert
+        assertFalse(transferenciaAssincronaService.processarProxima());
+        verifyNoInteractions(transacaoService);
+    }
+
+    @Test
+    void buscarStatus_DeOutroUsuario_DeveRetornarVazio() {
+        // Arrange
+        TransferenciaPendente pendente = pendente(null);
+        when(transferenciaPendenteRepository.findById(pendente.getId())).thenReturn(Optional.of(pendente));
+
+        // Act & Assert
+        assertTrue(transferenciaAssincronaService.buscarStatus(pendente.getId(), USUARIO).isPresent());
+        assertTrue(transferenciaAssincronaService.buscarStatus(pendente.getId(), "outro@email.com").isEmpty());
+    }
+
+    @Test
+    void manter_DeveDevolverReservasExpiradasAFila() {
+        // Act
+        transferenciaAssincronaService.manter();
+
+        // Assert
+        verify(transferenciaPendenteRepository).liberarReservasExpiradas(any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(transferenciaPendenteRepository, never()).encerrarReservasExpiradas(any(), any(), any());
+        verify(transferenciaPendenteRepository).removerFinalizadasAntesDe(any(LocalDateTime.class));
+    }
+
+    @Test
+    void manter_NoModoLedger_DeveRecusarReservasExpiradasSemReexecutar() {
+        // Arrange
+        ReflectionTestUtils.setField(transferenciaAssincronaService, "ledgerEngine", mock(LedgerEngine.class));
+
+        // Act
+        transferenciaAssincronaService.manter();
+
+        // Assert
+        verify(transferenciaPendenteRepository).encerrarReservasExpiradas(any(LocalDateTime.class),
+                eq(TransferenciaAssincronaService.ERRO_INTERROMPIDA), any(LocalDateTime.class));
+        verify(transferenciaPendenteRepository, never()).liberarReservasExpiradas(any(), any());
+    }
+
+    private static TransferenciaPendente pendente(String descricao) {
+        TransferenciaPendente pendente = new TransferenciaPendente(USUARIO, "111111", "222222",
+                BigDecimal.valueOf(50.00), descricao);
+        pendente.setId(UUID.randomUUID());
+        pendente.setEstado(TransferenciaPendente.Estado.PROCESSANDO);
+        return pendente;
+    }
+}
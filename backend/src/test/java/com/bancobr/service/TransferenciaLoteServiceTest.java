@@ -0,0 +1,291 @@
+package com.bancobr.service;
+
+import com.bancobr.dto.TransacaoRequest;
+import com.bancobr.dto.TransferenciaLoteResultado;
+import com.bancobr.model.Conta;
+import com.bancobr.repository.ContaRepository;
+import com.bancobr.repository.TransacaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para TransferenciaLoteService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class TransferenciaLoteServiceTest {
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SaldoFracionadoService saldoFracionadoService;
+
+    @InjectMocks
+    private TransferenciaLoteService transferenciaLoteService;
+
+    private Conta contaA;
+    private Conta contaB;
+
+    @BeforeEach
+    void setUp() {
+        contaA = novaConta("111111", BigDecimal.valueOf(1000.00));
+        contaB = novaConta("222222", BigDecimal.valueOf(100.00));
+
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(contaRepository.findByNumeroContaIn(anyCollection())).thenReturn(Arrays.asList(
+                identificacao(contaA), identificacao(contaB)));
+        lenient().when(contaRepository.findAllByIdForUpdate(anyCollection())).thenReturn(Arrays.asList(contaA, contaB));
+    }
+
+    @Test
+    void realizarTransferencias_ComItensValidosEInvalidos_DeveRetornarResultadoPorItem() {
+        // Arrange
+        List<TransacaoRequest> itens = Arrays.asList(
+                new TransacaoRequest("111111", "222222", BigDecimal.valueOf(300.00), "Item 1"),
+                new TransacaoRequest("111111", "999999", BigDecimal.valueOf(10.00), "Conta inexistente"),
+                new TransacaoRequest("222222", "222222", BigDecimal.valueOf(10.00), "Mesma conta"),
+                new TransacaoRequest("222222", "111111", BigDecimal.valueOf(50.00), "Item 4")
+        );
+
+        // Act
+        List<TransferenciaLoteResultado> resultados = transferenciaLoteService.realizarTransferencias(itens);
+
+        // Assert
+        assertEquals(4, resultados.size());
+        assertEquals(TransferenciaLoteResultado.Status.SUCESSO, resultados.get(0).getStatus());
+        assertEquals(TransferenciaLoteResultado.Status.ERRO, resultados.get(1).getStatus());
+        assertEquals(TransferenciaLoteResultado.Status.ERRO, resultados.get(2).getStatus());
+        assertEquals(TransferenciaLoteResultado.Status.SUCESSO, resultados.get(3).getStatus());
+        assertEquals(0, BigDecimal.valueOf(750.00).compareTo(contaA.getSaldo()));
+        assertEquals(0, BigDecimal.valueOf(350.00).compareTo(contaB.getSaldo()));
+
+        // Uma consulta resolve todas as contas e um bloco bloqueia todas de uma vez
+        verify(contaRepository, times(1)).findByNumeroContaIn(anyCollection());
+        verify(contaRepository, times(1)).findAllByIdForUpdate(anyCollection());
+        verify(transacaoRepository, times(1)).saveAll(anyIterable());
+    }
+
+    @Test
+    void realizarTransferencias_ComSaldoInsuficiente_DeveRecusarApenasOItem() {
+        // Arrange
+        List<TransacaoRequest> itens = Arrays.asList(
+                new TransacaoRequest("222222", "111111", BigDecimal.valueOf(500.00), "Sem saldo"),
+                new TransacaoRequest("111111", "222222", BigDecimal.valueOf(100.00), "Com saldo")
+        );
+
+        // Act
+        List<TransferenciaLoteResultado> resultados = transferenciaLoteService.realizarTransferencias(itens);
+
+        // Assert
+        assertEquals(TransferenciaLoteResultado.Status.ERRO, resultados.get(0).getStatus());
+        assertEquals("Saldo insuficiente na conta origem", resultados.get(0).getErro());
+        assertEquals(TransferenciaLoteResultado.Status.SUCESSO, resultados.get(1).getStatus());
+        assertEquals(0, BigDecimal.valueOf(900.00).compareTo(contaA.getSaldo()));
+        assertEquals(0, BigDecimal.valueOf(200.00).compareTo(contaB.getSaldo()));
+    }
+
+    @Test
+    void realizarTransferencias_ComValorInvalido_DeveRecusarApenasOItem() {
+        // Arrange
+        List<TransacaoRequest> itens = Arrays.asList(
+                new TransacaoRequest("111111", "222222", BigDecimal.valueOf(10.00), "Item 1"),
+                new TransacaoRequest("111111", "222222", new BigDecimal("10.005"), "Três casas"),
+                new TransacaoRequest("111111", "222222", new BigDecimal("1e30"), "Fora da faixa"),
+                new TransacaoRequest("222222", "111111", BigDecimal.valueOf(20.00), "Item 4")
+        );
+
+        // Act
+        List<TransferenciaLoteResultado> resultados = transferenciaLoteService.realizarTransferencias(itens);
+
+        // Assert
+        assertEquals(TransferenciaLoteResultado.Status.SUCESSO, resultados.get(0).getStatus());
+        assertEquals(TransferenciaLoteResultado.Status.ERRO, resultados.get(1).getStatus());
+        assertEquals("Valor deve ter no máximo duas casas decimais", resultados.get(1).getErro());
+        assertEquals(TransferenciaLoteResultado.Status.ERRO, resultados.get(2).getStatus());
+        assertEquals("Valor fora do limite permitido", resultados.get(2).getErro());
+        assertEquals(TransferenciaLoteResultado.Status.SUCESSO, resultados.get(3).getStatus());
+        assertEquals(0, BigDecimal.valueOf(1010.00).compareTo(contaA.getSaldo()));
+        assertEquals(0, BigDecimal.valueOf(90.00).compareTo(contaB.getSaldo()));
+        verify(transactionManager, never()).rollback(any());
+    }
+
+    @Test
+    void realizarTransferencias_ComDestinoQuente_DeveCreditarEmSlotSemBloquearODestino() {
+        // Arrange
+        when(saldoFracionadoService.isQuente(contaB.getId())).thenReturn(true);
+        when(contaRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(contaA));
+        when(contaRepository.getReferenceById(contaB.getId())).thenReturn(contaB);
+        List<TransacaoRequest> itens = Arrays.asList(
+                new TransacaoRequest("111111", "222222", BigDecimal.valueOf(10.00), "Item 1"),
+                new TransacaoRequest("111111", "222222", BigDecimal.valueOf(15.50), "Item 2")
+        );
+
+        // Act
+        List<TransferenciaLoteResultado> resultados = transferenciaLoteService.realizarTransferencias(itens);
+
+        // Assert
+        assertTrue(resultados.stream().allMatch(r -> r.getStatus() == TransferenciaLoteResultado.Status.SUCESSO));
+        verify(contaRepository).findAllByIdForUpdate(Set.of(contaA.getId()));
+        verify(saldoFracionadoService).creditar(eq(contaB.getId()), eq(new BigDecimal("25.50")), anyString());
+        assertEquals(0, BigDecimal.valueOf(974.50).compareTo(contaA.getSaldo()));
+        assertEquals(0, BigDecimal.valueOf(100.00).compareTo(contaB.getSaldo()));
+        assertNull(resultados.get(0).getTransacao().getSaldoDestinoApos());
+    }
+
+    @Test
+    void realizarTransferencias_ComBlocos_DeveAplicarCadaBlocoEmSuaTransacao() {
+        // Arrange
+        ReflectionTestUtils.setField(transferenciaLoteService, "tamanhoBloco", 2);
+        List<TransacaoRequest> itens = Collections.nCopies(5,
+                new TransacaoRequest("111111", "222222", BigDecimal.valueOf(10.00), "Bloco"));
+
+        // Act
+        List<TransferenciaLoteResultado> resultados = transferenciaLoteService.realizarTransferencias(itens);
+
+        // Assert
+        assertTrue(resultados.stream().allMatch(r -> r.getStatus() == TransferenciaLoteResultado.Status.SUCESSO));
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+        verify(contaRepository, times(3)).findAllByIdForUpdate(anyCollection());
+    }
+
+    @Test
+    void realizarTransferencias_ComContaBloqueada_DeveFalharOBloco() {
+        // Arrange
+        when(contaRepository.findAllByIdForUpdate(anyCollection()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+        List<TransacaoRequest> itens = Arrays.asList(
+                new TransacaoRequest("111111", "222222", BigDecimal.valueOf(10.00), "Item 1"),
+                new TransacaoRequest("222222", "111111", BigDecimal.valueOf(10.00), "Item 2")
+        );
+
+        // Act
+        List<TransferenciaLoteResultado> resultados = transferenciaLoteService.realizarTransferencias(itens);
+
+        // Assert
+        assertTrue(resultados.stream().allMatch(r -> r.getStatus() == TransferenciaLoteResultado.Status.ERRO));
+        verify(transactionManager).rollback(any());
+        verify(transacaoRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void realizarEmTransacaoUnica_DeveAplicarTodosOsItensEmUmaTransacao() {
+        // Arrange
+        List<TransacaoRequest> itens = Collections.nCopies(3,
+                new TransacaoRequest("111111", "222222", BigDecimal.valueOf(10.00), "Grupo"));
+
+        // Act
+        List<TransferenciaLoteResultado> resultados = transferenciaLoteService.realizarEmTransacaoUnica(itens);
+
+        // Assert
+        assertTrue(resultados.stream().allMatch(r -> r.getStatus() == TransferenciaLoteResultado.Status.SUCESSO));
+        assertTrue(resultados.stream().allMatch(r -> r.getTransacao() != null));
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(0, BigDecimal.valueOf(970.00).compareTo(contaA.getSaldo()));
+    }
+
+    @Test
+    void realizarEmTransacaoUnica_ComDestinoQuente_DeveCreditarEmSlot() {
+        // Arrange
+        when(saldoFracionadoService.isQuente(contaB.getId())).thenReturn(true);
+        when(contaRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(contaA));
+        when(contaRepository.getReferenceById(contaB.getId())).thenReturn(contaB);
+        List<TransacaoRequest> itens = Collections.nCopies(3,
+                new TransacaoRequest("111111", "222222", BigDecimal.valueOf(10.00), "Grupo"));
+
+        // Act
+        List<TransferenciaLoteResultado> resultados = transferenciaLoteService.realizarEmTransacaoUnica(itens);
+
+        // Assert
+        assertTrue(resultados.stream().allMatch(r -> r.getStatus() == TransferenciaLoteResultado.Status.SUCESSO));
+        verify(transactionManager, times(1)).commit(any());
+        verify(contaRepository).findAllByIdForUpdate(Set.of(contaA.getId()));
+        verify(saldoFracionadoService).creditar(eq(contaB.getId()), eq(new BigDecimal("30.00")), anyString());
+        assertEquals(0, BigDecimal.valueOf(970.00).compareTo(contaA.getSaldo()));
+        assertEquals(0, BigDecimal.valueOf(100.00).compareTo(contaB.getSaldo()));
+    }
+
+    @Test
+    void realizarEmTransacaoUnica_ComFalhaNoCommit_DeveRefazerCadaItemSozinho() {
+        // Arrange
+        doThrow(new TransactionSystemException("falha no commit"))
+                .doNothing()
+                .when(transactionManager).commit(any());
+        List<TransacaoRequest> itens = Arrays.asList(
+                new TransacaoRequest("111111", "222222", BigDecimal.valueOf(10.00), "Item 1"),
+                new TransacaoRequest("222222", "111111", BigDecimal.valueOf(20.00), "Item 2")
+        );
+
+        // Act
+        List<TransferenciaLoteResultado> resultados = transferenciaLoteService.realizarEmTransacaoUnica(itens);
+
+        // Assert
+        assertTrue(resultados.stream().allMatch(r -> r.getStatus() == TransferenciaLoteResultado.Status.SUCESSO));
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void realizarTransferencias_ComLoteVazio_DeveLancarExcecao() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            transferenciaLoteService.realizarTransferencias(Collections.emptyList());
+        });
+
+        assertEquals("Lote vazio", exception.getMessage());
+    }
+
+    private Conta novaConta(String numeroConta, BigDecimal saldo) {
+        Conta conta = new Conta();
+        conta.setId(UUID.randomUUID());
+        conta.setNumeroConta(numeroConta);
+        conta.setAgencia("001");
+        conta.setSaldo(saldo);
+        conta.setLimiteCredito(BigDecimal.ZERO);
+        conta.setTipo(Conta.TipoConta.CORRENTE);
+        return conta;
+    }
+
+    private ContaRepository.IdentificacaoConta identificacao(Conta conta) {
+        return new ContaRepository.IdentificacaoConta() {
+            @Override
+            public UUID getId() {
+                return conta.getId();
+            }
+
+            @Override
+            public String getNumeroConta() {
+                return conta.getNumeroConta();
+            }
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package com.bancobr.service;
+
+import com.bancobr.config.CacheConfig;
+import com.bancobr.model.Usuario;
+import com.bancobr.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.cache.CacheMetricsRegistrar;
+import org.springframework.boot.actuate.metrics.cache.CaffeineCacheMeterBinderProvider;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes do cache de UsuarioService (CacheConfig)
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+@SpringJUnitConfig({CacheConfig.class, UsuarioService.class})
+class UsuarioServiceCacheTest {
+
+    @MockBean
+    private UsuarioRepository usuarioRepository;
+
+    @MockBean
+    private LogService logService;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+
+        usuario = new Usuario();
+        usuario.setId(UUID.randomUUID());
+        usuario.setNome("João Silva");
+        usuario.setEmail("joao@email.com");
+        usuario.setAtivo(true);
+    }
+
+    @Test
+    void buscarPorId_ChamadasRepetidas_DeveConsultarOBancoUmaVez() {
+        // Arrange
+        when(usuarioRepository.findById(usuario.getId())).thenReturn(Optional.of(usuario));
+
+        // Act
+        usuarioService.buscarPorId(usuario.getId());
+        Optional<Usuario> resultado = usuarioService.buscarPorId(usuario.getId());
+
+        // Assert
+        assertEquals(usuario.getId(), resultado.orElseThrow().getId());
+        verify(usuarioRepository, times(1)).findById(usuario.getId());
+    }
+
+    @Test
+    void buscarPorEmail_UsuarioInexistente_NaoDeveGuardarAusencia() {
+        // Arrange
+        when(usuarioRepository.findByEmailAndAtivoTrue("novo@email.com")).thenReturn(Optional.empty());
+
+        // Act
+        usuarioService.buscarPorEmail("novo@email.com");
+        Optional<Usuario> resultado = usuarioService.buscarPorEmail("novo@email.com");
+
+        // Assert
+        assertTrue(resultado.isEmpty());
+        verify(usuarioRepository, times(2)).findByEmailAndAtivoTrue("novo@email.com");
+    }
+
+    @Test
+    void alterarStatus_DeveAtualizarPorIdERemoverPorEmail() {
+        // Arrange
+        when(usuarioRepository.findById(usuario.getId())).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.findByEmailAndAtivoTrue(usuario.getEmail())).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(invocacao -> invocacao.getArgument(0));
+        usuarioService.buscarPorEmail(usuario.getEmail());
+
+        // Act
+        usuarioService.alterarStatus(usuario.getId(), false);
+        when(usuarioRepository.findByEmailAndAtivoTrue(usuario.getEmail())).thenReturn(Optional.empty());
+
+        // Assert
+        assertFalse(usuarioService.buscarPorId(usuario.getId()).orElseThrow().getAtivo());
+        assertTrue(usuarioService.buscarPorEmail(usuario.getEmail()).isEmpty());
+        verify(usuarioRepository, times(1)).findById(usuario.getId());
+        verify(usuarioRepository, times(2)).findByEmailAndAtivoTrue(usuario.getEmail());
+    }
+
+    @Test
+    void definirSenhaHash_DeveRemoverPorIdEPorEmail() {
+        // Arrange
+        when(usuarioRepository.findById(usuario.getId())).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.findByEmailAndAtivoTrue(usuario.getEmail())).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(invocacao -> invocacao.getArgument(0));
+        usuarioService.buscarPorId(usuario.getId());
+        usuarioService.buscarPorEmail(usuario.getEmail());
+
+        // Act
+        usuarioService.definirSenhaHash(usuario, "novo-hash");
+
+        // Assert
+        assertNull(cacheManager.getCache(CacheConfig.USUARIOS).get(usuario.getId()));
+        assertNull(cacheManager.getCache(CacheConfig.USUARIOS_EMAIL).get(usuario.getEmail()));
+        assertEquals("novo-hash", usuario.getSenhaHash());
+    }
+
+    @Test
+    void contarAtivos_CriacaoDeUsuario_DeveRecalcular() {
+        // Arrange
+        when(usuarioRepository.countByAtivoTrue()).thenReturn(1L, 2L);
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(invocacao -> invocacao.getArgument(0));
+        Usuario novo = new Usuario();
+        novo.setEmail("maria@email.com");
+        novo.setCpf("98765432100");
+        novo.setSenhaHash("senha");
+
+        // Act
+        assertEquals(1L, usuarioService.contarAtivos());
+        assertEquals(1L, usuarioService.contarAtivos());
+        usuarioService.criarUsuario(novo);
+
+        // Assert
+        assertEquals(2L, usuarioService.contarAtivos());
+        verify(usuarioRepository, times(2)).countByAtivoTrue();
+    }
+
+    @Test
+    void metricas_DevemRegistrarAcertosEFalhas() {
+        // Arrange
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CacheMetricsRegistrar registrar = new CacheMetricsRegistrar(meterRegistry,
+                List.of(new CaffeineCacheMeterBinderProvider()));
+        assertTrue(registrar.bindCacheToRegistry(cacheManager.getCache(CacheConfig.USUARIOS)));
+        when(usuarioRepository.findById(usuario.getId())).thenReturn(Optional.of(usuario));
+        // As estatísticas do cache acumulam entre os testes do mesmo contexto
+        double acertosAntes = leituras(meterRegistry, "hit");
+        double falhasAntes = leituras(meterRegistry, "miss");
+
+        // Act
+        usuarioService.buscarPorId(usuario.getId());
+        usuarioService.buscarPorId(usuario.getId());
+
+        // Assert
+        assertEquals(1.0, leituras(meterRegistry, "hit") - acertosAntes);
+        assertEquals(1.0, leituras(meterRegistry, "miss") - falhasAntes);
+    }
+
+    private static double leituras(MeterRegistry meterRegistry, String resultado) {
+        return meterRegistry.get("cache.gets").tags("cache", CacheConfig.USUARIOS, "result", resultado)
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,134 @@
+package com.bancobr.service;
+
+import com.bancobr.evento.TransacaoGravadaEvento;
+import com.bancobr.model.Transacao;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para VolumeTransacoesService
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+class VolumeTransacoesServiceTest {
+
+    /** 2026-01-29 15:30 UTC, em minutos desde a época */
+    private static final long AGORA = 29_495_010L;
+
+    private final VolumeTransacoesService volumeTransacoesService = new VolumeTransacoesService();
+
+    @Test
+    void porMinuto_DeveSepararPorMinutoETipo() {
+        // Arrange
+        volumeTransacoesService.registrar(Transacao.TipoTransacao.DEPOSITO, 10_000, AGORA);
+        volumeTransacoesService.registrar(Transacao.TipoTransacao.DEPOSITO, 2_550, AGORA);
+        volumeTransacoesService.registrar(Transacao.TipoTransacao.SAQUE, 500, AGORA - 1);
+
+        // Act
+        List<Map<String, Object>> resultado = volumeTransacoesService.porMinuto(AGORA);
+
+        // Assert
+        assertEquals(VolumeTransacoesService.MINUTOS_EXIBIDOS, resultado.size());
+        Map<String, Object> atual = resultado.get(resultado.size() - 1);
+        assertEquals(2L, volume(atual, "DEPOSITO").get("quantidade"));
+        assertEquals(new BigDecimal("125.50"), volume(atual, "DEPOSITO").get("valor"));
+        assertEquals(0L, volume(atual, "SAQUE").get("quantidade"));
+        Map<String, Object> anterior = resultado.get(resultado.size() - 2);
+        assertEquals(1L, volume(anterior, "SAQUE").get("quantidade"));
+        assertEquals(1L, volume(anterior, "total").get("quantidade"));
+    }
+
+    @Test
+    void porHora_DeveSomarOsMinutosDaHora() {
+        // Arrange
+        long inicioDaHora = AGORA - 30;
+        volumeTransacoesService.registrar(Transacao.TipoTransacao.TRANSFERENCIA, 100, inicioDaHora);
+        volumeTransacoesService.registrar(Transacao.TipoTransacao.TRANSFERENCIA, 200, AGORA);
+        volumeTransacoesService.registrar(Transacao.TipoTransacao.TRANSFERENCIA, 400, inicioDaHora - 1);
+        volumeTransacoesService.registrar(Transacao.TipoTransacao.SAQUE, 800, inicioDaHora - 23 * 60);
+
+        // Act
+        List<Map<String, Object>> resultado = volumeTransacoesService.porHora(AGORA);
+
+        // Assert
+        assertEquals(24, resultado.size());
+        assertEquals(new BigDecimal("3.00"), volume(resultado.get(23), "TRANSFERENCIA").get("valor"));
+        assertEquals(new BigDecimal("4.00"), volume(resultado.get(22), "TRANSFERENCIA").get("valor"));
+        assertEquals(new BigDecimal("8.00"), volume(resultado.get(0), "SAQUE").get("valor"));
+    }
+
+    @Test
+    void registrar_MinutoReaproveitado_DeveDescartarOValorAntigo() {
+        // Arrange
+        long minutoAntigo = AGORA - VolumeTransacoesService.POSICOES;
+        volumeTransacoesService.registrar(Transacao.TipoTransacao.DEPOSITO, 10_000, minutoAntigo);
+
+        // Act
+        volumeTransacoesService.registrar(Transacao.TipoTransacao.DEPOSITO, 100, AGORA);
+        volumeTransacoesService.registrar(Transacao.TipoTransacao.DEPOSITO, 10_000, minutoAntigo);
+
+        // Assert
+        Map<String, Object> atual = volumeTransacoesService.porMinuto(AGORA).get(VolumeTransacoesService.MINUTOS_EXIBIDOS - 1);
+        assertEquals(1L, volume(atual, "DEPOSITO").get("quantidade"));
+        assertEquals(new BigDecimal("1.00"), volume(atual, "DEPOSITO").get("valor"));
+    }
+
+    @Test
+    void aoGravarTransacao_DeveSomarAoMinutoAtual() {
+        // Arrange
+        Transacao transacao = new Transacao(null, null, Transacao.TipoTransacao.DEPOSITO, new BigDecimal("10.00"), "Teste");
+
+        // Act
+        volumeTransacoesService.aoGravarTransacao(TransacaoGravadaEvento.de(transacao));
+
+        // Assert
+        assertEquals(1L, totalDaUltimaHora());
+    }
+
+    @Test
+    void registrar_Concorrente_NaoDevePerderTransacoes() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> tarefas = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    volumeTransacoesService.registrar(Transacao.TipoTransacao.SAQUE, 1, AGORA + i % 3);
+                }
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        long total = 0;
+        for (Map<String, Object> minuto : volumeTransacoesService.porMinuto(AGORA + 2)) {
+            total += (Long) volume(minuto, "SAQUE").get("quantidade");
+        }
+        assertEquals(80_000L, total);
+    }
+
+    private long totalDaUltimaHora() {
+        List<Map<String, Object>> horas = volumeTransacoesService.porHora();
+        return (Long) volume(horas.get(horas.size() - 1), "total").get("quantidade");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> volume(Map<String, Object> intervalo, String tipo) {
+        return (Map<String, Object>) intervalo.get(tipo);
+    }
+}
@@ -0,0 +1,97 @@
+package com.bancobr.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para EventoLog
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+class EventoLogTest {
+
+    private Logger logger;
+    private ListAppender<ILoggingEvent> eventos;
+
+    @BeforeEach
+    void setUp() {
+        logger = (Logger) LoggerFactory.getLogger("bancobr.eventos.teste");
+        eventos = new ListAppender<>();
+        eventos.start();
+        logger.addAppender(eventos);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(eventos);
+        logger.setLevel(null);
+    }
+
+    @Test
+    void registrar_ComAmostragem_DeveRegistrarUmaACadaN() {
+        // Arrange
+        logger.setLevel(Level.DEBUG);
+        EventoLog evento = EventoLog.debug("teste", "evento.amostrado").amostrado(10);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            evento.registrar().addKeyValue("indice", i).log();
+        }
+
+        // Assert
+        assertEquals(10, eventos.list.size());
+        assertEquals("evento.amostrado", eventos.list.get(0).getMessage());
+        assertTrue(eventos.list.get(0).getKeyValuePairs().stream()
+                .anyMatch(par -> par.key.equals("amostragem") && par.value.equals(10)));
+    }
+
+    @Test
+    void registrar_ComCategoriaEmTrace_DeveIgnorarAmostragem() {
+        // Arrange
+        logger.setLevel(Level.TRACE);
+        EventoLog evento = EventoLog.debug("teste", "evento.amostrado").amostrado(10);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            evento.registrar().log();
+        }
+
+        // Assert
+        assertEquals(20, eventos.list.size());
+    }
+
+    @Test
+    void registrar_ComNivelDesligado_NaoDeveMontarOsDados() {
+        // Arrange
+        logger.setLevel(Level.INFO);
+        EventoLog evento = EventoLog.debug("teste", "evento.debug");
+
+        // Act
+        evento.registrar().addKeyValue("dado", () -> fail("Dado montado com o nível desligado")).log();
+
+        // Assert
+        assertTrue(eventos.list.isEmpty());
+    }
+
+    @Test
+    void resumoEmail_DeveSerEstavelSemExporOEmail() {
+        // Act
+        String resumo = EventoLog.resumoEmail("Cliente@Email.com ");
+
+        // Assert
+        assertEquals(12, resumo.length());
+        assertEquals(resumo, EventoLog.resumoEmail("cliente@email.com"));
+        assertNotEquals(resumo, EventoLog.resumoEmail("outro@email.com"));
+        assertFalse(resumo.contains("cliente"));
+        assertNull(EventoLog.resumoEmail(null));
+    }
+}
@@ -0,0 +1,33 @@
+package com.bancobr.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para RelogioTransacoes
+ *
+ * @author Sistema Bancário
+ * @version 1.0.0
+ */
+class RelogioTransacoesTest {
+
+    @Test
+    void agora_ChamadasSeguidas_DeveSerEstritamenteCrescenteEmMicrossegundos() {
+        // Arrange
+        LocalDateTime inicio = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime anterior = RelogioTransacoes.agora();
+
+        // Act & Assert
+        assertFalse(anterior.isBefore(inicio));
+        for (int i = 0; i < 10_000; i++) {
+            LocalDateTime atual = RelogioTransacoes.agora();
+            assertTrue(atual.isAfter(anterior));
+            assertEquals(0, atual.getNano() % 1000);
+            anterior = atual;
+        }
+    }
+}
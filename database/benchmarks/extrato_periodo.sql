@@ -0,0 +1,67 @@
+-- =====================================================
+-- BENCHMARK - EXTRATO POR PERÍODO (10 MILHÕES DE TRANSAÇÕES)
+-- =====================================================
+--
+-- Compara a consulta antiga (todas as transações da conta, filtradas depois) com a
+-- consulta por período usada em TransacaoRepository.findExtratoPorPeriodo.
+--
+-- Rodar num banco descartável, já criado com schema.sql:
+--   createdb bancobr_bench
+--   psql -d bancobr_bench -f database/schema.sql
+--   psql -d bancobr_bench -f database/benchmarks/extrato_periodo.sql
+--
+-- A carga leva alguns minutos. Comparar nos planos o tempo de execução e os
+-- "Buffers: shared hit/read": a consulta por período deve ler só as páginas do mês.
+
+\timing on
+
+-- 1.000 usuários e 10.000 contas
+INSERT INTO usuarios (nome, email, senha_hash, cpf, tipo)
+SELECT 'Usuário ' || i, 'bench' || i || '@bancobr.com', 'x', lpad(i::text, 11, '0'), 'CLIENTE'
+FROM generate_series(1, 1000) AS i;
+
+INSERT INTO contas (usuario_id, agencia, numero_conta, tipo, saldo)
+SELECT u.id, '0001', 'B' || lpad(c::text, 8, '0'), 'CORRENTE', 1000000
+FROM generate_series(1, 10000) AS c
+JOIN (SELECT id, row_number() OVER () AS n FROM usuarios) u ON u.n = 1 + c % 1000;
+
+-- 10 milhões de transações em dois anos, origem e destino aleatórios
+CREATE TEMP TABLE contas_bench AS
+SELECT id, row_number() OVER () AS n FROM contas;
+CREATE UNIQUE INDEX ON contas_bench(n);
+
+INSERT INTO transacoes (conta_origem, conta_destino, tipo, valor, realizada_em, descricao)
+SELECT o.id, d.id, 'TRANSFERENCIA', 1 + (i % 500), t.realizada_em, 'Carga de benchmark'
+FROM generate_series(1, 10000000) AS i
+CROSS JOIN LATERAL (SELECT 1 + (i * 7919) % 10000 AS n_origem,
+                           1 + (i * 104729 + 1) % 10000 AS n_destino,
+                           TIMESTAMP '2023-01-01' + (random() * INTERVAL '730 days') AS realizada_em) t
+JOIN contas_bench o ON o.n = t.n_origem
+JOIN contas_bench d ON d.n = CASE WHEN t.n_destino = t.n_origem THEN 1 + t.n_destino % 10000 ELSE t.n_destino END;
+
+VACUUM ANALYZE transacoes;
+
+-- Conta com volume típico (cerca de 2.000 transações, ~80 por mês)
+SELECT id AS conta_bench FROM contas_bench WHERE n = 4242 \gset
+
+-- Antes: todas as transações da conta, o período era ignorado
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT t.* FROM transacoes t
+WHERE t.conta_origem = :'conta_bench' OR t.conta_destino = :'conta_bench';
+
+-- OR com o período: o planejador tende a BitmapOr e ordenação de todo o resultado
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT t.* FROM transacoes t
+WHERE (t.conta_origem = :'conta_bench' OR t.conta_destino = :'conta_bench')
+  AND t.realizada_em BETWEEN '2024-03-01' AND '2024-03-31 23:59:59.999999'
+ORDER BY t.realizada_em DESC, t.id DESC;
+
+-- Depois: findExtratoPorPeriodo, um intervalo de índice por lado
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT x.* FROM (
+    SELECT t.* FROM transacoes t WHERE t.conta_origem = :'conta_bench'
+      AND t.realizada_em BETWEEN '2024-03-01' AND '2024-03-31 23:59:59.999999'
+    UNION ALL
+    SELECT t.* FROM transacoes t WHERE t.conta_destino = :'conta_bench'
+      AND t.realizada_em BETWEEN '2024-03-01' AND '2024-03-31 23:59:59.999999'
+) x ORDER BY x.realizada_em DESC, x.id DESC;
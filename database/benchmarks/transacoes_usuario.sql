@@ -0,0 +1,115 @@
+-- =====================================================
+-- BENCHMARK - TRANSAÇÕES POR USUÁRIO (10 MILHÕES DE TRANSAÇÕES)
+-- =====================================================
+--
+-- Compara as consultas antigas por usuário (JOIN com contas dos dois lados e OR) com as
+-- consultas de TransacaoRepository sobre usuario_origem / usuario_destino:
+-- findByUsuarioId, countByUsuarioId e sumValorByUsuarioId. Mede também o custo do
+-- trigger trg_transacoes_usuarios na gravação.
+--
+-- Rodar num banco descartável, já criado com schema.sql:
+--   createdb bancobr_bench
+--   psql -d bancobr_bench -f database/schema.sql
+--   psql -d bancobr_bench -f database/benchmarks/transacoes_usuario.sql
+--
+-- A carga leva alguns minutos. Comparar o tempo de execução (\timing) e os
+-- "Buffers: shared hit/read" de cada par antes/depois.
+
+\timing on
+
+-- 10.000 usuários com 2 contas cada
+INSERT INTO usuarios (nome, email, senha_hash, cpf, tipo)
+SELECT 'Usuário ' || i, 'bench' || i || '@bancobr.com', 'x', lpad(i::text, 11, '0'), 'CLIENTE'
+FROM generate_series(1, 10000) AS i;
+
+INSERT INTO contas (usuario_id, agencia, numero_conta, tipo, saldo)
+SELECT u.id, '0001', 'B' || lpad(c::text, 8, '0'), 'CORRENTE', 1000000
+FROM generate_series(1, 20000) AS c
+JOIN (SELECT id, row_number() OVER () AS n FROM usuarios) u ON u.n = 1 + c % 10000;
+
+CREATE TEMP TABLE contas_bench AS
+SELECT id, row_number() OVER () AS n FROM contas;
+CREATE UNIQUE INDEX ON contas_bench(n);
+
+-- 10 milhões de transações em dois anos: 80% transferências, 10% depósitos, 10% saques
+-- (cerca de 1.000 por usuário). O trigger preenche usuario_origem / usuario_destino.
+INSERT INTO transacoes (conta_origem, conta_destino, tipo, valor, realizada_em, descricao)
+SELECT CASE WHEN i % 10 = 0 THEN NULL ELSE o.id END,
+       CASE WHEN i % 10 = 1 THEN NULL ELSE d.id END,
+       CASE i % 10 WHEN 0 THEN 'DEPOSITO' WHEN 1 THEN 'SAQUE' ELSE 'TRANSFERENCIA' END,
+       1 + (i % 500), t.realizada_em, 'Carga de benchmark'
+FROM generate_series(1, 10000000) AS i
+CROSS JOIN LATERAL (SELECT 1 + (i * 7919) % 20000 AS n_origem,
+                           1 + (i * 104729 + 1) % 20000 AS n_destino,
+                           TIMESTAMP '2023-01-01' + (random() * INTERVAL '730 days') AS realizada_em) t
+JOIN contas_bench o ON o.n = t.n_origem
+JOIN contas_bench d ON d.n = CASE WHEN t.n_destino = t.n_origem THEN 1 + t.n_destino % 20000 ELSE t.n_destino END;
+
+VACUUM ANALYZE transacoes;
+
+SELECT id AS usuario_bench FROM usuarios ORDER BY email LIMIT 1 OFFSET 4242 \gset
+
+-- ---------------------------------------------------
+-- Antes: SQL gerado pelo Hibernate para as consultas JPQL antigas
+-- (t.contaOrigem.usuario.id vira JOIN com contas; depósitos e saques ficavam de fora)
+-- ---------------------------------------------------
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT t.* FROM transacoes t
+JOIN contas co ON co.id = t.conta_origem
+JOIN contas cd ON cd.id = t.conta_destino
+WHERE co.usuario_id = :'usuario_bench' OR cd.usuario_id = :'usuario_bench';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(t.id) FROM transacoes t
+JOIN contas co ON co.id = t.conta_origem
+JOIN contas cd ON cd.id = t.conta_destino
+WHERE co.usuario_id = :'usuario_bench' OR cd.usuario_id = :'usuario_bench';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT SUM(t.valor) FROM transacoes t
+JOIN contas co ON co.id = t.conta_origem
+JOIN contas cd ON cd.id = t.conta_destino
+WHERE co.usuario_id = :'usuario_bench' OR cd.usuario_id = :'usuario_bench';
+
+-- ---------------------------------------------------
+-- Depois: consultas atuais de TransacaoRepository
+-- ---------------------------------------------------
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT t.* FROM transacoes t WHERE t.usuario_origem = :'usuario_bench'
+UNION ALL
+SELECT t.* FROM transacoes t WHERE t.usuario_destino = :'usuario_bench'
+  AND t.usuario_origem IS DISTINCT FROM :'usuario_bench';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT (SELECT COUNT(*) FROM transacoes t WHERE t.usuario_origem = :'usuario_bench') +
+       (SELECT COUNT(*) FROM transacoes t WHERE t.usuario_destino = :'usuario_bench'
+          AND t.usuario_origem IS DISTINCT FROM :'usuario_bench');
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT SUM(x.valor) FROM (
+    SELECT t.valor FROM transacoes t WHERE t.usuario_origem = :'usuario_bench'
+    UNION ALL
+    SELECT t.valor FROM transacoes t WHERE t.usuario_destino = :'usuario_bench'
+      AND t.usuario_origem IS DISTINCT FROM :'usuario_bench'
+) x;
+
+-- ---------------------------------------------------
+-- Custo do trigger na gravação: 100.000 transferências com e sem o trigger
+-- ---------------------------------------------------
+BEGIN;
+INSERT INTO transacoes (conta_origem, conta_destino, tipo, valor, descricao)
+SELECT o.id, d.id, 'TRANSFERENCIA', 1, 'Gravação com trigger'
+FROM generate_series(1, 100000) AS i
+JOIN contas_bench o ON o.n = 1 + i % 20000
+JOIN contas_bench d ON d.n = 1 + (i + 1) % 20000;
+ROLLBACK;
+
+ALTER TABLE transacoes DISABLE TRIGGER trg_transacoes_usuarios;
+BEGIN;
+INSERT INTO transacoes (conta_origem, conta_destino, tipo, valor, descricao)
+SELECT o.id, d.id, 'TRANSFERENCIA', 1, 'Gravação sem trigger'
+FROM generate_series(1, 100000) AS i
+JOIN contas_bench o ON o.n = 1 + i % 20000
+JOIN contas_bench d ON d.n = 1 + (i + 1) % 20000;
+ROLLBACK;
+ALTER TABLE transacoes ENABLE TRIGGER trg_transacoes_usuarios;
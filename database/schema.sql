@@ -4,6 +4,13 @@
 
 -- Extensões necessárias
 CREATE EXTENSION IF NOT EXISTS "pgcrypto";
+CREATE EXTENSION IF NOT EXISTS "unaccent";
+
+-- unaccent com dicionário fixo, imutável para uso em coluna gerada e índice
+CREATE OR REPLACE FUNCTION sem_acentos(texto TEXT)
+RETURNS TEXT AS $$
+    SELECT public.unaccent('public.unaccent'::regdictionary, texto)
+$$ LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT;
 
 -- Tipos enumerados
 CREATE TYPE tipo_usuario AS ENUM ('ADMIN', 'CLIENTE');
@@ -30,9 +37,23 @@ CREATE TABLE contas (
     tipo tipo_conta NOT NULL,
     saldo NUMERIC(15,2) DEFAULT 0,
     limite_credito NUMERIC(15,2) DEFAULT 0,
+    quente BOOLEAN NOT NULL DEFAULT FALSE,
+    -- Última alteração de saldo sem transação (crédito, débito ou saldo definido pelo
+    -- ADMIN): o preenchimento do saldo após não volta além dela
+    saldo_ajustado_em TIMESTAMP,
     criada_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Sub-saldos de contas quentes (alto volume de créditos): o saldo da conta é
+-- contas.saldo + soma dos slots. Créditos vão para um slot aleatório e débitos
+-- consolidam os slots em contas.saldo quando necessário.
+CREATE TABLE conta_saldo_slots (
+    conta_id UUID NOT NULL REFERENCES contas(id) ON DELETE CASCADE,
+    slot SMALLINT NOT NULL,
+    saldo NUMERIC(15,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (conta_id, slot)
+);
+
 -- Tabela de transações
 CREATE TABLE transacoes (
     id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
@@ -41,7 +62,40 @@ CREATE TABLE transacoes (
     tipo VARCHAR(20) NOT NULL CHECK (tipo IN ('DEPOSITO', 'SAQUE', 'TRANSFERENCIA')),
     valor NUMERIC(15,2) NOT NULL,
     realizada_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    descricao TEXT
+    descricao TEXT,
+    -- Saldo de cada conta logo após a transação, gravado junto com ela (nulo para conta
+    -- quente; as linhas anteriores à coluna são preenchidas em POST /transacoes/saldo-apos/preenchimento)
+    saldo_origem_apos NUMERIC(15,2),
+    saldo_destino_apos NUMERIC(15,2),
+    -- Donos das contas de origem e destino (contas.usuario_id), gravados pela aplicação;
+    -- trg_transacoes_usuarios preenche os que chegarem nulos: consultas por usuário sem juntar com contas
+    usuario_origem UUID,
+    usuario_destino UUID,
+    -- Descrição indexada para busca textual (GET /transacoes/busca), em português e sem acentos
+    busca TSVECTOR GENERATED ALWAYS AS (to_tsvector('portuguese', sem_acentos(COALESCE(descricao, '')))) STORED
+);
+
+-- Saldo de cada conta ao fim do dia, gravado pela rotina noturna (SaldoDiarioService).
+-- O saldo em uma data parte do snapshot mais recente e soma o movimento dos dias seguintes.
+CREATE TABLE saldos_diarios (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    conta_id UUID NOT NULL REFERENCES contas(id) ON DELETE CASCADE,
+    data DATE NOT NULL,
+    saldo NUMERIC(15,2) NOT NULL,
+    gerado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (conta_id, data)
+);
+
+-- Saldo somado e quantidade de contas por agência e tipo, mantidos em memória por
+-- AgregadoSaldoService e gravados aqui periodicamente para a retomada após reinício
+CREATE TABLE agregados_saldo (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    agencia VARCHAR(10) NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    saldo NUMERIC(18,2) NOT NULL,
+    contas BIGINT NOT NULL,
+    atualizado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (agencia, tipo)
 );
 
 -- Tabela de logs de auditoria
@@ -54,6 +108,39 @@ CREATE TABLE logs (
     timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Chaves de idempotência (header Idempotency-Key) de transferências, depósitos e saques.
+-- A linha é gravada na mesma transação da operação, com a resposta devolvida ao cliente;
+-- uma chave expirada é reaproveitada pela próxima requisição que a usar.
+CREATE TABLE idempotencia_chaves (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    usuario VARCHAR(255) NOT NULL,
+    chave VARCHAR(255) NOT NULL,
+    operacao VARCHAR(30) NOT NULL,
+    hash_requisicao VARCHAR(64) NOT NULL,
+    status_http INTEGER,
+    resposta TEXT,
+    criada_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (usuario, chave)
+);
+
+-- Transferências assíncronas (POST /transacoes/transferencia?async=true), gravadas ao serem
+-- aceitas. Os workers reservam a próxima PENDENTE com FOR UPDATE SKIP LOCKED; só a execução
+-- com a reserva atual conclui a linha, na mesma transação da transferência.
+CREATE TABLE transferencias_pendentes (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    usuario VARCHAR(255) NOT NULL,
+    conta_origem VARCHAR(20) NOT NULL,
+    conta_destino VARCHAR(20) NOT NULL,
+    valor NUMERIC(15,2) NOT NULL,
+    descricao TEXT,
+    estado VARCHAR(20) NOT NULL CHECK (estado IN ('PENDENTE', 'PROCESSANDO', 'CONCLUIDA', 'FALHOU')),
+    reserva UUID,
+    transacao_id UUID,
+    erro TEXT,
+    criada_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    atualizada_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Índices para performance
 CREATE INDEX idx_usuarios_email ON usuarios(email);
 CREATE INDEX idx_usuarios_cpf ON usuarios(cpf);
@@ -64,11 +151,22 @@ CREATE INDEX idx_contas_usuario_id ON contas(usuario_id);
 CREATE INDEX idx_contas_numero_conta ON contas(numero_conta);
 CREATE INDEX idx_contas_agencia ON contas(agencia);
 
-CREATE INDEX idx_transacoes_conta_origem ON transacoes(conta_origem);
-CREATE INDEX idx_transacoes_conta_destino ON transacoes(conta_destino);
+-- Extrato paginado por cursor e extrato por período: (conta, realizada_em, id) na ordem
+-- da página; o período vira um intervalo do índice em cada lado do UNION ALL
+CREATE INDEX idx_transacoes_conta_origem ON transacoes(conta_origem, realizada_em DESC, id DESC);
+CREATE INDEX idx_transacoes_conta_destino ON transacoes(conta_destino, realizada_em DESC, id DESC);
+-- Consultas por usuário (findByUsuarioId, countByUsuarioId, sumValorByUsuarioId): um
+-- intervalo de índice por lado do UNION ALL, na mesma ordem do extrato
+CREATE INDEX idx_transacoes_usuario_origem ON transacoes(usuario_origem, realizada_em DESC, id DESC);
+CREATE INDEX idx_transacoes_usuario_destino ON transacoes(usuario_destino, realizada_em DESC, id DESC);
 CREATE INDEX idx_transacoes_tipo ON transacoes(tipo);
+CREATE INDEX idx_transacoes_busca ON transacoes USING GIN (busca);
 CREATE INDEX idx_transacoes_realizada_em ON transacoes(realizada_em);
 
+-- Fila das transferências assíncronas (só as pendentes) e limpeza/recuperação por estado
+CREATE INDEX idx_transferencias_pendentes_fila ON transferencias_pendentes(criada_em) WHERE estado = 'PENDENTE';
+CREATE INDEX idx_transferencias_pendentes_estado ON transferencias_pendentes(estado, atualizada_em);
+
 CREATE INDEX idx_logs_usuario_id ON logs(usuario_id);
 CREATE INDEX idx_logs_timestamp ON logs(timestamp);
 CREATE INDEX idx_logs_tabela_afetada ON logs(tabela_afetada);
@@ -76,11 +174,82 @@ CREATE INDEX idx_logs_tabela_afetada ON logs(tabela_afetada);
 -- Constraints adicionais
 ALTER TABLE contas ADD CONSTRAINT chk_saldo_positivo CHECK (saldo >= 0);
 ALTER TABLE contas ADD CONSTRAINT chk_limite_credito_positivo CHECK (limite_credito >= 0);
+ALTER TABLE conta_saldo_slots ADD CONSTRAINT chk_slot_saldo_positivo CHECK (saldo >= 0);
 ALTER TABLE transacoes ADD CONSTRAINT chk_valor_positivo CHECK (valor > 0);
 ALTER TABLE transacoes ADD CONSTRAINT chk_conta_origem_destino_diferentes CHECK (conta_origem != conta_destino);
 
+-- Donos das contas gravados na transação (usuario_origem / usuario_destino). A aplicação
+-- os grava (contas já carregadas e lotes do ledger); o trigger só consulta contas para os
+-- que chegarem nulos (UPDATEs atômicos, SQL direto) ou quando a conta da transação muda.
+-- São atualizados se a conta mudar de dono.
+CREATE OR REPLACE FUNCTION transacoes_preencher_usuarios()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.usuario_origem IS NULL OR (TG_OP = 'UPDATE' AND NEW.conta_origem IS DISTINCT FROM OLD.conta_origem) THEN
+        NEW.usuario_origem := (SELECT c.usuario_id FROM contas c WHERE c.id = NEW.conta_origem);
+    END IF;
+    IF NEW.usuario_destino IS NULL OR (TG_OP = 'UPDATE' AND NEW.conta_destino IS DISTINCT FROM OLD.conta_destino) THEN
+        NEW.usuario_destino := (SELECT c.usuario_id FROM contas c WHERE c.id = NEW.conta_destino);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_transacoes_usuarios
+BEFORE INSERT OR UPDATE OF conta_origem, conta_destino ON transacoes
+FOR EACH ROW
+EXECUTE FUNCTION transacoes_preencher_usuarios();
+
+CREATE OR REPLACE FUNCTION contas_propagar_usuario()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE transacoes SET usuario_origem = NEW.usuario_id WHERE conta_origem = NEW.id;
+    UPDATE transacoes SET usuario_destino = NEW.usuario_id WHERE conta_destino = NEW.id;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_contas_usuario
+AFTER UPDATE OF usuario_id ON contas
+FOR EACH ROW
+WHEN (OLD.usuario_id IS DISTINCT FROM NEW.usuario_id)
+EXECUTE FUNCTION contas_propagar_usuario();
+
+-- Preenchimento de usuario_origem / usuario_destino nas transações gravadas antes das
+-- colunas. Percorre transacoes em ordem de ID, em lotes com COMMIT a cada lote (locks e
+-- WAL limitados ao lote, sem reescrever a tabela em uma única transação). Pode ser
+-- interrompido e executado de novo; executar fora de um bloco de transação:
+--   CALL transacoes_preencher_usuarios_lotes(10000);
+CREATE OR REPLACE PROCEDURE transacoes_preencher_usuarios_lotes(tamanho_lote INT DEFAULT 10000)
+LANGUAGE plpgsql AS $$
+DECLARE
+    ultimo UUID := '00000000-0000-0000-0000-000000000000';
+    lote UUID[];
+BEGIN
+    LOOP
+        SELECT array_agg(id ORDER BY id) INTO lote
+        FROM (SELECT id FROM transacoes WHERE id > ultimo ORDER BY id LIMIT tamanho_lote) proximas;
+        EXIT WHEN lote IS NULL;
+
+        UPDATE transacoes t
+        SET usuario_origem = COALESCE(t.usuario_origem, (SELECT c.usuario_id FROM contas c WHERE c.id = t.conta_origem)),
+            usuario_destino = COALESCE(t.usuario_destino, (SELECT c.usuario_id FROM contas c WHERE c.id = t.conta_destino))
+        WHERE t.id = ANY(lote)
+          AND ((t.usuario_origem IS NULL AND t.conta_origem IS NOT NULL)
+               OR (t.usuario_destino IS NULL AND t.conta_destino IS NOT NULL));
+
+        ultimo := lote[array_length(lote, 1)];
+        COMMIT;
+    END LOOP;
+END;
+$$;
+
 -- Comentários para documentação
 COMMENT ON TABLE usuarios IS 'Tabela de usuários do sistema bancário';
 COMMENT ON TABLE contas IS 'Tabela de contas bancárias';
 COMMENT ON TABLE transacoes IS 'Tabela de transações financeiras';
-COMMENT ON TABLE logs IS 'Tabela de logs de auditoria'; 
\ No newline at end of file
+COMMENT ON TABLE logs IS 'Tabela de logs de auditoria';
+COMMENT ON TABLE idempotencia_chaves IS 'Respostas de operações financeiras por chave de idempotência';
+COMMENT ON TABLE transferencias_pendentes IS 'Transferências assíncronas aceitas e sua situação';
+COMMENT ON TABLE saldos_diarios IS 'Saldo das contas ao fim de cada dia';
+COMMENT ON TABLE agregados_saldo IS 'Saldo e quantidade de contas por agência e tipo'; 
\ No newline at end of file